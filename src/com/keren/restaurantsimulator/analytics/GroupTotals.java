@@ -0,0 +1,62 @@
+package com.keren.restaurantsimulator.analytics;
+
+import java.util.Arrays;
+
+/**
+ * GroupTotals is the answer of a SalesLedger group-by report: one total per
+ * key (dish id or table number) that has at least one line, keys ascending.
+ *
+ * Only keys that were actually sold are listed, so a dish id of 1,000,000 or
+ * a negative table number costs one entry, not an array that long.
+ */
+public final class GroupTotals {
+
+    private final int[] keys;
+    private final long[] totals;
+
+    // keys must be distinct; they are sorted here, totals along with them
+    GroupTotals(int[] keys, long[] totals) {
+        int n = keys.length;
+        long[] packed = new long[n];
+        for (int i = 0; i < n; i++) {
+            // key above, position below: sorting the longs sorts by key
+            packed[i] = (long) keys[i] << 32 | i;
+        }
+        Arrays.sort(packed);
+        this.keys = new int[n];
+        this.totals = new long[n];
+        for (int i = 0; i < n; i++) {
+            int from = (int) packed[i];
+            this.keys[i] = keys[from];
+            this.totals[i] = totals[from];
+        }
+    }
+
+    // Number of keys.
+    public int size() {
+        return keys.length;
+    }
+
+    public int keyAt(int i) {
+        return keys[i];
+    }
+
+    public long totalAt(int i) {
+        return totals[i];
+    }
+
+    // The total for a key, 0 if it has no lines.
+    public long get(int key) {
+        int i = Arrays.binarySearch(keys, key);
+        return i < 0 ? 0 : totals[i];
+    }
+
+    // Sum over all keys.
+    public long sum() {
+        long sum = 0;
+        for (long total : totals) {
+            sum += total;
+        }
+        return sum;
+    }
+}
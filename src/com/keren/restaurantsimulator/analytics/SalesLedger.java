@@ -0,0 +1,294 @@
+package com.keren.restaurantsimulator.analytics;
+
+import com.keren.restaurantsimulator.model.Money;
+import com.keren.restaurantsimulator.model.Order;
+import com.keren.restaurantsimulator.model.OrderItem;
+import com.keren.restaurantsimulator.util.IntIntMap;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * SalesLedger keeps every line of every paid order in columns of primitive
+ * arrays: dish, quantity, unit price (minor units), table and close time.
+ *
+ * Dish ids and table numbers are dictionary-encoded: the columns hold codes
+ * 0, 1, 2... in the order the keys were first seen. A group-by report sums
+ * into one slot per key that was sold and maps the codes back, so its cost
+ * does not depend on how large (or negative) the ids are.
+ *
+ * Reports (revenue per dish, dishes per hour, revenue per table, average
+ * check) are sums over those columns. Nothing walks Order / OrderItem / Dish
+ * objects, and a report over tens of millions of lines is a few tight loops.
+ *
+ * Columns are stored in fixed-size blocks, so appending never copies old
+ * data, and big reports split the blocks over a parallel stream (common
+ * ForkJoinPool) and add up the per-thread partial sums.
+ *
+ * Appends are synchronized. A report works on the blocks that existed when
+ * it started; lines never change once written, so it needs no lock while
+ * summing and does not block appends.
+ */
+public class SalesLedger {
+
+    private static final int BLOCK_SHIFT = 14;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT; // 16k lines, ~450 KB per block
+    private static final int PARALLEL_MIN_BLOCKS = 16;
+
+    private static final class Block {
+        final int[] dishCodes = new int[BLOCK_SIZE];
+        final int[] quantities = new int[BLOCK_SIZE];
+        final long[] unitPricesMinor = new long[BLOCK_SIZE];
+        final int[] tableCodes = new int[BLOCK_SIZE];
+        final long[] closedAtMillis = new long[BLOCK_SIZE];
+    }
+
+    // Codes of one key column: id -> code in first-seen order, and code -> id.
+    private static final class Dictionary {
+        private final IntIntMap codeById = new IntIntMap();
+        private int[] ids = new int[16]; // only ever appended to, so a report can keep reading an old one
+
+        int encode(int id) {
+            int code = codeById.getOrDefault(id, -1);
+            if (code < 0) {
+                code = codeById.size();
+                if (code == ids.length) {
+                    ids = Arrays.copyOf(ids, code * 2);
+                }
+                ids[code] = id;
+                codeById.put(id, code);
+            }
+            return code;
+        }
+
+        int size() {
+            return codeById.size();
+        }
+    }
+
+    // What a report reads: the blocks, line count and key codes at the moment it started
+    private record View(Block[] blocks, int lines, int[] dishIds, int dishes, int[] tableNumbers, int tables) {
+        int linesIn(int block) {
+            return Math.min(BLOCK_SIZE, lines - (block << BLOCK_SHIFT));
+        }
+    }
+
+    private Block[] blocks = new Block[4];
+    private int lines;
+    private int checks;
+    private long grossMinor;
+    private final Dictionary dishes = new Dictionary();
+    private final Dictionary tables = new Dictionary();
+
+    /**
+     * Appends the lines of a paid order, stamped with the time it closed
+     * (OrderService passes the same time to the archive and the journal).
+     */
+    public synchronized void record(Order order, long closedAtMillis) {
+        if (order == null) {
+            throw new IllegalArgumentException("order cannot be null");
+        }
+        if (order.isEmpty()) {
+            return;
+        }
+        for (OrderItem item : order.getOrderItems()) {
+            append(item.getDish().getId(), item.getQuantity(), item.getUnitPriceMinor(),
+                    order.getTableNumber(), closedAtMillis);
+        }
+        checks++;
+    }
+
+    /**
+     * Appends one line that is not backed by an Order (imports, replays,
+     * benchmarks). newCheck says whether this line starts a new check.
+     */
+    public synchronized void recordLine(int dishId, int quantity, long unitPriceMinor, int tableNumber,
+                                        long closedAtMillis, boolean newCheck) {
+        append(dishId, quantity, unitPriceMinor, tableNumber, closedAtMillis);
+        if (newCheck) {
+            checks++;
+        }
+    }
+
+    private void append(int dishId, int quantity, long unitPriceMinor, int tableNumber, long closedAtMillis) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("quantity must be positive");
+        }
+        int block = lines >>> BLOCK_SHIFT;
+        if (block == blocks.length) {
+            blocks = Arrays.copyOf(blocks, blocks.length * 2);
+        }
+        if (blocks[block] == null) {
+            blocks[block] = new Block();
+        }
+        Block b = blocks[block];
+        int i = lines & (BLOCK_SIZE - 1);
+        b.dishCodes[i] = dishes.encode(dishId);
+        b.quantities[i] = quantity;
+        b.unitPricesMinor[i] = unitPriceMinor;
+        b.tableCodes[i] = tables.encode(tableNumber);
+        b.closedAtMillis[i] = closedAtMillis;
+        lines++;
+        grossMinor += unitPriceMinor * quantity;
+    }
+
+    // Receives the lines of forEachLine().
+    public interface LineVisitor {
+        void line(int dishId, int quantity, long unitPriceMinor, int tableNumber, long closedAtMillis);
+    }
+
+    // Every line recorded so far, in the order it was recorded (for snapshots).
+    public void forEachLine(LineVisitor visitor) {
+        View view = view();
+        for (int line = 0; line < view.lines; line++) {
+            Block b = view.blocks[line >>> BLOCK_SHIFT];
+            int i = line & (BLOCK_SIZE - 1);
+            visitor.line(view.dishIds[b.dishCodes[i]], b.quantities[i], b.unitPricesMinor[i],
+                    view.tableNumbers[b.tableCodes[i]], b.closedAtMillis[i]);
+        }
+    }
+
+    // Used when recovering state (after the lines came back through recordLine()); not journaled.
+    public synchronized void setNumOfChecks(int checks) {
+        if (checks < 0) {
+            throw new IllegalArgumentException("checks cannot be negative");
+        }
+        this.checks = checks;
+    }
+
+    public synchronized int getNumOfLines() {
+        return lines;
+    }
+
+    public synchronized int getNumOfChecks() {
+        return checks;
+    }
+
+    public synchronized long getGrossMinor() {
+        return grossMinor;
+    }
+
+    public synchronized double getGross() {
+        return Money.toMajor(grossMinor);
+    }
+
+    // Rounded to the nearest minor unit; 0 when nothing was sold yet.
+    public synchronized long getAverageCheckMinor() {
+        return checks == 0 ? 0 : Math.round((double) grossMinor / checks);
+    }
+
+    public double getAverageCheck() {
+        return Money.toMajor(getAverageCheckMinor());
+    }
+
+    // ---------------- Reports ----------------
+    // Group-by reports list each dish id / table number sold; time reports return one sum per bucket.
+
+    public GroupTotals revenueMinorByDish() {
+        View view = view();
+        return new GroupTotals(Arrays.copyOf(view.dishIds, view.dishes),
+                sumByColumn(view, Column.DISH, true, view.dishes));
+    }
+
+    public GroupTotals quantityByDish() {
+        View view = view();
+        return new GroupTotals(Arrays.copyOf(view.dishIds, view.dishes),
+                sumByColumn(view, Column.DISH, false, view.dishes));
+    }
+
+    public GroupTotals revenueMinorByTable() {
+        View view = view();
+        return new GroupTotals(Arrays.copyOf(view.tableNumbers, view.tables),
+                sumByColumn(view, Column.TABLE, true, view.tables));
+    }
+
+    /**
+     * Dishes sold per time bucket, e.g. per hour with bucketMillis = 3,600,000.
+     * Bucket i covers [fromMillis + i * bucketMillis, fromMillis + (i + 1) * bucketMillis);
+     * lines outside all buckets are ignored.
+     */
+    public long[] quantityByTimeBucket(long fromMillis, long bucketMillis, int buckets) {
+        return sumByTime(view(), fromMillis, bucketMillis, buckets, false);
+    }
+
+    public long[] revenueMinorByTimeBucket(long fromMillis, long bucketMillis, int buckets) {
+        return sumByTime(view(), fromMillis, bucketMillis, buckets, true);
+    }
+
+    // Close time of the first recorded line, or -1 if the ledger is empty.
+    public long getFirstClosedAtMillis() {
+        View view = view();
+        return view.lines == 0 ? -1 : view.blocks[0].closedAtMillis[0];
+    }
+
+    // ---------------- Scans ----------------
+
+    private enum Column { DISH, TABLE }
+
+    private synchronized View view() {
+        return new View(blocks, lines, dishes.ids, dishes.size(), tables.ids, tables.size());
+    }
+
+    private static long[] sumByColumn(View view, Column column, boolean revenue, int groups) {
+        int numOfBlocks = (view.lines + BLOCK_SIZE - 1) >>> BLOCK_SHIFT;
+        IntStream blocks = IntStream.range(0, numOfBlocks);
+        if (numOfBlocks >= PARALLEL_MIN_BLOCKS) {
+            blocks = blocks.parallel();
+        }
+        return blocks.collect(() -> new long[groups],
+                (sums, block) -> sumBlock(view, block, column, revenue, sums),
+                SalesLedger::addInto);
+    }
+
+    // Codes in the view's lines are below the view's dictionary sizes, so the sums array fits them.
+    private static void sumBlock(View view, int block, Column column, boolean revenue, long[] sums) {
+        Block b = view.blocks[block];
+        int n = view.linesIn(block);
+        int[] keys = column == Column.DISH ? b.dishCodes : b.tableCodes;
+        int[] quantities = b.quantities;
+        if (revenue) {
+            long[] prices = b.unitPricesMinor;
+            for (int i = 0; i < n; i++) {
+                sums[keys[i]] += prices[i] * quantities[i];
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                sums[keys[i]] += quantities[i];
+            }
+        }
+    }
+
+    private static long[] sumByTime(View view, long fromMillis, long bucketMillis, int buckets, boolean revenue) {
+        if (bucketMillis <= 0 || buckets <= 0) {
+            throw new IllegalArgumentException("bucketMillis and buckets must be positive");
+        }
+        int numOfBlocks = (view.lines + BLOCK_SIZE - 1) >>> BLOCK_SHIFT;
+        IntStream blocks = IntStream.range(0, numOfBlocks);
+        if (numOfBlocks >= PARALLEL_MIN_BLOCKS) {
+            blocks = blocks.parallel();
+        }
+        return blocks.collect(() -> new long[buckets], (sums, block) -> {
+            Block b = view.blocks[block];
+            int n = view.linesIn(block);
+            long[] times = b.closedAtMillis;
+            int[] quantities = b.quantities;
+            long[] prices = b.unitPricesMinor;
+            for (int i = 0; i < n; i++) {
+                long offset = times[i] - fromMillis;
+                if (offset < 0) {
+                    continue;
+                }
+                long bucket = offset / bucketMillis;
+                if (bucket < buckets) {
+                    sums[(int) bucket] += revenue ? prices[i] * quantities[i] : quantities[i];
+                }
+            }
+        }, SalesLedger::addInto);
+    }
+
+    private static void addInto(long[] into, long[] from) {
+        for (int i = 0; i < into.length; i++) {
+            into[i] += from[i];
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.keren.restaurantsimulator.app;
+
+/**
+ * BatchSummary is the result of replaying a command file with runBatch().
+ */
+public class BatchSummary {
+
+    private final long commands;
+    private final long errors;
+    private final long elapsedNanos;
+
+    public BatchSummary(long commands, long errors, long elapsedNanos) {
+        this.commands = commands;
+        this.errors = errors;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getCommands() { return commands; }
+    // Commands that failed (printed "Error: ...") or were unknown.
+    public long getErrors() { return errors; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    public double getCommandsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : commands * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchSummary{" +
+                "commands=" + commands +
+                ", errors=" + errors +
+                ", elapsedMs=" + String.format("%.1f", elapsedNanos / 1_000_000.0) +
+                ", commandsPerSecond=" + String.format("%.0f", getCommandsPerSecond()) +
+                '}';
+    }
+}
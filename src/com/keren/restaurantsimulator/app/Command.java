@@ -0,0 +1,25 @@
+package com.keren.restaurantsimulator.app;
+
+import java.util.Locale;
+
+/**
+ * Commands understood by RestaurantSimulatorApp (matched case-insensitively).
+ * BLANK is an empty line and UNKNOWN anything else; neither can be typed.
+ */
+public enum Command {
+    HELP, EXIT, CHECKPOINT, METRICS, TEST,
+    MENU, PRICE, TABLES, TABLE,
+    SEAT, WALKIN, OPEN, ADD,
+    RESERVE, RESERVATIONS, CHECKIN, UNRESERVE,
+    SUBMIT, PREP, READY, SERVED, ETA,
+    BILL, PAY, PAYALL, CLOSEDAY, SALES,
+    SIMULATE, WHATIF, WORKLOAD,
+    BLANK, UNKNOWN;
+
+    // What the user types, e.g. "walkin"
+    final String keyword = name().toLowerCase(Locale.ROOT);
+
+    boolean isTypeable() {
+        return this != BLANK && this != UNKNOWN;
+    }
+}
@@ -0,0 +1,82 @@
+package com.keren.restaurantsimulator.app;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * CommandLineReader splits a Reader into lines inside one reusable char
+ * buffer (no String per line, unlike BufferedReader.readLine()).
+ *
+ * After next() returns true, the current line is
+ * getBuffer()[getLineStart(), getLineEnd()), without the line terminator.
+ * The buffer is only valid until the next call to next().
+ */
+public final class CommandLineReader {
+
+    private final Reader in;
+    private char[] buffer;
+    private int position;  // start of the next line
+    private int limit;     // end of the chars read so far
+    private int lineStart;
+    private int lineEnd;
+    private boolean eof;
+
+    public CommandLineReader(Reader in, int bufferSize) {
+        if (in == null) {
+            throw new IllegalArgumentException("in cannot be null");
+        }
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be positive");
+        }
+        this.in = in;
+        this.buffer = new char[bufferSize];
+    }
+
+    public boolean next() throws IOException {
+        int scan = position;
+        while (true) {
+            for (; scan < limit; scan++) {
+                if (buffer[scan] == '\n') {
+                    lineStart = position;
+                    lineEnd = scan; // a '\r' before '\n' is trimmed by the parser
+                    position = scan + 1;
+                    return true;
+                }
+            }
+            if (eof) {
+                if (position == limit) {
+                    return false;
+                }
+                lineStart = position; // last line without a terminator
+                lineEnd = limit;
+                position = limit;
+                return true;
+            }
+            scan -= position;
+            fill();
+        }
+    }
+
+    public char[] getBuffer() { return buffer; }
+    public int getLineStart() { return lineStart; }
+    public int getLineEnd() { return lineEnd; }
+
+    // Moves the unfinished line to the front (growing the buffer for very long lines) and reads more.
+    private void fill() throws IOException {
+        int pending = limit - position;
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, pending);
+        } else if (pending == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        position = 0;
+        limit = pending;
+        int read = in.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            eof = true;
+        } else {
+            limit += read;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.keren.restaurantsimulator.app;
+
+import java.util.Arrays;
+
+/**
+ * CommandParser splits one command line into a Command and its arguments
+ * without allocating.
+ *
+ * The line is read straight from a char buffer (the reader's, or an internal
+ * one that parse(String) copies into). Tokens are kept as start/end offsets,
+ * the command word is matched against the keywords char by char, and intArg()
+ * parses digits in place. It accepts exactly what the old
+ * trim() / split("\\s+") / toLowerCase() / Integer.parseInt code accepted;
+ * anything the fast path does not handle (bad numbers, non-ASCII digits) is
+ * handed to Integer.parseInt, so results and error messages are unchanged.
+ *
+ * The token arrays grow (like the line buffer) when a line has more tokens
+ * than they hold, e.g. a long payall list, and are then kept for later lines.
+ *
+ * A parser is reused for every line and is not thread-safe.
+ */
+public final class CommandParser {
+
+    private static final int INITIAL_TOKENS = 16;
+    private static final Command[] COMMANDS = Command.values();
+
+    private char[] lineBuffer = new char[256];
+    private char[] chars;
+    private int[] tokenStart = new int[INITIAL_TOKENS];
+    private int[] tokenEnd = new int[INITIAL_TOKENS];
+    private int tokens;      // tokens on the line
+    private Command command = Command.BLANK;
+
+    public Command parse(String line) {
+        if (line.length() > lineBuffer.length) {
+            lineBuffer = new char[Math.max(line.length(), lineBuffer.length * 2)];
+        }
+        line.getChars(0, line.length(), lineBuffer, 0);
+        return parse(lineBuffer, 0, line.length());
+    }
+
+    /**
+     * Parses chars[from, to). The buffer must not change until the next
+     * parse() (arguments are read from it lazily).
+     */
+    public Command parse(char[] chars, int from, int to) {
+        this.chars = chars;
+        tokens = 0;
+
+        // trim(): drop control characters and spaces at both ends
+        while (from < to && chars[from] <= ' ') from++;
+        while (to > from && chars[to - 1] <= ' ') to--;
+
+        // split("\\s+")
+        int i = from;
+        while (i < to) {
+            int start = i;
+            while (i < to && !isWhitespace(chars[i])) i++;
+            if (tokens == tokenStart.length) {
+                tokenStart = Arrays.copyOf(tokenStart, tokens * 2);
+                tokenEnd = Arrays.copyOf(tokenEnd, tokens * 2);
+            }
+            tokenStart[tokens] = start;
+            tokenEnd[tokens] = i;
+            tokens++;
+            while (i < to && isWhitespace(chars[i])) i++;
+        }
+
+        command = tokens == 0 ? Command.BLANK : matchCommand();
+        return command;
+    }
+
+    public Command getCommand() {
+        return command;
+    }
+
+    // Number of tokens including the command word (what parts.length used to be).
+    public int getNumOfTokens() {
+        return tokens;
+    }
+
+    // True if the line starts with '#'.
+    public boolean isComment() {
+        return tokens > 0 && chars[tokenStart[0]] == '#';
+    }
+
+    public int intArg(int index) {
+        checkIndex(index);
+        int i = tokenStart[index];
+        int end = tokenEnd[index];
+        boolean negative = chars[i] == '-';
+        if (negative || chars[i] == '+') {
+            i++;
+        }
+        if (i == end) {
+            return slowIntArg(index);
+        }
+        // Accumulate negatively like Integer.parseInt, so MIN_VALUE fits
+        int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+        int multMin = limit / 10;
+        int result = 0;
+        for (; i < end; i++) {
+            int digit = chars[i] - '0';
+            if (digit < 0 || digit > 9 || result < multMin) {
+                return slowIntArg(index);
+            }
+            result *= 10;
+            if (result < limit + digit) {
+                return slowIntArg(index);
+            }
+            result -= digit;
+        }
+        return negative ? result : -result;
+    }
+
+    public long longArg(int index) {
+        return Long.parseLong(arg(index));
+    }
+
+    public double doubleArg(int index) {
+        return Double.parseDouble(arg(index));
+    }
+
+    public boolean argEqualsIgnoreCase(int index, String value) {
+        checkIndex(index);
+        int start = tokenStart[index];
+        int length = tokenEnd[index] - start;
+        if (length != value.length()) {
+            return false;
+        }
+        for (int k = 0; k < length; k++) {
+            char a = chars[start + k];
+            char b = value.charAt(k);
+            if (a != b && Character.toLowerCase(a) != Character.toLowerCase(b)
+                    && Character.toUpperCase(a) != Character.toUpperCase(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Argument as a String (allocates; for rarely used arguments and error messages).
+    public String arg(int index) {
+        checkIndex(index);
+        return new String(chars, tokenStart[index], tokenEnd[index] - tokenStart[index]);
+    }
+
+    private Command matchCommand() {
+        int start = tokenStart[0];
+        int length = tokenEnd[0] - start;
+        for (Command c : COMMANDS) {
+            if (c.isTypeable() && c.keyword.length() == length && wordMatches(c.keyword, start)) {
+                return c;
+            }
+        }
+        return Command.UNKNOWN;
+    }
+
+    // Same as token.toLowerCase().equals(keyword) for the ASCII keywords
+    private boolean wordMatches(String keyword, int start) {
+        for (int k = 0; k < keyword.length(); k++) {
+            if (Character.toLowerCase(chars[start + k]) != keyword.charAt(k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Same result or NumberFormatException as before
+    private int slowIntArg(int index) {
+        return Integer.parseInt(arg(index));
+    }
+
+    private void checkIndex(int index) {
+        if (index <= 0 || index >= tokens) {
+            throw new IllegalArgumentException("Not enough arguments. Type 'help'.");
+        }
+    }
+
+    // The characters matched by the regex \s
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
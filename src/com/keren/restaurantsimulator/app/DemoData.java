@@ -1,10 +1,13 @@
 package com.keren.restaurantsimulator.app;
 
+import com.keren.restaurantsimulator.enums.KitchenStation;
 import com.keren.restaurantsimulator.model.Dish;
 import com.keren.restaurantsimulator.model.Menu;
 import com.keren.restaurantsimulator.model.Restaurant;
 import com.keren.restaurantsimulator.model.Table;
 
+import java.util.Map;
+
 public final class DemoData {
 
     private DemoData() {}
@@ -23,6 +26,19 @@ public final class DemoData {
         return menu;
     }
 
+    // Which kitchen station prepares each demo dish (by dish id).
+    public static Map<Integer, KitchenStation> createDemoStations() {
+        return Map.of(
+                1, KitchenStation.GRILL,
+                2, KitchenStation.GRILL,
+                3, KitchenStation.COLD,
+                4, KitchenStation.GRILL,
+                5, KitchenStation.GRILL,
+                6, KitchenStation.DRINKS,
+                7, KitchenStation.COLD
+        );
+    }
+
     public static Restaurant createDemoRestaurant() {
         Menu menu = createDemoMenu();
         Restaurant restaurant = new Restaurant(menu);
@@ -36,4 +52,17 @@ public final class DemoData {
 
         return restaurant;
     }
+
+    // Demo menu with a larger floor: table capacities cycle through 2, 4, 4, 6, 8.
+    public static Restaurant createDemoRestaurant(int numOfTables) {
+        if (numOfTables <= 0) {
+            throw new IllegalArgumentException("numOfTables must be positive");
+        }
+        int[] capacities = {2, 4, 4, 6, 8};
+        Restaurant restaurant = new Restaurant(createDemoMenu());
+        for (int i = 1; i <= numOfTables; i++) {
+            restaurant.addTable(new Table(i, capacities[(i - 1) % capacities.length]));
+        }
+        return restaurant;
+    }
 }
@@ -1,23 +1,62 @@
 package com.keren.restaurantsimulator.app;
 
+import com.keren.restaurantsimulator.analytics.GroupTotals;
+import com.keren.restaurantsimulator.analytics.SalesLedger;
 import com.keren.restaurantsimulator.enums.OrderStatus;
 import com.keren.restaurantsimulator.enums.TableStatus;
+import com.keren.restaurantsimulator.metrics.Metrics;
 import com.keren.restaurantsimulator.model.Dish;
 import com.keren.restaurantsimulator.model.Menu;
+import com.keren.restaurantsimulator.model.Money;
 import com.keren.restaurantsimulator.model.Order;
+import com.keren.restaurantsimulator.model.Reservation;
 import com.keren.restaurantsimulator.model.Restaurant;
 import com.keren.restaurantsimulator.model.Table;
+import com.keren.restaurantsimulator.persistence.JournalManager;
 import com.keren.restaurantsimulator.service.BillingService;
+import com.keren.restaurantsimulator.service.KitchenEtaEstimator;
 import com.keren.restaurantsimulator.service.KitchenService;
 import com.keren.restaurantsimulator.service.OrderService;
+import com.keren.restaurantsimulator.service.SettlementResult;
 import com.keren.restaurantsimulator.service.TableService;
-
+import com.keren.restaurantsimulator.simulation.ArrivalProcess;
+import com.keren.restaurantsimulator.simulation.FloorPlan;
+import com.keren.restaurantsimulator.simulation.MonteCarloRunner;
+import com.keren.restaurantsimulator.simulation.Scenario;
+import com.keren.restaurantsimulator.simulation.SimulationConfig;
+import com.keren.restaurantsimulator.simulation.SimulationEngine;
+import com.keren.restaurantsimulator.simulation.SimulationResult;
+import com.keren.restaurantsimulator.simulation.WorkloadConfig;
+import com.keren.restaurantsimulator.simulation.WorkloadGenerator;
+import com.keren.restaurantsimulator.simulation.WorkloadResult;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 
 public class RestaurantSimulatorApp {
 
+    private static final int BATCH_BUFFER_SIZE = 1 << 16;
+    private static final int KITCHEN_COOKS = 2; // parallel cooks assumed by the 'eta' estimate
+    private static final int RESERVATION_SLOT_MINUTES = 15;
+    private static final int RESERVATION_HORIZON_DAYS = 90;
+
     // For demo: map tableId -> orderId (because Order doesn't store its id)
     private final Map<Integer, Integer> orderIdByTableId = new HashMap<>();
 
@@ -26,6 +65,11 @@ public class RestaurantSimulatorApp {
     private final BillingService billingService;
     private final OrderService orderService;
     private final KitchenService kitchenService;
+    private JournalManager journalManager; // null unless started with --journal <dir>
+    // All command output goes here (the console, or a buffered writer in batch mode)
+    private PrintWriter out = new PrintWriter(System.out, true);
+    private long errors; // commands that failed or were unknown
+    private final CommandParser parser = new CommandParser();
 
     public RestaurantSimulatorApp(Restaurant restaurant) {
         if (restaurant == null) throw new IllegalArgumentException("restaurant cannot be null");
@@ -36,13 +80,75 @@ public class RestaurantSimulatorApp {
         this.billingService = new BillingService(restaurant);
 
         this.orderService = new OrderService();
+        this.orderService.setSalesLedger(new SalesLedger());
         this.kitchenService = new KitchenService(orderService);
+        this.kitchenService.setEtaEstimator(new KitchenEtaEstimator(KITCHEN_COOKS));
+
+        // Bookings from today 00:00 (local time) for the next 90 days
+        if (restaurant.getReservationBook() == null) {
+            long today = LocalDate.now().atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            restaurant.openReservationBook(today, RESERVATION_SLOT_MINUTES, RESERVATION_HORIZON_DAYS);
+        }
     }
 
-    public static void main(String[] args) {
+    /**
+     * Usage: RestaurantSimulatorApp [--journal <dir>] [--batch <file> [--quiet]]
+     * With --journal, state is recovered from the directory on start and
+     * every change is journaled there.
+     * With --batch, the commands in the file are run without a prompt
+     * (see runBatch); --quiet prints only the final summary.
+     * Run with -Drestaurant.metrics=true to time every service call
+     * (see the 'metrics' command, or JConsole / VisualVM over JMX).
+     */
+    public static void main(String[] args) throws IOException {
         Restaurant restaurant = DemoData.createDemoRestaurant();
         RestaurantSimulatorApp app = new RestaurantSimulatorApp(restaurant);
-        app.run();
+        Metrics.registerMBeans();
+
+        Path journalDir = null;
+        Path batchFile = null;
+        boolean quiet = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--journal" -> journalDir = Path.of(requireValue(args, ++i, "--journal"));
+                case "--batch" -> batchFile = Path.of(requireValue(args, ++i, "--batch"));
+                case "--quiet" -> quiet = true;
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        if (journalDir != null) {
+            app.enableJournal(journalDir);
+        }
+        if (batchFile != null) {
+            app.runBatch(batchFile, quiet);
+            app.closeJournal();
+        } else {
+            app.run();
+        }
+    }
+
+    private static String requireValue(String[] args, int i, String option) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException(option + " needs a value");
+        }
+        return args[i];
+    }
+
+    // Recovers saved state from the directory and journals every change from now on.
+    public void enableJournal(Path directory) throws IOException {
+        if (journalManager != null) {
+            throw new IllegalStateException("journal already enabled");
+        }
+        journalManager = JournalManager.open(directory, restaurant, tableService, orderService,
+                kitchenService, billingService, 10, false);
+        // rebuild the demo table -> order id mapping from the recovered tables
+        for (Table t : restaurant.listTables()) {
+            if (t.hasOrder() && t.getOrder().isRegistered()) {
+                orderIdByTableId.put(t.getTableNumber(), t.getOrder().getId());
+            }
+        }
+        out.println("Journal: " + directory + " " + journalManager.getRecoveryResult());
     }
 
     public void run() {
@@ -52,92 +158,13 @@ public class RestaurantSimulatorApp {
             printHelp();
 
             while (true) {
-                System.out.print("\n> ");
-                String line = sc.nextLine().trim();
-                if (line.isEmpty()) continue;
-
-                String[] parts = line.split("\\s+");
-                String cmd = parts[0].toLowerCase();
-
-                try {
-                    switch (cmd) {
-                        case "help" -> printHelp();
-                        case "exit" -> {
-                            System.out.println("Bye!");
-                            return;
-                        }
-
-                        case "test" -> runQuickTests();
-
-                        case "menu" -> printMenu();
-                        case "tables" -> printTables();
-                        case "table" -> {
-                            requireArgs(parts, 2);
-                            int tableId = Integer.parseInt(parts[1]);
-                            printTableDetails(tableId);
-                        }
-
-                        case "seat" -> {
-                            requireArgs(parts, 3);
-                            int tableId = Integer.parseInt(parts[1]);
-                            int customers = Integer.parseInt(parts[2]);
-                            seat(tableId, customers);
-                        }
-
-                        case "open" -> {
-                            requireArgs(parts, 2);
-                            int tableId = Integer.parseInt(parts[1]);
-                            openOrder(tableId);
-                        }
-
-                        case "add" -> {
-                            requireArgs(parts, 4);
-                            int tableId = Integer.parseInt(parts[1]);
-                            int dishId = Integer.parseInt(parts[2]);
-                            int qty = Integer.parseInt(parts[3]);
-                            addDish(tableId, dishId, qty);
-                        }
-
-                        case "submit" -> {
-                            requireArgs(parts, 2);
-                            int tableId = Integer.parseInt(parts[1]);
-                            submitToKitchen(tableId);
-                        }
-
-                        case "prep" -> {
-                            requireArgs(parts, 2);
-                            int tableId = Integer.parseInt(parts[1]);
-                            startPrep(tableId);
-                        }
-
-                        case "ready" -> {
-                            requireArgs(parts, 2);
-                            int tableId = Integer.parseInt(parts[1]);
-                            markReady(tableId);
-                        }
-
-                        case "served" -> {
-                            requireArgs(parts, 2);
-                            int tableId = Integer.parseInt(parts[1]);
-                            markServed(tableId);
-                        }
-
-                        case "bill" -> {
-                            requireArgs(parts, 2);
-                            int tableId = Integer.parseInt(parts[1]);
-                            requestBill(tableId);
-                        }
-
-                        case "pay" -> {
-                            requireArgs(parts, 2);
-                            int tableId = Integer.parseInt(parts[1]);
-                            pay(tableId);
-                        }
-
-                        default -> System.out.println("Unknown command. Type 'help'.");
-                    }
-                } catch (Exception e) {
-                    System.out.println("Error: " + e.getMessage());
+                out.print("\n> ");
+                out.flush();
+                if (!sc.hasNextLine()) return; // end of piped input
+                if (parser.parse(sc.nextLine()) == Command.BLANK) continue;
+
+                if (!execute()) {
+                    return;
                 }
             }
         } finally {
@@ -145,25 +172,244 @@ public class RestaurantSimulatorApp {
         }
     }
 
+    /**
+     * Replays a command file (same commands as the interactive prompt, one per
+     * line; blank lines and lines starting with '#' are skipped) and prints a
+     * summary with commands per second.
+     *
+     * The file is streamed through one reusable buffer (no String per line,
+     * see CommandParser) and all command output goes
+     * through one buffered writer, so a long shift log is not bound by console
+     * I/O. With quiet=true the command output is dropped and only the summary
+     * is printed. An "exit" line ends the batch early.
+     */
+    public BatchSummary runBatch(Path commandFile, boolean quiet) throws IOException {
+        PrintWriter console = out;
+        out = quiet
+                ? new PrintWriter(Writer.nullWriter())
+                : new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out), BATCH_BUFFER_SIZE));
+        long commands = 0;
+        long errorsBefore = errors;
+        long startNanos = System.nanoTime();
+        try (Reader reader = new InputStreamReader(Files.newInputStream(commandFile), StandardCharsets.UTF_8)) {
+            CommandLineReader lines = new CommandLineReader(reader, BATCH_BUFFER_SIZE);
+            while (lines.next()) {
+                Command command = parser.parse(lines.getBuffer(), lines.getLineStart(), lines.getLineEnd());
+                if (command == Command.BLANK || parser.isComment()) continue;
+
+                commands++;
+                if (!execute()) {
+                    break;
+                }
+            }
+        } finally {
+            out.flush();
+            out = console;
+        }
+        BatchSummary summary = new BatchSummary(commands, errors - errorsBefore, System.nanoTime() - startNanos);
+        out.println(summary);
+        out.flush();
+        return summary;
+    }
+
+    /**
+     * Runs the command line last parsed by the parser.
+     * Errors are printed (and counted), never thrown.
+     * @return false if the command was "exit"
+     */
+    private boolean execute() {
+        try {
+            switch (parser.getCommand()) {
+                case HELP -> printHelp();
+                case EXIT -> {
+                    closeJournal();
+                    out.println("Bye!");
+                    return false;
+                }
+
+                case CHECKPOINT -> checkpoint();
+                case METRICS -> out.print(Metrics.report());
+
+                case TEST -> runQuickTests();
+
+                case MENU -> printMenu();
+                case PRICE -> {
+                    requireArgs(3);
+                    int dishId = parser.intArg(1);
+                    double price = parser.doubleArg(2);
+                    changePrice(dishId, price);
+                }
+                case TABLES -> printTables();
+                case TABLE -> {
+                    requireArgs(2);
+                    int tableId = parser.intArg(1);
+                    printTableDetails(tableId);
+                }
+
+                case SEAT -> {
+                    requireArgs(3);
+                    int tableId = parser.intArg(1);
+                    int customers = parser.intArg(2);
+                    seat(tableId, customers);
+                }
+
+                case WALKIN -> {
+                    requireArgs(2);
+                    int customers = parser.intArg(1);
+                    seatWalkIn(customers);
+                }
+
+                case RESERVE -> {
+                    requireArgs(4);
+                    int customers = parser.intArg(1);
+                    LocalDateTime from = LocalDateTime.parse(parser.arg(2));
+                    int minutes = parser.intArg(3);
+                    String guest = parser.getNumOfTokens() > 4 ? parser.arg(4) : "";
+                    reserve(customers, from, minutes, guest);
+                }
+                case RESERVATIONS -> {
+                    requireArgs(2);
+                    int tableId = parser.intArg(1);
+                    printReservations(tableId);
+                }
+                case CHECKIN -> {
+                    requireArgs(2);
+                    int reservationId = parser.intArg(1);
+                    checkIn(reservationId);
+                }
+                case UNRESERVE -> {
+                    requireArgs(2);
+                    int reservationId = parser.intArg(1);
+                    unreserve(reservationId);
+                }
+
+                case OPEN -> {
+                    requireArgs(2);
+                    int tableId = parser.intArg(1);
+                    openOrder(tableId);
+                }
+
+                case ADD -> {
+                    requireArgs(4);
+                    int tableId = parser.intArg(1);
+                    int dishId = parser.intArg(2);
+                    int qty = parser.intArg(3);
+                    addDish(tableId, dishId, qty);
+                }
+
+                case SUBMIT -> {
+                    requireArgs(2);
+                    int tableId = parser.intArg(1);
+                    submitToKitchen(tableId);
+                }
+
+                case PREP -> {
+                    requireArgs(2);
+                    int tableId = parser.intArg(1);
+                    startPrep(tableId);
+                }
+
+                case READY -> {
+                    requireArgs(2);
+                    int tableId = parser.intArg(1);
+                    markReady(tableId);
+                }
+
+                case ETA -> printEtas();
+
+                case SERVED -> {
+                    requireArgs(2);
+                    int tableId = parser.intArg(1);
+                    markServed(tableId);
+                }
+
+                case BILL -> {
+                    requireArgs(2);
+                    int tableId = parser.intArg(1);
+                    requestBill(tableId);
+                }
+
+                case PAY -> {
+                    requireArgs(2);
+                    int tableId = parser.intArg(1);
+                    pay(tableId);
+                }
+                case PAYALL -> {
+                    int[] tableIds = new int[parser.getNumOfTokens() - 1];
+                    for (int i = 0; i < tableIds.length; i++) {
+                        tableIds[i] = parser.intArg(i + 1);
+                    }
+                    payAll(tableIds);
+                }
+                case CLOSEDAY -> out.println(billingService.closeDay());
+                case SALES -> printSales();
+
+                case SIMULATE -> {
+                    requireArgs(2);
+                    int minutes = parser.intArg(1);
+                    int tables = parser.getNumOfTokens() > 2 ? parser.intArg(2) : 5;
+                    long seed = parser.getNumOfTokens() > 3 ? parser.longArg(3) : 42L;
+                    simulate(minutes, tables, seed);
+                }
+
+                case WHATIF -> {
+                    requireArgs(2);
+                    int replicas = parser.intArg(1);
+                    int tables = parser.getNumOfTokens() > 2 ? parser.intArg(2) : 20;
+                    int cooks = parser.getNumOfTokens() > 3 ? parser.intArg(3) : 3;
+                    whatIf(replicas, tables, cooks);
+                }
+
+                case WORKLOAD -> {
+                    requireArgs(3);
+                    double seconds = parser.doubleArg(1);
+                    double rate = parser.doubleArg(2);
+                    int tables = parser.getNumOfTokens() > 3 ? parser.intArg(3) : 5;
+                    boolean lunch = parser.getNumOfTokens() > 4 && parser.argEqualsIgnoreCase(4, "lunch");
+                    boolean open = parser.getNumOfTokens() > 5 && parser.argEqualsIgnoreCase(5, "open");
+                    workload(seconds, rate, tables, lunch, open);
+                }
+
+                default -> {
+                out.println("Unknown command. Type 'help'.");
+                errors++;
+            }
+            }
+        } catch (Exception e) {
+            out.println("Error: " + e.getMessage());
+            errors++;
+        }
+        return true;
+    }
+
     // ---------------- Commands ----------------
 
     private void printWelcome() {
-        System.out.println("=== Restaurant Simulator ===");
-        System.out.println("Type 'help' to see commands.");
+        out.println("=== Restaurant Simulator ===");
+        out.println("Type 'help' to see commands.");
     }
 
     private void printHelp() {
-        System.out.println("""
+        out.println("""
                 Commands:
                   help                         - show commands
                   exit                         - quit
                   test                         - run quick sanity tests
+                  checkpoint                   - snapshot state and trim the journal (--journal only)
+                  metrics                      - latency per operation / status (-Drestaurant.metrics=true)
 
                   menu                         - print menu
+                  price <dishId> <price>       - change a dish price (open orders keep their prices)
                   tables                       - list all tables (status)
                   table <tableId>              - table details (status + current order)
 
                   seat <tableId> <customers>   - seat customers (sets table OCCUPIED)
+                  walkin <customers>           - seat at the smallest free table that fits
+                  reserve <customers> <yyyy-MM-ddTHH:mm> <minutes> [name]
+                                               - book the smallest table free for the whole stay
+                  reservations <tableId>       - bookings of a table
+                  checkin <reservationId>      - seat a booked party at its table
+                  unreserve <reservationId>    - cancel a booking
                   open <tableId>               - open new order for an occupied table
                   add <tableId> <dishId> <qty> - add dish to current order
 
@@ -171,26 +417,47 @@ public class RestaurantSimulatorApp {
                   prep <tableId>               - start preparing (SUBMITTED -> IN_PREP)
                   ready <tableId>              - mark ready (IN_PREP -> READY)
                   served <tableId>             - mark served (READY -> SERVED)
+                  eta                          - expected ready time of every order in the kitchen
 
                   bill <tableId>               - request bill (sets WAITING_FOR_BILL)
                   pay <tableId>                - pay and clear table (sets FREE)
+                  payall [tableId...]          - settle the listed tables (default: every table waiting for the bill)
+                  closeday                     - end the business day: gross, checks, average check
+                  sales                        - revenue per dish, dishes per hour, average check
+
+                  simulate <minutes> [tables] [seed]
+                                               - run a headless service day on a fresh demo restaurant
+                  whatif <replicas> [tables] [cooks]
+                                               - compare floor / prep-time what-ifs over many parallel simulated days
+                  workload <seconds> <parties/s> [tables] [poisson|lunch] [paced|open]
+                                               - drive the services with synthetic parties on a fresh demo restaurant
                 """);
     }
 
     private void printMenu() {
         Menu menu = restaurant.getMenu();
-        System.out.println("Menu:");
+        out.println("Menu:");
         for (Dish d : menu.listDishes()) {
-            System.out.println("  " + d.getId() + ") " + d.getName()
+            out.println("  " + d.getId() + ") " + d.getName()
                     + " | ₪" + d.getPrice()
                     + " | prep " + d.getPrepTimeMinutes() + "m");
         }
     }
 
+    private void changePrice(int dishId, double price) {
+        if (price < 0) {
+            throw new IllegalArgumentException("price cannot be negative");
+        }
+        Menu menu = restaurant.getMenu();
+        Dish old = tableService.changePrice(dishId, Money.toMinor(price));
+        out.println(old.getName() + ": ₪" + old.getPrice() + " -> ₪" + Money.toMajor(Money.toMinor(price))
+                + " (menu version " + menu.getVersion() + ")");
+    }
+
     private void printTables() {
-        System.out.println("Tables:");
+        out.println("Tables:");
         for (Table t : restaurant.listTables()) {
-            System.out.println("  Table " + t.getTableNumber()
+            out.println("  Table " + t.getTableNumber()
                     + " | capacity=" + t.getCapacity()
                     + " | status=" + t.getStatus()
                     + (t.hasOrder() ? " | hasOrder" : ""));
@@ -199,37 +466,40 @@ public class RestaurantSimulatorApp {
 
     private void printTableDetails(int tableId) {
         Table t = restaurant.getTableById(tableId);
-        System.out.println("Table " + t.getTableNumber()
+        out.println("Table " + t.getTableNumber()
                 + " | capacity=" + t.getCapacity()
                 + " | status=" + t.getStatus());
 
         if (!t.hasOrder()) {
-            System.out.println("No active order.");
+            out.println("No active order.");
             return;
         }
 
         Order order = t.getOrder();
-        System.out.println(order);
+        out.println(order);
 
         Integer orderId = orderIdByTableId.get(tableId);
         if (orderId != null) {
-            System.out.println("Order ID: " + orderId + " | Status: " + order.getStatus());
+            out.println("Order ID: " + orderId + " | Status: " + order.getStatus());
         } else {
-            System.out.println("Order not submitted yet. Status: " + order.getStatus());
+            out.println("Order not submitted yet. Status: " + order.getStatus());
         }
     }
 
     private void seat(int tableId, int customers) {
-        Table table = restaurant.getTableById(tableId);
-        table.seat(customers);
-        System.out.println("Seated " + customers + " customers at table " + tableId + ".");
+        tableService.seat(tableId, customers);
+        out.println("Seated " + customers + " customers at table " + tableId + ".");
+    }
+
+    private void seatWalkIn(int customers) {
+        Table table = tableService.seatBestFit(customers);
+        out.println("Seated " + customers + " customers at table " + table.getTableNumber() + ".");
     }
 
     private void openOrder(int tableId) {
-        Table table = restaurant.getTableById(tableId);
-        table.openNewOrder();
+        tableService.openOrder(tableId);
         orderIdByTableId.remove(tableId); // new order, old mapping no longer relevant
-        System.out.println("Opened new order for table " + tableId + ".");
+        out.println("Opened new order for table " + tableId + ".");
     }
 
     private void addDish(int tableId, int dishId, int qty) {
@@ -238,10 +508,9 @@ public class RestaurantSimulatorApp {
             throw new IllegalStateException("Table " + tableId + " has no active order. Use: open <tableId>");
         }
 
-        Dish dish = restaurant.getMenu().getDishOrThrow(dishId);
-        table.getOrder().addDish(dish, qty);
+        Dish dish = tableService.addDish(tableId, dishId, qty);
 
-        System.out.println("Added " + qty + " x " + dish.getName() + " to table " + tableId + ".");
+        out.println("Added " + qty + " x " + dish.getName() + " to table " + tableId + ".");
     }
 
     private void submitToKitchen(int tableId) {
@@ -257,42 +526,175 @@ public class RestaurantSimulatorApp {
 
         kitchenService.submitOrderToKitchen(orderId);
 
-        System.out.println("Submitted order " + orderId + " to kitchen for table " + tableId + ".");
+        out.println("Submitted order " + orderId + " to kitchen for table " + tableId + ".");
     }
 
     private void startPrep(int tableId) {
         int orderId = getOrderIdForTableOrThrow(tableId);
         kitchenService.startPreparing(orderId);
-        System.out.println("Order " + orderId + " is now IN_PREP.");
+        out.println("Order " + orderId + " is now IN_PREP.");
     }
 
     private void markReady(int tableId) {
         int orderId = getOrderIdForTableOrThrow(tableId);
         kitchenService.orderIsReady(orderId);
-        System.out.println("Order " + orderId + " is READY.");
+        out.println("Order " + orderId + " is READY.");
+    }
+
+    private void printEtas() {
+        KitchenEtaEstimator estimator = kitchenService.getEtaEstimator();
+        if (estimator.getNumOfOpenOrders() == 0) {
+            out.println("No orders in the kitchen.");
+            return;
+        }
+        long now = System.nanoTime();
+        out.println("Kitchen ETAs (1 prep minute ~ " + estimator.getNanosPerPrepMinute() / 1_000_000_000.0 + "s):");
+        estimator.forEachEta((orderId, etaNanos) ->
+                out.printf("  Order %d: ready in ~%.1f min%n", orderId, (etaNanos - now) / 60e9));
+    }
+
+    private void reserve(int customers, LocalDateTime from, int minutes, String guest) {
+        if (minutes <= 0) {
+            throw new IllegalArgumentException("minutes must be positive");
+        }
+        long start = from.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        Reservation r = tableService.reserve(customers, guest, start, start + minutes * 60_000L);
+        out.println("Reservation " + r.getId() + ": table " + r.getTableNumber() + " for " + customers
+                + " at " + localTime(r.getStartMillis()) + " - " + localTime(r.getEndMillis()) + ".");
+    }
+
+    private void printReservations(int tableId) {
+        List<Reservation> reservations = restaurant.getReservationBook().listReservations(tableId);
+        if (reservations.isEmpty()) {
+            out.println("No reservations for table " + tableId + ".");
+            return;
+        }
+        out.println("Reservations for table " + tableId + ":");
+        for (Reservation r : reservations) {
+            out.println("  " + r.getId() + ") " + localTime(r.getStartMillis()) + " - " + localTime(r.getEndMillis())
+                    + "  party " + r.getPartySize() + (r.getGuestName().isEmpty() ? "" : "  " + r.getGuestName()));
+        }
+    }
+
+    private void checkIn(int reservationId) {
+        Table table = tableService.checkIn(reservationId);
+        out.println("Reservation " + reservationId + " seated at table " + table.getTableNumber() + ".");
+    }
+
+    private void unreserve(int reservationId) {
+        if (!tableService.cancelReservation(reservationId)) {
+            throw new IllegalArgumentException("Reservation " + reservationId + " not found");
+        }
+        out.println("Reservation " + reservationId + " cancelled.");
+    }
+
+    private static LocalDateTime localTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
     }
 
     private void markServed(int tableId) {
         billingService.markServed(tableId);
-        System.out.println("Table " + tableId + " marked as SERVED.");
+        out.println("Table " + tableId + " marked as SERVED.");
     }
 
     private void requestBill(int tableId) {
         billingService.requestBill(tableId);
         double total = billingService.calculateBill(tableId);
-        System.out.println("Bill requested for table " + tableId + ". Total = ₪" + total);
+        out.println("Bill requested for table " + tableId + ". Total = ₪" + total);
     }
 
     private void pay(int tableId) {
-        Table table = restaurant.getTableById(tableId);
-        if (table.getStatus() != TableStatus.WAITING_FOR_BILL) {
-            throw new IllegalStateException("Table " + tableId + " must be WAITING_FOR_BILL before paying (use: bill <tableId>)");
-        }
-
         double total = billingService.pay(tableId);
         orderIdByTableId.remove(tableId);
 
-        System.out.println("Paid ₪" + total + ". Table " + tableId + " is now FREE.");
+        out.println("Paid ₪" + total + ". Table " + tableId + " is now FREE.");
+    }
+
+    private void payAll(int[] tableIds) {
+        SettlementResult result = tableIds.length == 0
+                ? billingService.payAllWaiting()
+                : billingService.payAll(tableIds);
+        orderIdByTableId.keySet().removeIf(id -> restaurant.getTableById(id).getStatus() == TableStatus.FREE);
+        out.println("Settled " + result.getSettled() + " tables for ₪" + result.getTotal()
+                + (result.getNumOfSkipped() > 0 ? ". Skipped: " + Arrays.toString(result.getSkippedTables()) : "."));
+    }
+
+    private void printSales() {
+        SalesLedger ledger = orderService.getSalesLedger();
+        out.println("Sales: " + ledger.getNumOfChecks() + " checks, gross ₪" + ledger.getGross()
+                + ", average check ₪" + ledger.getAverageCheck());
+        if (ledger.getNumOfLines() == 0) {
+            return;
+        }
+
+        GroupTotals quantities = ledger.quantityByDish();
+        GroupTotals revenue = ledger.revenueMinorByDish();
+        out.println("By dish:");
+        for (int i = 0; i < quantities.size(); i++) {
+            int dishId = quantities.keyAt(i);
+            String name = restaurant.getMenu().findDishById(dishId).map(Dish::getName).orElse("dish " + dishId);
+            out.println("  " + name + " x" + quantities.totalAt(i) + " = ₪" + Money.toMajor(revenue.get(dishId)));
+        }
+
+        long hour = 60 * 60 * 1000L;
+        long from = ledger.getFirstClosedAtMillis() / hour * hour;
+        int hours = (int) ((System.currentTimeMillis() - from) / hour) + 1;
+        long[] perHour = ledger.quantityByTimeBucket(from, hour, hours);
+        out.println("Dishes per hour:");
+        for (int h = 0; h < perHour.length; h++) {
+            if (perHour[h] > 0) {
+                out.println("  " + Instant.ofEpochMilli(from + h * hour) + "  " + perHour[h]);
+            }
+        }
+    }
+
+    private void simulate(int minutes, int tables, long seed) {
+        // Runs on its own restaurant, so the interactive tables are not touched.
+        Restaurant simRestaurant = DemoData.createDemoRestaurant(tables);
+        SimulationConfig config = new SimulationConfig()
+                .setServiceMinutes(minutes)
+                .setSeed(seed);
+        SimulationResult result = new SimulationEngine(simRestaurant, config).run();
+        out.println(result);
+    }
+
+    private void whatIf(int replicas, int tables, int cooks) {
+        FloorPlan baseline = FloorPlan.of(DemoData.createDemoRestaurant(tables));
+        SimulationConfig config = new SimulationConfig().setKitchenCooks(cooks);
+        MonteCarloRunner runner = new MonteCarloRunner(restaurant.getMenu());
+
+        out.println(runner.run(new Scenario("baseline", baseline, config), replicas, 1));
+        out.println(runner.run(new Scenario("two 4-tops -> one 8-top",
+                baseline.removeTables(2, 4).addTables(1, 8), config), replicas, 1));
+        out.println(runner.run(new Scenario("prep times +20%", baseline,
+                config.copy().setPrepTimeFactor(1.2)), replicas, 1));
+    }
+
+    private void workload(double seconds, double partiesPerSecond, int tables, boolean lunch, boolean open) {
+        // lunch: half the rate most of the time, a 2s rush at 3x every 10s (same average rate)
+        ArrivalProcess arrivals = lunch
+                ? ArrivalProcess.bursty(partiesPerSecond * 0.5, partiesPerSecond * 3, 10, 2)
+                : ArrivalProcess.poisson(partiesPerSecond);
+        WorkloadConfig config = new WorkloadConfig()
+                .setArrivals(arrivals)
+                .setDurationSeconds(seconds)
+                .setPaced(!open);
+        WorkloadResult result = new WorkloadGenerator(DemoData.createDemoRestaurant(tables), config).run();
+        out.print(result);
+    }
+
+    private void checkpoint() throws IOException {
+        if (journalManager == null) {
+            throw new IllegalStateException("Journal is not enabled (start with --journal <dir>)");
+        }
+        journalManager.checkpoint();
+        out.println("Checkpoint written.");
+    }
+
+    private void closeJournal() throws IOException {
+        if (journalManager != null) {
+            journalManager.close();
+        }
     }
 
     // ---------------- Quick Tests ----------------
@@ -302,21 +704,23 @@ public class RestaurantSimulatorApp {
      * Run from the CLI by typing: test
      */
     private void runQuickTests() {
-        System.out.println("Running quick tests...");
-
-        // Choose a table we can "own" during tests.
-        int testTableId = 5;
-        Table table = restaurant.getTableById(testTableId);
+        out.println("Running quick tests...");
 
-        // Reset table to a known state
-        table.clear();
-        orderIdByTableId.remove(testTableId);
+        // Tests run on a fresh demo restaurant with its own services, so they never
+        // touch the live tables, the revenue, the sales ledger or the journal.
+        Restaurant testRestaurant = DemoData.createDemoRestaurant();
+        OrderService testOrders = new OrderService();
+        KitchenService testKitchen = new KitchenService(testOrders);
+        BillingService testBilling = new BillingService(testRestaurant);
 
         // Test 1: menu has dish #1, name not empty
-        Dish dish1 = restaurant.getMenu().getDishOrThrow(1);
+        Dish dish1 = testRestaurant.getMenu().getDishOrThrow(1);
         assertTrue(dish1.getName() != null && !dish1.getName().isBlank(), "Dish #1 should have a non-empty name");
 
         // Test 2: seat -> OCCUPIED
+        Table table = testRestaurant.findBestFitFreeTable(2)
+                .orElseThrow(() -> new IllegalStateException("TEST FAILED: demo restaurant has no free table for 2"));
+        int testTableId = table.getTableNumber();
         table.seat(2);
         assertEquals(TableStatus.OCCUPIED, table.getStatus(), "Table should be OCCUPIED after seat()");
 
@@ -330,35 +734,31 @@ public class RestaurantSimulatorApp {
         assertEquals(96.0, table.getBill(), "Bill after adding 2 of dish #1 should be 96.0 (based on demo data)");
 
         // Test 5: kitchen status flow
-        int orderId = orderService.addOrder(table.getOrder());
-        orderIdByTableId.put(testTableId, orderId);
+        int orderId = testOrders.addOrder(table.getOrder());
 
-        kitchenService.submitOrderToKitchen(orderId);
+        testKitchen.submitOrderToKitchen(orderId);
         assertEquals(OrderStatus.SUBMITTED, table.getOrder().getStatus(), "After submit, status should be SUBMITTED");
 
-        kitchenService.startPreparing(orderId);
+        testKitchen.startPreparing(orderId);
         assertEquals(OrderStatus.IN_PREP, table.getOrder().getStatus(), "After startPreparing, status should be IN_PREP");
 
-        kitchenService.orderIsReady(orderId);
+        testKitchen.orderIsReady(orderId);
         assertEquals(OrderStatus.READY, table.getOrder().getStatus(), "After orderIsReady, status should be READY");
 
         // Test 6: served + bill + pay clears table
-        billingService.markServed(testTableId);
+        testBilling.markServed(testTableId);
         assertEquals(OrderStatus.SERVED, table.getOrder().getStatus(), "After markServed, status should be SERVED");
 
-        billingService.requestBill(testTableId);
+        testBilling.requestBill(testTableId);
         assertEquals(TableStatus.WAITING_FOR_BILL, table.getStatus(), "After requestBill, table should be WAITING_FOR_BILL");
 
-        double paid = billingService.pay(testTableId);
+        double paid = testBilling.pay(testTableId);
         assertEquals(96.0, paid, "Paid amount should equal the bill (96.0)");
 
         assertEquals(TableStatus.FREE, table.getStatus(), "After pay, table should be FREE");
         assertTrue(!table.hasOrder(), "After pay, table should have no order");
 
-        // Clean up mapping
-        orderIdByTableId.remove(testTableId);
-
-        System.out.println("✅ All quick tests passed!");
+        out.println("✅ All quick tests passed!");
     }
 
     // ---------------- Helpers ----------------
@@ -371,8 +771,8 @@ public class RestaurantSimulatorApp {
         return orderId;
     }
 
-    private void requireArgs(String[] parts, int n) {
-        if (parts.length < n) {
+    private void requireArgs(int n) {
+        if (parser.getNumOfTokens() < n) {
             throw new IllegalArgumentException("Not enough arguments. Type 'help'.");
         }
     }
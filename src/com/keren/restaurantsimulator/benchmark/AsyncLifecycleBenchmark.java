@@ -0,0 +1,120 @@
+package com.keren.restaurantsimulator.benchmark;
+
+import com.keren.restaurantsimulator.app.DemoData;
+import com.keren.restaurantsimulator.model.Money;
+import com.keren.restaurantsimulator.model.Restaurant;
+import com.keren.restaurantsimulator.service.AsyncRestaurantService;
+import com.keren.restaurantsimulator.service.BillingService;
+import com.keren.restaurantsimulator.service.KitchenService;
+import com.keren.restaurantsimulator.service.OrderRetention;
+import com.keren.restaurantsimulator.service.OrderService;
+import com.keren.restaurantsimulator.service.TableService;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs full table lifecycles (seat, open, 2 dishes, submit, prep, ready,
+ * served, bill, pay: 10 service calls) on every table of a demo restaurant,
+ * once with the synchronous services on the calling thread and once through
+ * AsyncRestaurantService, where all calls of all tables are fired without
+ * waiting and only the final pay futures are joined.
+ *
+ * "submit" is how long the caller was busy handing out the calls; "total"
+ * includes waiting for every table to be paid.
+ *
+ * Run: java com.keren.restaurantsimulator.benchmark.AsyncLifecycleBenchmark [tables] [rounds]
+ */
+public final class AsyncLifecycleBenchmark {
+
+    private static final int CALLS_PER_LIFECYCLE = 10;
+
+    private AsyncLifecycleBenchmark() {}
+
+    public static void main(String[] args) {
+        int tables = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+        System.out.println("Available processors: " + Runtime.getRuntime().availableProcessors());
+        for (int warmup = 0; warmup < 3; warmup++) {
+            runSync(tables, rounds, false);
+            runAsync(tables, rounds, false);
+        }
+        runSync(tables, rounds, true);
+        runAsync(tables, rounds, true);
+    }
+
+    private static void runSync(int tables, int rounds, boolean print) {
+        Restaurant restaurant = DemoData.createDemoRestaurant(tables);
+        TableService tableService = new TableService(restaurant);
+        OrderService orderService = new OrderService();
+        KitchenService kitchenService = new KitchenService(orderService);
+        BillingService billingService = new BillingService(restaurant);
+
+        long start = System.nanoTime();
+        for (int round = 0; round < rounds; round++) {
+            for (int t = 1; t <= tables; t++) {
+                tableService.seat(t, 1);
+                tableService.openOrder(t);
+                tableService.addDish(t, 1, 1);
+                tableService.addDish(t, 3, 2);
+                int orderId = orderService.addOrder(tableService.getOrder(t));
+                kitchenService.submitOrderToKitchen(orderId);
+                kitchenService.startPreparing(orderId);
+                kitchenService.orderIsReady(orderId);
+                billingService.markServed(t);
+                billingService.requestBill(t);
+                billingService.pay(t);
+                orderService.removeOrder(orderId);
+            }
+        }
+        long end = System.nanoTime();
+        checkRevenue(billingService.getRevenueMinor(), tables, rounds);
+        if (print) {
+            print("sync", start, end, end, tables, rounds);
+        }
+    }
+
+    private static void runAsync(int tables, int rounds, boolean print) {
+        try (AsyncRestaurantService async = new AsyncRestaurantService(DemoData.createDemoRestaurant(tables))) {
+            // Paid orders go to a bounded archive, like removeOrder() in the sync run
+            async.getOrderService().setRetention(new OrderRetention().setMaxArchivedOrders(tables));
+            CompletableFuture<?>[] paid = new CompletableFuture<?>[tables];
+            long start = System.nanoTime();
+            for (int round = 0; round < rounds; round++) {
+                for (int t = 1; t <= tables; t++) {
+                    async.seat(t, 1);
+                    async.openOrder(t);
+                    async.addDish(t, 1, 1);
+                    async.addDish(t, 3, 2);
+                    async.submit(t);
+                    async.startPreparing(t);
+                    async.orderIsReady(t);
+                    async.markServed(t);
+                    async.requestBill(t);
+                    paid[t - 1] = async.pay(t);
+                }
+            }
+            long submitted = System.nanoTime();
+            CompletableFuture.allOf(paid).join();
+            checkRevenue(async.getBillingService().getRevenueMinor(), tables, rounds);
+            if (print) {
+                print("async", start, submitted, System.nanoTime(), tables, rounds);
+            }
+        }
+    }
+
+    // Every lifecycle pays 1 x dish 1 + 2 x dish 3 of the demo menu
+    private static void checkRevenue(long revenueMinor, int tables, int rounds) {
+        long expected = (long) tables * rounds * (Money.toMinor(48.0) + 2 * Money.toMinor(34.0));
+        if (revenueMinor != expected) {
+            throw new IllegalStateException("revenue " + revenueMinor + " != " + expected);
+        }
+    }
+
+    private static void print(String name, long start, long submitted, long end, int tables, int rounds) {
+        long calls = (long) tables * rounds * CALLS_PER_LIFECYCLE;
+        System.out.printf("%-6s tables=%,d  calls=%,d  submit=%7.1f ms  total=%7.1f ms  %,12.0f calls/s%n",
+                name, tables, calls, (submitted - start) / 1e6, (end - start) / 1e6,
+                calls / ((end - start) / 1e9));
+    }
+}
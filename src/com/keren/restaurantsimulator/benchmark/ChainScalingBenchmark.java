@@ -0,0 +1,118 @@
+package com.keren.restaurantsimulator.benchmark;
+
+import com.keren.restaurantsimulator.app.DemoData;
+import com.keren.restaurantsimulator.chain.ChainHost;
+import com.keren.restaurantsimulator.chain.Location;
+import com.keren.restaurantsimulator.model.Order;
+import com.keren.restaurantsimulator.model.Table;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures full table turns per second through a ChainHost with 1, 2, 4 and
+ * 8 shards (64 locations of 20 tables each).
+ *
+ * One client thread per shard submits turns for the locations of that shard
+ * without waiting for each answer; it waits on every PIPELINE-th future so at
+ * most PIPELINE commands per client are queued.
+ *
+ * Run: java com.keren.restaurantsimulator.benchmark.ChainScalingBenchmark [seconds per run]
+ */
+public final class ChainScalingBenchmark {
+
+    private static final int LOCATIONS = 64;
+    private static final int TABLES_PER_LOCATION = 20;
+    private static final int PIPELINE = 1024;
+    private static final int[] SHARD_COUNTS = {1, 2, 4, 8};
+
+    private ChainScalingBenchmark() {}
+
+    public static void main(String[] args) throws InterruptedException {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 2.0;
+        long runNanos = (long) (seconds * 1_000_000_000L);
+
+        System.out.println("Available processors: " + Runtime.getRuntime().availableProcessors());
+        run(1, runNanos); // warm-up
+
+        double baseline = 0;
+        for (int shards : SHARD_COUNTS) {
+            double turnsPerSecond = run(shards, runNanos);
+            if (shards == 1) {
+                baseline = turnsPerSecond;
+            }
+            System.out.printf("shards=%d  turns/s=%,12.0f  speedup=%5.2fx%n",
+                    shards, turnsPerSecond, turnsPerSecond / baseline);
+        }
+    }
+
+    private static double run(int shards, long runNanos) throws InterruptedException {
+        ChainHost chain = new ChainHost(shards);
+        for (int id = 0; id < LOCATIONS; id++) {
+            chain.addRestaurant(id, DemoData.createDemoRestaurant(TABLES_PER_LOCATION)).join();
+        }
+
+        LongAdder turns = new LongAdder();
+        CountDownLatch startGate = new CountDownLatch(1);
+        Thread[] clients = new Thread[shards];
+        for (int c = 0; c < shards; c++) {
+            final int shard = c;
+            clients[c] = new Thread(() -> {
+                try {
+                    startGate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long count = 0;
+                CompletableFuture<Double> last = null;
+                long deadline = System.nanoTime() + runNanos;
+                // locations owned by this client's shard: shard, shard + shards, ...
+                int id = shard;
+                int table = 1;
+                while (System.nanoTime() < deadline) {
+                    for (int i = 0; i < PIPELINE; i++) {
+                        final int tableNumber = table;
+                        last = chain.submit(id, location -> fullTurn(location, tableNumber));
+                        id += shards;
+                        if (id >= LOCATIONS) {
+                            id = shard;
+                            table = table % TABLES_PER_LOCATION + 1;
+                        }
+                    }
+                    last.join();
+                    count += PIPELINE;
+                }
+                turns.add(count);
+            });
+            clients[c].start();
+        }
+
+        long start = System.nanoTime();
+        startGate.countDown();
+        for (Thread client : clients) {
+            client.join();
+        }
+        long elapsed = System.nanoTime() - start;
+        chain.shutdown(10, TimeUnit.SECONDS);
+        return turns.sum() * 1_000_000_000.0 / elapsed;
+    }
+
+    private static double fullTurn(Location location, int tableNumber) {
+        Table table = location.getRestaurant().getTableById(tableNumber);
+        location.getTableService().seat(tableNumber, Math.min(2, table.getCapacity()));
+        Order order = location.getTableService().openOrder(tableNumber);
+        location.getTableService().addDish(tableNumber, 1, 1);
+        int orderId = location.getOrderService().addOrder(order);
+        location.getKitchenService().submitOrderToKitchen(orderId);
+        location.getKitchenService().startPreparing(orderId);
+        location.getKitchenService().orderIsReady(orderId);
+        location.getBillingService().markServed(tableNumber);
+        location.getBillingService().requestBill(tableNumber);
+        double paid = location.getBillingService().pay(tableNumber);
+        location.getOrderService().removeOrder(orderId);
+        return paid;
+    }
+}
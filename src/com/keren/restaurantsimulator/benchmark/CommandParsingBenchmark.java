@@ -0,0 +1,108 @@
+package com.keren.restaurantsimulator.benchmark;
+
+import com.keren.restaurantsimulator.app.Command;
+import com.keren.restaurantsimulator.app.CommandLineReader;
+import com.keren.restaurantsimulator.app.CommandParser;
+
+import java.io.BufferedReader;
+import java.io.CharArrayReader;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.regex.Pattern;
+
+/**
+ * Compares the old CLI parsing (BufferedReader.readLine, trim, regex split,
+ * toLowerCase, String switch, Integer.parseInt) with CommandLineReader +
+ * CommandParser on an in-memory shift log.
+ *
+ * Only reading, parsing and dispatching are measured: every command is
+ * "dispatched" to a switch that adds up its arguments, so the service calls
+ * (which allocate orders etc. on their own) do not hide the parser.
+ * Allocation is read from the JVM's per-thread allocated-bytes counter.
+ *
+ * Run: java com.keren.restaurantsimulator.benchmark.CommandParsingBenchmark [commands]
+ */
+public final class CommandParsingBenchmark {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final String[] TURN = {
+            "seat %d 2", "open %d", "add %d 1 2", "add %d 3 1", "submit %d",
+            "prep %d", "ready %d", "served %d", "bill %d", "pay %d"
+    };
+
+    private CommandParsingBenchmark() {}
+
+    private interface Pass {
+        long run(char[] script) throws IOException;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int commands = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        char[] script = buildScript(commands);
+
+        for (int warmup = 0; warmup < 5; warmup++) {
+            legacy(script);
+            parser(script);
+        }
+        report("legacy split + parseInt", commands, script, CommandParsingBenchmark::legacy);
+        report("CommandParser", commands, script, CommandParsingBenchmark::parser);
+    }
+
+    private static void report(String name, int commands, char[] script, Pass pass) throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        long checksum = pass.run(script);
+        long elapsed = System.nanoTime() - start;
+        long bytes = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+        System.out.printf("%-26s %8.1f ns/command %8.1f bytes/command (checksum %d)%n",
+                name, (double) elapsed / commands, (double) bytes / commands, checksum);
+    }
+
+    private static long legacy(char[] script) throws IOException {
+        long sum = 0;
+        BufferedReader reader = new BufferedReader(new CharArrayReader(script), 1 << 16);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty()) continue;
+            String[] parts = WHITESPACE.split(line);
+            switch (parts[0].toLowerCase()) {
+                case "seat", "add" -> sum += Integer.parseInt(parts[1]) + Integer.parseInt(parts[2]);
+                case "open", "submit", "prep", "ready", "served", "bill", "pay" -> sum += Integer.parseInt(parts[1]);
+                default -> sum--;
+            }
+        }
+        return sum;
+    }
+
+    private static long parser(char[] script) throws IOException {
+        long sum = 0;
+        CommandLineReader lines = new CommandLineReader(new CharArrayReader(script), 1 << 16);
+        CommandParser parser = new CommandParser();
+        while (lines.next()) {
+            Command command = parser.parse(lines.getBuffer(), lines.getLineStart(), lines.getLineEnd());
+            switch (command) {
+                case BLANK -> { }
+                case SEAT, ADD -> sum += parser.intArg(1) + parser.intArg(2);
+                case OPEN, SUBMIT, PREP, READY, SERVED, BILL, PAY -> sum += parser.intArg(1);
+                default -> sum--;
+            }
+        }
+        return sum;
+    }
+
+    private static char[] buildScript(int commands) {
+        StringBuilder sb = new StringBuilder(commands * 10);
+        for (int i = 0; i < commands; i++) {
+            int table = 1 + (i / TURN.length) % 5;
+            sb.append(String.format(TURN[i % TURN.length], table)).append('\n');
+        }
+        char[] script = new char[sb.length()];
+        sb.getChars(0, sb.length(), script, 0);
+        return script;
+    }
+}
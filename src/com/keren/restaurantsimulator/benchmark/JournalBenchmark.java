@@ -0,0 +1,98 @@
+package com.keren.restaurantsimulator.benchmark;
+
+import com.keren.restaurantsimulator.app.DemoData;
+import com.keren.restaurantsimulator.model.Restaurant;
+import com.keren.restaurantsimulator.persistence.JournalManager;
+import com.keren.restaurantsimulator.service.BillingService;
+import com.keren.restaurantsimulator.service.KitchenService;
+import com.keren.restaurantsimulator.service.OrderService;
+import com.keren.restaurantsimulator.service.TableService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Measures what journaling costs per operation and how long recovery takes.
+ *
+ * Runs N full table turns (about 11 journaled operations each) without and
+ * with a journal, then recovers the state twice: once by replaying the whole
+ * journal, once from a checkpoint snapshot.
+ *
+ * Run: java com.keren.restaurantsimulator.benchmark.JournalBenchmark [orders] [dir]
+ */
+public final class JournalBenchmark {
+
+    private static final int TABLES = 1_000;
+    private static final int OPS_PER_TURN = 11;
+
+    private JournalBenchmark() {}
+
+    public static void main(String[] args) throws IOException {
+        int orders = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path dir = args.length > 1 ? Path.of(args[1]) : Files.createTempDirectory("restaurant-journal");
+
+        Services plain = new Services();
+        runDay(plain, orders / 10); // warm-up
+        plain = new Services();
+        long plainNanos = runDay(plain, orders);
+
+        Services journaled = new Services();
+        JournalManager manager = journaled.openJournal(dir);
+        long journaledNanos = runDay(journaled, orders);
+        manager.close();
+
+        long ops = (long) orders * OPS_PER_TURN;
+        System.out.printf("orders=%,d  without journal: %.1f ns/op  with journal: %.1f ns/op  (+%.1f ns/op)%n",
+                orders, (double) plainNanos / ops, (double) journaledNanos / ops,
+                (double) (journaledNanos - plainNanos) / ops);
+        plain = null;
+        journaled = null;
+
+        Services fromJournal = new Services();
+        JournalManager recovered = fromJournal.openJournal(dir);
+        System.out.println("Recovery by full replay:  " + recovered.getRecoveryResult());
+        long start = System.nanoTime();
+        recovered.checkpoint();
+        System.out.printf("Checkpoint written in %.1f ms%n", (System.nanoTime() - start) / 1_000_000.0);
+        recovered.close();
+        fromJournal = null;
+
+        Services fromSnapshot = new Services();
+        JournalManager reopened = fromSnapshot.openJournal(dir);
+        System.out.println("Recovery from snapshot:   " + reopened.getRecoveryResult());
+        reopened.close();
+    }
+
+    // Full turns; orders are kept in the OrderService, like a real day's history
+    private static long runDay(Services s, int orders) {
+        long start = System.nanoTime();
+        for (int i = 0; i < orders; i++) {
+            int tableId = 1 + i % TABLES;
+            s.tables.seat(tableId, 2);
+            s.tables.openOrder(tableId);
+            s.tables.addDish(tableId, 1 + i % 7, 2);
+            s.tables.addDish(tableId, 1 + (i + 3) % 7, 1);
+            int orderId = s.orders.addOrder(s.tables.getOrder(tableId));
+            s.kitchen.submitOrderToKitchen(orderId);
+            s.kitchen.startPreparing(orderId);
+            s.kitchen.orderIsReady(orderId);
+            s.billing.markServed(tableId);
+            s.billing.requestBill(tableId);
+            s.billing.pay(tableId);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static final class Services {
+        final Restaurant restaurant = DemoData.createDemoRestaurant(TABLES);
+        final TableService tables = new TableService(restaurant);
+        final OrderService orders = new OrderService();
+        final KitchenService kitchen = new KitchenService(orders);
+        final BillingService billing = new BillingService(restaurant);
+
+        JournalManager openJournal(Path dir) throws IOException {
+            return JournalManager.open(dir, restaurant, tables, orders, kitchen, billing, 10, false);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.keren.restaurantsimulator.benchmark;
+
+import com.keren.restaurantsimulator.app.DemoData;
+import com.keren.restaurantsimulator.model.Dish;
+import com.keren.restaurantsimulator.model.Menu;
+import com.keren.restaurantsimulator.model.Order;
+import com.keren.restaurantsimulator.service.KitchenEtaEstimator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps `open` orders (2-3 demo dishes each) in a KitchenEtaEstimator and
+ * cycles them: every step starts the oldest waiting order, finishes the
+ * oldest cooking one and submits a new one, on a simulated clock that
+ * advances 1.5 ms per step. Prints the cost of one event and of one full
+ * display refresh (forEachEta over every open order), and the calibrated
+ * nanos per prep minute.
+ *
+ * Run: java com.keren.restaurantsimulator.benchmark.KitchenEtaBenchmark [open] [steps]
+ */
+public final class KitchenEtaBenchmark {
+
+    private static final long NANOS_PER_STEP = 1_500_000L;
+
+    private KitchenEtaBenchmark() {}
+
+    public static void main(String[] args) {
+        int open = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int steps = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+
+        Menu menu = DemoData.createDemoRestaurant(1).getMenu();
+        List<Dish> dishes = new ArrayList<>(menu.listDishes());
+        // A pool of orders reused by id, so the timed loop measures only the estimator
+        Order[] pool = new Order[1024];
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = order(i, dishes);
+        }
+        long[] now = {1};
+        KitchenEtaEstimator estimator = new KitchenEtaEstimator(4, 1_000_000L, 256, () -> now[0]);
+
+        // Ring of order ids: [cooking ... | waiting ...], oldest first
+        int[] ring = new int[open];
+        int nextId = 1;
+        for (int i = 0; i < open; i++) {
+            estimator.onSubmitted(nextId, pool[nextId % pool.length]);
+            ring[i] = nextId++;
+        }
+        int cooking = open / 10;
+        for (int i = 0; i < cooking; i++) {
+            estimator.onStarted(ring[i]);
+        }
+
+        for (int round = 0; round < 2; round++) {
+            int head = 0;
+            long t0 = System.nanoTime();
+            for (int s = 0; s < steps; s++) {
+                now[0] += NANOS_PER_STEP;
+                int done = ring[head];
+                estimator.onReady(done);
+                estimator.onStarted(ring[(head + cooking) % open]);
+                ring[head] = nextId;
+                estimator.onSubmitted(nextId, pool[nextId % pool.length]);
+                nextId++;
+                head = (head + 1) % open;
+            }
+            long t1 = System.nanoTime();
+
+            long[] sink = {0};
+            int refreshes = 1_000;
+            for (int r = 0; r < refreshes; r++) {
+                estimator.forEachEta((orderId, eta) -> sink[0] += eta);
+            }
+            long t2 = System.nanoTime();
+
+            if (round == 1) {
+                System.out.printf("open=%,d  events=%,d  %5.1f ns/event  refresh=%7.1f us (%4.1f ns/order)  "
+                                + "calibrated nanos/prep-minute=%,d  sink=%d%n",
+                        estimator.getNumOfOpenOrders(), 3L * steps, (t1 - t0) / (3.0 * steps),
+                        (t2 - t1) / 1e3 / refreshes, (double) (t2 - t1) / refreshes / open,
+                        estimator.getNanosPerPrepMinute(), sink[0] & 1);
+            }
+        }
+    }
+
+    // Orders are not registered anywhere; the estimator only reads the lines
+    private static Order order(int id, List<Dish> dishes) {
+        Order order = new Order();
+        order.addDish(dishes.get(id % dishes.size()), 1);
+        order.addDish(dishes.get((id * 7) % dishes.size()), 2);
+        if (id % 3 == 0) {
+            order.addDish(dishes.get((id * 13) % dishes.size()), 1);
+        }
+        return order;
+    }
+}
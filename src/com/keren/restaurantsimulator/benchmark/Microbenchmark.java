@@ -0,0 +1,78 @@
+package com.keren.restaurantsimulator.benchmark;
+
+/**
+ * Microbenchmark is a tiny, dependency-free benchmark harness.
+ *
+ * A benchmark is an Operation that does some work and returns a value derived
+ * from it. Values are summed and published to a volatile field, so the JIT
+ * cannot drop the work as dead code. Each benchmark first runs warm-up rounds,
+ * then measured rounds, and reports the best and average nanoseconds per
+ * operation.
+ */
+public final class Microbenchmark {
+
+    public interface Operation {
+        /**
+         * Runs one invocation.
+         *
+         * @param i invocation counter (handy for picking inputs from an array)
+         * @return any value computed from the work (consumed by the harness)
+         */
+        long run(int i);
+    }
+
+    private static volatile long sink;
+
+    private final int warmupRounds;
+    private final int measuredRounds;
+    private final long roundNanos;
+
+    public Microbenchmark(int warmupRounds, int measuredRounds, long roundMillis) {
+        if (warmupRounds < 0 || measuredRounds <= 0 || roundMillis <= 0) {
+            throw new IllegalArgumentException("invalid benchmark settings");
+        }
+        this.warmupRounds = warmupRounds;
+        this.measuredRounds = measuredRounds;
+        this.roundNanos = roundMillis * 1_000_000L;
+    }
+
+    /**
+     * Measures an operation and prints one result line.
+     *
+     * @param opsPerInvocation how many logical operations one run() performs
+     *                         (e.g. lines added to an order), used for ns/op
+     */
+    public void measure(String name, String params, int opsPerInvocation, Operation operation) {
+        for (int r = 0; r < warmupRounds; r++) {
+            round(operation, opsPerInvocation);
+        }
+        double best = Double.MAX_VALUE;
+        double total = 0;
+        for (int r = 0; r < measuredRounds; r++) {
+            double nsPerOp = round(operation, opsPerInvocation);
+            best = Math.min(best, nsPerOp);
+            total += nsPerOp;
+        }
+        System.out.printf("%-34s %-18s %12.1f ns/op (best) %12.1f ns/op (avg)%n",
+                name, params, best, total / measuredRounds);
+    }
+
+    private double round(Operation operation, int opsPerInvocation) {
+        long result = 0;
+        long invocations = 0;
+        int batch = 1;
+        long start = System.nanoTime();
+        long elapsed;
+        do {
+            for (int b = 0; b < batch; b++) {
+                result += operation.run((int) invocations++);
+            }
+            elapsed = System.nanoTime() - start;
+            if (batch < 1 << 16) {
+                batch <<= 1;
+            }
+        } while (elapsed < roundNanos);
+        sink += result;
+        return (double) elapsed / (invocations * opsPerInvocation);
+    }
+}
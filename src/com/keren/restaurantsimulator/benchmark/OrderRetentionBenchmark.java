@@ -0,0 +1,79 @@
+package com.keren.restaurantsimulator.benchmark;
+
+import com.keren.restaurantsimulator.app.DemoData;
+import com.keren.restaurantsimulator.enums.OrderStatus;
+import com.keren.restaurantsimulator.model.ArchivedOrder;
+import com.keren.restaurantsimulator.model.Dish;
+import com.keren.restaurantsimulator.model.Order;
+import com.keren.restaurantsimulator.service.OrderRetention;
+import com.keren.restaurantsimulator.service.OrderService;
+
+import java.util.SplittableRandom;
+
+/**
+ * Runs the same stream of orders (1-4 lines each, every one closed as PAID)
+ * through an OrderService with three retention settings and prints the heap
+ * still in use afterwards:
+ * - keep:     no retention, every closed Order object stays live
+ * - archive:  closed orders compacted into the OrderArchive, no limit
+ * - bounded:  archive limited to the newest 10% of the orders
+ *
+ * Run: java com.keren.restaurantsimulator.benchmark.OrderRetentionBenchmark [orders]
+ */
+public final class OrderRetentionBenchmark {
+
+    private OrderRetentionBenchmark() {}
+
+    public static void main(String[] args) {
+        int orders = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Dish[] dishes = DemoData.createDemoRestaurant(1).getMenu().listDishes().toArray(new Dish[0]);
+
+        run("keep", null, orders, dishes); // warm-up
+        run("keep", null, orders, dishes);
+        run("archive", new OrderRetention(), orders, dishes);
+        run("bounded", new OrderRetention().setMaxArchivedOrders(Math.max(1, orders / 10)), orders, dishes);
+    }
+
+    private static void run(String name, OrderRetention retention, int orders, Dish[] dishes) {
+        long before = usedHeapAfterGc();
+        OrderService service = new OrderService();
+        if (retention != null) {
+            service.setRetention(retention);
+        }
+        SplittableRandom random = new SplittableRandom(7);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < orders; i++) {
+            Order order = new Order(1 + random.nextInt(50));
+            int lines = 1 + random.nextInt(4);
+            for (int l = 0; l < lines; l++) {
+                order.addDish(dishes[random.nextInt(dishes.length)], 1 + random.nextInt(3));
+            }
+            service.addOrder(order);
+            order.setStatus(OrderStatus.PAID);
+        }
+        long elapsed = System.nanoTime() - start;
+        long retained = usedHeapAfterGc() - before;
+
+        // Reprint of the newest order must still work in every mode
+        int lastId = service.getNextOrderId() - 1;
+        ArchivedOrder archived = service.getArchivedOrder(lastId);
+        long lastTotal = archived != null ? archived.getTotalPriceMinor() : service.getOrder(lastId).getTotalPriceMinor();
+        if (lastTotal <= 0) {
+            throw new IllegalStateException("order " + lastId + " lost its total");
+        }
+
+        int archivedCount = service.getArchive() == null ? 0 : service.getArchive().size();
+        System.out.printf("%-8s orders=%,d  live=%,d  archived=%,d  retained=%,8.1f MB (%5.1f B/order)  %6.0f ns/order%n",
+                name, orders, service.getNumOfOrders(), archivedCount,
+                retained / 1e6, (double) retained / orders, (double) elapsed / orders);
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,96 @@
+package com.keren.restaurantsimulator.benchmark;
+
+import com.keren.restaurantsimulator.model.Order;
+import com.keren.restaurantsimulator.service.OrderService;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures addOrder/getOrder throughput of OrderService.concurrent()
+ * with 1, 2, 4, 8 and 16 threads.
+ *
+ * Every thread keeps a sliding window of its last WINDOW order ids: it adds an
+ * order, reads a random order from its window, and removes the oldest id once
+ * the window is full (so the map size stays bounded).
+ *
+ * Run: java com.keren.restaurantsimulator.benchmark.OrderServiceScalingBenchmark [seconds per run]
+ */
+public final class OrderServiceScalingBenchmark {
+
+    private static final int WINDOW = 1024;
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16};
+
+    private OrderServiceScalingBenchmark() {}
+
+    public static void main(String[] args) throws InterruptedException {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 2.0;
+        long runNanos = (long) (seconds * 1_000_000_000L);
+
+        System.out.println("Available processors: " + Runtime.getRuntime().availableProcessors());
+        run(1, runNanos); // warm-up
+
+        double baseline = 0;
+        for (int threads : THREAD_COUNTS) {
+            double opsPerSecond = run(threads, runNanos);
+            if (threads == 1) {
+                baseline = opsPerSecond;
+            }
+            System.out.printf("threads=%2d  ops/s=%,14.0f  speedup=%5.2fx%n",
+                    threads, opsPerSecond, opsPerSecond / baseline);
+        }
+    }
+
+    private static double run(int threads, long runNanos) throws InterruptedException {
+        OrderService service = OrderService.concurrent();
+        LongAdder ops = new LongAdder();
+        CountDownLatch startGate = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+
+        for (int t = 0; t < threads; t++) {
+            final long seed = t;
+            workers[t] = new Thread(() -> {
+                Order[] orders = new Order[WINDOW];
+                for (int i = 0; i < WINDOW; i++) {
+                    orders[i] = new Order();
+                }
+                int[] window = new int[WINDOW];
+                SplittableRandom random = new SplittableRandom(seed);
+                long count = 0;
+                int next = 0;
+                int filled = 0;
+
+                try {
+                    startGate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long deadline = System.nanoTime() + runNanos;
+                while ((count & 1023) != 0 || System.nanoTime() < deadline) {
+                    if (filled == WINDOW) {
+                        service.removeOrder(window[next]);
+                    } else {
+                        filled++;
+                    }
+                    window[next] = service.addOrder(orders[next]);
+                    next = (next + 1) % WINDOW;
+
+                    service.getOrder(window[random.nextInt(filled)]);
+                    count += 2;
+                }
+                ops.add(count);
+            });
+            workers[t].start();
+        }
+
+        long start = System.nanoTime();
+        startGate.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - start;
+        return ops.sum() * 1_000_000_000.0 / elapsed;
+    }
+}
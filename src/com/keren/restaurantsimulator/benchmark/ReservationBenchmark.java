@@ -0,0 +1,201 @@
+package com.keren.restaurantsimulator.benchmark;
+
+import com.keren.restaurantsimulator.enums.TableStatus;
+import com.keren.restaurantsimulator.exception.TableNotAvailableException;
+import com.keren.restaurantsimulator.model.Menu;
+import com.keren.restaurantsimulator.model.Reservation;
+import com.keren.restaurantsimulator.model.ReservationBook;
+import com.keren.restaurantsimulator.model.Restaurant;
+import com.keren.restaurantsimulator.model.Table;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+/**
+ * A large floor (tables of 2..10 seats) with a 90-day booking horizon in
+ * 15-minute slots, pre-filled with `bookingsPerTable` random bookings each.
+ * Then, for random parties and stays (1-3 hours):
+ * - findAvailableTable() through the gap index, against a scan of every
+ *   table that fits with isAvailable() (same answer checked)
+ * - bookAny() followed by cancel(), so the book stays the same size
+ * Last, walk-ins while the clock moves through the horizon: best-fit
+ * seating through the walk-in index, against a scan of the FREE tables
+ * with isFreeForWalkIn() (same capacity checked). Seated parties leave
+ * at random, so about half the floor stays occupied.
+ *
+ * Run: java com.keren.restaurantsimulator.benchmark.ReservationBenchmark [tables] [bookingsPerTable] [queries]
+ */
+public final class ReservationBenchmark {
+
+    private static final long MINUTE = 60_000L;
+    private static final int SLOT_MINUTES = 15;
+    private static final int HORIZON_DAYS = 90;
+    private static final long ORIGIN = 0L;
+
+    private ReservationBenchmark() {}
+
+    public static void main(String[] args) {
+        int tables = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int bookingsPerTable = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int queries = args.length > 2 ? Integer.parseInt(args[2]) : 20_000;
+
+        Restaurant restaurant = new Restaurant(new Menu());
+        for (int i = 1; i <= tables; i++) {
+            restaurant.addTable(new Table(i, 2 + i % 9));
+        }
+        ReservationBook book = restaurant.openReservationBook(ORIGIN, SLOT_MINUTES, HORIZON_DAYS);
+
+        Random random = new Random(42);
+        long t0 = System.nanoTime();
+        int booked = 0;
+        for (Table table : restaurant.listTables()) {
+            for (int i = 0; i < bookingsPerTable; i++) {
+                long start = randomStart(random);
+                try {
+                    book.book(table.getTableNumber(), 1, "", start, start + randomStay(random));
+                    booked++;
+                } catch (TableNotAvailableException e) {
+                    // overlaps an earlier random booking; skip it
+                }
+            }
+        }
+        long t1 = System.nanoTime();
+        System.out.printf("book()               %8.0f ns/op  (%,d bookings on %,d tables)%n",
+                (t1 - t0) / (double) booked, book.size(), tables);
+
+        for (int round = 0; round < 3; round++) {
+            boolean print = round == 2;
+            long[] starts = new long[queries];
+            long[] ends = new long[queries];
+            int[] parties = new int[queries];
+            for (int q = 0; q < queries; q++) {
+                starts[q] = randomStart(random);
+                ends[q] = starts[q] + randomStay(random);
+                parties[q] = 1 + random.nextInt(10);
+            }
+
+            long t2 = System.nanoTime();
+            int[] indexed = new int[queries];
+            for (int q = 0; q < queries; q++) {
+                indexed[q] = book.findAvailableTable(parties[q], starts[q], ends[q])
+                        .map(Table::getTableNumber).orElse(-1);
+            }
+            long t3 = System.nanoTime();
+
+            // The scan gets fewer queries: it is far slower
+            int scanQueries = Math.max(1, queries / 20);
+            List<Table> all = new ArrayList<>(restaurant.listTables());
+            int mismatches = 0;
+            for (int q = 0; q < scanQueries; q++) {
+                int bestCapacity = Integer.MAX_VALUE;
+                for (Table table : all) {
+                    if (table.getCapacity() >= parties[q] && table.getCapacity() < bestCapacity
+                            && book.isAvailable(table.getTableNumber(), starts[q], ends[q])) {
+                        bestCapacity = table.getCapacity();
+                    }
+                }
+                int found = indexed[q] < 0 ? Integer.MAX_VALUE : restaurant.getTableById(indexed[q]).getCapacity();
+                if (found != bestCapacity) {
+                    mismatches++;
+                }
+            }
+            long t4 = System.nanoTime();
+
+            int kept = 0;
+            for (int q = 0; q < queries; q++) {
+                try {
+                    Reservation r = book.bookAny(parties[q], "", starts[q], ends[q]);
+                    book.cancel(r.getId());
+                    kept++;
+                } catch (TableNotAvailableException e) {
+                    // no table for this party and stay
+                }
+            }
+            long t5 = System.nanoTime();
+
+            if (print) {
+                System.out.printf("findAvailableTable() %8.0f ns/op  (%,d found of %,d)%n",
+                        (t3 - t2) / (double) queries, countFound(indexed), queries);
+                System.out.printf("scan + isAvailable() %8.0f ns/op  (%d mismatches in %,d)%n",
+                        (t4 - t3) / (double) scanQueries, mismatches, scanQueries);
+                System.out.printf("bookAny() + cancel() %8.0f ns/op  (%,d booked)%n",
+                        (t5 - t4) / (double) queries, kept);
+            }
+        }
+
+        walkIns(restaurant, book, random, queries);
+    }
+
+    private static void walkIns(Restaurant restaurant, ReservationBook book, Random random, int walkIns) {
+        long[] now = {ORIGIN};
+        book.setClock(() -> now[0]);
+        long step = HORIZON_DAYS * 24 * 60 * MINUTE / walkIns;
+        List<Table> seated = new ArrayList<>();
+        int scans = 0;
+        int mismatches = 0;
+        int found = 0;
+        long indexNanos = 0;
+        long scanNanos = 0;
+        for (int q = 0; q < walkIns; q++) {
+            now[0] += random.nextLong(2 * step);
+            int party = 1 + random.nextInt(10);
+
+            long t0 = System.nanoTime();
+            Optional<Table> best = restaurant.findBestFitFreeTable(party);
+            indexNanos += System.nanoTime() - t0;
+
+            if (q % 20 == 0) {
+                long t1 = System.nanoTime();
+                int bestCapacity = Integer.MAX_VALUE;
+                for (Table table : restaurant.listTablesByStatus(TableStatus.FREE)) {
+                    if (table.getCapacity() >= party && table.getCapacity() < bestCapacity
+                            && book.isFreeForWalkIn(table)) {
+                        bestCapacity = table.getCapacity();
+                    }
+                }
+                scanNanos += System.nanoTime() - t1;
+                scans++;
+                if (bestCapacity != best.map(Table::getCapacity).orElse(Integer.MAX_VALUE)) {
+                    mismatches++;
+                }
+            }
+
+            if (best.isPresent()) {
+                best.get().seat(party); // passes the walk-in check
+                seated.add(best.get());
+                found++;
+            }
+            if (seated.size() > restaurant.size() / 2) {
+                int leaving = random.nextInt(seated.size());
+                seated.get(leaving).clear();
+                seated.set(leaving, seated.get(seated.size() - 1));
+                seated.remove(seated.size() - 1);
+            }
+        }
+        System.out.printf("walk-in best fit     %8.0f ns/op  (%,d seated of %,d)%n",
+                indexNanos / (double) walkIns, found, walkIns);
+        System.out.printf("scan + isFreeForWalkIn() %4.0f ns/op  (%d mismatches in %,d)%n",
+                scanNanos / (double) scans, mismatches, scans);
+    }
+
+    private static long randomStart(Random random) {
+        int slots = HORIZON_DAYS * 24 * 60 / SLOT_MINUTES - 12;
+        return ORIGIN + random.nextInt(slots) * SLOT_MINUTES * MINUTE;
+    }
+
+    private static long randomStay(Random random) {
+        return (60 + random.nextInt(9) * SLOT_MINUTES) * MINUTE;
+    }
+
+    private static int countFound(int[] tableNumbers) {
+        int found = 0;
+        for (int tableNumber : tableNumbers) {
+            if (tableNumber >= 0) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
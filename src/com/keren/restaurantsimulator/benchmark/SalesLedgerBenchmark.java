@@ -0,0 +1,90 @@
+package com.keren.restaurantsimulator.benchmark;
+
+import com.keren.restaurantsimulator.analytics.GroupTotals;
+import com.keren.restaurantsimulator.analytics.SalesLedger;
+
+import java.util.SplittableRandom;
+import java.util.function.IntSupplier;
+
+/**
+ * Fills a SalesLedger with synthetic lines (40 dishes, 200 tables, one check
+ * per 1-4 lines, spread over 30 days) and times the end-of-day reports:
+ * revenue per dish, dishes per hour, revenue per table.
+ * Each report is run several times and the best time is printed.
+ *
+ * Run: java com.keren.restaurantsimulator.benchmark.SalesLedgerBenchmark [lines] [rounds]
+ */
+public final class SalesLedgerBenchmark {
+
+    private static final int DISHES = 40;
+    private static final int TABLES = 200;
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+    private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+
+    private SalesLedgerBenchmark() {}
+
+    public static void main(String[] args) {
+        int lines = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        SalesLedger ledger = new SalesLedger();
+        SplittableRandom random = new SplittableRandom(7);
+        long start = 1_700_000_000_000L;
+        long step = 30 * DAY_MILLIS / lines;
+        long fill = System.nanoTime();
+        long expectedGross = 0;
+        int left = 0;
+        int table = 0;
+        for (int i = 0; i < lines; i++) {
+            boolean newCheck = left == 0;
+            if (newCheck) {
+                left = 1 + random.nextInt(4);
+                table = 1 + random.nextInt(TABLES);
+            }
+            left--;
+            int dishId = 1 + random.nextInt(DISHES);
+            int quantity = 1 + random.nextInt(3);
+            long price = 2_000 + dishId * 150L;
+            expectedGross += price * quantity;
+            ledger.recordLine(dishId, quantity, price, table, start + i * step, newCheck);
+        }
+        fill = System.nanoTime() - fill;
+
+        System.out.println("Available processors: " + Runtime.getRuntime().availableProcessors());
+        System.out.printf("lines=%,d  checks=%,d  fill=%,.0f ms (%.1f ns/line)%n",
+                ledger.getNumOfLines(), ledger.getNumOfChecks(), fill / 1e6, (double) fill / lines);
+
+        GroupTotals byDish = ledger.revenueMinorByDish();
+        long[] perHour = ledger.quantityByTimeBucket(start, HOUR_MILLIS, 30 * 24);
+        GroupTotals byTable = ledger.revenueMinorByTable();
+        if (byDish.sum() != expectedGross || byTable.sum() != expectedGross
+                || sum(perHour) != ledger.quantityByDish().sum()) {
+            throw new IllegalStateException("report totals do not add up");
+        }
+
+        report("revenueMinorByDish", rounds, lines, () -> ledger.revenueMinorByDish().size());
+        report("quantityByTimeBucket(hour)", rounds, lines,
+                () -> ledger.quantityByTimeBucket(start, HOUR_MILLIS, 30 * 24).length);
+        report("revenueMinorByTable", rounds, lines, () -> ledger.revenueMinorByTable().size());
+    }
+
+    private static void report(String name, int rounds, int lines, IntSupplier query) {
+        long best = Long.MAX_VALUE;
+        int sink = 0;
+        for (int r = 0; r < rounds; r++) {
+            long t0 = System.nanoTime();
+            sink += query.getAsInt();
+            best = Math.min(best, System.nanoTime() - t0);
+        }
+        System.out.printf("%-28s best=%7.1f ms  (%.2f ns/line)  [%d]%n",
+                name, best / 1e6, (double) best / lines, sink);
+    }
+
+    private static long sum(long[] values) {
+        long total = 0;
+        for (long value : values) {
+            total += value;
+        }
+        return total;
+    }
+}
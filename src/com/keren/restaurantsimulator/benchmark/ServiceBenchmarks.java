@@ -0,0 +1,203 @@
+package com.keren.restaurantsimulator.benchmark;
+
+import com.keren.restaurantsimulator.model.Dish;
+import com.keren.restaurantsimulator.model.Menu;
+import com.keren.restaurantsimulator.model.Order;
+import com.keren.restaurantsimulator.model.Restaurant;
+import com.keren.restaurantsimulator.model.Table;
+import com.keren.restaurantsimulator.service.BillingService;
+import com.keren.restaurantsimulator.service.KitchenService;
+import com.keren.restaurantsimulator.service.OrderService;
+import com.keren.restaurantsimulator.service.TableService;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Benchmarks of the model and service hot paths, with parameterized sizes:
+ * menus of 10 to 100k dishes, orders of 1 to 1k lines and floors of 10 to
+ * 1M tables.
+ *
+ * Run: java com.keren.restaurantsimulator.benchmark.ServiceBenchmarks [filter] [roundMillis]
+ * Only benchmarks whose name contains the filter are run (e.g. "Menu").
+ */
+public final class ServiceBenchmarks {
+
+    private static final int[] MENU_SIZES = {10, 1_000, 100_000};
+    private static final int[] ORDER_LINES = {1, 10, 1_000};
+    private static final int[] FLOOR_SIZES = {10, 10_000, 1_000_000};
+    private static final int[] ORDER_HISTORY_SIZES = {10, 1_000, 100_000};
+    private static final int LOOKUPS = 1 << 16;
+
+    private ServiceBenchmarks() {}
+
+    public static void main(String[] args) {
+        String filter = args.length > 0 ? args[0] : "";
+        long roundMillis = args.length > 1 ? Long.parseLong(args[1]) : 200;
+        Microbenchmark bench = new Microbenchmark(3, 5, roundMillis);
+
+        if ("Order.addDish".contains(filter) || filter.isEmpty()) orderAddDish(bench);
+        if ("Order.getTotalPrice".contains(filter) || filter.isEmpty()) orderTotals(bench);
+        if ("Menu.getDishOrThrow".contains(filter) || filter.isEmpty()) menuLookup(bench);
+        if ("Restaurant.getTableById".contains(filter) || filter.isEmpty()) tableLookup(bench);
+        if ("TableService.seatBestFit".contains(filter) || filter.isEmpty()) seatBestFit(bench);
+        if ("OrderService.addOrder".contains(filter) || filter.isEmpty()) addOrder(bench);
+        if ("OrderService.getAllOrders".contains(filter) || filter.isEmpty()) getAllOrders(bench);
+        if ("Lifecycle".contains(filter) || filter.isEmpty()) lifecycle(bench);
+    }
+
+    private static void orderAddDish(Microbenchmark bench) {
+        Dish[] dishes = createDishes(1_000);
+        for (int lines : ORDER_LINES) {
+            bench.measure("Order.addDish", "lines=" + lines, lines, i -> {
+                Order order = new Order();
+                for (int n = 0; n < lines; n++) {
+                    order.addDish(dishes[n], 1);
+                }
+                return order.getNumOfLines();
+            });
+        }
+    }
+
+    private static void orderTotals(Microbenchmark bench) {
+        Dish[] dishes = createDishes(1_000);
+        for (int lines : ORDER_LINES) {
+            Order order = new Order();
+            for (int n = 0; n < lines; n++) {
+                order.addDish(dishes[n], 1 + n % 3);
+            }
+            bench.measure("Order.getTotalPrice", "lines=" + lines, 1,
+                    i -> (long) order.getTotalPrice());
+            bench.measure("Order.getNumOfDishes", "lines=" + lines, 1,
+                    i -> order.getNumOfDishes());
+        }
+    }
+
+    private static void menuLookup(Microbenchmark bench) {
+        for (int size : MENU_SIZES) {
+            Menu menu = createMenu(size);
+            int[] ids = randomIds(size);
+            bench.measure("Menu.getDishOrThrow", "dishes=" + size, 1,
+                    i -> menu.getDishOrThrow(ids[i & (LOOKUPS - 1)]).getPrepTimeMinutes());
+            // A price change copies the whole menu (copy-on-write); readers above never wait for it
+            bench.measure("Menu.replaceDish", "dishes=" + size, 1, i -> {
+                Dish dish = menu.getDishOrThrow(ids[i & (LOOKUPS - 1)]);
+                return menu.replaceDish(new Dish(dish.getId(), dish.getName(), 10.0 + i % 50,
+                        dish.getPrepTimeMinutes())).getId();
+            });
+        }
+    }
+
+    private static void tableLookup(Microbenchmark bench) {
+        for (int size : FLOOR_SIZES) {
+            Restaurant restaurant = createRestaurant(size);
+            int[] ids = randomIds(size);
+            bench.measure("Restaurant.getTableById", "tables=" + size, 1,
+                    i -> restaurant.getTableById(ids[i & (LOOKUPS - 1)]).getCapacity());
+        }
+    }
+
+    // Seat/free churn on a floor where half the tables are taken
+    private static void seatBestFit(Microbenchmark bench) {
+        for (int size : FLOOR_SIZES) {
+            Restaurant restaurant = createRestaurant(size);
+            TableService tableService = new TableService(restaurant);
+            Table[] seated = new Table[size / 2];
+            for (int n = 0; n < seated.length; n++) {
+                seated[n] = tableService.seatBestFit(1 + n % 8);
+            }
+            bench.measure("TableService.seatBestFit", "tables=" + size, 1, i -> {
+                int slot = i % seated.length;
+                seated[slot].clear();
+                // same party size as the one that left, so a table always fits
+                seated[slot] = tableService.seatBestFit(1 + slot % 8);
+                return seated[slot].getTableNumber();
+            });
+        }
+    }
+
+    // Includes allocating the order: an order can be registered only once
+    private static void addOrder(Microbenchmark bench) {
+        OrderService[] service = {new OrderService()};
+        bench.measure("OrderService.addOrder", "", 1, i -> {
+            int id = service[0].addOrder(new Order());
+            if (id % 1_000_000 == 0) {
+                service[0] = new OrderService(); // keep the map from growing forever
+            }
+            return id;
+        });
+    }
+
+    private static void getAllOrders(Microbenchmark bench) {
+        for (int size : ORDER_HISTORY_SIZES) {
+            OrderService service = new OrderService();
+            for (int n = 0; n < size; n++) {
+                service.addOrder(new Order());
+            }
+            bench.measure("OrderService.getAllOrders", "orders=" + size, 1,
+                    i -> service.getAllOrders().size());
+        }
+    }
+
+    // One full table turn: seat -> open -> add -> submit -> prep -> ready -> served -> bill -> pay
+    private static void lifecycle(Microbenchmark bench) {
+        int tables = 10;
+        Restaurant restaurant = createRestaurant(tables);
+        TableService tableService = new TableService(restaurant);
+        OrderService orderService = new OrderService();
+        KitchenService kitchenService = new KitchenService(orderService);
+        BillingService billingService = new BillingService(restaurant);
+        int dishes = restaurant.getMenu().size();
+
+        bench.measure("Lifecycle.fullTableTurn", "tables=" + tables, 1, i -> {
+            int tableId = 1 + i % tables;
+            tableService.seat(tableId, 2);
+            tableService.openOrder(tableId);
+            tableService.addDish(tableId, 1 + i % dishes, 2);
+            tableService.addDish(tableId, 1 + (i + 1) % dishes, 1);
+            int orderId = orderService.addOrder(tableService.getOrder(tableId));
+            kitchenService.submitOrderToKitchen(orderId);
+            kitchenService.startPreparing(orderId);
+            kitchenService.orderIsReady(orderId);
+            billingService.markServed(tableId);
+            billingService.requestBill(tableId);
+            long paid = (long) billingService.pay(tableId);
+            orderService.removeOrder(orderId);
+            return paid;
+        });
+    }
+
+    // ---------------- Fixtures ----------------
+
+    private static Dish[] createDishes(int count) {
+        Dish[] dishes = new Dish[count];
+        for (int i = 0; i < count; i++) {
+            dishes[i] = new Dish(i + 1, "Dish " + (i + 1), 10.0 + i % 50, 1 + i % 20);
+        }
+        return dishes;
+    }
+
+    private static Menu createMenu(int size) {
+        Menu menu = new Menu();
+        menu.replaceAll(Arrays.asList(createDishes(size)));
+        return menu;
+    }
+
+    private static Restaurant createRestaurant(int tables) {
+        Restaurant restaurant = new Restaurant(createMenu(10));
+        for (int i = 1; i <= tables; i++) {
+            restaurant.addTable(new Table(i, 2 + 2 * (i % 4)));
+        }
+        return restaurant;
+    }
+
+    // Random ids in 1..size, so lookups do not just walk memory in order
+    private static int[] randomIds(int size) {
+        SplittableRandom random = new SplittableRandom(7);
+        int[] ids = new int[LOOKUPS];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = 1 + random.nextInt(size);
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,88 @@
+package com.keren.restaurantsimulator.benchmark;
+
+import com.keren.restaurantsimulator.app.DemoData;
+import com.keren.restaurantsimulator.model.Order;
+import com.keren.restaurantsimulator.model.Restaurant;
+import com.keren.restaurantsimulator.service.BillingService;
+import com.keren.restaurantsimulator.service.DayClose;
+import com.keren.restaurantsimulator.service.OrderService;
+import com.keren.restaurantsimulator.service.SettlementResult;
+
+/**
+ * End-of-day settlement of a floor where every table waits for the bill
+ * (each with a registered 2-line order): one pay() per table, one
+ * payAll(ids) call, and payAllWaiting(). closeDay() is timed after each.
+ * The floor is rebuilt before every timed run; the best run is printed.
+ *
+ * Run: java com.keren.restaurantsimulator.benchmark.SettlementBenchmark [tables] [rounds]
+ */
+public final class SettlementBenchmark {
+
+    private SettlementBenchmark() {}
+
+    private interface Settler {
+        long settle(BillingService billing, int[] tableIds);
+    }
+
+    public static void main(String[] args) {
+        int tables = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        run("pay() per table", tables, rounds, (billing, ids) -> {
+            long total = 0;
+            for (int id : ids) {
+                total += Math.round(billing.pay(id) * 100);
+            }
+            return total;
+        });
+        run("payAll(ids)", tables, rounds, (billing, ids) -> billing.payAll(ids).getTotalMinor());
+        run("payAllWaiting()", tables, rounds, (billing, ids) -> {
+            SettlementResult result = billing.payAllWaiting();
+            return result.getTotalMinor();
+        });
+    }
+
+    private static void run(String name, int tables, int rounds, Settler settler) {
+        long bestSettle = Long.MAX_VALUE;
+        long bestClose = Long.MAX_VALUE;
+        DayClose close = null;
+        for (int round = 0; round < rounds; round++) {
+            Restaurant restaurant = DemoData.createDemoRestaurant(tables);
+            OrderService orderService = new OrderService();
+            BillingService billing = new BillingService(restaurant);
+            int[] ids = fillFloor(restaurant, orderService, tables);
+            long expected = (long) tables * (4_800 + 2 * 3_400);
+
+            long t0 = System.nanoTime();
+            long total = settler.settle(billing, ids);
+            long t1 = System.nanoTime();
+            close = billing.closeDay();
+            long t2 = System.nanoTime();
+
+            if (total != expected || close.getGrossMinor() != expected || close.getChecks() != tables
+                    || restaurant.getNumOfFreeTables() != tables) {
+                throw new IllegalStateException(name + ": settlement does not add up");
+            }
+            bestSettle = Math.min(bestSettle, t1 - t0);
+            bestClose = Math.min(bestClose, t2 - t1);
+        }
+        System.out.printf("%-18s tables=%,d  settle=%7.2f ms (%5.0f ns/check)  closeDay=%6.3f ms  %s%n",
+                name, tables, bestSettle / 1e6, (double) bestSettle / tables, bestClose / 1e6, close);
+    }
+
+    // Every table seated with 1 x dish 1 + 2 x dish 3, served and waiting for the bill
+    private static int[] fillFloor(Restaurant restaurant, OrderService orderService, int tables) {
+        int[] ids = new int[tables];
+        for (int t = 1; t <= tables; t++) {
+            restaurant.getTableById(t).seat(1);
+            restaurant.getTableById(t).openNewOrder();
+            Order order = restaurant.getTableById(t).getOrder();
+            order.addDish(restaurant.getMenu().getDishOrThrow(1), 1);
+            order.addDish(restaurant.getMenu().getDishOrThrow(3), 2);
+            orderService.addOrder(order);
+            restaurant.getTableById(t).requestBill();
+            ids[t - 1] = t;
+        }
+        return ids;
+    }
+}
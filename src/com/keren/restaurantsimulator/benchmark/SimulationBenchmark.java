@@ -0,0 +1,71 @@
+package com.keren.restaurantsimulator.benchmark;
+
+import com.keren.restaurantsimulator.app.DemoData;
+import com.keren.restaurantsimulator.simulation.SimulationConfig;
+import com.keren.restaurantsimulator.simulation.SimulationEngine;
+import com.keren.restaurantsimulator.simulation.SimulationResult;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Replays a 12-hour service day on floors of 100 to 100,000 tables and prints
+ * the table turns per second and the bytes allocated per turn, after a few
+ * warm-up days on the same floor size (a cold JVM runs the first day at
+ * about half speed).
+ *
+ * Turns per second fall as the floor grows: once the tables, their orders and
+ * the status indexes no longer fit in the CPU caches, every step of a turn
+ * waits on memory. The engine itself allocates nothing per event; what a turn
+ * allocates is its Order (the Order, its line map and one OrderItem per
+ * line) and the free-table index entry of the seat/clear.
+ *
+ * Run: java com.keren.restaurantsimulator.benchmark.SimulationBenchmark [days per floor]
+ */
+public final class SimulationBenchmark {
+
+    private static final int SERVICE_MINUTES = 12 * 60;
+    private static final int[] FLOORS = {100, 1_000, 10_000, 100_000};
+
+    private SimulationBenchmark() {}
+
+    public static void main(String[] args) {
+        int days = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+
+        for (int tables : FLOORS) {
+            // Small floors finish a day in a few milliseconds: run more of them
+            int warmUps = Math.max(2, 200_000 / tables);
+            for (int i = 0; i < warmUps; i++) {
+                run(tables, i);
+            }
+            double best = 0;
+            long bytes = 0;
+            long turns = 0;
+            for (int i = 0; i < days; i++) {
+                long[] allocated = new long[1];
+                SimulationResult result = run(tables, i, allocated);
+                best = Math.max(best, result.getTurnsPerSecond());
+                bytes += allocated[0];
+                turns += result.getTableTurns();
+            }
+            System.out.printf("tables=%,8d  turns/day=%,10d  best turns/s=%,10.0f  %6.1f bytes/turn%n",
+                    tables, turns / days, best, (double) bytes / turns);
+        }
+    }
+
+    private static SimulationResult run(int tables, long seed) {
+        return run(tables, seed, new long[1]);
+    }
+
+    // allocated[0] gets the bytes allocated by run() alone (the floor is built before)
+    private static SimulationResult run(int tables, long seed, long[] allocated) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        SimulationEngine engine = new SimulationEngine(DemoData.createDemoRestaurant(tables),
+                new SimulationConfig().setServiceMinutes(SERVICE_MINUTES).setSeed(seed));
+        long bytesBefore = threads.getThreadAllocatedBytes(threadId);
+        SimulationResult result = engine.run();
+        allocated[0] = threads.getThreadAllocatedBytes(threadId) - bytesBefore;
+        return result;
+    }
+}
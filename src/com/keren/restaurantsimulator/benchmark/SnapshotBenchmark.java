@@ -0,0 +1,101 @@
+package com.keren.restaurantsimulator.benchmark;
+
+import com.keren.restaurantsimulator.app.DemoData;
+import com.keren.restaurantsimulator.enums.OrderStatus;
+import com.keren.restaurantsimulator.model.Dish;
+import com.keren.restaurantsimulator.model.Order;
+import com.keren.restaurantsimulator.model.Restaurant;
+import com.keren.restaurantsimulator.model.Table;
+import com.keren.restaurantsimulator.persistence.RestaurantSnapshot;
+import com.keren.restaurantsimulator.service.OrderService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Saves and loads a large state with RestaurantSnapshot: 100k tables (half
+ * of them seated with an open order) and 1M registered orders of 1-4 lines
+ * (all PAID except the last 100k, which have random statuses).
+ * Checks that the loaded state has the same orders, tables and totals.
+ *
+ * Run: java com.keren.restaurantsimulator.benchmark.SnapshotBenchmark [orders] [tables] [rounds]
+ */
+public final class SnapshotBenchmark {
+
+    private SnapshotBenchmark() {}
+
+    public static void main(String[] args) throws IOException {
+        int orders = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int tables = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        Restaurant restaurant = DemoData.createDemoRestaurant(tables);
+        OrderService orderService = new OrderService();
+        Dish[] dishes = restaurant.getMenu().listDishes().toArray(new Dish[0]);
+        SplittableRandom random = new SplittableRandom(7);
+        OrderStatus[] statuses = OrderStatus.values();
+
+        for (int i = 0; i < orders; i++) {
+            Order order = new Order(1 + i % tables);
+            int lines = 1 + random.nextInt(4);
+            for (int n = 0; n < lines; n++) {
+                order.addDish(dishes[random.nextInt(dishes.length)], 1 + random.nextInt(3));
+            }
+            orderService.addOrder(order);
+            // history is settled; only the most recent orders are still moving
+            order.setStatus(i < orders - tables ? OrderStatus.PAID : statuses[random.nextInt(statuses.length)]);
+        }
+        for (int t = 1; t <= tables; t += 2) {
+            Table table = restaurant.getTableById(t);
+            table.seat(1);
+            if (t % 4 == 1) {
+                table.setOrder(orderService.getOrder(t));
+            } else {
+                table.openNewOrder(); // not submitted yet: stored inline
+                table.getOrder().addDish(dishes[t % dishes.length], 2);
+            }
+        }
+        long expectedTotal = totalMinor(orderService);
+
+        Path file = Files.createTempFile("restaurant", ".snap");
+        try {
+            for (int r = 1; r <= rounds; r++) {
+                long start = System.nanoTime();
+                RestaurantSnapshot.save(file, restaurant, orderService);
+                long saved = System.nanoTime();
+                RestaurantSnapshot loaded = RestaurantSnapshot.load(file);
+                long done = System.nanoTime();
+
+                check(loaded.getOrderService().getNumOfOrders() == orders, "order count");
+                check(loaded.getRestaurant().size() == tables, "table count");
+                check(totalMinor(loaded.getOrderService()) == expectedTotal, "order totals");
+                check(loaded.getRestaurant().getTableById(3).getBillMinor()
+                        == restaurant.getTableById(3).getBillMinor(), "inline order");
+                check(loaded.getRestaurant().getTableById(1).getOrder()
+                        == loaded.getOrderService().getOrder(1), "table -> order link");
+
+                System.out.printf("round %d: %,d orders, %,d tables, %.1f MB  save %6.1f ms  load %6.1f ms%n",
+                        r, orders, tables, Files.size(file) / 1e6,
+                        (saved - start) / 1e6, (done - saved) / 1e6);
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static long totalMinor(OrderService orderService) {
+        long total = 0;
+        for (Order order : orderService.listOrders()) {
+            total += order.getTotalPriceMinor();
+        }
+        return total;
+    }
+
+    private static void check(boolean condition, String what) {
+        if (!condition) {
+            throw new IllegalStateException("Snapshot round trip changed the " + what);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.keren.restaurantsimulator.benchmark;
+
+import com.keren.restaurantsimulator.enums.TableEvent;
+import com.keren.restaurantsimulator.enums.TableStatus;
+import com.keren.restaurantsimulator.model.Menu;
+import com.keren.restaurantsimulator.model.Order;
+import com.keren.restaurantsimulator.model.Restaurant;
+import com.keren.restaurantsimulator.model.Table;
+import com.keren.restaurantsimulator.model.TableState;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cost of moving a table through its state word:
+ * - a refused move (PAY on a FREE table) through tryApply(), against the
+ *   same refusal through openNewOrder(), which throws
+ * - a legal round trip (SEAT, OPEN_ORDER, SUBMIT ... PAY: 8 moves)
+ * Then `threads` threads race SEAT / CLEAR on one shared table. Only one
+ * SEAT may win until the table is cleared again, so the number of threads
+ * "inside" after winning a SEAT must never exceed 1.
+ * Last, the threads throw every event at random at a table in a restaurant;
+ * afterwards the floor indexes and the order's status must match the word.
+ *
+ * Run: java com.keren.restaurantsimulator.benchmark.TableStateBenchmark [ops] [threads]
+ */
+public final class TableStateBenchmark {
+
+    private static final TableEvent[] ROUND_TRIP = {
+            TableEvent.SEAT, TableEvent.OPEN_ORDER, TableEvent.SUBMIT, TableEvent.START_PREP,
+            TableEvent.READY, TableEvent.SERVE, TableEvent.REQUEST_BILL, TableEvent.PAY
+    };
+
+    private TableStateBenchmark() {}
+
+    public static void main(String[] args) throws InterruptedException {
+        int ops = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+
+        for (int round = 0; round < 3; round++) {
+            boolean print = round == 2;
+            Table table = new Table(1, 4);
+
+            long t0 = System.nanoTime();
+            long refused = 0;
+            for (int i = 0; i < ops; i++) {
+                if (!table.tryApply(TableEvent.PAY)) {
+                    refused++;
+                }
+            }
+            long t1 = System.nanoTime();
+
+            int throwOps = ops / 20;
+            long thrown = 0;
+            for (int i = 0; i < throwOps; i++) {
+                try {
+                    table.openNewOrder();
+                } catch (IllegalStateException e) {
+                    thrown++;
+                }
+            }
+            long t2 = System.nanoTime();
+
+            int trips = ops / ROUND_TRIP.length;
+            for (int i = 0; i < trips; i++) {
+                for (TableEvent event : ROUND_TRIP) {
+                    if (!table.tryApply(event)) {
+                        throw new IllegalStateException("round trip refused " + event + " at " + table.getStateWord());
+                    }
+                }
+            }
+            long t3 = System.nanoTime();
+
+            if (print) {
+                System.out.printf("refused tryApply    %6.1f ns/op  (%,d refused)%n", (t1 - t0) / (double) ops, refused);
+                System.out.printf("refused by throwing %6.1f ns/op  (%,d thrown)%n", (t2 - t1) / (double) throwOps, thrown);
+                System.out.printf("legal move          %6.1f ns/op  (%,d round trips, generation %,d)%n",
+                        (t3 - t2) / (double) (trips * ROUND_TRIP.length), trips, table.getOrderGeneration());
+                race(threads, ops / threads / 4);
+                lifecycleRace(threads, ops / threads / 4);
+            }
+        }
+    }
+
+    private static void race(int threads, int attemptsPerThread) throws InterruptedException {
+        Table table = new Table(1, 4);
+        AtomicInteger inside = new AtomicInteger();
+        LongAdder seated = new LongAdder();
+        LongAdder overlaps = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    if (table.tryApply(TableEvent.SEAT)) {
+                        seated.increment();
+                        if (inside.incrementAndGet() != 1) {
+                            overlaps.increment();
+                        }
+                        inside.decrementAndGet();
+                        table.tryApply(TableEvent.CLEAR);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - t0;
+        long attempts = (long) threads * attemptsPerThread;
+        System.out.printf("race threads=%d     %6.1f ns/attempt  seats won=%,d of %,d  overlaps=%d  %s%n",
+                threads, elapsed / (double) attempts, seated.sum(), attempts, overlaps.sum(),
+                overlaps.sum() == 0 ? "OK" : "BROKEN");
+    }
+
+    private static void lifecycleRace(int threads, int attemptsPerThread) throws InterruptedException {
+        Restaurant restaurant = new Restaurant(new Menu());
+        Table table = new Table(1, 4);
+        restaurant.addTable(table);
+        TableEvent[] events = TableEvent.values();
+        LongAdder moves = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    if (table.tryApply(events[random.nextInt(events.length)])) {
+                        moves.increment();
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        long t0 = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - t0;
+
+        int word = table.getStateWord();
+        boolean ok = restaurant.getNumOfFreeTables() == (table.getStatus() == TableStatus.FREE ? 1 : 0);
+        for (TableStatus status : TableStatus.values()) {
+            ok &= restaurant.countTables(status) == (status == table.getStatus() ? 1 : 0);
+        }
+        Order order = table.getOrder();
+        ok &= (order == null) == (TableState.orderStatus(word) == null);
+        ok &= order == null || order.getStatus() == TableState.orderStatus(word);
+        System.out.printf("lifecycle threads=%d %6.1f ns/attempt  moves=%,d  generation %,d  %s  %s%n",
+                threads, elapsed / (double) ((long) threads * attemptsPerThread), moves.sum(),
+                table.getOrderGeneration(), TableState.toString(word), ok ? "OK" : "BROKEN");
+    }
+}
@@ -0,0 +1,140 @@
+package com.keren.restaurantsimulator.chain;
+
+import com.keren.restaurantsimulator.model.Money;
+import com.keren.restaurantsimulator.model.Restaurant;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * ChainHost runs many restaurants (Locations) of a chain in one JVM.
+ *
+ * Locations are partitioned over a fixed number of shards by restaurant id
+ * (id mod shards). Each shard is a single-writer event loop thread: every
+ * command for a location is routed to its shard's queue and runs on that
+ * thread, so the services inside a location need no locks, and locations on
+ * different shards run in parallel.
+ *
+ * Commands return a CompletableFuture with the command's result (or its
+ * exception, Errors included). Chain-wide queries such as getChainRevenue() run a read-only
+ * function on every shard and combine the answers; each shard's part is
+ * consistent, but shards are not frozen against each other.
+ *
+ * Usage:
+ *   ChainHost chain = new ChainHost(4);
+ *   chain.addRestaurant(17, DemoData.createDemoRestaurant());
+ *   chain.submit(17, loc -> loc.getTableService().seatBestFit(3)).join();
+ */
+public class ChainHost {
+
+    private final Shard[] shards;
+
+    public ChainHost(int numOfShards) {
+        if (numOfShards <= 0) {
+            throw new IllegalArgumentException("numOfShards must be positive");
+        }
+        this.shards = new Shard[numOfShards];
+        for (int i = 0; i < numOfShards; i++) {
+            shards[i] = new Shard("chain-shard-" + i);
+            shards[i].start();
+        }
+    }
+
+    public int getNumOfShards() {
+        return shards.length;
+    }
+
+    // Shard that owns a restaurant id.
+    public int shardOf(int restaurantId) {
+        return Math.floorMod(restaurantId, shards.length);
+    }
+
+    /**
+     * Registers a restaurant under an id. The restaurant must not be used
+     * directly afterwards; go through submit() instead.
+     */
+    public CompletableFuture<Location> addRestaurant(int restaurantId, Restaurant restaurant) {
+        if (restaurant == null) {
+            throw new IllegalArgumentException("restaurant cannot be null");
+        }
+        Shard shard = shards[shardOf(restaurantId)];
+        return shard.submit(() -> {
+            if (shard.locations().containsKey(restaurantId)) {
+                throw new IllegalArgumentException("Restaurant " + restaurantId + " already exists");
+            }
+            Location location = new Location(restaurantId, restaurant);
+            shard.locations().put(restaurantId, location);
+            return location;
+        });
+    }
+
+    /**
+     * Runs a command on the shard that owns the restaurant.
+     * The command must not keep references to the location's objects for use
+     * outside the shard thread.
+     */
+    public <T> CompletableFuture<T> submit(int restaurantId, Function<Location, T> command) {
+        if (command == null) {
+            throw new IllegalArgumentException("command cannot be null");
+        }
+        Shard shard = shards[shardOf(restaurantId)];
+        return shard.submit(() -> {
+            Location location = shard.locations().get(restaurantId);
+            if (location == null) {
+                throw new IllegalArgumentException("Restaurant " + restaurantId + " not found");
+            }
+            return command.apply(location);
+        });
+    }
+
+    /**
+     * Read-only query over every location of the chain, summed.
+     * Each shard adds up its own locations on its own thread.
+     */
+    public CompletableFuture<Long> sumOverLocations(ToLongFunction<Location> query) {
+        if (query == null) {
+            throw new IllegalArgumentException("query cannot be null");
+        }
+        CompletableFuture<Long> total = CompletableFuture.completedFuture(0L);
+        for (Shard shard : shards) {
+            CompletableFuture<Long> part = shard.submit(() -> {
+                long[] sum = new long[1];
+                shard.locations().forEach((id, location) -> sum[0] += query.applyAsLong(location));
+                return sum[0];
+            });
+            total = total.thenCombine(part, Long::sum);
+        }
+        return total;
+    }
+
+    // Everything paid so far in every location.
+    public CompletableFuture<Double> getChainRevenue() {
+        return sumOverLocations(location -> location.getBillingService().getRevenueMinor())
+                .thenApply(Money::toMajor);
+    }
+
+    public CompletableFuture<Long> getNumOfLocations() {
+        return sumOverLocations(location -> 1L);
+    }
+
+    /**
+     * Stops accepting commands, lets every shard finish what is already
+     * queued, and waits for the shard threads.
+     * @return true if all shards stopped within the timeout
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        for (Shard shard : shards) {
+            shard.stop();
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        boolean stopped = true;
+        for (Shard shard : shards) {
+            long left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            shard.join(Math.max(1, left));
+            stopped &= !shard.isAlive();
+        }
+        return stopped;
+    }
+}
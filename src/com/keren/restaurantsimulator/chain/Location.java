@@ -0,0 +1,40 @@
+package com.keren.restaurantsimulator.chain;
+
+import com.keren.restaurantsimulator.model.Restaurant;
+import com.keren.restaurantsimulator.service.BillingService;
+import com.keren.restaurantsimulator.service.KitchenService;
+import com.keren.restaurantsimulator.service.OrderService;
+import com.keren.restaurantsimulator.service.TableService;
+
+/**
+ * Location is one restaurant of the chain together with its own services.
+ *
+ * A Location belongs to exactly one shard of a ChainHost and is only touched
+ * from that shard's thread, so its services are the plain single-threaded
+ * ones (no locks, no concurrent maps).
+ */
+public final class Location {
+
+    private final int restaurantId;
+    private final Restaurant restaurant;
+    private final TableService tableService;
+    private final OrderService orderService;
+    private final KitchenService kitchenService;
+    private final BillingService billingService;
+
+    Location(int restaurantId, Restaurant restaurant) {
+        this.restaurantId = restaurantId;
+        this.restaurant = restaurant;
+        this.tableService = new TableService(restaurant);
+        this.orderService = new OrderService();
+        this.kitchenService = new KitchenService(orderService);
+        this.billingService = new BillingService(restaurant);
+    }
+
+    public int getRestaurantId() { return restaurantId; }
+    public Restaurant getRestaurant() { return restaurant; }
+    public TableService getTableService() { return tableService; }
+    public OrderService getOrderService() { return orderService; }
+    public KitchenService getKitchenService() { return kitchenService; }
+    public BillingService getBillingService() { return billingService; }
+}
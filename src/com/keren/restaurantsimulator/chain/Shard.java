@@ -0,0 +1,124 @@
+package com.keren.restaurantsimulator.chain;
+
+import com.keren.restaurantsimulator.util.IntObjectMap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Shard is one single-writer event loop: a thread that owns a set of
+ * Locations and runs every task for them, one at a time, in arrival order.
+ *
+ * Tasks are taken from the queue in batches (drainTo), so a busy shard pays
+ * for the queue's lock once per batch instead of once per command.
+ *
+ * Every task completes its own future, with the command's result or whatever
+ * it threw (Errors included), so one bad command cannot kill the shard. A
+ * task is either queued before stop() or rejected by submit(), and if the
+ * thread ends early (interrupted) the futures still queued fail instead of
+ * hanging.
+ */
+final class Shard implements Runnable {
+
+    private static final int MAX_BATCH = 256;
+    private static final Task<Void> STOP = new Task<>(() -> null);
+
+    private final BlockingQueue<Task<?>> tasks = new LinkedBlockingQueue<>();
+    // Only read and written by this shard's thread
+    private final IntObjectMap<Location> locations = new IntObjectMap<>();
+    private final Thread thread;
+    private volatile boolean running = true; // written under the shard's lock
+
+    Shard(String name) {
+        this.thread = new Thread(this, name);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    // Queues a command; the future gets its result or its exception.
+    <T> CompletableFuture<T> submit(Supplier<T> command) {
+        Task<T> task = new Task<>(command);
+        // Same lock as stop(): nothing can be queued behind the stop marker
+        synchronized (this) {
+            if (!running) {
+                throw new IllegalStateException("Chain host is shut down");
+            }
+            tasks.add(task);
+        }
+        return task.future;
+    }
+
+    // Stops after the tasks already queued have run.
+    synchronized void stop() {
+        if (running) {
+            running = false;
+            tasks.add(STOP);
+        }
+    }
+
+    void join(long timeoutMillis) throws InterruptedException {
+        thread.join(timeoutMillis);
+    }
+
+    boolean isAlive() {
+        return thread.isAlive();
+    }
+
+    // ---- shard thread only ----
+
+    IntObjectMap<Location> locations() {
+        return locations;
+    }
+
+    @Override
+    public void run() {
+        List<Task<?>> batch = new ArrayList<>(MAX_BATCH);
+        try {
+            while (running || !tasks.isEmpty()) {
+                batch.add(tasks.take());
+                tasks.drainTo(batch, MAX_BATCH - 1);
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).run();
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (this) {
+                running = false;
+            }
+            // Whatever did not run never will: fail it (futures already completed stay as they are)
+            tasks.drainTo(batch);
+            IllegalStateException stopped = new IllegalStateException("Chain shard " + thread.getName() + " stopped");
+            for (Task<?> task : batch) {
+                task.future.completeExceptionally(stopped);
+            }
+        }
+    }
+
+    private static final class Task<T> implements Runnable {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        private final Supplier<T> command;
+
+        Task(Supplier<T> command) {
+            this.command = command;
+        }
+
+        @Override
+        public void run() {
+            try {
+                future.complete(command.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.keren.restaurantsimulator.enums;
+
+public enum KitchenStation {
+    GRILL,
+    COLD,
+    DRINKS
+}
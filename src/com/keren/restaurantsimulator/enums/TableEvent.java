@@ -0,0 +1,10 @@
+package com.keren.restaurantsimulator.enums;
+
+/**
+ * Steps of a table's lifecycle, applied to its state word by Table.tryApply().
+ * The first group changes the table, the second only the table's current order.
+ */
+public enum TableEvent {
+    SEAT, OPEN_ORDER, REQUEST_BILL, PAY, CLEAR,
+    SUBMIT, START_PREP, READY, SERVE
+}
@@ -0,0 +1,220 @@
+package com.keren.restaurantsimulator.metrics;
+
+import com.keren.restaurantsimulator.enums.OrderStatus;
+import com.keren.restaurantsimulator.enums.TableStatus;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Metrics keeps latency histograms for every service Operation and for every
+ * OrderStatus / TableStatus transition (how long an order or table stayed in
+ * the old status).
+ *
+ * Enabled with -Drestaurant.metrics=true. ENABLED is a static final constant,
+ * so when it is off the JIT folds every "if (Metrics.ENABLED)" away and the
+ * services run exactly as before. Recording is lock-free and allocation-free.
+ *
+ * registerMBeans() publishes everything under
+ * com.keren.restaurantsimulator:type=Operation,name=... and
+ * com.keren.restaurantsimulator:type=Transitions (JConsole / VisualVM).
+ */
+public final class Metrics {
+
+    public static final boolean ENABLED = Boolean.getBoolean("restaurant.metrics");
+
+    private static final String DOMAIN = "com.keren.restaurantsimulator";
+    private static final OrderStatus[] ORDER_STATUSES = OrderStatus.values();
+    private static final TableStatus[] TABLE_STATUSES = TableStatus.values();
+
+    // Only allocated when enabled (a few MB otherwise wasted on every run)
+    private static final LatencyHistogram[] OPERATIONS =
+            ENABLED ? newHistograms(Operation.values().length) : null;
+    private static final LatencyHistogram[] ORDER_TRANSITIONS =
+            ENABLED ? newHistograms(ORDER_STATUSES.length * ORDER_STATUSES.length) : null;
+    private static final LatencyHistogram[] TABLE_TRANSITIONS =
+            ENABLED ? newHistograms(TABLE_STATUSES.length * TABLE_STATUSES.length) : null;
+
+    private static boolean registered;
+
+    private Metrics() {
+    }
+
+    // Start time for record(); 0 (and no clock read) when disabled.
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0L;
+    }
+
+    public static void record(Operation operation, long startNanos) {
+        if (ENABLED) {
+            OPERATIONS[operation.ordinal()].record(System.nanoTime() - startNanos);
+        }
+    }
+
+    public static void orderTransition(OrderStatus from, OrderStatus to, long nanosInFrom) {
+        if (ENABLED) {
+            ORDER_TRANSITIONS[from.ordinal() * ORDER_STATUSES.length + to.ordinal()].record(nanosInFrom);
+        }
+    }
+
+    public static void tableTransition(TableStatus from, TableStatus to, long nanosInFrom) {
+        if (ENABLED) {
+            TABLE_TRANSITIONS[from.ordinal() * TABLE_STATUSES.length + to.ordinal()].record(nanosInFrom);
+        }
+    }
+
+    public static LatencyHistogram operation(Operation operation) {
+        checkEnabled();
+        return OPERATIONS[operation.ordinal()];
+    }
+
+    public static LatencyHistogram orderTransition(OrderStatus from, OrderStatus to) {
+        checkEnabled();
+        return ORDER_TRANSITIONS[from.ordinal() * ORDER_STATUSES.length + to.ordinal()];
+    }
+
+    public static LatencyHistogram tableTransition(TableStatus from, TableStatus to) {
+        checkEnabled();
+        return TABLE_TRANSITIONS[from.ordinal() * TABLE_STATUSES.length + to.ordinal()];
+    }
+
+    public static void resetAll() {
+        checkEnabled();
+        resetEach(OPERATIONS);
+        resetEach(ORDER_TRANSITIONS);
+        resetEach(TABLE_TRANSITIONS);
+    }
+
+    /**
+     * Registers the MBeans in the platform MBean server (once).
+     * Does nothing when metrics are disabled.
+     */
+    public static synchronized void registerMBeans() {
+        if (!ENABLED || registered) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            for (Operation operation : Operation.values()) {
+                server.registerMBean(new OperationMetrics(OPERATIONS[operation.ordinal()]),
+                        new ObjectName(DOMAIN + ":type=Operation,name=" + operation.name()));
+            }
+            server.registerMBean(new TransitionMetrics(), new ObjectName(DOMAIN + ":type=Transitions"));
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register metrics MBeans", e);
+        }
+        registered = true;
+    }
+
+    // Text summary of every operation that was called at least once.
+    public static String report() {
+        if (!ENABLED) {
+            return "Metrics are disabled (run with -Drestaurant.metrics=true)";
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-16s %10s %10s %10s %10s %10s%n", "operation", "count", "mean ns", "p50 ns", "p99 ns", "max ns"));
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram h = OPERATIONS[operation.ordinal()];
+            if (h.getCount() > 0) {
+                sb.append(String.format("%-16s %10d %10.0f %10d %10d %10d%n", operation, h.getCount(),
+                        h.getMeanNanos(), h.getPercentileNanos(50), h.getPercentileNanos(99), h.getMaxNanos()));
+            }
+        }
+        sb.append(String.format("%-34s %10s %14s%n", "transition", "count", "p99 ms in from"));
+        appendTransitions(sb, "order ", ORDER_STATUSES, ORDER_TRANSITIONS);
+        appendTransitions(sb, "table ", TABLE_STATUSES, TABLE_TRANSITIONS);
+        return sb.toString();
+    }
+
+    private static void appendTransitions(StringBuilder sb, String prefix, Enum<?>[] statuses, LatencyHistogram[] histograms) {
+        for (int i = 0; i < histograms.length; i++) {
+            LatencyHistogram h = histograms[i];
+            if (h.getCount() > 0) {
+                String name = prefix + statuses[i / statuses.length] + "->" + statuses[i % statuses.length];
+                sb.append(String.format("%-34s %10d %14.3f%n", name, h.getCount(), h.getPercentileNanos(99) / 1_000_000.0));
+            }
+        }
+    }
+
+    private static void checkEnabled() {
+        if (!ENABLED) {
+            throw new IllegalStateException("Metrics are disabled (run with -Drestaurant.metrics=true)");
+        }
+    }
+
+    private static LatencyHistogram[] newHistograms(int n) {
+        LatencyHistogram[] histograms = new LatencyHistogram[n];
+        for (int i = 0; i < n; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+        return histograms;
+    }
+
+    private static void resetEach(LatencyHistogram[] histograms) {
+        for (LatencyHistogram h : histograms) {
+            h.reset();
+        }
+    }
+
+    private static class OperationMetrics implements OperationMetricsMXBean {
+        private final LatencyHistogram histogram;
+
+        OperationMetrics(LatencyHistogram histogram) {
+            this.histogram = histogram;
+        }
+
+        @Override public long getCount() { return histogram.getCount(); }
+        @Override public double getMeanNanos() { return histogram.getMeanNanos(); }
+        @Override public long getP50Nanos() { return histogram.getPercentileNanos(50); }
+        @Override public long getP99Nanos() { return histogram.getPercentileNanos(99); }
+        @Override public long getP999Nanos() { return histogram.getPercentileNanos(99.9); }
+        @Override public long getMaxNanos() { return histogram.getMaxNanos(); }
+        @Override public void reset() { histogram.reset(); }
+    }
+
+    private static class TransitionMetrics implements TransitionMetricsMXBean {
+
+        @Override
+        public Map<String, Long> getOrderTransitionCounts() {
+            return collect(ORDER_STATUSES, ORDER_TRANSITIONS, false);
+        }
+
+        @Override
+        public Map<String, Long> getOrderTransitionP99Nanos() {
+            return collect(ORDER_STATUSES, ORDER_TRANSITIONS, true);
+        }
+
+        @Override
+        public Map<String, Long> getTableTransitionCounts() {
+            return collect(TABLE_STATUSES, TABLE_TRANSITIONS, false);
+        }
+
+        @Override
+        public Map<String, Long> getTableTransitionP99Nanos() {
+            return collect(TABLE_STATUSES, TABLE_TRANSITIONS, true);
+        }
+
+        @Override
+        public void reset() {
+            resetEach(ORDER_TRANSITIONS);
+            resetEach(TABLE_TRANSITIONS);
+        }
+
+        // Only transitions that actually happened, so the JMX tables stay short
+        private static Map<String, Long> collect(Enum<?>[] statuses, LatencyHistogram[] histograms, boolean p99) {
+            Map<String, Long> result = new LinkedHashMap<>();
+            for (int i = 0; i < histograms.length; i++) {
+                LatencyHistogram h = histograms[i];
+                if (h.getCount() > 0) {
+                    String name = statuses[i / statuses.length] + "->" + statuses[i % statuses.length];
+                    result.put(name, p99 ? h.getPercentileNanos(99) : h.getCount());
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.keren.restaurantsimulator.metrics;
+
+/**
+ * Service operations that are timed when metrics are enabled.
+ */
+public enum Operation {
+    SEAT,
+    SEAT_BEST_FIT,
+    OPEN_ORDER,
+    ADD_DISH,
+    ADD_ORDER,
+    GET_ORDER,
+    REMOVE_ORDER,
+    SUBMIT_ORDER,
+    START_PREPARING,
+    ORDER_READY,
+    MARK_SERVED,
+    REQUEST_BILL,
+    CALCULATE_BILL,
+    PAY,
+    PAY_ALL
+}
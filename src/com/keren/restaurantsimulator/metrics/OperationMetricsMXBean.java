@@ -0,0 +1,14 @@
+package com.keren.restaurantsimulator.metrics;
+
+/**
+ * JMX view of one service operation (latencies in nanoseconds).
+ */
+public interface OperationMetricsMXBean {
+    long getCount();
+    double getMeanNanos();
+    long getP50Nanos();
+    long getP99Nanos();
+    long getP999Nanos();
+    long getMaxNanos();
+    void reset();
+}
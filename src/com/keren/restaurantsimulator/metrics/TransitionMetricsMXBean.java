@@ -0,0 +1,15 @@
+package com.keren.restaurantsimulator.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of status transitions, keyed "FROM->TO" (e.g. "SUBMITTED->IN_PREP").
+ * Times are how long the order / table stayed in FROM before moving to TO.
+ */
+public interface TransitionMetricsMXBean {
+    Map<String, Long> getOrderTransitionCounts();
+    Map<String, Long> getOrderTransitionP99Nanos();
+    Map<String, Long> getTableTransitionCounts();
+    Map<String, Long> getTableTransitionP99Nanos();
+    void reset();
+}
@@ -0,0 +1,77 @@
+package com.keren.restaurantsimulator.model;
+
+import com.keren.restaurantsimulator.enums.OrderStatus;
+
+/**
+ * ArchivedOrder is a read-only copy of a closed order, taken out of an
+ * OrderArchive for a reprint or an audit.
+ *
+ * Lines keep the dish name and unit price as they were when the order was
+ * closed, so a later menu change does not rewrite old receipts.
+ */
+public final class ArchivedOrder {
+
+    private final int id;
+    private final int tableNumber;
+    private final OrderStatus status;
+    private final long closedAtMillis;
+    private final long totalPriceMinor;
+    private final int[] dishIds;
+    private final String[] dishNames;
+    private final int[] quantities;
+    private final long[] unitPricesMinor;
+
+    public ArchivedOrder(int id, int tableNumber, OrderStatus status, long closedAtMillis, long totalPriceMinor,
+                         int[] dishIds, String[] dishNames, int[] quantities, long[] unitPricesMinor) {
+        if (status == null) {
+            throw new IllegalArgumentException("status cannot be null");
+        }
+        if (dishIds.length != dishNames.length || dishIds.length != quantities.length
+                || dishIds.length != unitPricesMinor.length) {
+            throw new IllegalArgumentException("line arrays must have the same length");
+        }
+        this.id = id;
+        this.tableNumber = tableNumber;
+        this.status = status;
+        this.closedAtMillis = closedAtMillis;
+        this.totalPriceMinor = totalPriceMinor;
+        this.dishIds = dishIds;
+        this.dishNames = dishNames;
+        this.quantities = quantities;
+        this.unitPricesMinor = unitPricesMinor;
+    }
+
+    public int getId() { return id; }
+    public int getTableNumber() { return tableNumber; }
+    public OrderStatus getStatus() { return status; }
+    public long getClosedAtMillis() { return closedAtMillis; }
+    public long getTotalPriceMinor() { return totalPriceMinor; }
+    public double getTotalPrice() { return Money.toMajor(totalPriceMinor); }
+    public int getNumOfLines() { return dishIds.length; }
+
+    public int getDishId(int line) { return dishIds[line]; }
+    public String getDishName(int line) { return dishNames[line]; }
+    public int getQuantity(int line) { return quantities[line]; }
+    public long getUnitPriceMinor(int line) { return unitPricesMinor[line]; }
+
+    public int getNumOfDishes() {
+        int dishes = 0;
+        for (int quantity : quantities) {
+            dishes += quantity;
+        }
+        return dishes;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("Order #").append(id).append(" (").append(status).append("):\n");
+        for (int i = 0; i < dishIds.length; i++) {
+            sb.append("  - ").append(dishNames[i])
+              .append(" x").append(quantities[i])
+              .append(" = ").append(Money.toMajor(unitPricesMinor[i] * quantities[i])).append('\n');
+        }
+        sb.append("Total dishes: ").append(getNumOfDishes()).append('\n');
+        sb.append("Total price: ").append(getTotalPrice()).append('\n');
+        return sb.toString();
+    }
+}
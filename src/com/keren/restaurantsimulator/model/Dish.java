@@ -4,18 +4,42 @@ public class Dish {
     // I will create a dish id, so I can numerate them later in the menu
     private final int id;
     private final String name;
-    private final double price;
+    private final long priceMinor; // fixed-point, see Money
     private final int prepTimeMinutes;
 
     public Dish(int id, String name, double price, int prepTimeMinutes){
         this.id = id;
         this.name = name;
-        this.price = price;
+        this.priceMinor = Money.toMinor(price);
         this.prepTimeMinutes = prepTimeMinutes;
     }
+
+    private Dish(int id, String name, long priceMinor, int prepTimeMinutes){
+        this.id = id;
+        this.name = name;
+        this.priceMinor = priceMinor;
+        this.prepTimeMinutes = prepTimeMinutes;
+    }
+
+    // A dish priced exactly in minor units (used when loading a snapshot).
+    public static Dish ofPriceMinor(int id, String name, long priceMinor, int prepTimeMinutes){
+        if (priceMinor < 0) {
+            throw new IllegalArgumentException("price cannot be negative");
+        }
+        return new Dish(id, name, priceMinor, prepTimeMinutes);
+    }
+
+    // The same dish at another price (exact, in minor units), for Menu.replaceDish().
+    public Dish withPriceMinor(long priceMinor){
+        if (priceMinor < 0) {
+            throw new IllegalArgumentException("price cannot be negative");
+        }
+        return new Dish(id, name, priceMinor, prepTimeMinutes);
+    }
     public int getId(){return id;}
     public String getName(){return name;}
-    public double getPrice(){return price;}
+    public double getPrice(){return Money.toMajor(priceMinor);}
+    public long getPriceMinor(){return priceMinor;}
     public int getPrepTimeMinutes(){return prepTimeMinutes;}
 
     @Override
@@ -23,7 +47,7 @@ public class Dish {
         return  "Dish{" +
                 "id=" + id +
                 ", name='" + name + '\'' +
-                ", price=" + price +
+                ", price=" + getPrice() +
                 ", prepTimeMinutes=" + prepTimeMinutes +
                 '}';
     }
@@ -0,0 +1,50 @@
+package com.keren.restaurantsimulator.model;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * FreeTableIndex keeps the FREE tables of a restaurant grouped by capacity.
+ *
+ * Capacities are kept in a sorted TreeMap, so finding the smallest free table
+ * that fits a party is one ceiling lookup: O(log number of capacities).
+ * Adding/removing a table (on seat/clear) is O(log number of capacities) too.
+ * Empty capacity groups are removed, so the first group found is never empty.
+ */
+class FreeTableIndex {
+
+    private final TreeMap<Integer, LinkedHashSet<Table>> freeByCapacity = new TreeMap<>();
+    private int size;
+
+    void add(Table table) {
+        if (freeByCapacity.computeIfAbsent(table.getCapacity(), c -> new LinkedHashSet<>()).add(table)) {
+            size++;
+        }
+    }
+
+    void remove(Table table) {
+        LinkedHashSet<Table> group = freeByCapacity.get(table.getCapacity());
+        if (group != null && group.remove(table)) {
+            size--;
+            if (group.isEmpty()) {
+                freeByCapacity.remove(table.getCapacity());
+            }
+        }
+    }
+
+    // Smallest free table with capacity >= partySize (longest free first within a capacity), or null.
+    Table findBestFit(int partySize) {
+        Map.Entry<Integer, LinkedHashSet<Table>> entry = freeByCapacity.ceilingEntry(partySize);
+        if (entry == null) {
+            return null;
+        }
+        Iterator<Table> it = entry.getValue().iterator();
+        return it.next();
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,94 @@
+package com.keren.restaurantsimulator.model;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+
+/**
+ * GapIndex holds the free gaps [start, end) of all tables of one capacity,
+ * in booking slots, and answers "which table has a gap covering [s1, s2)"
+ * in O(log slots).
+ *
+ * A segment tree over the gap start slot keeps the latest gap end under
+ * every node, so the search only walks into subtrees with start <= s1 that
+ * can still reach s2. Each leaf keeps its gaps as (end << 32 | table) in a
+ * TreeSet, so the leaf value is its last element. The table number fills
+ * the low 32 bits as is, so negative table numbers keep the end intact.
+ */
+class GapIndex {
+
+    // What find() returns when no gap covers the interval. Gap ends are never negative, so no gap key is.
+    static final long NOT_FOUND = -1L;
+
+    private static final int NONE = -1;
+
+    private final int leaves;
+    private final int[] maxEnd;            // 1-based heap layout, leaves at [leaves, 2 * leaves)
+    private final TreeSet<Long>[] gapsAt;  // by start slot, null while empty
+
+    @SuppressWarnings("unchecked")
+    GapIndex(int slots) {
+        int n = 1;
+        while (n < slots) {
+            n <<= 1;
+        }
+        this.leaves = n;
+        this.maxEnd = new int[2 * n];
+        Arrays.fill(maxEnd, NONE);
+        this.gapsAt = (TreeSet<Long>[]) new TreeSet<?>[n];
+    }
+
+    void add(int start, int end, int tableNumber) {
+        TreeSet<Long> gaps = gapsAt[start];
+        if (gaps == null) {
+            gaps = new TreeSet<>();
+            gapsAt[start] = gaps;
+        }
+        gaps.add(key(end, tableNumber));
+        update(start);
+    }
+
+    void remove(int start, int end, int tableNumber) {
+        TreeSet<Long> gaps = gapsAt[start];
+        if (gaps != null && gaps.remove(key(end, tableNumber))) {
+            if (gaps.isEmpty()) {
+                gapsAt[start] = null;
+            }
+            update(start);
+        }
+    }
+
+    // A gap starting at or before s1 and ending at or after s2, or NOT_FOUND; see tableOf().
+    long find(int s1, int s2) {
+        return find(1, 0, leaves - 1, s1, s2);
+    }
+
+    // The table number of a gap returned by find().
+    static int tableOf(long gap) {
+        return (int) gap;
+    }
+
+    private long find(int node, int lo, int hi, int s1, int s2) {
+        if (lo > s1 || maxEnd[node] < s2) {
+            return NOT_FOUND;
+        }
+        if (lo == hi) {
+            return gapsAt[lo].last();
+        }
+        int mid = (lo + hi) >>> 1;
+        long found = find(2 * node, lo, mid, s1, s2);
+        return found != NOT_FOUND ? found : find(2 * node + 1, mid + 1, hi, s1, s2);
+    }
+
+    private void update(int start) {
+        TreeSet<Long> gaps = gapsAt[start];
+        int node = leaves + start;
+        maxEnd[node] = gaps == null ? NONE : (int) (gaps.last() >>> 32);
+        for (node >>>= 1; node > 0; node >>>= 1) {
+            maxEnd[node] = Math.max(maxEnd[2 * node], maxEnd[2 * node + 1]);
+        }
+    }
+
+    private static long key(int end, int tableNumber) {
+        return (long) end << 32 | tableNumber & 0xFFFFFFFFL;
+    }
+}
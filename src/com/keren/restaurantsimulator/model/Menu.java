@@ -1,5 +1,6 @@
 package com.keren.restaurantsimulator.model;
 import com.keren.restaurantsimulator.exception.DishNotFoundException;
+import com.keren.restaurantsimulator.util.IntObjectMap;
 import java.util.*;
 
 /**
@@ -8,61 +9,121 @@ import java.util.*;
  * Rules:
  * - Dish id must be unique in the menu.
  * - If you try to add a dish with an existing id -> error.
+ *
+ * The dishes live in an immutable, versioned MenuSnapshot. Readers (order
+ * entry, printing) do one volatile read of the current snapshot and never
+ * lock. Every change copies the current snapshot, edits the copy and
+ * publishes it as the next version in one write (copy-on-write), so a reader
+ * sees the menu either fully before or fully after a change. Changes are
+ * serialized among themselves; they never block readers.
+ *
+ * Dishes are immutable: a price change is replaceDish() with a new Dish of
+ * the same id. Order lines keep the price they were added at (see OrderItem).
  **/
 
 public class Menu {
 
-    // Creating a dictionary like way to look up the dishes
-    // the key is the dish id and the value is the dish object
-    private final Map<Integer, Dish> dishesById;
+    private volatile MenuSnapshot current = new MenuSnapshot(0, new IntObjectMap<>());
 
     public Menu() {
-        // This keeps the insertion order for easier work later on.
-        this.dishesById = new LinkedHashMap<>();
     }
 
-    public void addDish(Dish dish) {
+    // The current version; stays the same object however the menu changes later.
+    public MenuSnapshot snapshot() {
+        return current;
+    }
+
+    public long getVersion() {
+        return current.getVersion();
+    }
+
+    public synchronized void addDish(Dish dish) {
         if (dish == null) {
             throw new IllegalArgumentException("dish cannot be null");
         }
         int id = dish.getId();
-        if (dishesById.containsKey(id)) {
+        if (current.containsDish(id)) {
             throw new IllegalArgumentException("Dish with id " + id + " already exists in the menu");
         }
-        dishesById.put(id, dish);
+        IntObjectMap<Dish> next = current.copyDishes();
+        next.put(id, dish);
+        publish(next);
+    }
+
+    /**
+     * Swaps the dish with the same id (e.g. a new price) in one step; the dish
+     * keeps its place in the menu.
+     * @return the dish it replaced
+     */
+    public synchronized Dish replaceDish(Dish dish) {
+        if (dish == null) {
+            throw new IllegalArgumentException("dish cannot be null");
+        }
+        if (!current.containsDish(dish.getId())) {
+            throw new DishNotFoundException("Dish with id " + dish.getId() + " not found");
+        }
+        IntObjectMap<Dish> next = current.copyDishes();
+        Dish old = next.put(dish.getId(), dish);
+        publish(next);
+        return old;
     }
 
-    public boolean removeDish(int dishId) {
-        return dishesById.remove(dishId) != null;
+    public synchronized boolean removeDish(int dishId) {
+        if (!current.containsDish(dishId)) {
+            return false;
+        }
+        IntObjectMap<Dish> next = current.copyDishes();
+        next.remove(dishId);
+        publish(next);
+        return true;
+    }
+
+    // Replaces the whole menu with these dishes as one new version.
+    public synchronized void replaceAll(Collection<Dish> dishes) {
+        if (dishes == null) {
+            throw new IllegalArgumentException("dishes cannot be null");
+        }
+        IntObjectMap<Dish> next = new IntObjectMap<>(dishes.size());
+        for (Dish dish : dishes) {
+            if (dish == null) {
+                throw new IllegalArgumentException("dish cannot be null");
+            }
+            if (next.put(dish.getId(), dish) != null) {
+                throw new IllegalArgumentException("Dish with id " + dish.getId() + " appears twice");
+            }
+        }
+        publish(next);
+    }
+
+    private void publish(IntObjectMap<Dish> dishes) {
+        current = new MenuSnapshot(current.getVersion() + 1, dishes);
     }
 
     // Finds a dish by its id
     public Optional<Dish> findDishById(int dishId) {
-        return Optional.ofNullable(dishesById.get(dishId));
+        return Optional.ofNullable(current.findDish(dishId));
     }
 
     public Dish getDishOrThrow(int dishId) {
-        Dish dish = dishesById.get(dishId);
-        if (dish == null) {
-            throw new DishNotFoundException("Dish with id " + dishId + " not found");
-        }
-        return dish;
+        return current.getDishOrThrow(dishId);
     }
+
+    // Dishes of the current version (later changes do not show up in it).
     public Collection<Dish> listDishes() {
-        return Collections.unmodifiableCollection(dishesById.values());
+        return current.listDishes();
     }
     public int size() {
-        return dishesById.size();
+        return current.size();
     }
     public boolean containsDish(int dishId) {
-        return dishesById.containsKey(dishId);
+        return current.containsDish(dishId);
     }
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder("Menu:\n");
-        for (Dish dish : dishesById.values()) {
+        for (Dish dish : current.listDishes()) {
             sb.append("  - ").append(dish).append('\n');
         }
         return sb.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package com.keren.restaurantsimulator.model;
+
+import com.keren.restaurantsimulator.exception.DishNotFoundException;
+import com.keren.restaurantsimulator.util.IntObjectMap;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * MenuSnapshot is one published version of a Menu. It never changes after it
+ * is created, so any number of threads can read it without locks; a menu
+ * change publishes a new snapshot instead of editing this one.
+ *
+ * Holding on to a snapshot gives a consistent view of the whole menu (e.g.
+ * printing it while the manager edits prices).
+ */
+public final class MenuSnapshot {
+
+    private final long version;
+    private final IntObjectMap<Dish> dishesById; // never modified after the constructor
+    private final Collection<Dish> dishes;
+
+    MenuSnapshot(long version, IntObjectMap<Dish> dishesById) {
+        this.version = version;
+        this.dishesById = dishesById;
+        this.dishes = Collections.unmodifiableCollection(dishesById.values());
+    }
+
+    // 0 for an empty new menu, +1 for every published change.
+    public long getVersion() {
+        return version;
+    }
+
+    public Dish findDish(int dishId) {
+        return dishesById.get(dishId);
+    }
+
+    public Dish getDishOrThrow(int dishId) {
+        Dish dish = dishesById.get(dishId);
+        if (dish == null) {
+            throw new DishNotFoundException("Dish with id " + dishId + " not found");
+        }
+        return dish;
+    }
+
+    public boolean containsDish(int dishId) {
+        return dishesById.containsKey(dishId);
+    }
+
+    // Dishes in the order they were added.
+    public Collection<Dish> listDishes() {
+        return dishes;
+    }
+
+    public int size() {
+        return dishesById.size();
+    }
+
+    // Writable copy for building the next version.
+    IntObjectMap<Dish> copyDishes() {
+        return dishesById.copy();
+    }
+}
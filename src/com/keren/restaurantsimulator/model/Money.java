@@ -0,0 +1,27 @@
+package com.keren.restaurantsimulator.model;
+
+/**
+ * Money helpers.
+ *
+ * Prices are stored as exact fixed-point amounts in minor units
+ * (1 shekel = 100 agorot), so adding up a long bill never picks up
+ * floating point rounding errors. double is used only at the edges
+ * (constructors taking a price and getters for printing).
+ */
+public final class Money {
+
+    public static final int MINOR_UNITS_PER_MAJOR = 100;
+
+    private Money() {}
+
+    public static long toMinor(double amount) {
+        if (Double.isNaN(amount) || Double.isInfinite(amount)) {
+            throw new IllegalArgumentException("amount must be a finite number");
+        }
+        return Math.round(amount * MINOR_UNITS_PER_MAJOR);
+    }
+
+    public static double toMajor(long minor) {
+        return (double) minor / MINOR_UNITS_PER_MAJOR;
+    }
+}
@@ -1,6 +1,12 @@
 package com.keren.restaurantsimulator.model;
 import com.keren.restaurantsimulator.enums.OrderStatus;
+import com.keren.restaurantsimulator.enums.TableEvent;
+import com.keren.restaurantsimulator.enums.TableStatus;
+import com.keren.restaurantsimulator.metrics.Metrics;
+import com.keren.restaurantsimulator.util.IntObjectMap;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.*;
 
 /**
@@ -9,31 +15,252 @@ import java.util.*;
  * It contains multiple OrderItem entries (each one is a Dish + quantity).
  * The order manages adding/removing dishes, counting total items,
  * and calculating the total price.
+ *
+ * The number of dishes and the total price are running totals, updated on
+ * every add/remove/quantity change, so reading them costs the same for a
+ * 2-line order and a 1,000-line banquet.
+ *
+ * While the order is at a table its status is the table's state word (see
+ * Table); the status field only holds it before and after that. The PAY or
+ * CLEAR that takes the order off the table claims it and writes its final
+ * status before the table's CAS, so a reader never has to wait for it.
  */
 
 public class Order {
 
+    // CAS on status for orders that are not at a table
+    private static final VarHandle STATUS;
+    private static final VarHandle REPORTS;
+    private static final VarHandle CLOSING;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            STATUS = lookup.findVarHandle(Order.class, "status", OrderStatus.class);
+            REPORTS = lookup.findVarHandle(Order.class, "pendingReports", int.class);
+            CLOSING = lookup.findVarHandle(Order.class, "closing", boolean.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     // Key = dish id, Value = OrderItem for that dish
-    private final Map<Integer, OrderItem> itemsByDishId;
-    private OrderStatus status = OrderStatus.CREATED;
+    private final IntObjectMap<OrderItem> itemsByDishId;
+    private volatile OrderStatus status = OrderStatus.CREATED; // not used while at a table
+    private final int tableNumber;         // 0 if the order is not tied to a table
+    private volatile Table table;          // set while this is the table's current order
+    private int tableGeneration = -1;      // the table's order generation when attached
+    private volatile boolean closing;      // claimed by the PAY or CLEAR taking it off the table
+    private int id;                        // 0 until registered in an OrderService
+    private OrderStatusListener listener;  // the OrderService this order is registered in
+    private int pendingReports;            // status changes not yet reported, see statusChanged()
+    private OrderStatus reportedStatus = OrderStatus.CREATED; // touched by the reporting thread only
+    private int numOfDishes;
+    private long totalPriceMinor;
+    private long statusSinceNanos;         // only kept when metrics are enabled
 
     public Order() {
+        this(0);
+    }
+
+    public Order(int tableNumber) {
         // keeps insertion order (nice for printing)
-        this.itemsByDishId = new LinkedHashMap<>();
+        this.itemsByDishId = new IntObjectMap<>();
+        this.tableNumber = tableNumber;
+        this.statusSinceNanos = Metrics.start();
     }
 
+    public int getTableNumber() {
+        return tableNumber;
+    }
+
+    // The table the order is at, or null once it left it (or never had one).
+    public Table getTable() {
+        return table;
+    }
+
+    // While the order is at a table, read from the table's state word (which decides the moves).
     public OrderStatus getStatus() {
+        Table t = table;
+        if (t != null) {
+            int word = t.getStateWord();
+            if (isAt(word)) {
+                return TableState.orderStatus(word);
+            }
+        }
+        // Not at the table (any more): whoever took it off wrote the final status first
         return status;
     }
 
+    // Whether the word is this order's: it has an order and the order is of our generation.
+    private boolean isAt(int word) {
+        return TableState.orderStatus(word) != null && TableState.generation(word) == tableGeneration;
+    }
+
+    /**
+     * Sets the status without checking the move (used when restoring state
+     * and by the journal replay). Services use tryAdvance() instead.
+     */
     public void setStatus(OrderStatus status) {
         if (status == null) {
             throw new IllegalArgumentException("status cannot be null");
         }
-        this.status = status;
+        Table t = table;
+        if (t != null && isAt(t.getStateWord())) {
+            t.forceOrderStatus(status);
+        } else {
+            this.status = status;
+        }
+        statusChanged();
+    }
+
+    /**
+     * Moves the order one step (SUBMIT, START_PREP, READY or SERVE) if that is
+     * legal from its current status; false otherwise, without an exception.
+     * An order at a table moves through the table's state word; any other
+     * order by a compare-and-set on its own status, with the same rules.
+     */
+    public boolean tryAdvance(TableEvent event) {
+        if (event.ordinal() < TableEvent.SUBMIT.ordinal()) {
+            return false; // table events go through the Table
+        }
+        Table t = table;
+        if (t != null) {
+            if (t.tryApply(event, tableGeneration)) {
+                return true;
+            }
+            if (isAt(t.getStateWord())) {
+                return false;
+            }
+            // taken off the table meanwhile; from here it moves on its own status
+        }
+        while (true) {
+            OrderStatus current = status;
+            int next = TableState.next(TableState.encode(TableStatus.OCCUPIED, current, 0), event);
+            if (next == TableState.REJECTED) {
+                return false;
+            }
+            OrderStatus moved = TableState.orderStatus(next);
+            if (STATUS.compareAndSet(this, current, moved)) {
+                statusChanged();
+                return true;
+            }
+        }
     }
 
+    /**
+     * Reports the latest status to metrics and the OrderService listener, one
+     * thread at a time (the same drain loop as Table's). When moves race,
+     * the listener may see one step covering several, but never a step back.
+     */
+    void statusChanged() {
+        if (listener == null && !Metrics.ENABLED) {
+            return; // nobody to tell; register() catches up
+        }
+        if ((int) REPORTS.getAndAdd(this, 1) != 0) {
+            return;
+        }
+        int pending = 1;
+        do {
+            OrderStatus old = reportedStatus;
+            OrderStatus newStatus = getStatus();
+            if (old != newStatus) {
+                reportedStatus = newStatus;
+                if (Metrics.ENABLED) {
+                    long now = System.nanoTime();
+                    Metrics.orderTransition(old, newStatus, now - statusSinceNanos);
+                    statusSinceNanos = now;
+                }
+                OrderStatusListener l = listener;
+                if (l != null) {
+                    l.onStatusChanged(this, old, newStatus);
+                }
+            }
+            pending = (int) REPORTS.getAndAdd(this, -pending) - pending;
+        } while (pending != 0);
+    }
+
+    // The table's order generation this order belongs to, or -1 if it is not at a table.
+    public int getTableGeneration() {
+        return table == null ? -1 : tableGeneration;
+    }
+
+    // Same, without the table check (Table reads it while publishing the order).
+    int attachedGeneration() {
+        return tableGeneration;
+    }
+
+    void attach(Table table, int generation) {
+        this.tableGeneration = generation;
+        this.closing = false;
+        this.table = table;
+    }
+
+    /**
+     * Claims the order for the PAY or CLEAR that takes it off its table; only
+     * one caller gets true. The claimer writes the final status with
+     * closeAs() before each CAS it tries, and gives up with unclaim().
+     */
+    boolean claimClose() {
+        return CLOSING.compareAndSet(this, false, true);
+    }
+
+    void closeAs(OrderStatus last) {
+        this.status = last;
+    }
+
+    void unclaim() {
+        this.closing = false;
+    }
+
+    // Leaves the table, keeping `last` (if not null) as the status from now on.
+    void detach(OrderStatus last) {
+        if (last != null) {
+            this.status = last;
+        }
+        this.table = null;
+    }
+
+    // Order id given by OrderService (0 if the order was never registered).
+    public int getId() {
+        return id;
+    }
+
+    public boolean isRegistered() {
+        return listener != null;
+    }
+
+    /**
+     * Called by OrderService when it takes the order.
+     * An order can be registered in one service at a time.
+     */
+    public void register(int id, OrderStatusListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener cannot be null");
+        }
+        if (this.listener != null) {
+            throw new IllegalStateException("Order is already registered with id " + this.id);
+        }
+        this.id = id;
+        this.reportedStatus = getStatus(); // the service indexes the order as it is now
+        this.listener = listener;
+    }
+
+    // Called by OrderService when the order is removed from it.
+    public void unregister() {
+        this.listener = null;
+    }
+
+    // A new line takes the dish's current price; more of a dish already ordered keeps the line's price.
     public void addDish(Dish dish, int quantity) {
+        addDish(dish, quantity, dish == null ? 0 : dish.getPriceMinor());
+    }
+
+    /**
+     * Adds a line at a given unit price. Used when restoring orders, so a
+     * line keeps the price it was ordered at even if the menu changed since.
+     */
+    public void addDish(Dish dish, int quantity, long unitPriceMinor) {
         if (dish == null) {
             throw new IllegalArgumentException("dish cannot be null");
         }
@@ -45,15 +272,30 @@ public class Order {
         OrderItem existing = itemsByDishId.get(dishId);
 
         if (existing == null) {
-            itemsByDishId.put(dishId, new OrderItem(dish, quantity));
+            OrderItem item = new OrderItem(dish, quantity, unitPriceMinor);
+            item.setOwner(this);
+            itemsByDishId.put(dishId, item);
+            onQuantityChanged(item, quantity);
         } else {
-            existing.increaseQuantity(quantity);
+            existing.increaseQuantity(quantity); // reports back through onQuantityChanged
         }
     }
 
     // Removes a dish line from the order completely, by dish id.
     public boolean removeDish(int dishId) {
-        return itemsByDishId.remove(dishId) != null;
+        OrderItem removed = itemsByDishId.remove(dishId);
+        if (removed == null) {
+            return false;
+        }
+        removed.setOwner(null);
+        onQuantityChanged(removed, -removed.getQuantity());
+        return true;
+    }
+
+    // Called by OrderItem when the quantity of one of our lines changes.
+    void onQuantityChanged(OrderItem item, int delta) {
+        numOfDishes += delta;
+        totalPriceMinor += item.getUnitPriceMinor() * delta;
     }
 
 
@@ -63,20 +305,15 @@ public class Order {
     }
 
     public int getNumOfDishes() {
-        int total = 0;
-        for (OrderItem item : itemsByDishId.values()) {
-            total += item.getQuantity();
-        }
-        return total;
+        return numOfDishes;
     }
 
     public double getTotalPrice() {
-        double total = 0.0;
-        for (OrderItem item : itemsByDishId.values()) {
-            total += item.getTotalPrice();
-        }
-        return total;
+        return Money.toMajor(totalPriceMinor);
+    }
 
+    public long getTotalPriceMinor() {
+        return totalPriceMinor;
     }
 
     public int getNumOfLines() {
@@ -94,7 +331,7 @@ public class Order {
         for (OrderItem item : itemsByDishId.values()) {
             sb.append("  - ").append(item).append('\n');
         }
-        sb.append("Total dishes: ").append(getNumOfDishes()).append('\n');
+        sb.append("Total dishes: ").append(numOfDishes).append('\n');
         sb.append("Total price: ").append(getTotalPrice()).append('\n');
         return sb.toString();
     }
@@ -9,21 +9,38 @@ package com.keren.restaurantsimulator.model;
  *
  * This class allows modifying the quantity of the dish within the order
  * and provides utility methods for price calculation and display.
+ * When the item belongs to an Order, quantity changes are reported to it,
+ * so the order's running totals stay correct.
+ *
+ * The unit price is taken from the dish when the item is created and never
+ * read from the dish again, so a later menu price change does not reprice
+ * an open order or a bill.
  */
 
 public class OrderItem {
     private final Dish dish;
+    private final long unitPriceMinor; // price of one, captured when the line was added
     private int quantity;
+    private Order owner; // set by Order while this item is one of its lines
 
     public OrderItem(Dish dish, int quantity){
+        this(dish, quantity, dish == null ? 0 : dish.getPriceMinor());
+    }
+
+    // For restoring a line at the price it was originally ordered at.
+    public OrderItem(Dish dish, int quantity, long unitPriceMinor){
         if (dish==null){
             throw new IllegalArgumentException("dish cannot be null");
         }
         if (quantity <= 0) {
             throw new IllegalArgumentException("quantity must be positive");
         }
+        if (unitPriceMinor < 0) {
+            throw new IllegalArgumentException("unitPriceMinor cannot be negative");
+        }
         this.dish = dish;
         this.quantity = quantity;
+        this.unitPriceMinor = unitPriceMinor;
     }
 
     // Getters for the private fields
@@ -33,10 +50,24 @@ public class OrderItem {
     public int getQuantity() {
         return quantity;
     }
+    public long getUnitPriceMinor() {
+        return unitPriceMinor;
+    }
+    public double getUnitPrice() {
+        return Money.toMajor(unitPriceMinor);
+    }
 
     // Calculating the total price of all the items together
     public double getTotalPrice(){
-            return dish.getPrice() * quantity;
+            return Money.toMajor(getTotalPriceMinor());
+    }
+
+    public long getTotalPriceMinor(){
+        return unitPriceMinor * quantity;
+    }
+
+    void setOwner(Order owner) {
+        this.owner = owner;
     }
 
     // Increase quantity (e.g., add more of the same dish)
@@ -45,6 +76,9 @@ public class OrderItem {
             throw new IllegalArgumentException("amount must be positive");
         }
         this.quantity += amount;
+        if (owner != null) {
+            owner.onQuantityChanged(this, amount);
+        }
     }
 
     public void decreaseQuantity(int amount){
@@ -55,6 +89,9 @@ public class OrderItem {
             throw new IllegalArgumentException("quantity cannot be zero or negative");
         }
         this.quantity -= amount;
+        if (owner != null) {
+            owner.onQuantityChanged(this, -amount);
+        }
     }
 
     @Override
@@ -0,0 +1,11 @@
+package com.keren.restaurantsimulator.model;
+
+import com.keren.restaurantsimulator.enums.OrderStatus;
+
+/**
+ * Notified by an Order every time its status changes.
+ * OrderService registers itself as the listener of the orders it manages.
+ */
+public interface OrderStatusListener {
+    void onStatusChanged(Order order, OrderStatus oldStatus, OrderStatus newStatus);
+}
@@ -0,0 +1,51 @@
+package com.keren.restaurantsimulator.model;
+
+import java.time.Instant;
+
+/**
+ * Reservation is one booking in a ReservationBook: a table held for a party
+ * over [startMillis, endMillis). Immutable; the book rounds the interval
+ * out to whole booking slots.
+ */
+public class Reservation {
+
+    private final int id;
+    private final int tableNumber;
+    private final int partySize;
+    private final String guestName;
+    private final long startMillis;
+    private final long endMillis;
+    final int startSlot;
+    final int endSlot;
+
+    Reservation(int id, int tableNumber, int partySize, String guestName,
+                long startMillis, long endMillis, int startSlot, int endSlot) {
+        this.id = id;
+        this.tableNumber = tableNumber;
+        this.partySize = partySize;
+        this.guestName = guestName;
+        this.startMillis = startMillis;
+        this.endMillis = endMillis;
+        this.startSlot = startSlot;
+        this.endSlot = endSlot;
+    }
+
+    public int getId() { return id; }
+    public int getTableNumber() { return tableNumber; }
+    public int getPartySize() { return partySize; }
+    public String getGuestName() { return guestName; }
+    public long getStartMillis() { return startMillis; }
+    public long getEndMillis() { return endMillis; }
+
+    @Override
+    public String toString() {
+        return "Reservation{" +
+                "id=" + id +
+                ", table=" + tableNumber +
+                ", party=" + partySize +
+                ", guest='" + guestName + '\'' +
+                ", from=" + Instant.ofEpochMilli(startMillis) +
+                ", to=" + Instant.ofEpochMilli(endMillis) +
+                '}';
+    }
+}
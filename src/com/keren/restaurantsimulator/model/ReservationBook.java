@@ -0,0 +1,433 @@
+package com.keren.restaurantsimulator.model;
+
+import com.keren.restaurantsimulator.enums.TableStatus;
+import com.keren.restaurantsimulator.exception.TableNotAvailableException;
+import com.keren.restaurantsimulator.util.IntObjectMap;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.LongSupplier;
+
+/**
+ * ReservationBook holds the bookings of a restaurant's tables over a fixed
+ * horizon (e.g. 90 days from originMillis), cut into slots (e.g. 15 minutes).
+ * Open one with Restaurant.openReservationBook().
+ *
+ * Two indexes, both updated on every book / cancel:
+ * - per table: bookings by start slot (TreeMap). They never overlap, so
+ *   "is table 7 free for [t1, t2)" is one lowerEntry(): O(log bookings).
+ * - per capacity: the free gaps between bookings (GapIndex). "Any table
+ *   with capacity >= N free for [t1, t2)" looks for a gap covering the
+ *   interval, capacity by capacity from N up: O(capacities * log slots),
+ *   whatever the number of tables.
+ *
+ * Walk-ins: Table.seat() asks isFreeForWalkIn(), i.e. no booking in the next
+ * walk-in window (90 minutes by default). Restaurant's best-fit seating asks
+ * findWalkInTable(), which skips tables that are about to be reserved using
+ * a third index of the FREE tables (WalkInIndex) instead of testing them one
+ * by one. Parties with a booking are seated with checkIn().
+ *
+ * Methods are synchronized, so tables moving on several threads can update
+ * the walk-in index while bookings are taken. The book never calls back
+ * into the restaurant's locked methods while holding its own monitor.
+ */
+public class ReservationBook {
+
+    private final Restaurant restaurant;
+    private final long originMillis;
+    private final long slotMillis;
+    private final int horizonSlots;
+
+    private final IntObjectMap<TreeMap<Integer, Reservation>> bookingsByTable = new IntObjectMap<>();
+    private final IntObjectMap<Reservation> reservationsById = new IntObjectMap<>();
+    private final TreeMap<Integer, GapIndex> gapsByCapacity = new TreeMap<>();
+    private final WalkInIndex walkIns = new WalkInIndex();
+    private int nextReservationId = 1;
+
+    private long walkInMillis = 90 * 60_000L;
+    private LongSupplier clock = System::currentTimeMillis;
+
+    ReservationBook(Restaurant restaurant, long originMillis, int slotMinutes, int horizonDays) {
+        if (slotMinutes <= 0 || horizonDays <= 0) {
+            throw new IllegalArgumentException("slotMinutes and horizonDays must be positive");
+        }
+        this.restaurant = restaurant;
+        this.originMillis = originMillis;
+        this.slotMillis = slotMinutes * 60_000L;
+        long slots = horizonDays * 24L * 60 / slotMinutes;
+        if (slots > Integer.MAX_VALUE / 2) {
+            throw new IllegalArgumentException("horizon too long for the slot size");
+        }
+        this.horizonSlots = (int) slots;
+        for (Table table : restaurant.listTables()) {
+            addTable(table);
+        }
+    }
+
+    // How far ahead a walk-in must not collide with a booking.
+    public synchronized ReservationBook setWalkInMinutes(int minutes) {
+        if (minutes < 0) {
+            throw new IllegalArgumentException("minutes cannot be negative");
+        }
+        this.walkInMillis = minutes * 60_000L;
+        return this;
+    }
+
+    // Clock used for walk-ins (System::currentTimeMillis by default).
+    public synchronized ReservationBook setClock(LongSupplier clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("clock cannot be null");
+        }
+        this.clock = clock;
+        return this;
+    }
+
+    public long getOriginMillis() {
+        return originMillis;
+    }
+
+    public long getHorizonEndMillis() {
+        return originMillis + horizonSlots * slotMillis;
+    }
+
+    public synchronized int size() {
+        return reservationsById.size();
+    }
+
+    // Id the next booking will get.
+    public synchronized int getNextReservationId() {
+        return nextReservationId;
+    }
+
+    // Used when recovering state; ids already handed out must never be reused.
+    public synchronized void setNextReservationId(int nextReservationId) {
+        if (nextReservationId <= 0) {
+            throw new IllegalArgumentException("nextReservationId must be positive");
+        }
+        this.nextReservationId = nextReservationId;
+    }
+
+    public synchronized int getWalkInMinutes() {
+        return (int) (walkInMillis / 60_000L);
+    }
+
+    // ---------------- Tables ----------------
+
+    // Called by Restaurant when a table joins: free over the whole horizon.
+    synchronized void addTable(Table table) {
+        TreeMap<Integer, Reservation> bookings = new TreeMap<>();
+        bookingsByTable.put(table.getTableNumber(), bookings);
+        gaps(table.getCapacity()).add(0, horizonSlots, table.getTableNumber());
+        if (table.getStatus() == TableStatus.FREE) {
+            walkIns.add(table, bookings);
+        }
+    }
+
+    // Called by Restaurant when a table leaves; its bookings are dropped.
+    synchronized void removeTable(Table table) {
+        TreeMap<Integer, Reservation> bookings = bookingsByTable.remove(table.getTableNumber());
+        if (bookings == null) {
+            return;
+        }
+        walkIns.remove(table.getTableNumber());
+        GapIndex gaps = gaps(table.getCapacity());
+        int gapStart = 0;
+        for (Reservation r : bookings.values()) {
+            if (gapStart < r.startSlot) {
+                gaps.remove(gapStart, r.startSlot, r.getTableNumber());
+            }
+            gapStart = r.endSlot;
+            reservationsById.remove(r.getId());
+        }
+        if (gapStart < horizonSlots) {
+            gaps.remove(gapStart, horizonSlots, table.getTableNumber());
+        }
+    }
+
+    // Called by Restaurant whenever a table's status changes.
+    synchronized void onTableStatusChanged(Table table, TableStatus oldStatus, TableStatus newStatus) {
+        if (newStatus == TableStatus.FREE) {
+            TreeMap<Integer, Reservation> bookings = bookingsByTable.get(table.getTableNumber());
+            if (bookings != null) {
+                walkIns.add(table, bookings);
+            }
+        } else if (oldStatus == TableStatus.FREE) {
+            walkIns.remove(table.getTableNumber());
+        }
+    }
+
+    private GapIndex gaps(int capacity) {
+        return gapsByCapacity.computeIfAbsent(capacity, c -> new GapIndex(horizonSlots));
+    }
+
+    // ---------------- Queries ----------------
+
+    public synchronized boolean isAvailable(int tableNumber, long startMillis, long endMillis) {
+        return findOverlapping(tableNumber, startMillis, endMillis).isEmpty();
+    }
+
+    // The booking of the table that overlaps [start, end), if any.
+    public synchronized Optional<Reservation> findOverlapping(int tableNumber, long startMillis, long endMillis) {
+        requireInterval(startMillis, endMillis);
+        return Optional.ofNullable(overlapping(bookingsOf(tableNumber), startSlot(startMillis), endSlot(endMillis)));
+    }
+
+    /**
+     * Smallest table (by capacity) that can hold the party and has no
+     * booking overlapping [start, end), or empty if none.
+     */
+    public synchronized Optional<Table> findAvailableTable(int partySize, long startMillis, long endMillis) {
+        if (partySize <= 0) {
+            throw new IllegalArgumentException("partySize must be positive");
+        }
+        requireInterval(startMillis, endMillis);
+        int s1 = startSlot(startMillis);
+        int s2 = endSlot(endMillis);
+        for (GapIndex gaps : gapsByCapacity.tailMap(partySize, true).values()) {
+            long gap = gaps.find(s1, s2);
+            if (gap != GapIndex.NOT_FOUND) {
+                return Optional.of(restaurant.getTableById(GapIndex.tableOf(gap)));
+            }
+        }
+        return Optional.empty();
+    }
+
+    public synchronized Optional<Reservation> getReservation(int reservationId) {
+        return Optional.ofNullable(reservationsById.get(reservationId));
+    }
+
+    // Every booking, in no particular order (a copy).
+    public synchronized List<Reservation> listReservations() {
+        return new ArrayList<>(reservationsById.values());
+    }
+
+    // Bookings of one table in time order (read-only).
+    public synchronized List<Reservation> listReservations(int tableNumber) {
+        return Collections.unmodifiableList(new ArrayList<>(bookingsOf(tableNumber).values()));
+    }
+
+    // ---------------- Booking ----------------
+
+    /**
+     * Books a specific table.
+     * @throws TableNotAvailableException if another booking overlaps
+     */
+    public synchronized Reservation book(int tableNumber, int partySize, String guestName, long startMillis, long endMillis) {
+        Table table = restaurant.getTableById(tableNumber);
+        if (partySize <= 0) {
+            throw new IllegalArgumentException("partySize must be positive");
+        }
+        if (partySize > table.getCapacity()) {
+            throw new IllegalArgumentException("Too many customers for table capacity");
+        }
+        requireInterval(startMillis, endMillis);
+        int s1 = startSlot(startMillis);
+        int s2 = endSlot(endMillis);
+        TreeMap<Integer, Reservation> bookings = bookingsOf(tableNumber);
+        Reservation clash = overlapping(bookings, s1, s2);
+        if (clash != null) {
+            throw new TableNotAvailableException("Table " + tableNumber + " is already reserved at "
+                    + Instant.ofEpochMilli(clash.getStartMillis()) + " (reservation " + clash.getId() + ")");
+        }
+        return insert(new Reservation(nextReservationId++, tableNumber, partySize,
+                guestName == null ? "" : guestName, startMillis, endMillis, s1, s2), table);
+    }
+
+    /**
+     * Puts back a booking saved by a snapshot or journal, with its id.
+     * Used when recovering state; not journaled. A booking that ended before
+     * the origin is dropped (returns null), one that started before it keeps
+     * only the slots from the origin on.
+     */
+    public synchronized Reservation restore(int reservationId, int tableNumber, int partySize, String guestName,
+                               long startMillis, long endMillis) {
+        if (reservationsById.containsKey(reservationId)) {
+            throw new IllegalStateException("Reservation " + reservationId + " already exists");
+        }
+        nextReservationId = Math.max(nextReservationId, reservationId + 1);
+        if (endMillis <= originMillis) {
+            return null;
+        }
+        Table table = restaurant.getTableById(tableNumber);
+        int s1 = startSlot(Math.max(startMillis, originMillis));
+        int s2 = endSlot(endMillis);
+        Reservation clash = overlapping(bookingsOf(tableNumber), s1, s2);
+        if (clash != null) {
+            throw new IllegalStateException("Reservation " + reservationId + " overlaps reservation " + clash.getId());
+        }
+        return insert(new Reservation(reservationId, tableNumber, partySize, guestName,
+                startMillis, endMillis, s1, s2), table);
+    }
+
+    // Takes [startSlot, endSlot) out of the free gap that holds it.
+    private Reservation insert(Reservation reservation, Table table) {
+        int tableNumber = reservation.getTableNumber();
+        int s1 = reservation.startSlot;
+        int s2 = reservation.endSlot;
+        TreeMap<Integer, Reservation> bookings = bookingsOf(tableNumber);
+        int gapStart = gapStartBefore(bookings, s1);
+        int gapEnd = gapEndAfter(bookings, s1);
+        GapIndex gaps = gaps(table.getCapacity());
+        gaps.remove(gapStart, gapEnd, tableNumber);
+        if (gapStart < s1) {
+            gaps.add(gapStart, s1, tableNumber);
+        }
+        if (s2 < gapEnd) {
+            gaps.add(s2, gapEnd, tableNumber);
+        }
+        bookings.put(s1, reservation);
+        reservationsById.put(reservation.getId(), reservation);
+        walkIns.update(table);
+        return reservation;
+    }
+
+    /**
+     * Books the smallest free table that fits the party.
+     * @throws TableNotAvailableException if no table is free for the whole interval
+     */
+    public synchronized Reservation bookAny(int partySize, String guestName, long startMillis, long endMillis) {
+        Table table = findAvailableTable(partySize, startMillis, endMillis)
+                .orElseThrow(() -> new TableNotAvailableException("No table for " + partySize
+                        + " customers at " + Instant.ofEpochMilli(startMillis)));
+        return book(table.getTableNumber(), partySize, guestName, startMillis, endMillis);
+    }
+
+    public synchronized boolean cancel(int reservationId) {
+        Reservation reservation = reservationsById.remove(reservationId);
+        if (reservation == null) {
+            return false;
+        }
+        int tableNumber = reservation.getTableNumber();
+        TreeMap<Integer, Reservation> bookings = bookingsOf(tableNumber);
+        bookings.remove(reservation.startSlot);
+        int gapStart = gapStartBefore(bookings, reservation.startSlot);
+        int gapEnd = gapEndAfter(bookings, reservation.startSlot);
+        Table table = restaurant.getTableById(tableNumber);
+        GapIndex gaps = gaps(table.getCapacity());
+        if (gapStart < reservation.startSlot) {
+            gaps.remove(gapStart, reservation.startSlot, tableNumber);
+        }
+        if (reservation.endSlot < gapEnd) {
+            gaps.remove(reservation.endSlot, gapEnd, tableNumber);
+        }
+        gaps.add(gapStart, gapEnd, tableNumber);
+        walkIns.update(table);
+        return true;
+    }
+
+    /**
+     * Seats the party of a booking at its table (skipping the walk-in check,
+     * which the booking itself would fail). The booking stays in the book
+     * until cancelled, so the table is not offered to others meanwhile.
+     */
+    public Table checkIn(int reservationId) {
+        Reservation reservation;
+        synchronized (this) {
+            reservation = reservationsById.get(reservationId);
+        }
+        if (reservation == null) {
+            throw new IllegalArgumentException("Reservation " + reservationId + " not found");
+        }
+        // Seated outside the lock: the table reports to the restaurant, which calls back in here
+        Table table = restaurant.getTableById(reservation.getTableNumber());
+        table.seatReserved(reservation.getPartySize());
+        return table;
+    }
+
+    // ---------------- Walk-ins ----------------
+
+    // true if no booking of the table starts within the walk-in window from now.
+    public synchronized boolean isFreeForWalkIn(Table table) {
+        return walkInClash(table) == null;
+    }
+
+    /**
+     * Smallest FREE table that fits the party and has no booking in the
+     * walk-in window from now, or null. Used by Restaurant's best-fit seating.
+     */
+    synchronized Table findWalkInTable(int partySize) {
+        long now = Math.max(clock.getAsLong(), originMillis);
+        long until = Math.min(now + walkInMillis, getHorizonEndMillis());
+        int freeUntilSlot = now >= until ? Integer.MIN_VALUE : endSlot(until);
+        return walkIns.find(partySize, slotOf(now), freeUntilSlot);
+    }
+
+    // Called by Table.seat() for parties without a booking.
+    synchronized void checkWalkIn(Table table) {
+        Reservation clash = walkInClash(table);
+        if (clash != null) {
+            throw new TableNotAvailableException("Table " + table.getTableNumber() + " is reserved at "
+                    + Instant.ofEpochMilli(clash.getStartMillis()) + " (reservation " + clash.getId() + ")");
+        }
+    }
+
+    private Reservation walkInClash(Table table) {
+        TreeMap<Integer, Reservation> bookings = bookingsByTable.get(table.getTableNumber());
+        if (bookings == null || bookings.isEmpty()) {
+            return null;
+        }
+        long now = Math.max(clock.getAsLong(), originMillis);
+        long until = Math.min(now + walkInMillis, getHorizonEndMillis());
+        if (now >= until) {
+            return null;
+        }
+        return overlapping(bookings, slotOf(now), endSlot(until));
+    }
+
+    // ---------------- Slots ----------------
+
+    private static Reservation overlapping(TreeMap<Integer, Reservation> bookings, int s1, int s2) {
+        Map.Entry<Integer, Reservation> before = bookings.lowerEntry(s2);
+        return before != null && before.getValue().endSlot > s1 ? before.getValue() : null;
+    }
+
+    // Start of the free gap that contains slot s (bookings around it do not overlap s).
+    private static int gapStartBefore(TreeMap<Integer, Reservation> bookings, int s) {
+        Map.Entry<Integer, Reservation> before = bookings.lowerEntry(s);
+        return before == null ? 0 : before.getValue().endSlot;
+    }
+
+    private int gapEndAfter(TreeMap<Integer, Reservation> bookings, int s) {
+        Map.Entry<Integer, Reservation> after = bookings.ceilingEntry(s);
+        return after == null ? horizonSlots : after.getKey();
+    }
+
+    private TreeMap<Integer, Reservation> bookingsOf(int tableNumber) {
+        TreeMap<Integer, Reservation> bookings = bookingsByTable.get(tableNumber);
+        if (bookings == null) {
+            restaurant.getTableById(tableNumber); // throws TableNotFoundException
+            throw new IllegalStateException("Table " + tableNumber + " is not in the reservation book");
+        }
+        return bookings;
+    }
+
+    private static void requireInterval(long startMillis, long endMillis) {
+        if (endMillis <= startMillis) {
+            throw new IllegalArgumentException("end must be after start");
+        }
+    }
+
+    private int slotOf(long millis) {
+        return (int) ((millis - originMillis) / slotMillis);
+    }
+
+    private int startSlot(long startMillis) {
+        if (startMillis < originMillis || startMillis >= getHorizonEndMillis()) {
+            throw new IllegalArgumentException("start is outside the booking horizon");
+        }
+        return slotOf(startMillis);
+    }
+
+    // Rounded up to the slot boundary, so a booking covers whole slots.
+    private int endSlot(long endMillis) {
+        if (endMillis <= originMillis || endMillis > getHorizonEndMillis()) {
+            throw new IllegalArgumentException("end is outside the booking horizon");
+        }
+        return (int) ((endMillis - originMillis + slotMillis - 1) / slotMillis);
+    }
+}
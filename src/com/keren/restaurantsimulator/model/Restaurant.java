@@ -1,17 +1,34 @@
 package com.keren.restaurantsimulator.model;
+import com.keren.restaurantsimulator.enums.TableStatus;
 import com.keren.restaurantsimulator.exception.TableNotFoundException;
+import com.keren.restaurantsimulator.util.IntObjectMap;
+import com.keren.restaurantsimulator.util.StatusIndex;
 import java.util.*;
 
+/**
+ * Restaurant holds the tables and the floor indexes kept from their status
+ * changes (by status, and the FREE tables by capacity).
+ *
+ * Tables move lock-free (see Table); each table reports its changes here one
+ * at a time, and the floor indexes are guarded by the restaurant's monitor,
+ * so waiters on several threads can seat, bill and clear tables at once.
+ * The reservation book has its own monitor and is called outside this one.
+ * Tables are added and removed while the restaurant is set up, not while
+ * it serves.
+ */
 public class Restaurant {
     private final Menu menu;
-    private final Map<Integer, Table> tablesByNumber;
+    private final IntObjectMap<Table> tablesByNumber;
+    private final FreeTableIndex freeTables = new FreeTableIndex();
+    private final StatusIndex<TableStatus, Table> tablesByStatus = new StatusIndex<>(TableStatus.class, Table::getTableNumber, false);
+    private volatile ReservationBook reservations; // null until openReservationBook()
 
     public Restaurant(Menu menu) {
         if (menu == null) {
             throw new IllegalArgumentException("menu cannot be null");
         }
         this.menu = menu;
-        this.tablesByNumber = new LinkedHashMap<>();
+        this.tablesByNumber = new IntObjectMap<>();
     }
 
     public Menu getMenu(){
@@ -35,11 +52,112 @@ public class Restaurant {
         if (tablesByNumber.containsKey(number)) {
             throw new IllegalArgumentException("Table with number " + number + " already exists");
         }
+        if (table.getRestaurant() != null) {
+            throw new IllegalArgumentException("Table " + number + " already belongs to a restaurant");
+        }
 
-        tablesByNumber.put(number, table);
+        synchronized (this) {
+            tablesByNumber.put(number, table);
+            table.setRestaurant(this);
+            tablesByStatus.add(table, table.getStatus());
+            if (table.getStatus() == TableStatus.FREE) {
+                freeTables.add(table);
+            }
+        }
+        if (reservations != null) {
+            reservations.addTable(table);
+        }
     }
     public boolean removeTableById(int id){
-        return tablesByNumber.remove(id) != null;
+        Table removed;
+        synchronized (this) {
+            removed = tablesByNumber.remove(id);
+            if (removed == null) {
+                return false;
+            }
+            freeTables.remove(removed);
+            tablesByStatus.remove(removed, removed.getStatus());
+        }
+        if (reservations != null) {
+            reservations.removeTable(removed);
+        }
+        removed.setRestaurant(null);
+        return true;
+    }
+
+    /**
+     * Best-fit seating: the smallest FREE table that can hold the party.
+     * O(log n) thanks to the free-table index (no scan of all tables).
+     * With a reservation book, tables booked within the walk-in window are
+     * skipped; the book's walk-in index answers in O(capacities * log n).
+     */
+    public Optional<Table> findBestFitFreeTable(int partySize) {
+        if (partySize <= 0) {
+            throw new IllegalArgumentException("partySize must be positive");
+        }
+        if (reservations != null) {
+            return Optional.ofNullable(reservations.findWalkInTable(partySize));
+        }
+        synchronized (this) {
+            return Optional.ofNullable(freeTables.findBestFit(partySize));
+        }
+    }
+
+    /**
+     * Starts taking bookings for this restaurant's tables.
+     * @param originMillis first bookable instant (e.g. today 00:00)
+     * @param slotMinutes  booking granularity; bookings are rounded out to whole slots
+     * @param horizonDays  how far ahead of originMillis bookings are accepted
+     */
+    public ReservationBook openReservationBook(long originMillis, int slotMinutes, int horizonDays) {
+        if (reservations != null) {
+            throw new IllegalStateException("Reservation book already open");
+        }
+        reservations = new ReservationBook(this, originMillis, slotMinutes, horizonDays);
+        return reservations;
+    }
+
+    // The reservation book, or null if bookings are not taken.
+    public ReservationBook getReservationBook() {
+        return reservations;
+    }
+
+    public synchronized int getNumOfFreeTables() {
+        return freeTables.size();
+    }
+
+    // All tables in a status (a read-only copy), e.g. every table WAITING_FOR_BILL.
+    public Collection<Table> listTablesByStatus(TableStatus status) {
+        if (status == null) {
+            throw new IllegalArgumentException("status cannot be null");
+        }
+        synchronized (this) {
+            return List.copyOf(tablesByStatus.items(status));
+        }
+    }
+
+    public int countTables(TableStatus status) {
+        if (status == null) {
+            throw new IllegalArgumentException("status cannot be null");
+        }
+        synchronized (this) {
+            return tablesByStatus.count(status);
+        }
+    }
+
+    // Called by Table for its status changes, one call at a time per table.
+    void onTableStatusChanged(Table table, TableStatus oldStatus, TableStatus newStatus) {
+        synchronized (this) {
+            tablesByStatus.move(table, oldStatus, newStatus);
+            if (oldStatus == TableStatus.FREE) {
+                freeTables.remove(table);
+            } else if (newStatus == TableStatus.FREE) {
+                freeTables.add(table);
+            }
+        }
+        if (reservations != null) {
+            reservations.onTableStatusChanged(table, oldStatus, newStatus);
+        }
     }
 
     public Collection<Table> listTables() {
@@ -1,14 +1,59 @@
 package com.keren.restaurantsimulator.model;
 import com.keren.restaurantsimulator.enums.OrderStatus;
+import com.keren.restaurantsimulator.enums.TableEvent;
 import com.keren.restaurantsimulator.enums.TableStatus;
+import com.keren.restaurantsimulator.exception.TableNotAvailableException;
+import com.keren.restaurantsimulator.metrics.Metrics;
 import com.keren.restaurantsimulator.model.Order;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 
+/**
+ * Table status, the status of its current order and the order generation
+ * live in one state word (see TableState), moved by compare-and-set in
+ * tryApply(). Two waiters or kitchen workers racing on the same table
+ * cannot both win a move, and an illegal move just returns false.
+ *
+ * Nothing mirrors the word with plain writes. An order at a table reads its
+ * status from the word, and getOrder() returns the order of the word's
+ * generation. Every outcome is settled before the CAS that shows it, so no
+ * reader ever waits: OPEN_ORDER publishes the new Order before its CAS, and
+ * PAY and CLEAR claim the order and write its final status before theirs.
+ *
+ * The follow-up work (metrics, the OrderService listener, the restaurant's
+ * floor indexes) is reported by a drain loop per table and per order: the
+ * thread that finds it idle reports the latest status, and keeps going while
+ * others win moves meanwhile. So reports never run out of order, and a
+ * thread that wins a move never blocks on another one's report.
+ *
+ * seat(), openNewOrder() and requestBill() keep throwing on illegal moves;
+ * the message is only built after tryApply() said no.
+ */
 public class Table {
     private final int tableNumber;
     private final int capacity;
-    private TableStatus status;
-    private Order currentOrder;
+    private static final VarHandle STATE;
+    private static final VarHandle CURRENT_ORDER;
+    private static final VarHandle REPORTS;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            STATE = lookup.findVarHandle(Table.class, "state", int.class);
+            CURRENT_ORDER = lookup.findVarHandle(Table.class, "currentOrder", Order.class);
+            REPORTS = lookup.findVarHandle(Table.class, "pendingReports", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private volatile int state = TableState.encode(TableStatus.FREE, null, 0);
+    private volatile Order currentOrder;  // the order of the last OPEN_ORDER (or setOrder), see open()
+    private volatile Restaurant restaurant; // set while the table belongs to a restaurant
+    private int pendingReports;            // status changes not yet reported, see tableStatusChanged()
+    private TableStatus reportedStatus = TableStatus.FREE; // touched by the reporting thread only
+    private long statusSinceNanos; // only kept when metrics are enabled
 
 
     public Table(int tableNumber, int seats) {
@@ -17,19 +62,43 @@ public class Table {
         }
         this.tableNumber = tableNumber;
         this.capacity = seats;
-        this.status = TableStatus.FREE;
-        this.currentOrder = null;
+        this.statusSinceNanos = Metrics.start();
     }
+    // The order of the state word, or null if the word has no order.
     public Order getOrder() {
-        return currentOrder;
+        int word = state;
+        return TableState.orderStatus(word) == null ? null : orderOf(word);
     }
 
+    /**
+     * Makes the order the table's current order as it is (used when restoring
+     * state). The order comes in under the next generation and is published
+     * before the one CAS that points the word at it, the same as OPEN_ORDER.
+     */
     public void setOrder(Order order) {
-        this.currentOrder = order;
+        Order old = currentOrder;
+        if (old != null && old != order) {
+            old.detach(old.getStatus());
+        }
+        if (order == null) {
+            currentOrder = null;
+            forceOrderStatus(null);
+            return;
+        }
+        OrderStatus status = order.getStatus();
+        while (true) {
+            int word = state;
+            int next = TableState.withNextOrder(word, status);
+            order.attach(this, TableState.generation(next));
+            currentOrder = order;
+            if (STATE.compareAndSet(this, word, next)) {
+                return;
+            }
+        }
     }
 
     public void clearOrder() {
-        this.currentOrder = null;
+        setOrder(null);
     }
 
     public int getCapacity() {
@@ -37,7 +106,17 @@ public class Table {
     }
 
     public TableStatus getStatus() {
-        return status;
+        return TableState.tableStatus(state);
+    }
+
+    // The packed table / order / generation word (decode with TableState).
+    public int getStateWord() {
+        return state;
+    }
+
+    // Bumped every time a new order is opened at the table.
+    public int getOrderGeneration() {
+        return TableState.generation(state);
     }
 
     public int getTableNumber() {
@@ -45,9 +124,179 @@ public class Table {
     }
 
     public boolean hasOrder() {
-        return currentOrder != null;
+        return TableState.orderStatus(state) != null;
+    }
+
+    Restaurant getRestaurant() {
+        return restaurant;
+    }
+
+    void setRestaurant(Restaurant restaurant) {
+        this.reportedStatus = getStatus(); // the restaurant indexes the table as it is now
+        this.restaurant = restaurant;
+    }
+
+    // ---------------- State word ----------------
+
+    /**
+     * Applies a lifecycle event if it is legal right now; false otherwise.
+     * Never throws for an illegal move.
+     */
+    public boolean tryApply(TableEvent event) {
+        return tryApply(event, -1);
+    }
+
+    /**
+     * Like tryApply(event), but only while the table is still on the given
+     * order generation, so a late call for a paid order cannot move the
+     * table's next order. -1 accepts any generation.
+     */
+    public boolean tryApply(TableEvent event, int generation) {
+        while (true) {
+            int word = state;
+            if (generation >= 0 && TableState.generation(word) != generation) {
+                return false;
+            }
+            int next = TableState.next(word, event);
+            if (next == TableState.REJECTED) {
+                return false;
+            }
+            if ((event == TableEvent.PAY || event == TableEvent.CLEAR) && TableState.orderStatus(word) != null) {
+                return close(event, word, generation);
+            }
+            if (event == TableEvent.OPEN_ORDER ? open(word, next) : move(event, word, next)) {
+                return true;
+            }
+        }
+    }
+
+    // One CAS attempt of a legal move (kept out of tryApply() so refusals stay cheap).
+    private boolean move(TableEvent event, int word, int next) {
+        // an order move reports on the order the word refers to
+        Order order = event.ordinal() > TableEvent.CLEAR.ordinal() ? orderOf(word) : null;
+        if (!STATE.compareAndSet(this, word, next)) {
+            return false;
+        }
+        afterMove(event, word, next, order);
+        return true;
+    }
+
+    /**
+     * One OPEN_ORDER attempt. The Order of the next generation is published
+     * before the CAS, so a reader that sees the new word always finds it. A
+     * candidate left by a thread that lost the CAS is simply reused; an older
+     * order is only replaced while the word still shows no order.
+     */
+    private boolean open(int word, int next) {
+        int generation = TableState.generation(next);
+        Order order = currentOrder;
+        if (order == null || order.attachedGeneration() != generation) {
+            Order opened = new Order(tableNumber);
+            opened.attach(this, generation);
+            if (state != word || !CURRENT_ORDER.compareAndSet(this, order, opened)) {
+                return false;
+            }
+        }
+        if (!STATE.compareAndSet(this, word, next)) {
+            return false;
+        }
+        afterMove(TableEvent.OPEN_ORDER, word, next, null);
+        return true;
+    }
+
+    /**
+     * PAY or CLEAR of a table with an order. The caller that claims the order
+     * writes its final status before every CAS it tries, so the CAS that takes
+     * the order off the table also settles its status. A caller that finds
+     * the order claimed lost the race to that PAY or CLEAR.
+     */
+    private boolean close(TableEvent event, int word, int generation) {
+        Order order = orderOf(word);
+        if (order == null || !order.claimClose()) {
+            return false;
+        }
+        while (true) {
+            int next = TableState.next(word, event);
+            // only a forced status (restore) moves the word from under a claimed order
+            if (next == TableState.REJECTED || TableState.orderStatus(word) == null
+                    || TableState.generation(word) != order.attachedGeneration()
+                    || (generation >= 0 && TableState.generation(word) != generation)) {
+                order.unclaim();
+                return false;
+            }
+            order.closeAs(event == TableEvent.PAY ? OrderStatus.PAID : TableState.orderStatus(word));
+            if (STATE.compareAndSet(this, word, next)) {
+                afterMove(event, word, next, order);
+                return true;
+            }
+            word = state;
+        }
+    }
+
+    // The order of the word's generation, or null if there is none (it is published before the word).
+    private Order orderOf(int word) {
+        Order order = currentOrder;
+        return order != null && order.attachedGeneration() == TableState.generation(word) ? order : null;
+    }
+
+    // The winner of a move does the follow-up work; `order` is the one the old word referred to.
+    private void afterMove(TableEvent event, int oldWord, int newWord, Order order) {
+        if (order != null) {
+            if (event == TableEvent.PAY || event == TableEvent.CLEAR) {
+                order.detach(null); // its final status is already written
+            }
+            order.statusChanged();
+        }
+        if (TableState.tableStatus(oldWord) != TableState.tableStatus(newWord)) {
+            tableStatusChanged();
+        }
+    }
+
+    /**
+     * Reports the table's latest status to metrics and the restaurant's
+     * indexes. Only one thread reports at a time: a thread that finds a report
+     * running just counts its change, and the reporting thread loops until
+     * every counted change is covered.
+     */
+    private void tableStatusChanged() {
+        if (restaurant == null && !Metrics.ENABLED) {
+            return; // nobody to tell; setRestaurant() catches up
+        }
+        if ((int) REPORTS.getAndAdd(this, 1) != 0) {
+            return;
+        }
+        int pending = 1;
+        do {
+            TableStatus old = reportedStatus;
+            TableStatus newStatus = getStatus();
+            if (old != newStatus) {
+                reportedStatus = newStatus;
+                if (Metrics.ENABLED) {
+                    long now = System.nanoTime();
+                    Metrics.tableTransition(old, newStatus, now - statusSinceNanos);
+                    statusSinceNanos = now;
+                }
+                Restaurant r = restaurant;
+                if (r != null) {
+                    r.onTableStatusChanged(this, old, newStatus);
+                }
+            }
+            pending = (int) REPORTS.getAndAdd(this, -pending) - pending;
+        } while (pending != 0);
+    }
+
+    // Overwrites the order bits without checking the move (restore, setOrder, Order.setStatus).
+    int forceOrderStatus(OrderStatus orderStatus) {
+        while (true) {
+            int word = state;
+            int next = TableState.withOrderStatus(word, orderStatus);
+            if (next == word || STATE.compareAndSet(this, word, next)) {
+                return next;
+            }
+        }
     }
 
+    // ---------------- Lifecycle ----------------
 
     /**
      * Clears the table (after payment).
@@ -55,58 +304,88 @@ public class Table {
      */
 
     public void clear() {
-        this.status = TableStatus.FREE;
-        this.currentOrder = null;}
+        tryApply(TableEvent.CLEAR);
+    }
 
 
     /**
-     * Seats customers at the table.
-     * This marks the table as OCCUPIED.
-     * (Capacity check is optional; you can add it later if you track customer count.)
+     * Seats walk-in customers at the table.
+     * This marks the table as OCCUPIED; the table must be FREE and, if the
+     * restaurant takes reservations, not booked within the walk-in window.
      */
     public void seat(int numOfCustomers) {
+        checkPartySize(numOfCustomers);
+        ReservationBook book = restaurant == null ? null : restaurant.getReservationBook();
+        if (book != null) {
+            book.checkWalkIn(this);
+        }
+        occupy();
+    }
+
+    // Seats the party of a reservation (ReservationBook.checkIn()).
+    void seatReserved(int numOfCustomers) {
+        checkPartySize(numOfCustomers);
+        occupy();
+    }
+
+    private void checkPartySize(int numOfCustomers) {
         if (numOfCustomers <= 0) {
             throw new IllegalArgumentException("numOfCustomers must be positive");
         }
         if (numOfCustomers > capacity) {
             throw new IllegalArgumentException("Too many customers for table capacity");
         }
-        this.status = TableStatus.OCCUPIED;
+    }
 
+    private void occupy() {
+        if (!tryApply(TableEvent.SEAT)) {
+            throw new TableNotAvailableException("Table " + tableNumber + " is " + getStatus() + ", not FREE");
+        }
     }
 
     public void openNewOrder() {
-        if (status != TableStatus.OCCUPIED) {
-            throw new IllegalStateException("Table must be OCCUPIED to open a new order");
-        }
-        if (currentOrder != null) {
+        if (!tryApply(TableEvent.OPEN_ORDER)) {
+            if (getStatus() != TableStatus.OCCUPIED) {
+                throw new IllegalStateException("Table must be OCCUPIED to open a new order");
+            }
             throw new IllegalStateException("Table already has an open order");
         }
-        this.currentOrder = new Order();
     }
 
     public void requestBill() {
-        if (status != TableStatus.OCCUPIED) {
-            throw new IllegalStateException("Table must be OCCUPIED to request bill");
-        }
-        if (currentOrder == null || currentOrder.isEmpty()) {
+        Order order = getOrder();
+        if (order == null || order.isEmpty()) {
+            if (getStatus() != TableStatus.OCCUPIED) {
+                throw new IllegalStateException("Table must be OCCUPIED to request bill");
+            }
             throw new IllegalStateException("Cannot request bill without an order");
         }
-        this.status = TableStatus.WAITING_FOR_BILL;
+        if (!tryApply(TableEvent.REQUEST_BILL, order.getTableGeneration())) {
+            throw new IllegalStateException("Table must be OCCUPIED to request bill");
+        }
     }
 
     //Current bill amount for this table.
     public double getBill() {
-        return (currentOrder == null) ? 0.0 : currentOrder.getTotalPrice();
+        return Money.toMajor(getBillMinor());
+    }
+
+    public long getBillMinor() {
+        Order order = getOrder();
+        return (order == null) ? 0L : order.getTotalPriceMinor();
     }
 
+    // Sets the table status without checking the move (used when restoring state).
     public void setStatus(TableStatus status){
         if (status == null) {
             throw new IllegalArgumentException("status cannot be null");
         }
-        this.status = status;
+        while (true) {
+            int word = state;
+            if (STATE.compareAndSet(this, word, TableState.withTableStatus(word, status))) {
+                tableStatusChanged();
+                return;
+            }
+        }
     }
 }
-
-
-
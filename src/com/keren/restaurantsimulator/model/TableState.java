@@ -0,0 +1,148 @@
+package com.keren.restaurantsimulator.model;
+
+import com.keren.restaurantsimulator.enums.OrderStatus;
+import com.keren.restaurantsimulator.enums.TableEvent;
+import com.keren.restaurantsimulator.enums.TableStatus;
+
+import java.util.Arrays;
+
+/**
+ * TableState packs everything that decides what may happen next at a table
+ * into one int, so a Table can move along its lifecycle with a single
+ * compare-and-set:
+ *
+ *   bits 0-1  : table status (TableStatus ordinal)
+ *   bits 2-4  : status of the current order (OrderStatus ordinal + 1, 0 = no order)
+ *   bits 5-31 : order generation, +1 every time a new order is opened
+ *
+ * The legal moves are one lookup table, [event][low 5 bits] -> new low 5 bits:
+ *
+ *   SEAT          FREE, no order                 -> OCCUPIED
+ *   OPEN_ORDER    OCCUPIED, no order             -> OCCUPIED, CREATED (generation + 1)
+ *   REQUEST_BILL  OCCUPIED, CREATED..SERVED      -> WAITING_FOR_BILL
+ *   PAY           WAITING_FOR_BILL, order        -> FREE, no order
+ *   CLEAR         anything                       -> FREE, no order
+ *   SUBMIT        CREATED  -> SUBMITTED     START_PREP  SUBMITTED -> IN_PREP
+ *   READY         IN_PREP  -> READY         SERVE       READY     -> SERVED
+ *
+ * next() returns REJECTED for anything else; no exception is built.
+ */
+public final class TableState {
+
+    public static final int REJECTED = -1;
+
+    private static final int TABLE_BITS = 2;
+    private static final int STATE_BITS = 5;
+    private static final int STATE_MASK = (1 << STATE_BITS) - 1;
+    private static final int NO_ORDER = 0;
+
+    private static final TableStatus[] TABLE_STATUSES = TableStatus.values();
+    private static final OrderStatus[] ORDER_STATUSES = OrderStatus.values();
+
+    // [event * 32 + state] -> next state, or -1
+    private static final byte[] NEXT = new byte[TableEvent.values().length << STATE_BITS];
+
+    static {
+        Arrays.fill(NEXT, (byte) -1);
+        int free = TableStatus.FREE.ordinal();
+        int occupied = TableStatus.OCCUPIED.ordinal();
+        int waiting = TableStatus.WAITING_FOR_BILL.ordinal();
+
+        allow(TableEvent.SEAT, free, NO_ORDER, occupied, NO_ORDER);
+        allow(TableEvent.OPEN_ORDER, occupied, NO_ORDER, occupied, code(OrderStatus.CREATED));
+        for (int o = code(OrderStatus.CREATED); o <= code(OrderStatus.SERVED); o++) {
+            allow(TableEvent.REQUEST_BILL, occupied, o, waiting, o);
+        }
+        for (int o = NO_ORDER + 1; o <= ORDER_STATUSES.length; o++) {
+            allow(TableEvent.PAY, waiting, o, free, NO_ORDER);
+        }
+        for (int t = 0; t < TABLE_STATUSES.length; t++) {
+            for (int o = NO_ORDER; o <= ORDER_STATUSES.length; o++) {
+                allow(TableEvent.CLEAR, t, o, free, NO_ORDER);
+            }
+            // The kitchen and the floor move the order whether or not the bill was asked for
+            if (t != free) {
+                allowOrder(TableEvent.SUBMIT, t, OrderStatus.CREATED, OrderStatus.SUBMITTED);
+                allowOrder(TableEvent.START_PREP, t, OrderStatus.SUBMITTED, OrderStatus.IN_PREP);
+                allowOrder(TableEvent.READY, t, OrderStatus.IN_PREP, OrderStatus.READY);
+                allowOrder(TableEvent.SERVE, t, OrderStatus.READY, OrderStatus.SERVED);
+            }
+        }
+    }
+
+    private TableState() {}
+
+    private static void allow(TableEvent event, int fromTable, int fromOrder, int toTable, int toOrder) {
+        NEXT[(event.ordinal() << STATE_BITS) | state(fromTable, fromOrder)] = (byte) state(toTable, toOrder);
+    }
+
+    private static void allowOrder(TableEvent event, int table, OrderStatus from, OrderStatus to) {
+        allow(event, table, code(from), table, code(to));
+    }
+
+    private static int state(int table, int orderCode) {
+        return table | orderCode << TABLE_BITS;
+    }
+
+    private static int code(OrderStatus status) {
+        return status == null ? NO_ORDER : status.ordinal() + 1;
+    }
+
+    // ---------------- Encoding ----------------
+
+    // orderStatus null = the table has no order
+    public static int encode(TableStatus tableStatus, OrderStatus orderStatus, int generation) {
+        if (tableStatus == null) {
+            throw new IllegalArgumentException("tableStatus cannot be null");
+        }
+        return generation << STATE_BITS | state(tableStatus.ordinal(), code(orderStatus));
+    }
+
+    public static TableStatus tableStatus(int word) {
+        return TABLE_STATUSES[word & ((1 << TABLE_BITS) - 1)];
+    }
+
+    // null if the table has no order
+    public static OrderStatus orderStatus(int word) {
+        int code = (word & STATE_MASK) >>> TABLE_BITS;
+        return code == NO_ORDER ? null : ORDER_STATUSES[code - 1];
+    }
+
+    public static int generation(int word) {
+        return word >>> STATE_BITS;
+    }
+
+    static int withTableStatus(int word, TableStatus tableStatus) {
+        return (word & ~((1 << TABLE_BITS) - 1)) | tableStatus.ordinal();
+    }
+
+    static int withOrderStatus(int word, OrderStatus orderStatus) {
+        return (word & ~(STATE_MASK ^ ((1 << TABLE_BITS) - 1))) | code(orderStatus) << TABLE_BITS;
+    }
+
+    // The word with that order status under the next generation (a restored order, Table.setOrder()).
+    static int withNextOrder(int word, OrderStatus orderStatus) {
+        return (withOrderStatus(word, orderStatus) + (1 << STATE_BITS)) & Integer.MAX_VALUE;
+    }
+
+    // ---------------- Transitions ----------------
+
+    // The word after the event, or REJECTED if the event is not legal in this state.
+    public static int next(int word, TableEvent event) {
+        int next = NEXT[(event.ordinal() << STATE_BITS) | (word & STATE_MASK)];
+        if (next < 0) {
+            return REJECTED;
+        }
+        int generation = event == TableEvent.OPEN_ORDER ? (word >>> STATE_BITS) + 1 : word >>> STATE_BITS;
+        return (generation << STATE_BITS | next) & Integer.MAX_VALUE;
+    }
+
+    public static boolean isLegal(int word, TableEvent event) {
+        return NEXT[(event.ordinal() << STATE_BITS) | (word & STATE_MASK)] >= 0;
+    }
+
+    public static String toString(int word) {
+        OrderStatus order = orderStatus(word);
+        return tableStatus(word) + "/" + (order == null ? "-" : order) + "#" + generation(word);
+    }
+}
@@ -0,0 +1,137 @@
+package com.keren.restaurantsimulator.model;
+
+import com.keren.restaurantsimulator.util.IntObjectMap;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * WalkInIndex keeps the FREE tables of a ReservationBook grouped by capacity,
+ * each group ordered by the slot the table's next booking starts (soonest
+ * first), then by how long the table has been free (longest first).
+ *
+ * "Smallest free table for N with no booking before slot s" is then one
+ * ceiling() per capacity from N up: O(capacities * log tables), no matter
+ * how many tables are free.
+ *
+ * A key stays right until its booking ends. The keys are computed for one
+ * slot (the last one asked about); refresh() moves to a later slot and
+ * recomputes only the keys whose booking ended on the way, so each booking
+ * is recomputed at most once. Moving back in time recomputes all keys.
+ */
+class WalkInIndex {
+
+    static final int NO_BOOKING = Integer.MAX_VALUE;
+
+    private static final class Entry {
+        final Table table;
+        final TreeMap<Integer, Reservation> bookings;
+        final int nextStart;   // start slot of the first booking ending after the index slot
+        final int expiry;      // end slot of that booking, NO_BOOKING if none
+        final long freeSince;  // order in which tables became FREE
+
+        Entry(Table table, TreeMap<Integer, Reservation> bookings, int nextStart, int expiry, long freeSince) {
+            this.table = table;
+            this.bookings = bookings;
+            this.nextStart = nextStart;
+            this.expiry = expiry;
+            this.freeSince = freeSince;
+        }
+    }
+
+    private static final Comparator<Entry> BY_NEXT_START =
+            Comparator.<Entry>comparingInt(e -> e.nextStart).thenComparingLong(e -> e.freeSince);
+    private static final Comparator<Entry> BY_EXPIRY =
+            Comparator.<Entry>comparingInt(e -> e.expiry).thenComparingInt(e -> e.table.getTableNumber());
+
+    private final TreeMap<Integer, TreeSet<Entry>> byCapacity = new TreeMap<>();
+    private final TreeSet<Entry> expiries = new TreeSet<>(BY_EXPIRY);
+    private final IntObjectMap<Entry> byTable = new IntObjectMap<>();
+    private long nextFreeSince;
+    private int slot;
+
+    // The table became FREE (it goes after the tables already free).
+    void add(Table table, TreeMap<Integer, Reservation> bookings) {
+        remove(table.getTableNumber());
+        put(table, bookings, nextFreeSince++);
+    }
+
+    // The table's bookings changed; nothing to do unless it is FREE.
+    void update(Table table) {
+        Entry entry = byTable.get(table.getTableNumber());
+        if (entry != null) {
+            remove(table.getTableNumber());
+            put(entry.table, entry.bookings, entry.freeSince);
+        }
+    }
+
+    // The table is no longer FREE (or left the restaurant).
+    void remove(int tableNumber) {
+        Entry entry = byTable.remove(tableNumber);
+        if (entry == null) {
+            return;
+        }
+        int capacity = entry.table.getCapacity();
+        TreeSet<Entry> group = byCapacity.get(capacity);
+        group.remove(entry);
+        if (group.isEmpty()) {
+            byCapacity.remove(capacity);
+        }
+        if (entry.expiry != NO_BOOKING) {
+            expiries.remove(entry);
+        }
+    }
+
+    /**
+     * Smallest FREE table with capacity >= partySize whose next booking
+     * (after nowSlot) starts at or after freeUntilSlot, or null.
+     */
+    Table find(int partySize, int nowSlot, int freeUntilSlot) {
+        refresh(nowSlot);
+        Entry probe = new Entry(null, null, freeUntilSlot, 0, Long.MIN_VALUE);
+        for (TreeSet<Entry> group : byCapacity.tailMap(partySize, true).values()) {
+            Entry entry = group.ceiling(probe);
+            if (entry != null) {
+                return entry.table;
+            }
+        }
+        return null;
+    }
+
+    int size() {
+        return byTable.size();
+    }
+
+    private void refresh(int nowSlot) {
+        if (nowSlot < slot) {
+            slot = nowSlot;
+            for (Entry entry : new ArrayList<>(byTable.values())) {
+                update(entry.table);
+            }
+            return;
+        }
+        slot = nowSlot;
+        while (!expiries.isEmpty() && expiries.first().expiry <= nowSlot) {
+            update(expiries.first().table); // the new key expires after nowSlot
+        }
+    }
+
+    private void put(Table table, TreeMap<Integer, Reservation> bookings, long freeSince) {
+        // The booking in progress at the index slot, else the next one
+        Map.Entry<Integer, Reservation> next = bookings.floorEntry(slot);
+        if (next == null || next.getValue().endSlot <= slot) {
+            next = bookings.higherEntry(slot);
+        }
+        Entry entry = next == null
+                ? new Entry(table, bookings, NO_BOOKING, NO_BOOKING, freeSince)
+                : new Entry(table, bookings, next.getKey(), next.getValue().endSlot, freeSince);
+        byTable.put(table.getTableNumber(), entry);
+        byCapacity.computeIfAbsent(table.getCapacity(), c -> new TreeSet<>(BY_NEXT_START)).add(entry);
+        if (entry.expiry != NO_BOOKING) {
+            expiries.add(entry);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.keren.restaurantsimulator.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered FileChannel writer for the snapshot formats.
+ *
+ * ensure() makes room by writing the buffer out, so callers can put fixed-size
+ * values straight into the buffer. Varints use 7 bits per byte (low bits
+ * first, high bit = more bytes follow); strings are a varint byte length
+ * followed by UTF-8 bytes. Values that may be negative (table numbers, dish
+ * ids, times) are zig-zag encoded first, 0, -1, 1, -2... -> 0, 1, 2, 3..., so
+ * small magnitudes of either sign stay short.
+ */
+final class ChannelWriter {
+
+    private static final int BUFFER_BYTES = 1 << 20;
+
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final FileChannel out;
+
+    ChannelWriter(FileChannel out) {
+        this.out = out;
+    }
+
+    void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    // Non-negative values only (ids, counts, quantities, prices in minor units).
+    void putVarLong(long value) throws IOException {
+        if (value < 0) {
+            throw new IllegalArgumentException("varint value cannot be negative: " + value);
+        }
+        putRawVarLong(value);
+    }
+
+    void putVarInt(int value) throws IOException {
+        putVarLong(value);
+    }
+
+    // Any int (ids and table numbers chosen by the user).
+    void putZigZagInt(int value) throws IOException {
+        putRawVarLong((value << 1 ^ value >> 31) & 0xFFFFFFFFL);
+    }
+
+    // Any long (times).
+    void putZigZagLong(long value) throws IOException {
+        putRawVarLong(value << 1 ^ value >> 63);
+    }
+
+    // All 64 bits as unsigned.
+    private void putRawVarLong(long value) throws IOException {
+        ensure(10);
+        if ((value & ~0x7FL) == 0) { // most ids, statuses and quantities fit in one byte
+            buffer.put((byte) value);
+            return;
+        }
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    void putString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putVarInt(bytes.length);
+        for (int offset = 0; offset < bytes.length; ) {
+            ensure(1);
+            int n = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, n);
+            offset += n;
+        }
+    }
+
+    void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // ---- reading side (the file is memory-mapped, so these work on any ByteBuffer) ----
+
+    static long getVarLong(ByteBuffer in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static int getVarInt(ByteBuffer in) throws IOException {
+        int b = in.get();
+        if (b >= 0) {
+            return b;
+        }
+        int value = b & 0x7F;
+        for (int shift = 7; shift < 35; shift += 7) {
+            b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                if (value < 0 || (shift == 28 && b > 0x07)) {
+                    throw new IOException("varint out of int range");
+                }
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static int getZigZagInt(ByteBuffer in) throws IOException {
+        long value = getVarLong(in);
+        if ((value & ~0xFFFFFFFFL) != 0) {
+            throw new IOException("zig-zag varint out of int range");
+        }
+        int zigZag = (int) value;
+        return zigZag >>> 1 ^ -(zigZag & 1);
+    }
+
+    static long getZigZagLong(ByteBuffer in) throws IOException {
+        long zigZag = getVarLong(in);
+        return zigZag >>> 1 ^ -(zigZag & 1);
+    }
+
+    static String getString(ByteBuffer in) throws IOException {
+        int length = getVarInt(in);
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,291 @@
+package com.keren.restaurantsimulator.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * FileJournal is an append-only binary journal split into numbered segment
+ * files (journal-00000001.bin, journal-00000002.bin, ...).
+ *
+ * Every record is 16 bytes: type code, 1 padding byte, payload length
+ * (short) and three ints. A record with a payload is followed by the payload
+ * bytes, zero-padded to a multiple of 16, so records stay 16-byte aligned.
+ * append() only copies the record into a direct buffer. The buffer is
+ * written through a FileChannel when it fills up, on commit(), and by a
+ * background "group commit" thread every groupCommitMillis. One write (and
+ * one optional fsync) therefore covers many operations.
+ *
+ * Safe to call from several threads.
+ */
+public class FileJournal implements Journal, Closeable {
+
+    static final int RECORD_BYTES = 16;
+    static final int MAX_PAYLOAD_BYTES = Short.MAX_VALUE;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".bin";
+
+    private final Path directory;
+    private final ByteBuffer buffer;
+    private final boolean fsync;
+    private final Thread committer;
+    private FileChannel channel;
+    private long segment;
+    private long records;
+    private boolean closed;
+
+    /**
+     * @param segment           number of the segment to write (created if missing)
+     * @param bufferBytes       size of the in-memory buffer
+     * @param groupCommitMillis how often the background thread commits (0 = no background commits)
+     * @param fsync             whether a commit also forces the data to the disk
+     */
+    public FileJournal(Path directory, long segment, int bufferBytes, long groupCommitMillis, boolean fsync)
+            throws IOException {
+        if (directory == null) {
+            throw new IllegalArgumentException("directory cannot be null");
+        }
+        if (segment <= 0) {
+            throw new IllegalArgumentException("segment must be positive");
+        }
+        if (bufferBytes < RECORD_BYTES) {
+            throw new IllegalArgumentException("bufferBytes must hold at least one record");
+        }
+        if (groupCommitMillis < 0) {
+            throw new IllegalArgumentException("groupCommitMillis cannot be negative");
+        }
+        Files.createDirectories(directory);
+        this.directory = directory;
+        this.buffer = ByteBuffer.allocateDirect(bufferBytes - bufferBytes % RECORD_BYTES);
+        this.fsync = fsync;
+        this.segment = segment;
+        this.channel = openSegment(segment);
+
+        if (groupCommitMillis > 0) {
+            committer = new Thread(() -> commitLoop(groupCommitMillis), "journal-group-commit");
+            committer.setDaemon(true);
+            committer.start();
+        } else {
+            committer = null;
+        }
+    }
+
+    @Override
+    public synchronized void append(JournalRecordType type, int a, int b, int c) {
+        if (closed) {
+            throw new IllegalStateException("journal is closed");
+        }
+        if (buffer.remaining() < RECORD_BYTES) {
+            writeBuffer();
+        }
+        buffer.put(type.getCode()).put((byte) 0).putShort((short) 0)
+                .putInt(a).putInt(b).putInt(c);
+        records++;
+    }
+
+    @Override
+    public synchronized void append(JournalRecordType type, int a, int b, int c, byte[] payload) {
+        if (payload.length == 0) {
+            append(type, a, b, c);
+            return;
+        }
+        if (payload.length > MAX_PAYLOAD_BYTES) {
+            throw new IllegalArgumentException("journal payload too long: " + payload.length + " bytes");
+        }
+        if (closed) {
+            throw new IllegalStateException("journal is closed");
+        }
+        int bytes = RECORD_BYTES + padded(payload.length);
+        if (buffer.remaining() < bytes) {
+            writeBuffer();
+        }
+        // A payload larger than the whole buffer goes out on its own
+        ByteBuffer target = buffer.remaining() >= bytes ? buffer : ByteBuffer.allocate(bytes);
+        target.put(type.getCode()).put((byte) 0).putShort((short) payload.length)
+                .putInt(a).putInt(b).putInt(c)
+                .put(payload).put(new byte[padded(payload.length) - payload.length]);
+        if (target != buffer) {
+            target.flip();
+            try {
+                while (target.hasRemaining()) {
+                    channel.write(target);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("journal write failed", e);
+            }
+        }
+        records++;
+    }
+
+    private static int padded(int payloadBytes) {
+        return (payloadBytes + RECORD_BYTES - 1) / RECORD_BYTES * RECORD_BYTES;
+    }
+
+    // Writes everything appended so far (and forces it to disk if fsync is on).
+    public synchronized void commit() {
+        if (closed) {
+            return;
+        }
+        writeBuffer();
+        if (fsync) {
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("journal fsync failed", e);
+            }
+        }
+    }
+
+    /**
+     * Commits the current segment and continues in a new one.
+     * @return number of the new segment
+     */
+    public synchronized long roll() throws IOException {
+        commit();
+        channel.close();
+        segment++;
+        channel = openSegment(segment);
+        return segment;
+    }
+
+    public synchronized long getSegment() {
+        return segment;
+    }
+
+    // Records appended since this journal was opened.
+    public synchronized long getRecords() {
+        return records;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            commit();
+            closed = true;
+            channel.close();
+        }
+        if (committer != null) {
+            committer.interrupt();
+        }
+    }
+
+    private void writeBuffer() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("journal write failed", e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    private void commitLoop(long intervalMillis) {
+        while (true) {
+            try {
+                Thread.sleep(intervalMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (buffer.position() > 0) {
+                    commit();
+                }
+            }
+        }
+    }
+
+    private FileChannel openSegment(long number) throws IOException {
+        return FileChannel.open(segmentPath(directory, number),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    // ---------------- Reading ----------------
+
+    static Path segmentPath(Path directory, long segment) {
+        return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    // Segment numbers found in the directory, in ascending order.
+    static List<Long> listSegments(Path directory) throws IOException {
+        List<Long> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String number = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+                try {
+                    segments.add(Long.parseLong(number));
+                } catch (NumberFormatException e) {
+                    // not one of ours, skip it
+                }
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    /**
+     * Feeds every complete record of a segment to the target, in order.
+     * Stops at the first incomplete or unknown record (e.g. a write torn by a crash).
+     * @return number of records read
+     */
+    static long readSegment(Path file, Journal target) throws IOException {
+        long count = 0;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = in.size();
+            if (size == 0) {
+                return 0;
+            }
+            MappedByteBuffer data = in.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            while (data.remaining() >= RECORD_BYTES) {
+                JournalRecordType type = JournalRecordType.fromCode(data.get());
+                if (type == null) {
+                    break;
+                }
+                data.get();
+                int payloadBytes = data.getShort();
+                int a = data.getInt();
+                int b = data.getInt();
+                int c = data.getInt();
+                if (payloadBytes == 0) {
+                    target.append(type, a, b, c);
+                } else {
+                    if (payloadBytes < 0 || data.remaining() < padded(payloadBytes)) {
+                        break;
+                    }
+                    byte[] payload = new byte[payloadBytes];
+                    data.get(payload);
+                    data.position(data.position() + padded(payloadBytes) - payloadBytes);
+                    target.append(type, a, b, c, payload);
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,17 @@
+package com.keren.restaurantsimulator.persistence;
+
+/**
+ * Journal receives one record per state transition made through the services.
+ * Services start with Journal.DISABLED, which does nothing.
+ */
+public interface Journal {
+
+    Journal DISABLED = (type, a, b, c) -> { };
+
+    void append(JournalRecordType type, int a, int b, int c);
+
+    // A record with extra bytes that do not fit in three ints (e.g. a guest name).
+    default void append(JournalRecordType type, int a, int b, int c, byte[] payload) {
+        append(type, a, b, c);
+    }
+}
@@ -0,0 +1,147 @@
+package com.keren.restaurantsimulator.persistence;
+
+import com.keren.restaurantsimulator.model.ReservationBook;
+import com.keren.restaurantsimulator.model.Restaurant;
+import com.keren.restaurantsimulator.service.BillingService;
+import com.keren.restaurantsimulator.service.KitchenService;
+import com.keren.restaurantsimulator.service.OrderService;
+import com.keren.restaurantsimulator.service.TableService;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * JournalManager makes a restaurant's state survive restarts.
+ *
+ * open() first recovers: it loads the last snapshot (if any) and replays the
+ * journal segments written after it. Then it attaches a FileJournal to the
+ * services, so from now on every transition is appended to a fresh segment.
+ *
+ * checkpoint() writes a new snapshot and deletes the segments it covers, so
+ * the next recovery only replays what happened after the checkpoint.
+ * Call it from the thread that drives the services, while no other
+ * operation is running.
+ */
+public class JournalManager implements Closeable {
+
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+    private static final int JOURNAL_BUFFER_BYTES = 1 << 16;
+
+    private final Path directory;
+    private final Restaurant restaurant;
+    private final OrderService orderService;
+    private final BillingService billingService;
+    private final FileJournal journal;
+    private final RecoveryResult recoveryResult;
+
+    private JournalManager(Path directory, Restaurant restaurant, OrderService orderService,
+                           BillingService billingService, FileJournal journal, RecoveryResult recoveryResult) {
+        this.directory = directory;
+        this.restaurant = restaurant;
+        this.orderService = orderService;
+        this.billingService = billingService;
+        this.journal = journal;
+        this.recoveryResult = recoveryResult;
+    }
+
+    /**
+     * Recovers the saved state into the given restaurant and services, then starts journaling.
+     * The restaurant must be freshly built from the same menu and tables, with nothing seated.
+     * A journal record the services refuse stops the recovery with an IllegalStateException.
+     *
+     * @param groupCommitMillis how often buffered records are written out (0 = only when the buffer fills)
+     * @param fsync             force every group commit to the disk
+     */
+    public static JournalManager open(Path directory, Restaurant restaurant, TableService tableService,
+                                      OrderService orderService, KitchenService kitchenService,
+                                      BillingService billingService, long groupCommitMillis,
+                                      boolean fsync) throws IOException {
+        if (directory == null || restaurant == null || tableService == null || orderService == null
+                || kitchenService == null || billingService == null) {
+            throw new IllegalArgumentException("arguments cannot be null");
+        }
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+
+        // Walk-ins were checked against the bookings when they were seated, not now
+        ReservationBook book = restaurant.getReservationBook();
+        int walkInMinutes = book == null ? 0 : book.getWalkInMinutes();
+        if (book != null) {
+            book.setWalkInMinutes(0);
+        }
+
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        boolean snapshotLoaded = Files.exists(snapshot);
+        long replayed = 0;
+        long lastSegment;
+        JournalReplayer replayer = new JournalReplayer(restaurant, tableService, orderService, billingService);
+        try {
+            long replayFrom = snapshotLoaded
+                    ? StateSnapshot.read(snapshot, restaurant, orderService, billingService) : 1;
+
+            lastSegment = replayFrom - 1;
+            for (long segment : FileJournal.listSegments(directory)) {
+                if (segment >= replayFrom) {
+                    Path file = FileJournal.segmentPath(directory, segment);
+                    try {
+                        replayed += FileJournal.readSegment(file, replayer);
+                    } catch (IllegalStateException e) {
+                        throw new IllegalStateException("Cannot recover " + file + ": " + e.getMessage(), e);
+                    }
+                }
+                lastSegment = Math.max(lastSegment, segment);
+            }
+        } finally {
+            if (book != null) {
+                book.setWalkInMinutes(walkInMinutes);
+            }
+        }
+        RecoveryResult result = new RecoveryResult(snapshotLoaded, orderService.getNumOfOrders(), replayed,
+                System.nanoTime() - start);
+
+        // Continue in a new segment, so a torn record at the end of the old one is never appended to
+        FileJournal journal = new FileJournal(directory, lastSegment + 1, JOURNAL_BUFFER_BYTES,
+                groupCommitMillis, fsync);
+        tableService.setJournal(journal);
+        orderService.setJournal(journal);
+        kitchenService.setJournal(journal);
+        billingService.setJournal(journal);
+
+        return new JournalManager(directory, restaurant, orderService, billingService, journal, result);
+    }
+
+    public RecoveryResult getRecoveryResult() {
+        return recoveryResult;
+    }
+
+    public FileJournal getJournal() {
+        return journal;
+    }
+
+    // Writes everything journaled so far.
+    public void commit() {
+        journal.commit();
+    }
+
+    /**
+     * Snapshots the current state and drops the journal segments it covers.
+     */
+    public void checkpoint() throws IOException {
+        long newSegment = journal.roll();
+        StateSnapshot.write(directory.resolve(SNAPSHOT_FILE), restaurant, orderService, billingService, newSegment);
+        List<Long> segments = FileJournal.listSegments(directory);
+        for (long segment : segments) {
+            if (segment < newSegment) {
+                Files.deleteIfExists(FileJournal.segmentPath(directory, segment));
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        journal.close();
+    }
+}
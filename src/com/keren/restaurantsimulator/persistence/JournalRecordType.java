@@ -0,0 +1,47 @@
+package com.keren.restaurantsimulator.persistence;
+
+/**
+ * Kinds of journal records. Every record carries up to three int arguments,
+ * and some a byte payload; the comment on each constant says what they mean.
+ * Codes start at 1, so a zero byte marks the unwritten end of a segment.
+ */
+public enum JournalRecordType {
+    SEAT(1),            // table, customers
+    OPEN_ORDER(2),      // table
+    ADD_DISH(3),        // table, dish id, quantity
+    REGISTER_ORDER(4),  // order id, table (0 = not tied to a table)
+    ORDER_STATUS(5),    // order id, OrderStatus ordinal
+    SERVED(6),          // table
+    REQUEST_BILL(7),    // table
+    PAY(8),             // table
+    REMOVE_ORDER(9),    // order id
+    RESERVE(10),        // table, party size, reservation id; payload: long start, long end, UTF-8 guest name
+    CANCEL_RESERVATION(11), // reservation id
+    DAY_CLOSE(12),      // number of the day closed
+    MENU_PRICE(13),     // dish id, new price in minor units (high int, low int)
+    REMOVE_DISH(14),    // order id, dish id
+    ORDER_CLOSED(15);   // order id, close time in millis (high int, low int); written just before the close
+
+    private static final JournalRecordType[] BY_CODE = new JournalRecordType[16];
+
+    static {
+        for (JournalRecordType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final byte code;
+
+    JournalRecordType(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    // null for 0 (end of data) or an unknown code
+    public static JournalRecordType fromCode(byte code) {
+        return (code > 0 && code < BY_CODE.length) ? BY_CODE[code] : null;
+    }
+}
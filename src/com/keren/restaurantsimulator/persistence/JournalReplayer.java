@@ -0,0 +1,115 @@
+package com.keren.restaurantsimulator.persistence;
+
+import com.keren.restaurantsimulator.enums.OrderStatus;
+import com.keren.restaurantsimulator.model.Order;
+import com.keren.restaurantsimulator.model.ReservationBook;
+import com.keren.restaurantsimulator.model.Restaurant;
+import com.keren.restaurantsimulator.service.BillingService;
+import com.keren.restaurantsimulator.service.OrderService;
+import com.keren.restaurantsimulator.service.TableService;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Re-applies journal records to the services, in the order they were written.
+ * The services must not have a journal attached while replaying.
+ *
+ * The services append a table's records in the order its moves happened, so
+ * a record they refuse means the journal does not fit the state it is
+ * replayed onto (another menu or floor, a lost segment). Replay stops there
+ * with an IllegalStateException naming the record, rather than recovering a
+ * state that silently misses it.
+ */
+final class JournalReplayer implements Journal {
+
+    private static final OrderStatus[] ORDER_STATUSES = OrderStatus.values();
+
+    private final Restaurant restaurant;
+    private final TableService tableService;
+    private final OrderService orderService;
+    private final BillingService billingService;
+    private long applied;
+
+    JournalReplayer(Restaurant restaurant, TableService tableService, OrderService orderService,
+                    BillingService billingService) {
+        this.restaurant = restaurant;
+        this.tableService = tableService;
+        this.orderService = orderService;
+        this.billingService = billingService;
+    }
+
+    @Override
+    public void append(JournalRecordType type, int a, int b, int c) {
+        try {
+            apply(type, a, b, c);
+        } catch (RuntimeException e) {
+            throw refused(type, a, b, c, e);
+        }
+        applied++;
+    }
+
+    @Override
+    public void append(JournalRecordType type, int a, int b, int c, byte[] payload) {
+        try {
+            if (type == JournalRecordType.RESERVE) {
+                reserve(a, b, c, payload);
+            } else {
+                apply(type, a, b, c);
+            }
+        } catch (RuntimeException e) {
+            throw refused(type, a, b, c, e);
+        }
+        applied++;
+    }
+
+    private IllegalStateException refused(JournalRecordType type, int a, int b, int c, RuntimeException e) {
+        return new IllegalStateException("Journal record " + (applied + 1) + " " + type + "(" + a + ", " + b
+                + ", " + c + ") was refused: " + e.getMessage(), e);
+    }
+
+    private void apply(JournalRecordType type, int a, int b, int c) {
+        switch (type) {
+            case SEAT -> tableService.seat(a, b);
+            case OPEN_ORDER -> tableService.openOrder(a);
+            case ADD_DISH -> tableService.addDish(a, b, c);
+            case REMOVE_DISH -> orderService.getOrder(a).removeDish(b);
+            case MENU_PRICE -> tableService.changePrice(a, (long) b << 32 | (c & 0xFFFFFFFFL));
+            case REGISTER_ORDER -> {
+                // Only a table's current order is journaled (see OrderService.addOrder)
+                Order order = restaurant.getTableById(b).getOrder();
+                if (order == null) {
+                    throw new IllegalStateException("Table " + b + " has no order to register");
+                }
+                order.setStatus(OrderStatus.CREATED);
+                orderService.restoreOrder(a, order);
+            }
+            case ORDER_STATUS -> orderService.getOrder(a).setStatus(ORDER_STATUSES[b]);
+            case ORDER_CLOSED -> orderService.restoreCloseTime(a, (long) b << 32 | (c & 0xFFFFFFFFL));
+            case SERVED -> billingService.markServed(a);
+            case REQUEST_BILL -> billingService.requestBill(a);
+            case PAY -> billingService.pay(a);
+            case REMOVE_ORDER -> orderService.removeOrder(a);
+            case DAY_CLOSE -> billingService.closeDay();
+            case CANCEL_RESERVATION -> {
+                ReservationBook book = restaurant.getReservationBook();
+                if (book != null) {
+                    book.cancel(a);
+                }
+            }
+            case RESERVE -> throw new IllegalStateException("RESERVE record without its payload");
+        }
+    }
+
+    private void reserve(int a, int b, int c, byte[] payload) {
+        // Bookings are only kept while the restaurant has a reservation book
+        ReservationBook book = restaurant.getReservationBook();
+        if (book != null) {
+            ByteBuffer data = ByteBuffer.wrap(payload);
+            long start = data.getLong();
+            long end = data.getLong();
+            String guest = new String(payload, data.position(), data.remaining(), StandardCharsets.UTF_8);
+            book.restore(c, a, b, guest, start, end);
+        }
+    }
+}
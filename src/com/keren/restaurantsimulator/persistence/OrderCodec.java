@@ -0,0 +1,250 @@
+package com.keren.restaurantsimulator.persistence;
+
+import com.keren.restaurantsimulator.enums.OrderStatus;
+import com.keren.restaurantsimulator.model.ArchivedOrder;
+import com.keren.restaurantsimulator.model.Dish;
+import com.keren.restaurantsimulator.model.MenuSnapshot;
+import com.keren.restaurantsimulator.model.Order;
+import com.keren.restaurantsimulator.model.OrderItem;
+import com.keren.restaurantsimulator.model.Table;
+import com.keren.restaurantsimulator.service.OrderArchive;
+import com.keren.restaurantsimulator.service.OrderRetention;
+import com.keren.restaurantsimulator.service.OrderService;
+import com.keren.restaurantsimulator.util.IntIntMap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * OrderCodec writes and reads the parts RestaurantSnapshot and StateSnapshot
+ * have in common: the dish dictionary, the orders of an OrderService, the
+ * current order of a table and the order archive. Everything is a varint
+ * (see ChannelWriter); fields marked * are zig-zag, as they may be negative:
+ *   dishes : count, then per dish: id*, name (length-prefixed UTF-8),
+ *            price in minor units, prep minutes
+ *   orders : nextOrderId, count, then per order: id, status, table number*, lines
+ *   lines  : count, then per line: dish index * 2 + price flag, quantity, and
+ *            the unit price in minor units if the flag is set
+ *   table order: kind (0 = none, 1 = registered + order id,
+ *                2 = not registered + status + lines)
+ *   archive: 0 if the service keeps no archive, else 1, max orders, max age
+ *            millis, count, then per order (oldest first): id, table number*,
+ *            status, close time*, total, lines, then per line: dish index * 2,
+ *            or 1 + dish id* + name for a dish that is no longer on the menu
+ *            under that name, quantity, unit price
+ *
+ * Lines refer to a dish by its position in the dish dictionary the snapshot
+ * wrote before them, which is usually one byte. A line ordered at a price
+ * other than the dictionary's (the menu changed since) carries its own unit
+ * price, so bills survive a save / load unchanged.
+ */
+final class OrderCodec {
+
+    private static final int NO_ORDER = 0;
+    private static final int REGISTERED_ORDER = 1;
+    private static final int INLINE_ORDER = 2;
+
+    private static final OrderStatus[] ORDER_STATUSES = OrderStatus.values();
+
+    private final Dish[] dishes;
+    private final IntIntMap dishIndex;
+
+    // dishes[i] is the dish at position i of the dictionary
+    OrderCodec(Dish[] dishes) {
+        this.dishes = dishes;
+        this.dishIndex = new IntIntMap(dishes.length);
+        for (int i = 0; i < dishes.length; i++) {
+            dishIndex.put(dishes[i].getId(), i);
+        }
+    }
+
+    // Writes the dictionary from one menu version and returns the codec for it.
+    static OrderCodec writeDishes(ChannelWriter w, MenuSnapshot menu) throws IOException {
+        Dish[] dishes = menu.listDishes().toArray(new Dish[0]);
+        w.putVarInt(dishes.length);
+        for (Dish dish : dishes) {
+            w.putZigZagInt(dish.getId());
+            w.putString(dish.getName());
+            w.putVarLong(dish.getPriceMinor());
+            w.putVarInt(dish.getPrepTimeMinutes());
+        }
+        return new OrderCodec(dishes);
+    }
+
+    static Dish[] readDishes(ByteBuffer data) throws IOException {
+        Dish[] dishes = new Dish[ChannelWriter.getVarInt(data)];
+        for (int i = 0; i < dishes.length; i++) {
+            int id = ChannelWriter.getZigZagInt(data);
+            String name = ChannelWriter.getString(data);
+            long priceMinor = ChannelWriter.getVarLong(data);
+            dishes[i] = Dish.ofPriceMinor(id, name, priceMinor, ChannelWriter.getVarInt(data));
+        }
+        return dishes;
+    }
+
+    void writeOrders(ChannelWriter w, OrderService orderService) throws IOException {
+        w.putVarInt(orderService.getNextOrderId());
+        w.putVarInt(orderService.getNumOfOrders());
+        for (Order order : orderService.listOrders()) {
+            w.putVarInt(order.getId());
+            w.putVarInt(order.getStatus().ordinal());
+            w.putZigZagInt(order.getTableNumber());
+            writeLines(w, order);
+        }
+    }
+
+    void readOrders(ByteBuffer data, OrderService orderService) throws IOException {
+        int nextOrderId = ChannelWriter.getVarInt(data);
+        int orders = ChannelWriter.getVarInt(data);
+        for (int i = 0; i < orders; i++) {
+            int id = ChannelWriter.getVarInt(data);
+            OrderStatus status = ORDER_STATUSES[ChannelWriter.getVarInt(data)];
+            Order order = new Order(ChannelWriter.getZigZagInt(data));
+            readLines(data, order);
+            order.setStatus(status);
+            orderService.restoreOrder(id, order);
+        }
+        if (orderService.getNextOrderId() < nextOrderId) {
+            orderService.setNextOrderId(nextOrderId);
+        }
+    }
+
+    void writeTableOrder(ChannelWriter w, Table table) throws IOException {
+        Order order = table.getOrder();
+        if (order == null) {
+            w.putVarInt(NO_ORDER);
+        } else if (order.isRegistered()) {
+            w.putVarInt(REGISTERED_ORDER);
+            w.putVarInt(order.getId());
+        } else {
+            w.putVarInt(INLINE_ORDER);
+            w.putVarInt(order.getStatus().ordinal());
+            writeLines(w, order);
+        }
+    }
+
+    // The registered orders must have been read first.
+    void readTableOrder(ByteBuffer data, Table table, OrderService orderService) throws IOException {
+        int orderKind = ChannelWriter.getVarInt(data);
+        if (orderKind == REGISTERED_ORDER) {
+            table.setOrder(orderService.getOrder(ChannelWriter.getVarInt(data)));
+        } else if (orderKind == INLINE_ORDER) {
+            OrderStatus status = ORDER_STATUSES[ChannelWriter.getVarInt(data)];
+            Order order = new Order(table.getTableNumber());
+            readLines(data, order);
+            order.setStatus(status);
+            table.setOrder(order);
+        } else if (orderKind != NO_ORDER) {
+            throw new IOException("Corrupt snapshot: unknown order kind " + orderKind);
+        }
+    }
+
+    private void writeLines(ChannelWriter w, Order order) throws IOException {
+        w.putVarInt(order.getNumOfLines());
+        for (OrderItem item : order.getOrderItems()) {
+            int index = dishIndex.getOrDefault(item.getDish().getId(), -1);
+            if (index < 0) {
+                throw new IllegalStateException("Order " + order.getId() + " has dish "
+                        + item.getDish().getId() + " which is not on the menu");
+            }
+            boolean ownPrice = item.getUnitPriceMinor() != dishes[index].getPriceMinor();
+            w.putVarInt(index << 1 | (ownPrice ? 1 : 0));
+            w.putVarInt(item.getQuantity());
+            if (ownPrice) {
+                w.putVarLong(item.getUnitPriceMinor());
+            }
+        }
+    }
+
+    private void readLines(ByteBuffer data, Order order) throws IOException {
+        int lines = ChannelWriter.getVarInt(data);
+        for (int n = 0; n < lines; n++) {
+            int ref = ChannelWriter.getVarInt(data);
+            Dish dish = dishes[ref >>> 1];
+            int quantity = ChannelWriter.getVarInt(data);
+            long unitPriceMinor = (ref & 1) != 0 ? ChannelWriter.getVarLong(data) : dish.getPriceMinor();
+            order.addDish(dish, quantity, unitPriceMinor);
+        }
+    }
+
+    // Archived lines keep the dish name they were closed with, so a renamed or removed dish is written out.
+    void writeArchive(ChannelWriter w, OrderArchive archive) throws IOException {
+        if (archive == null) {
+            w.putVarInt(0);
+            return;
+        }
+        w.putVarInt(1);
+        w.putVarInt(archive.getMaxOrders());
+        w.putVarLong(archive.getMaxAgeMillis());
+        List<ArchivedOrder> orders = archive.listOrders();
+        w.putVarInt(orders.size());
+        for (ArchivedOrder order : orders) {
+            w.putVarInt(order.getId());
+            w.putZigZagInt(order.getTableNumber());
+            w.putVarInt(order.getStatus().ordinal());
+            w.putZigZagLong(order.getClosedAtMillis());
+            w.putVarLong(order.getTotalPriceMinor());
+            w.putVarInt(order.getNumOfLines());
+            for (int i = 0; i < order.getNumOfLines(); i++) {
+                int index = dishIndex.getOrDefault(order.getDishId(i), -1);
+                if (index >= 0 && dishes[index].getName().equals(order.getDishName(i))) {
+                    w.putVarInt(index << 1);
+                } else {
+                    w.putVarInt(1);
+                    w.putZigZagInt(order.getDishId(i));
+                    w.putString(order.getDishName(i));
+                }
+                w.putVarInt(order.getQuantity(i));
+                w.putVarLong(order.getUnitPriceMinor(i));
+            }
+        }
+    }
+
+    /**
+     * Reads the archive's retention settings; null if the file has no
+     * archive. Otherwise readArchivedOrders() must follow.
+     */
+    static OrderRetention readRetention(ByteBuffer data) throws IOException {
+        if (ChannelWriter.getVarInt(data) == 0) {
+            return null;
+        }
+        int maxOrders = ChannelWriter.getVarInt(data);
+        return new OrderRetention()
+                .setMaxArchivedOrders(maxOrders)
+                .setMaxAgeMillis(ChannelWriter.getVarLong(data));
+    }
+
+    // Restores the archived orders into the archive, or skips them if it is null.
+    void readArchivedOrders(ByteBuffer data, OrderArchive archive) throws IOException {
+        int orders = ChannelWriter.getVarInt(data);
+        for (int n = 0; n < orders; n++) {
+            int id = ChannelWriter.getVarInt(data);
+            int table = ChannelWriter.getZigZagInt(data);
+            OrderStatus status = ORDER_STATUSES[ChannelWriter.getVarInt(data)];
+            long closedAt = ChannelWriter.getZigZagLong(data);
+            long totalMinor = ChannelWriter.getVarLong(data);
+            int lines = ChannelWriter.getVarInt(data);
+            int[] dishIds = new int[lines];
+            String[] names = new String[lines];
+            int[] quantities = new int[lines];
+            long[] prices = new long[lines];
+            for (int i = 0; i < lines; i++) {
+                int ref = ChannelWriter.getVarInt(data);
+                if ((ref & 1) == 0) {
+                    dishIds[i] = dishes[ref >>> 1].getId();
+                    names[i] = dishes[ref >>> 1].getName();
+                } else {
+                    dishIds[i] = ChannelWriter.getZigZagInt(data);
+                    names[i] = ChannelWriter.getString(data);
+                }
+                quantities[i] = ChannelWriter.getVarInt(data);
+                prices[i] = ChannelWriter.getVarLong(data);
+            }
+            if (archive != null) {
+                archive.restore(new ArchivedOrder(id, table, status, closedAt, totalMinor,
+                        dishIds, names, quantities, prices));
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.keren.restaurantsimulator.persistence;
+
+/**
+ * What JournalManager did while opening a journal directory.
+ */
+public class RecoveryResult {
+
+    private final boolean snapshotLoaded;
+    private final int ordersRestored;
+    private final long recordsReplayed;
+    private final long elapsedNanos;
+
+    RecoveryResult(boolean snapshotLoaded, int ordersRestored, long recordsReplayed, long elapsedNanos) {
+        this.snapshotLoaded = snapshotLoaded;
+        this.ordersRestored = ordersRestored;
+        this.recordsReplayed = recordsReplayed;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public boolean isSnapshotLoaded() { return snapshotLoaded; }
+    // Orders in the OrderService after recovery.
+    public int getOrdersRestored() { return ordersRestored; }
+    // Journal records replayed on top of the snapshot.
+    public long getRecordsReplayed() { return recordsReplayed; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    @Override
+    public String toString() {
+        return "RecoveryResult{" +
+                "snapshotLoaded=" + snapshotLoaded +
+                ", ordersRestored=" + ordersRestored +
+                ", recordsReplayed=" + recordsReplayed +
+                ", elapsedMs=" + String.format("%.1f", elapsedNanos / 1_000_000.0) +
+                '}';
+    }
+}
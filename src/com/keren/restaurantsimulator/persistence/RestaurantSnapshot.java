@@ -0,0 +1,135 @@
+package com.keren.restaurantsimulator.persistence;
+
+import com.keren.restaurantsimulator.enums.TableStatus;
+import com.keren.restaurantsimulator.model.Dish;
+import com.keren.restaurantsimulator.model.Menu;
+import com.keren.restaurantsimulator.model.Restaurant;
+import com.keren.restaurantsimulator.model.Table;
+import com.keren.restaurantsimulator.service.OrderRetention;
+import com.keren.restaurantsimulator.service.OrderService;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * RestaurantSnapshot saves a whole Restaurant (menu, tables, current orders)
+ * and the orders of its OrderService (live and archived) to one compact
+ * binary file, and loads it back into new objects.
+ *
+ * Layout: int magic "RSTR", short version, then varints (see ChannelWriter);
+ * fields marked * are zig-zag varints, as they may be negative:
+ *   dishes, orders: see OrderCodec
+ *   tables : count, then per table: number*, capacity, status, the table's
+ *            order (see OrderCodec)
+ *   archive: see OrderCodec
+ *
+ * The dish list doubles as the dictionary order lines refer to. Prices are
+ * exact fixed-point values, never doubles. The file is written through a
+ * direct buffer to a temp file and moved into place, and read back
+ * memory-mapped.
+ *
+ * Usage:
+ *   RestaurantSnapshot.save(path, restaurant, orderService);
+ *   RestaurantSnapshot loaded = RestaurantSnapshot.load(path);
+ *   loaded.getRestaurant(); loaded.getOrderService();
+ */
+public final class RestaurantSnapshot {
+
+    private static final int MAGIC = 0x52535452; // "RSTR"
+    private static final short VERSION = 1;
+
+    private final Restaurant restaurant;
+    private final OrderService orderService;
+
+    private RestaurantSnapshot(Restaurant restaurant, OrderService orderService) {
+        this.restaurant = restaurant;
+        this.orderService = orderService;
+    }
+
+    public Restaurant getRestaurant() {
+        return restaurant;
+    }
+
+    public OrderService getOrderService() {
+        return orderService;
+    }
+
+    public static void save(Path file, Restaurant restaurant, OrderService orderService) throws IOException {
+        if (file == null || restaurant == null || orderService == null) {
+            throw new IllegalArgumentException("file, restaurant and orderService cannot be null");
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ChannelWriter w = new ChannelWriter(out);
+            w.ensure(6);
+            w.buffer.putInt(MAGIC).putShort(VERSION);
+
+            // dish dictionary from one menu version
+            OrderCodec codec = OrderCodec.writeDishes(w, restaurant.getMenu().snapshot());
+            codec.writeOrders(w, orderService);
+
+            w.putVarInt(restaurant.size());
+            for (Table table : restaurant.listTables()) {
+                w.putZigZagInt(table.getTableNumber());
+                w.putVarInt(table.getCapacity());
+                w.putVarInt(table.getStatus().ordinal());
+                codec.writeTableOrder(w, table);
+            }
+            codec.writeArchive(w, orderService.getArchive());
+            w.flush();
+            out.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static RestaurantSnapshot load(Path file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("file cannot be null");
+        }
+        TableStatus[] tableStatuses = TableStatus.values();
+
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer data = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            if (data.remaining() < 6 || data.getInt() != MAGIC) {
+                throw new IOException("Not a restaurant snapshot: " + file);
+            }
+            short version = data.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+
+            Dish[] dishes = OrderCodec.readDishes(data);
+            Menu menu = new Menu();
+            menu.replaceAll(Arrays.asList(dishes)); // one menu version, not one per dish
+            OrderCodec codec = new OrderCodec(dishes);
+            Restaurant restaurant = new Restaurant(menu);
+            OrderService orderService = new OrderService();
+            codec.readOrders(data, orderService);
+
+            int tables = ChannelWriter.getVarInt(data);
+            for (int i = 0; i < tables; i++) {
+                Table table = new Table(ChannelWriter.getZigZagInt(data), ChannelWriter.getVarInt(data));
+                TableStatus status = tableStatuses[ChannelWriter.getVarInt(data)];
+                codec.readTableOrder(data, table, orderService);
+                restaurant.addTable(table);
+                table.setStatus(status);
+            }
+            OrderRetention retention = OrderCodec.readRetention(data);
+            if (retention != null) {
+                orderService.setRetention(retention);
+                codec.readArchivedOrders(data, orderService.getArchive());
+            }
+            return new RestaurantSnapshot(restaurant, orderService);
+        } catch (RuntimeException e) {
+            // index out of range, buffer underflow, ...
+            throw new IOException("Corrupt snapshot: " + file, e);
+        }
+    }
+}
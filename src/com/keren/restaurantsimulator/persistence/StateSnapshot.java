@@ -0,0 +1,223 @@
+package com.keren.restaurantsimulator.persistence;
+
+import com.keren.restaurantsimulator.analytics.SalesLedger;
+import com.keren.restaurantsimulator.enums.TableStatus;
+import com.keren.restaurantsimulator.model.Dish;
+import com.keren.restaurantsimulator.model.Menu;
+import com.keren.restaurantsimulator.model.Reservation;
+import com.keren.restaurantsimulator.model.ReservationBook;
+import com.keren.restaurantsimulator.model.Restaurant;
+import com.keren.restaurantsimulator.model.Table;
+import com.keren.restaurantsimulator.service.BillingService;
+import com.keren.restaurantsimulator.service.OrderService;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * StateSnapshot saves and loads the runtime state used by journal recovery:
+ * the registered orders of an OrderService, its order archive and sales
+ * ledger, the status / current order of every table, the reservation book,
+ * the BillingService totals and the menu prices. The dishes and floor plan themselves are not stored; the state is
+ * loaded into a Restaurant built from the same menu and tables.
+ *
+ * Layout (big-endian; the dishes, orders, table orders and archive are
+ * varints, written by the same OrderCodec as RestaurantSnapshot):
+ *   int magic, short version, long replayFromSegment
+ *   dishes, orders: see OrderCodec
+ *   int tables, then per table: int number, byte status, the table's order
+ *   int nextReservationId, int reservations, then per booking:
+ *     int id, int table, int partySize, long start, long end, string guest
+ *     (nextReservationId = 0 and no bookings if the restaurant has no book)
+ *   long revenueMinor, long dayGrossMinor, long dayChecks, int daysClosed
+ *   archive: see OrderCodec
+ *   int checks, int lines (-1 = no sales ledger), then per line: int dishId,
+ *     int quantity, long unitPriceMinor, int table, long closedAt
+ *
+ * Loading puts the dish prices back on the menu; a dish no longer on it is
+ * still used for the lines that refer to it. An archive or ledger in the
+ * file is skipped if the OrderService has none.
+ *
+ * A snapshot is written to a temp file and then moved over the old one, so a
+ * crash while writing never leaves a half-written snapshot behind.
+ */
+final class StateSnapshot {
+
+    private static final int MAGIC = 0x52534E50; // "RSNP"
+    private static final short VERSION = 1;
+
+    private StateSnapshot() {}
+
+    static void write(Path file, Restaurant restaurant, OrderService orderService, BillingService billingService,
+                      long replayFromSegment) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ChannelWriter w = new ChannelWriter(out);
+            w.ensure(14);
+            w.buffer.putInt(MAGIC).putShort(VERSION).putLong(replayFromSegment);
+
+            OrderCodec codec = OrderCodec.writeDishes(w, restaurant.getMenu().snapshot());
+            codec.writeOrders(w, orderService);
+
+            w.ensure(4);
+            w.buffer.putInt(restaurant.size());
+            for (Table table : restaurant.listTables()) {
+                w.ensure(5);
+                w.buffer.putInt(table.getTableNumber()).put((byte) table.getStatus().ordinal());
+                codec.writeTableOrder(w, table);
+            }
+
+            ReservationBook book = restaurant.getReservationBook();
+            w.ensure(8);
+            w.buffer.putInt(book == null ? 0 : book.getNextReservationId());
+            w.buffer.putInt(book == null ? 0 : book.size());
+            if (book != null) {
+                for (Reservation r : book.listReservations()) {
+                    w.ensure(28);
+                    w.buffer.putInt(r.getId()).putInt(r.getTableNumber()).putInt(r.getPartySize())
+                            .putLong(r.getStartMillis()).putLong(r.getEndMillis());
+                    w.putString(r.getGuestName());
+                }
+            }
+
+            w.ensure(28);
+            w.buffer.putLong(billingService.getRevenueMinor()).putLong(billingService.getDayGrossMinor())
+                    .putLong(billingService.getDayChecks()).putInt(billingService.getDaysClosed());
+
+            codec.writeArchive(w, orderService.getArchive());
+            writeSalesLedger(w, orderService.getSalesLedger());
+            w.flush();
+            out.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Loads a snapshot into a restaurant with no seated tables and an empty OrderService.
+     * @return the first journal segment to replay after this snapshot
+     */
+    static long read(Path file, Restaurant restaurant, OrderService orderService, BillingService billingService)
+            throws IOException {
+        TableStatus[] tableStatuses = TableStatus.values();
+
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer data = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+            if (data.getInt() != MAGIC) {
+                throw new IOException("Not a restaurant snapshot: " + file);
+            }
+            short version = data.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            long replayFromSegment = data.getLong();
+
+            OrderCodec codec = new OrderCodec(restorePrices(OrderCodec.readDishes(data), restaurant.getMenu()));
+            codec.readOrders(data, orderService);
+
+            int tables = data.getInt();
+            for (int i = 0; i < tables; i++) {
+                Table table = restaurant.getTableById(data.getInt());
+                TableStatus status = tableStatuses[data.get()];
+                codec.readTableOrder(data, table, orderService);
+                table.setStatus(status);
+            }
+
+            readReservations(data, restaurant.getReservationBook());
+            billingService.restoreTotals(data.getLong(), data.getLong(), data.getLong(), data.getInt());
+            if (OrderCodec.readRetention(data) != null) {
+                codec.readArchivedOrders(data, orderService.getArchive());
+            }
+            readSalesLedger(data, orderService.getSalesLedger());
+            return replayFromSegment;
+        }
+    }
+
+    private static void writeSalesLedger(ChannelWriter w, SalesLedger ledger) throws IOException {
+        w.ensure(8);
+        if (ledger == null) {
+            w.buffer.putInt(0).putInt(-1);
+            return;
+        }
+        w.buffer.putInt(ledger.getNumOfChecks()).putInt(ledger.getNumOfLines());
+        try {
+            ledger.forEachLine((dishId, quantity, unitPriceMinor, tableNumber, closedAtMillis) -> {
+                try {
+                    w.ensure(28);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                w.buffer.putInt(dishId).putInt(quantity).putLong(unitPriceMinor).putInt(tableNumber)
+                        .putLong(closedAtMillis);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void readSalesLedger(ByteBuffer data, SalesLedger ledger) {
+        int checks = data.getInt();
+        int lines = data.getInt();
+        for (int i = 0; i < lines; i++) {
+            int dishId = data.getInt();
+            int quantity = data.getInt();
+            long unitPriceMinor = data.getLong();
+            int table = data.getInt();
+            long closedAt = data.getLong();
+            if (ledger != null) {
+                ledger.recordLine(dishId, quantity, unitPriceMinor, table, closedAt, false);
+            }
+        }
+        if (ledger != null && lines >= 0) {
+            ledger.setNumOfChecks(ledger.getNumOfChecks() + checks);
+        }
+    }
+
+    /**
+     * Puts the saved prices back on the menu and returns the dictionary the
+     * lines refer to: the menu's dish where it still has one, else the saved one.
+     */
+    private static Dish[] restorePrices(Dish[] saved, Menu menu) {
+        Dish[] dishes = new Dish[saved.length];
+        for (int i = 0; i < saved.length; i++) {
+            Dish dish = menu.findDishById(saved[i].getId()).orElse(null);
+            if (dish == null) {
+                dishes[i] = saved[i];
+                continue;
+            }
+            if (dish.getPriceMinor() != saved[i].getPriceMinor()) {
+                dish = dish.withPriceMinor(saved[i].getPriceMinor());
+                menu.replaceDish(dish);
+            }
+            dishes[i] = dish;
+        }
+        return dishes;
+    }
+
+    // Bookings are skipped if the restaurant has no reservation book
+    private static void readReservations(ByteBuffer data, ReservationBook book) throws IOException {
+        int nextReservationId = data.getInt();
+        int reservations = data.getInt();
+        for (int i = 0; i < reservations; i++) {
+            int id = data.getInt();
+            int table = data.getInt();
+            int partySize = data.getInt();
+            long start = data.getLong();
+            long end = data.getLong();
+            String guest = ChannelWriter.getString(data);
+            if (book != null) {
+                book.restore(id, table, partySize, guest, start, end);
+            }
+        }
+        if (book != null && book.getNextReservationId() < nextReservationId) {
+            book.setNextReservationId(nextReservationId);
+        }
+    }
+}
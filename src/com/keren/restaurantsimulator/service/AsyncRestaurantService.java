@@ -0,0 +1,221 @@
+package com.keren.restaurantsimulator.service;
+
+import com.keren.restaurantsimulator.model.Dish;
+import com.keren.restaurantsimulator.model.Order;
+import com.keren.restaurantsimulator.model.Restaurant;
+import com.keren.restaurantsimulator.model.Table;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * AsyncRestaurantService is a non-blocking front for the table / order /
+ * kitchen / billing services of one restaurant. Every operation returns a
+ * CompletableFuture right away and runs later on an executor.
+ *
+ * Ordering: operations on the same table run one at a time, in the order they
+ * were called (each table has its own TableLane), so a client can fire a
+ * table's whole lifecycle without waiting:
+ *
+ *   async.seat(5, 2);
+ *   async.openOrder(5);
+ *   async.addDish(5, 1, 2);
+ *   async.submit(5);
+ *   ...
+ *   async.pay(5).thenAccept(total -> ...);
+ *
+ * If one step fails, its future fails and the following steps still run (and
+ * usually fail on the table's state); chain with thenCompose to stop early.
+ *
+ * Different tables run in parallel and do not lock each other: tables move
+ * lock-free, the Restaurant guards its own floor indexes, the revenue and
+ * day totals are guarded inside BillingService, and orders live in a
+ * concurrent OrderService. Only seatBestFit locks, so two walk-ins are not
+ * both given the same free table.
+ *
+ * Executor: virtual threads (one per task) when the JVM has them (Java 21+),
+ * otherwise a fixed pool of daemon threads, one per CPU. An executor passed
+ * in is used as-is and is not shut down by close().
+ */
+public class AsyncRestaurantService implements AutoCloseable {
+
+    private final Restaurant restaurant;
+    private final TableService tableService;
+    private final OrderService orderService;
+    private final KitchenService kitchenService;
+    private final BillingService billingService;
+    private final Executor executor;
+    private final ExecutorService ownedExecutor; // null when the executor was passed in
+    private final ConcurrentHashMap<Integer, TableLane> lanes = new ConcurrentHashMap<>();
+    private final Object bestFitLock = new Object();
+
+    public AsyncRestaurantService(Restaurant restaurant) {
+        this(restaurant, null);
+    }
+
+    public AsyncRestaurantService(Restaurant restaurant, Executor executor) {
+        if (restaurant == null) {
+            throw new IllegalArgumentException("restaurant cannot be null");
+        }
+        this.restaurant = restaurant;
+        this.tableService = new TableService(restaurant);
+        this.orderService = OrderService.concurrent();
+        this.kitchenService = new KitchenService(orderService);
+        this.billingService = new BillingService(restaurant);
+        this.ownedExecutor = executor == null ? defaultExecutor() : null;
+        this.executor = executor == null ? ownedExecutor : executor;
+    }
+
+    /**
+     * Virtual-thread-per-task executor, looked up by reflection so the code
+     * still compiles and runs on Java 17; falls back to a fixed pool.
+     */
+    static ExecutorService defaultExecutor() {
+        try {
+            Object virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            return (ExecutorService) virtual;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Not there (Java 17) or preview-only and disabled (Java 19/20)
+        }
+        ThreadFactory daemons = task -> {
+            Thread thread = new Thread(task, "restaurant-async");
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), daemons);
+    }
+
+    public Restaurant getRestaurant() { return restaurant; }
+    public TableService getTableService() { return tableService; }
+    public OrderService getOrderService() { return orderService; }
+    public KitchenService getKitchenService() { return kitchenService; }
+    public BillingService getBillingService() { return billingService; }
+
+    // ---------------- Operations ----------------
+
+    public CompletableFuture<Void> seat(int tableNumber, int customers) {
+        return onTable(tableNumber, () -> {
+            tableService.seat(tableNumber, customers);
+            return null;
+        });
+    }
+
+    /**
+     * Seats a walk-in party at the best-fit free table. Not tied to a lane
+     * (the table is unknown until it runs); follow-up steps go through the
+     * returned table's number. A seat() on a lane can still take the table
+     * between the search and the seating; the future then fails.
+     */
+    public CompletableFuture<Table> seatBestFit(int partySize) {
+        return CompletableFuture.supplyAsync(() -> {
+            synchronized (bestFitLock) {
+                return tableService.seatBestFit(partySize);
+            }
+        }, executor);
+    }
+
+    public CompletableFuture<Order> openOrder(int tableNumber) {
+        return onTable(tableNumber, () -> tableService.openOrder(tableNumber));
+    }
+
+    public CompletableFuture<Dish> addDish(int tableNumber, int dishId, int quantity) {
+        return onTable(tableNumber, () -> tableService.addDish(tableNumber, dishId, quantity));
+    }
+
+    // Registers the table's order and sends it to the kitchen; completes with the order id.
+    public CompletableFuture<Integer> submit(int tableNumber) {
+        return onTable(tableNumber, () -> {
+            int orderId = orderService.addOrder(tableService.getOrder(tableNumber));
+            kitchenService.submitOrderToKitchen(orderId);
+            return orderId;
+        });
+    }
+
+    public CompletableFuture<Void> startPreparing(int tableNumber) {
+        return onTable(tableNumber, () -> {
+            kitchenService.startPreparing(tableService.getOrder(tableNumber).getId());
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> orderIsReady(int tableNumber) {
+        return onTable(tableNumber, () -> {
+            kitchenService.orderIsReady(tableService.getOrder(tableNumber).getId());
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> markServed(int tableNumber) {
+        return onTable(tableNumber, () -> {
+            billingService.markServed(tableNumber);
+            return null;
+        });
+    }
+
+    // Completes with the bill total.
+    public CompletableFuture<Double> requestBill(int tableNumber) {
+        return onTable(tableNumber, () -> {
+            billingService.requestBill(tableNumber);
+            return billingService.calculateBill(tableNumber);
+        });
+    }
+
+    // Completes with the amount paid.
+    public CompletableFuture<Double> pay(int tableNumber) {
+        return onTable(tableNumber, () -> billingService.pay(tableNumber));
+    }
+
+    /**
+     * Shuts down the executor this service created (not one passed in) and
+     * waits for queued work to finish. If the calling thread is interrupted
+     * while waiting, it stops waiting and keeps its interrupt flag set.
+     */
+    @Override
+    public void close() {
+        if (ownedExecutor != null) {
+            ownedExecutor.shutdown();
+            try {
+                ownedExecutor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // ---------------- Lanes ----------------
+
+    private <T> CompletableFuture<T> onTable(int tableNumber, Supplier<T> operation) {
+        LaneTask<T> task = new LaneTask<>(operation);
+        lanes.computeIfAbsent(tableNumber, t -> new TableLane(executor)).execute(task);
+        return task.future;
+    }
+
+    private static final class LaneTask<T> implements Runnable, TableLane.Rejectable {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        private final Supplier<T> operation;
+
+        LaneTask(Supplier<T> operation) {
+            this.operation = operation;
+        }
+
+        @Override
+        public void run() {
+            try {
+                future.complete(operation.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public void reject(Throwable cause) {
+            future.completeExceptionally(cause);
+        }
+    }
+}
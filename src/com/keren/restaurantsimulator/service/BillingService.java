@@ -1,14 +1,35 @@
 package com.keren.restaurantsimulator.service;
 
-import com.keren.restaurantsimulator.enums.OrderStatus;
+import com.keren.restaurantsimulator.enums.TableEvent;
 import com.keren.restaurantsimulator.enums.TableStatus;
+import com.keren.restaurantsimulator.exception.InvalidOrderStateException;
+import com.keren.restaurantsimulator.metrics.Metrics;
+import com.keren.restaurantsimulator.metrics.Operation;
+import com.keren.restaurantsimulator.model.Money;
 import com.keren.restaurantsimulator.model.Order;
 import com.keren.restaurantsimulator.model.Restaurant;
 import com.keren.restaurantsimulator.model.Table;
+import com.keren.restaurantsimulator.persistence.Journal;
+import com.keren.restaurantsimulator.persistence.JournalRecordType;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class BillingService {
 
+    private static final long REFUSED = -1;
+
     private final Restaurant restaurant;
+    private Journal journal = Journal.DISABLED;
+    // Everything paid through this service, in agorot. Atomic: AsyncRestaurantService pays
+    // on worker threads and ChainHost reads it from others.
+    private final AtomicLong revenueMinor = new AtomicLong();
+    // Running totals of the current business day, reset by closeDay(). Guarded by dayLock, so a
+    // payment counts in full on one side of a close, and its PAY record is journaled on that side too.
+    private final Object dayLock = new Object();
+    private long dayGrossMinor;
+    private long dayChecks;
+    private int daysClosed;
 
     public BillingService(Restaurant restaurant) {
         if (restaurant == null) {
@@ -17,51 +38,226 @@ public class BillingService {
         this.restaurant = restaurant;
     }
 
+    // Records every state transition made through this service (off by default).
+    public void setJournal(Journal journal) {
+        if (journal == null) {
+            throw new IllegalArgumentException("journal cannot be null");
+        }
+        this.journal = journal;
+    }
+
+    public double getRevenue() {
+        return Money.toMajor(revenueMinor.get());
+    }
+
+    public long getRevenueMinor() {
+        return revenueMinor.get();
+    }
+
     private Table getExistingTable(int tableId) {
         return restaurant.getTableById(tableId);
     }
 
     public void markServed(int tableId) {
+        long t0 = Metrics.start();
         Table table = getExistingTable(tableId);
+        if (journal == Journal.DISABLED) {
+            serve(table);
+        } else {
+            // journaled under the table's monitor, like every move of the table (see TableService)
+            synchronized (table) {
+                serve(table);
+                journal.append(JournalRecordType.SERVED, tableId, 0, 0);
+            }
+        }
+        Metrics.record(Operation.MARK_SERVED, t0);
+        // חשוב: לא מעבירים אוטומטית ל-WAITING_FOR_BILL.
+        // זה קורה רק כשקוראים requestBill().
+    }
 
+    private void serve(Table table) {
         Order order = table.getOrder();
         if (order == null) {
-            throw new IllegalStateException("Table " + tableId + " has no active order");
+            throw new IllegalStateException("Table " + table.getTableNumber() + " has no active order");
         }
 
-        order.setStatus(OrderStatus.SERVED);
-        // חשוב: לא מעבירים אוטומטית ל-WAITING_FOR_BILL.
-        // זה קורה רק כשקוראים requestBill().
+        if (!order.tryAdvance(TableEvent.SERVE)) {
+            throw new InvalidOrderStateException("Order of table " + table.getTableNumber() + " is "
+                    + order.getStatus() + ", must be READY to serve");
+        }
     }
 
     public void requestBill(int tableId) {
+        long t0 = Metrics.start();
         Table table = getExistingTable(tableId);
-        table.requestBill(); // משתמשים בכלל העסקי שכבר הגדרת ב-Table
+        if (journal == Journal.DISABLED) {
+            table.requestBill(); // משתמשים בכלל העסקי שכבר הגדרת ב-Table
+        } else {
+            synchronized (table) {
+                table.requestBill();
+                journal.append(JournalRecordType.REQUEST_BILL, tableId, 0, 0);
+            }
+        }
+        Metrics.record(Operation.REQUEST_BILL, t0);
     }
 
     public double calculateBill(int tableId) {
+        long t0 = Metrics.start();
         Table table = getExistingTable(tableId);
-        return table.getBill(); // לא לשכפל לוגיקה
+        double bill = table.getBill(); // לא לשכפל לוגיקה
+        Metrics.record(Operation.CALCULATE_BILL, t0);
+        return bill;
     }
 
     public double pay(int tableId) {
+        long t0 = Metrics.start();
         Table table = getExistingTable(tableId);
 
-        if (table.getStatus() != TableStatus.WAITING_FOR_BILL) {
-            throw new IllegalStateException("Table " + tableId + " is not waiting for bill");
-        }
-
         Order order = table.getOrder();
-        if (order == null) {
+        long total = order == null ? REFUSED : settle(table, order);
+        if (total == REFUSED) {
+            if (table.getStatus() != TableStatus.WAITING_FOR_BILL) {
+                throw new IllegalStateException("Table " + tableId + " is not waiting for bill");
+            }
             throw new IllegalStateException("Table " + tableId + " has no active order");
         }
+        Metrics.record(Operation.PAY, t0);
 
-        double total = order.getTotalPrice();
-        order.setStatus(OrderStatus.PAID);
+        return Money.toMajor(total);
+    }
 
-        // clear() מאפס גם סטטוס וגם הזמנה
-        table.clear();
+    /**
+     * Settles many tables in one pass: each listed table that is
+     * WAITING_FOR_BILL with an order is paid and cleared, exactly as pay()
+     * would. Tables that cannot be paid (unknown, in another status, listed
+     * twice, paid by another thread meanwhile) are skipped and reported
+     * instead of stopping the batch.
+     */
+    public SettlementResult payAll(int... tableIds) {
+        if (tableIds == null) {
+            throw new IllegalArgumentException("tableIds cannot be null");
+        }
+        long t0 = Metrics.start();
+        int settled = 0;
+        long totalMinor = 0;
+        int[] skipped = new int[8];
+        int numOfSkipped = 0;
 
-        return total;
+        for (int tableId : tableIds) {
+            Table table = restaurant.containsTable(tableId) ? restaurant.getTableById(tableId) : null;
+            Order order = table == null ? null : table.getOrder();
+            long paid = order == null ? REFUSED : settle(table, order);
+            if (paid == REFUSED) {
+                if (numOfSkipped == skipped.length) {
+                    skipped = Arrays.copyOf(skipped, numOfSkipped * 2);
+                }
+                skipped[numOfSkipped++] = tableId;
+                continue;
+            }
+            totalMinor += paid;
+            settled++;
+        }
+        Metrics.record(Operation.PAY_ALL, t0);
+        return new SettlementResult(settled, totalMinor, Arrays.copyOf(skipped, numOfSkipped));
+    }
+
+    /**
+     * Settles every table that is currently WAITING_FOR_BILL (e.g. at closing
+     * time). A listed table that another payer settles first is reported as
+     * skipped, as in payAll().
+     */
+    public SettlementResult payAllWaiting() {
+        // Copy first: settling moves each table out of the status index we would be iterating
+        Table[] waiting = restaurant.listTablesByStatus(TableStatus.WAITING_FOR_BILL).toArray(new Table[0]);
+        int[] tableIds = new int[waiting.length];
+        for (int i = 0; i < waiting.length; i++) {
+            tableIds[i] = waiting[i].getTableNumber();
+        }
+        return payAll(tableIds);
+    }
+
+    /**
+     * Pays the order and frees the table in one move of the table's state
+     * word (the order becomes PAID). Returns the amount, or REFUSED if the
+     * table is not WAITING_FOR_BILL with this order.
+     */
+    private long settle(Table table, Order order) {
+        long totalMinor = order.getTotalPriceMinor();
+        if (journal == Journal.DISABLED) {
+            if (!table.tryApply(TableEvent.PAY, order.getTableGeneration())) {
+                return REFUSED;
+            }
+            synchronized (dayLock) {
+                addToDay(totalMinor);
+            }
+        } else {
+            synchronized (table) {
+                if (!table.tryApply(TableEvent.PAY, order.getTableGeneration())) {
+                    return REFUSED;
+                }
+                synchronized (dayLock) {
+                    addToDay(totalMinor);
+                    journal.append(JournalRecordType.PAY, table.getTableNumber(), 0, 0);
+                }
+            }
+        }
+        revenueMinor.addAndGet(totalMinor);
+        return totalMinor;
+    }
+
+    // Caller holds dayLock.
+    private void addToDay(long totalMinor) {
+        dayGrossMinor += totalMinor;
+        dayChecks++;
+    }
+
+    // ---------------- Business day ----------------
+
+    public long getDayGrossMinor() {
+        synchronized (dayLock) {
+            return dayGrossMinor;
+        }
+    }
+
+    public long getDayChecks() {
+        synchronized (dayLock) {
+            return dayChecks;
+        }
+    }
+
+    /**
+     * Ends the business day: returns its gross, check count and average
+     * check, and starts the next day from zero. O(1): the totals were kept
+     * up to date on every payment. Lifetime revenue is not reset.
+     * Journaled, so a recovery does not add the closed day's payments to
+     * the day after it.
+     */
+    public DayClose closeDay() {
+        synchronized (dayLock) {
+            DayClose close = new DayClose(++daysClosed, dayGrossMinor, dayChecks);
+            dayGrossMinor = 0;
+            dayChecks = 0;
+            journal.append(JournalRecordType.DAY_CLOSE, daysClosed, 0, 0);
+            return close;
+        }
+    }
+
+    public int getDaysClosed() {
+        synchronized (dayLock) {
+            return daysClosed;
+        }
+    }
+
+    // Used when recovering state from a snapshot; not journaled.
+    public void restoreTotals(long revenueMinor, long dayGrossMinor, long dayChecks, int daysClosed) {
+        if (revenueMinor < 0 || dayGrossMinor < 0 || dayChecks < 0 || daysClosed < 0) {
+            throw new IllegalArgumentException("totals cannot be negative");
+        }
+        this.revenueMinor.set(revenueMinor);
+        synchronized (dayLock) {
+            this.dayGrossMinor = dayGrossMinor;
+            this.dayChecks = dayChecks;
+            this.daysClosed = daysClosed;
+        }
     }
 }
@@ -0,0 +1,46 @@
+package com.keren.restaurantsimulator.service;
+
+import com.keren.restaurantsimulator.model.Money;
+
+/**
+ * DayClose is the end-of-day summary returned by BillingService.closeDay():
+ * gross sales, number of checks and average check of one business day.
+ * Built from running totals kept as checks are paid, not from a rescan.
+ */
+public class DayClose {
+
+    private final int day;
+    private final long grossMinor;
+    private final long checks;
+
+    public DayClose(int day, long grossMinor, long checks) {
+        this.day = day;
+        this.grossMinor = grossMinor;
+        this.checks = checks;
+    }
+
+    // 1 for the first day closed by a BillingService, then 2, 3, ...
+    public int getDay() { return day; }
+    public long getGrossMinor() { return grossMinor; }
+    public double getGross() { return Money.toMajor(grossMinor); }
+    public long getChecks() { return checks; }
+
+    // Rounded to the nearest minor unit; 0 for a day without checks.
+    public long getAverageCheckMinor() {
+        return checks == 0 ? 0 : Math.round((double) grossMinor / checks);
+    }
+
+    public double getAverageCheck() {
+        return Money.toMajor(getAverageCheckMinor());
+    }
+
+    @Override
+    public String toString() {
+        return "DayClose{" +
+                "day=" + day +
+                ", gross=" + getGross() +
+                ", checks=" + checks +
+                ", averageCheck=" + getAverageCheck() +
+                '}';
+    }
+}
@@ -0,0 +1,294 @@
+package com.keren.restaurantsimulator.service;
+
+import com.keren.restaurantsimulator.enums.KitchenStation;
+import com.keren.restaurantsimulator.model.Order;
+import com.keren.restaurantsimulator.model.OrderItem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * KitchenEngine runs the kitchen on worker threads.
+ *
+ * submit(orderId) moves the order to SUBMITTED and splits it into one ticket
+ * per order line. Each ticket goes to the station of its dish (GRILL, COLD or
+ * DRINKS) and waits in that station's bounded queue. Station workers take
+ * tickets in FIFO order and "cook" them for the dish's prep time:
+ * - the first ticket of an order that starts cooking moves it to IN_PREP
+ * - the last ticket of an order that finishes moves it to READY
+ *
+ * When a station queue is full, submit() blocks until a worker frees a slot,
+ * so a slow station pushes back on the waiters submitting orders.
+ *
+ * Batching (off by default, see setBatching): a worker also takes the
+ * waiting tickets of the same dish from other orders, up to a maximum number
+ * of portions, waiting up to the station's batch window for more. The batch
+ * is cooked once, for the dish's prep time, and every ticket in it then
+ * counts as done for its own order.
+ *
+ * Workers and waiters share the OrderService, so it must be
+ * OrderService.concurrent().
+ */
+public class KitchenEngine {
+
+    private static final long POLL_MILLIS = 50;
+
+    private final OrderService orderService;
+    private final KitchenService kitchenService;
+    private final Map<Integer, KitchenStation> stationByDishId;
+    private final KitchenStation defaultStation;
+    private final int workersPerStation;
+    private final long nanosPerPrepMinute;
+    private final Map<KitchenStation, KitchenStationQueue> queues = new EnumMap<>(KitchenStation.class);
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final AtomicLong outstandingOrders = new AtomicLong();
+    private final Object idleLock = new Object();
+    private final LongAdder ordersCompleted = new LongAdder();
+    private final LongAdder orderNanos = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    private volatile boolean running;
+    private long startedAtNanos;
+
+    /**
+     * @param stationByDishId    station of each dish id; dishes not in the map go to defaultStation
+     * @param queueCapacity      max tickets waiting per station
+     * @param workersPerStation  cooks per station
+     * @param nanosPerPrepMinute real time of one prep minute (0 = cook instantly)
+     */
+    public KitchenEngine(KitchenService kitchenService, Map<Integer, KitchenStation> stationByDishId,
+                         KitchenStation defaultStation, int queueCapacity, int workersPerStation,
+                         long nanosPerPrepMinute) {
+        if (kitchenService == null) {
+            throw new IllegalArgumentException("kitchenService cannot be null");
+        }
+        OrderService orderService = kitchenService.getOrderService();
+        if (!orderService.isConcurrent()) {
+            throw new IllegalArgumentException("KitchenEngine needs a concurrent OrderService");
+        }
+        if (stationByDishId == null || defaultStation == null) {
+            throw new IllegalArgumentException("station mapping cannot be null");
+        }
+        if (queueCapacity <= 0 || workersPerStation <= 0) {
+            throw new IllegalArgumentException("queueCapacity and workersPerStation must be positive");
+        }
+        if (nanosPerPrepMinute < 0) {
+            throw new IllegalArgumentException("nanosPerPrepMinute cannot be negative");
+        }
+        this.orderService = orderService;
+        this.kitchenService = kitchenService;
+        this.stationByDishId = Map.copyOf(stationByDishId);
+        this.defaultStation = defaultStation;
+        this.workersPerStation = workersPerStation;
+        this.nanosPerPrepMinute = nanosPerPrepMinute;
+        for (KitchenStation station : KitchenStation.values()) {
+            queues.put(station, new KitchenStationQueue(station, queueCapacity));
+        }
+    }
+
+    public synchronized void start() {
+        if (running) {
+            throw new IllegalStateException("kitchen already started");
+        }
+        running = true;
+        startedAtNanos = System.nanoTime();
+        for (KitchenStationQueue queue : queues.values()) {
+            for (int i = 1; i <= workersPerStation; i++) {
+                Thread worker = new Thread(() -> work(queue), "kitchen-" + queue.getStation() + "-" + i);
+                worker.setDaemon(true);
+                workers.add(worker);
+                worker.start();
+            }
+        }
+    }
+
+    public synchronized void shutdown() throws InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        workers.clear();
+    }
+
+    /**
+     * Sends a registered order (status CREATED) to the kitchen.
+     * Blocks while the station of one of its lines is full. If interrupted
+     * there, the lines already queued are still cooked but the order counts
+     * as a failure instead of going READY, so awaitIdle() does not wait for it.
+     */
+    public void submit(int orderId) throws InterruptedException {
+        if (!running) {
+            throw new IllegalStateException("kitchen is not running");
+        }
+        Order order = orderService.getOrder(orderId);
+        if (order.isEmpty()) {
+            throw new IllegalStateException("Order " + orderId + " has no dishes");
+        }
+        // Read the lines before the order becomes visible to workers
+        Collection<OrderItem> items = new ArrayList<>(order.getOrderItems());
+        kitchenService.submitOrderToKitchen(orderId);
+
+        outstandingOrders.incrementAndGet();
+        KitchenTicket.Progress progress = new KitchenTicket.Progress(orderId, items.size(), System.nanoTime());
+        int queued = 0;
+        try {
+            for (OrderItem item : items) {
+                KitchenTicket ticket = new KitchenTicket(item.getDish(), item.getQuantity(), progress);
+                queues.get(stationOf(item.getDish().getId())).put(ticket);
+                queued++;
+            }
+        } catch (InterruptedException e) {
+            if (progress.abandon(items.size() - queued)) {
+                finish(progress);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Merges the same dish across orders at one station.
+     * @param maxBatchSize     max portions cooked together (1 = no batching)
+     * @param batchWindowNanos how long a worker waits for more of the dish before cooking
+     */
+    public void setBatching(KitchenStation station, int maxBatchSize, long batchWindowNanos) {
+        if (station == null) {
+            throw new IllegalArgumentException("station cannot be null");
+        }
+        if (maxBatchSize <= 0 || batchWindowNanos < 0) {
+            throw new IllegalArgumentException("maxBatchSize must be positive and batchWindowNanos not negative");
+        }
+        queues.get(station).setBatching(maxBatchSize, batchWindowNanos);
+    }
+
+    public KitchenStation stationOf(int dishId) {
+        return stationByDishId.getOrDefault(dishId, defaultStation);
+    }
+
+    public int getQueueDepth(KitchenStation station) {
+        return queues.get(station).depth();
+    }
+
+    // Orders submitted but not READY yet.
+    public long getOutstandingOrders() {
+        return outstandingOrders.get();
+    }
+
+    public long getOrdersCompleted() {
+        return ordersCompleted.sum();
+    }
+
+    // Orders whose status could not be advanced (e.g. changed by someone else meanwhile)
+    // or whose submit was interrupted.
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    // Average real time from submit() to READY.
+    public double getAverageOrderMillis() {
+        long count = ordersCompleted.sum();
+        return count == 0 ? 0.0 : orderNanos.sum() / 1_000_000.0 / count;
+    }
+
+    public List<KitchenStationStats> getStationStats() {
+        long elapsed = running ? System.nanoTime() - startedAtNanos : 0;
+        List<KitchenStationStats> stats = new ArrayList<>();
+        for (KitchenStationQueue queue : queues.values()) {
+            stats.add(queue.stats(workersPerStation, elapsed));
+        }
+        return stats;
+    }
+
+    // Waits until every submitted order is READY (or failed), or the timeout passes.
+    public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (idleLock) {
+            while (outstandingOrders.get() > 0) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(idleLock, left);
+            }
+        }
+        return true;
+    }
+
+    private void work(KitchenStationQueue queue) {
+        while (running) {
+            List<KitchenTicket> batch;
+            try {
+                batch = queue.pollBatch(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (batch == null) {
+                    continue;
+                }
+                for (KitchenTicket ticket : batch) {
+                    if (ticket.progress.markStarted()) {
+                        advance(ticket.progress, false);
+                    }
+                }
+
+                long start = System.nanoTime();
+                cook(batch.get(0));
+                queue.recordCooked(batch.size(), System.nanoTime() - start);
+
+                for (KitchenTicket ticket : batch) {
+                    KitchenTicket.Progress progress = ticket.progress;
+                    if (progress.markTicketDone()) {
+                        finish(progress);
+                    }
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    // The last ticket of the order is done (or the rest were never queued).
+    private void finish(KitchenTicket.Progress progress) {
+        if (progress.isAbandoned()) {
+            failures.increment();
+        } else {
+            advance(progress, true);
+            orderNanos.add(System.nanoTime() - progress.submittedAtNanos);
+            ordersCompleted.increment();
+        }
+        orderFinished();
+    }
+
+    private void advance(KitchenTicket.Progress progress, boolean ready) {
+        try {
+            if (ready) {
+                kitchenService.orderIsReady(progress.orderId);
+            } else {
+                kitchenService.startPreparing(progress.orderId);
+            }
+        } catch (RuntimeException e) {
+            failures.increment();
+        }
+    }
+
+    private void cook(KitchenTicket ticket) throws InterruptedException {
+        long nanos = ticket.dish.getPrepTimeMinutes() * nanosPerPrepMinute;
+        if (nanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        }
+    }
+
+    private void orderFinished() {
+        if (outstandingOrders.decrementAndGet() == 0) {
+            synchronized (idleLock) {
+                idleLock.notifyAll();
+            }
+        }
+    }
+}
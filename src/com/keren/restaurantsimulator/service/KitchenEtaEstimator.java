@@ -0,0 +1,245 @@
+package com.keren.restaurantsimulator.service;
+
+import com.keren.restaurantsimulator.model.Order;
+import com.keren.restaurantsimulator.model.OrderItem;
+import com.keren.restaurantsimulator.util.IntObjectMap;
+
+import java.util.function.LongSupplier;
+
+/**
+ * KitchenEtaEstimator predicts when each order in the kitchen will be READY.
+ *
+ * Per order it keeps two numbers taken from the dishes' prep times:
+ * - load : sum of the line prep minutes, the cook time the order adds to the queue
+ * - span : the longest line, how long the order takes once it is being cooked
+ *
+ * Queue ahead of an order: the kitchen keeps running totals of the load ever
+ * submitted and the load ever started. An order remembers the submitted
+ * total when it arrived, so the load still waiting ahead of it is that
+ * number minus the started total, shared by `cooks` parallel cooks. Nothing
+ * is recomputed across the queue when an order moves.
+ *
+ * Calibration: prep minutes are nominal. Every IN_PREP -> READY transition
+ * adds (actual nanos, span minutes) to a sliding window of the last
+ * `window` orders; real nanos per prep minute = sum of actual / sum of span
+ * over the window (running sums, so also O(1)). The configured rate counts
+ * as PRIOR_MINUTES of evidence, so the first few orders cannot swing it.
+ *
+ * Every event (submitted / started / ready / forget) and every ETA query is
+ * O(1); a display refresh over all open orders is O(open orders).
+ * KitchenService feeds the events once set with setEtaEstimator().
+ * Methods are synchronized: KitchenEngine workers report from many threads.
+ *
+ * KitchenService reports each move after making it, so the events of one
+ * order can arrive out of order (a cook's start can overtake the waiter's
+ * submit). An order's entry collects submitted / started / ready in any
+ * order and is settled once it has all three; until it is submitted it has
+ * no ETA and does not count as open.
+ */
+public class KitchenEtaEstimator {
+
+    public interface EtaConsumer {
+        void accept(int orderId, long etaNanos);
+    }
+
+    private static final long NANOS_PER_MINUTE = 60_000_000_000L;
+    private static final long PRIOR_MINUTES = 30;
+
+    // One order in the kitchen, filled in by its events as they arrive
+    private static final class Entry {
+        boolean submitted;
+        boolean started;
+        boolean ready;
+        long load;
+        long span;
+        long loadAheadAtSubmit;
+        long startedAtNanos;
+        long readyAtNanos;
+    }
+
+    private final int cooks;
+    private final LongSupplier clock;
+    private final IntObjectMap<Entry> openOrders = new IntObjectMap<>();
+    private int numOfOpenOrders; // entries that are submitted
+    private long submittedLoad;  // prep minutes ever submitted
+    private long startedLoad;    // prep minutes ever taken out of the queue
+
+    // Sliding window of finished orders: actual prep nanos vs span minutes
+    private final long[] windowNanos;
+    private final long[] windowMinutes;
+    private int windowNext;
+    private int windowCount;
+    private long windowNanosSum;
+    private long windowMinutesSum;
+    private final long defaultNanosPerMinute;
+
+    public KitchenEtaEstimator(int cooks) {
+        this(cooks, NANOS_PER_MINUTE, 64, System::nanoTime);
+    }
+
+    /**
+     * @param cooks                tickets the kitchen works on at the same time
+     * @param nanosPerPrepMinute   real time of one prep minute until the window has data
+     * @param window               how many finished orders calibrate the estimate
+     * @param clock                nanosecond clock (System::nanoTime, or simulated time)
+     */
+    public KitchenEtaEstimator(int cooks, long nanosPerPrepMinute, int window, LongSupplier clock) {
+        if (cooks <= 0 || window <= 0) {
+            throw new IllegalArgumentException("cooks and window must be positive");
+        }
+        if (nanosPerPrepMinute <= 0) {
+            throw new IllegalArgumentException("nanosPerPrepMinute must be positive");
+        }
+        if (clock == null) {
+            throw new IllegalArgumentException("clock cannot be null");
+        }
+        this.cooks = cooks;
+        this.clock = clock;
+        this.defaultNanosPerMinute = nanosPerPrepMinute;
+        this.windowNanos = new long[window];
+        this.windowMinutes = new long[window];
+    }
+
+    // ---------------- Events ----------------
+
+    public synchronized void onSubmitted(int orderId, Order order) {
+        Entry entry = entryOf(orderId);
+        if (entry.submitted) {
+            return;
+        }
+        long load = 0;
+        long span = 0;
+        for (OrderItem item : order.getOrderItems()) {
+            int minutes = item.getDish().getPrepTimeMinutes();
+            load += minutes;
+            span = Math.max(span, minutes);
+        }
+        entry.submitted = true;
+        entry.load = load;
+        entry.span = span;
+        entry.loadAheadAtSubmit = submittedLoad;
+        submittedLoad += load;
+        if (entry.started) {
+            startedLoad += load; // its start came first
+        }
+        numOfOpenOrders++;
+        settle(orderId, entry);
+    }
+
+    public synchronized void onStarted(int orderId) {
+        Entry entry = entryOf(orderId);
+        if (entry.started) {
+            return;
+        }
+        entry.started = true;
+        entry.startedAtNanos = clock.getAsLong();
+        if (entry.submitted) {
+            startedLoad += entry.load;
+        }
+        settle(orderId, entry);
+    }
+
+    public synchronized void onReady(int orderId) {
+        Entry entry = entryOf(orderId);
+        if (entry.ready) {
+            return;
+        }
+        entry.ready = true;
+        entry.readyAtNanos = clock.getAsLong();
+        settle(orderId, entry);
+    }
+
+    // Stops tracking an order that left the kitchen some other way (removed, cancelled).
+    public synchronized void forget(int orderId) {
+        Entry entry = openOrders.remove(orderId);
+        if (entry == null || !entry.submitted) {
+            return;
+        }
+        numOfOpenOrders--;
+        if (!entry.started) {
+            startedLoad += entry.load; // it no longer holds up the orders behind it
+        }
+    }
+
+    private Entry entryOf(int orderId) {
+        Entry entry = openOrders.get(orderId);
+        if (entry == null) {
+            entry = new Entry();
+            openOrders.put(orderId, entry);
+        }
+        return entry;
+    }
+
+    // Once all three events are in, the order leaves and its prep time calibrates the rate.
+    private void settle(int orderId, Entry entry) {
+        if (!entry.submitted || !entry.started || !entry.ready) {
+            return;
+        }
+        openOrders.remove(orderId);
+        numOfOpenOrders--;
+        if (entry.span == 0) {
+            return;
+        }
+        long actual = Math.max(0, entry.readyAtNanos - entry.startedAtNanos); // 0 if the ready was reported first
+        if (windowCount == windowNanos.length) {
+            windowNanosSum -= windowNanos[windowNext];
+            windowMinutesSum -= windowMinutes[windowNext];
+        } else {
+            windowCount++;
+        }
+        windowNanos[windowNext] = actual;
+        windowMinutes[windowNext] = entry.span;
+        windowNanosSum += actual;
+        windowMinutesSum += entry.span;
+        windowNext = (windowNext + 1) % windowNanos.length;
+    }
+
+    // ---------------- Estimates ----------------
+
+    // Real nanoseconds one prep minute currently takes (calibrated by the window).
+    public synchronized long getNanosPerPrepMinute() {
+        return (windowNanosSum + defaultNanosPerMinute * PRIOR_MINUTES) / (windowMinutesSum + PRIOR_MINUTES);
+    }
+
+    public synchronized int getNumOfOpenOrders() {
+        return numOfOpenOrders;
+    }
+
+    /**
+     * Expected READY time of an order, on the estimator's clock, or -1 if the
+     * order is not in the kitchen. Never earlier than now.
+     */
+    public synchronized long getEtaNanos(int orderId) {
+        Entry entry = openOrders.get(orderId);
+        return entry == null || !entry.submitted ? -1 : eta(entry, clock.getAsLong(), getNanosPerPrepMinute());
+    }
+
+    // Nanoseconds until the order is expected READY, or -1 if it is not in the kitchen.
+    public synchronized long getRemainingNanos(int orderId) {
+        Entry entry = openOrders.get(orderId);
+        if (entry == null || !entry.submitted) {
+            return -1;
+        }
+        long now = clock.getAsLong();
+        return eta(entry, now, getNanosPerPrepMinute()) - now;
+    }
+
+    // Visits every open order with its ETA (e.g. to refresh a kitchen display).
+    public synchronized void forEachEta(EtaConsumer consumer) {
+        long now = clock.getAsLong();
+        long nanosPerMinute = getNanosPerPrepMinute();
+        openOrders.forEach((orderId, entry) -> {
+            if (entry.submitted) {
+                consumer.accept(orderId, eta(entry, now, nanosPerMinute));
+            }
+        });
+    }
+
+    private long eta(Entry entry, long now, long nanosPerMinute) {
+        if (entry.started) {
+            return Math.max(now, entry.startedAtNanos + entry.span * nanosPerMinute);
+        }
+        long waitingAhead = Math.max(0, entry.loadAheadAtSubmit - startedLoad);
+        return now + (waitingAhead * nanosPerMinute) / cooks + entry.span * nanosPerMinute;
+    }
+}
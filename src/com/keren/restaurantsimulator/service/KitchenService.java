@@ -1,12 +1,19 @@
 package com.keren.restaurantsimulator.service;
 
 import com.keren.restaurantsimulator.enums.OrderStatus;
+import com.keren.restaurantsimulator.enums.TableEvent;
 import com.keren.restaurantsimulator.exception.InvalidOrderStateException;
+import com.keren.restaurantsimulator.metrics.Metrics;
+import com.keren.restaurantsimulator.metrics.Operation;
 import com.keren.restaurantsimulator.model.Order;
+import com.keren.restaurantsimulator.persistence.Journal;
+import com.keren.restaurantsimulator.persistence.JournalRecordType;
 
 public class KitchenService {
 
     private final OrderService orderService;
+    private Journal journal = Journal.DISABLED;
+    private KitchenEtaEstimator etaEstimator; // null unless set
 
     public KitchenService(OrderService orderService) {
         if (orderService == null) {
@@ -15,40 +22,97 @@ public class KitchenService {
         this.orderService = orderService;
     }
 
+    // Records every state transition made through this service (off by default).
+    public void setJournal(Journal journal) {
+        if (journal == null) {
+            throw new IllegalArgumentException("journal cannot be null");
+        }
+        this.journal = journal;
+    }
+
+    // Feeds submit / start / ready transitions to an ETA estimator (off by default).
+    public void setEtaEstimator(KitchenEtaEstimator etaEstimator) {
+        if (etaEstimator == null) {
+            throw new IllegalArgumentException("etaEstimator cannot be null");
+        }
+        this.etaEstimator = etaEstimator;
+    }
+
+    public KitchenEtaEstimator getEtaEstimator() {
+        return etaEstimator;
+    }
+
+    OrderService getOrderService() {
+        return orderService;
+    }
+
     private Order getExistingOrder(int orderId) {
         return orderService.getOrder(orderId);
     }
 
-    private void requireStatus(Order order, OrderStatus... allowed) {
-        OrderStatus current = order.getStatus();
-        for (OrderStatus a : allowed) {
-            if (current == a) return;
-        }
-        throw new InvalidOrderStateException(
-                "Invalid order state: " + current + ". Allowed: " + java.util.Arrays.toString(allowed)
+    // Built only after a move was refused, so the happy path never formats a message.
+    private InvalidOrderStateException rejected(Order order, OrderStatus... allowed) {
+        return new InvalidOrderStateException(
+                "Invalid order state: " + order.getStatus() + ". Allowed: " + java.util.Arrays.toString(allowed)
         );
     }
 
     public void submitOrderToKitchen(int orderId) {
-        Order order = getExistingOrder(orderId);
-        requireStatus(order, OrderStatus.CREATED);
-        order.setStatus(OrderStatus.SUBMITTED);
+        long t0 = Metrics.start();
+        Order order = advance(orderId, TableEvent.SUBMIT, OrderStatus.CREATED, OrderStatus.SUBMITTED);
+        if (etaEstimator != null) {
+            etaEstimator.onSubmitted(orderId, order);
+        }
+        Metrics.record(Operation.SUBMIT_ORDER, t0);
     }
 
     public void startPreparing(int orderId) {
-        Order order = getExistingOrder(orderId);
-        requireStatus(order, OrderStatus.SUBMITTED);
-        order.setStatus(OrderStatus.IN_PREP);
+        long t0 = Metrics.start();
+        advance(orderId, TableEvent.START_PREP, OrderStatus.SUBMITTED, OrderStatus.IN_PREP);
+        if (etaEstimator != null) {
+            etaEstimator.onStarted(orderId);
+        }
+        Metrics.record(Operation.START_PREPARING, t0);
     }
 
     public void orderIsReady(int orderId) {
+        long t0 = Metrics.start();
+        advance(orderId, TableEvent.READY, OrderStatus.IN_PREP, OrderStatus.READY);
+        if (etaEstimator != null) {
+            etaEstimator.onReady(orderId);
+        }
+        Metrics.record(Operation.ORDER_READY, t0);
+    }
+
+    // Moves the order from `from` to `to`; journaled under the order's journal lock (see OrderService).
+    private Order advance(int orderId, TableEvent event, OrderStatus from, OrderStatus to) {
         Order order = getExistingOrder(orderId);
-        requireStatus(order, OrderStatus.IN_PREP);
-        order.setStatus(OrderStatus.READY);
+        if (journal == Journal.DISABLED) {
+            if (!order.tryAdvance(event)) {
+                throw rejected(order, from);
+            }
+            return order;
+        }
+        synchronized (OrderService.journalLock(order)) {
+            if (!order.tryAdvance(event)) {
+                throw rejected(order, from);
+            }
+            journal.append(JournalRecordType.ORDER_STATUS, orderId, to.ordinal(), 0);
+        }
+        return order;
     }
 
     public boolean removeDishFromOrder(int orderId, int dishId) {
         Order order = getExistingOrder(orderId);
-        return order.removeDish(dishId);
+        if (journal == Journal.DISABLED) {
+            return order.removeDish(dishId);
+        }
+        synchronized (OrderService.journalLock(order)) {
+            if (!order.removeDish(dishId)) {
+                return false;
+            }
+            journal.append(JournalRecordType.REMOVE_DISH, orderId, dishId, 0);
+            return true;
+        }
     }
 }
@@ -0,0 +1,167 @@
+package com.keren.restaurantsimulator.service;
+
+import com.keren.restaurantsimulator.enums.KitchenStation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded FIFO of tickets for one kitchen station.
+ * put() blocks while the station is full, which is how backpressure
+ * reaches KitchenEngine.submit() and the waiter thread calling it.
+ *
+ * With batching on (setBatching), pollBatch() takes the oldest ticket plus
+ * every waiting ticket of the same dish, up to maxBatchSize portions, and
+ * waits up to the batch window for more of that dish to arrive. Workers
+ * waiting in a window sleep on their own condition, so a ticket of another
+ * dish still wakes an idle worker.
+ */
+final class KitchenStationQueue {
+
+    private final KitchenStation station;
+    private final int capacity;
+    private final ArrayDeque<KitchenTicket> tickets;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Condition notFull = lock.newCondition();
+    private final Condition arrived = lock.newCondition(); // for workers filling a batch
+    private int maxDepth;
+    private int maxBatchSize = 1;   // portions; 1 = no batching
+    private long batchWindowNanos;
+
+    private final LongAdder ticketsCompleted = new LongAdder();
+    private final LongAdder batchesCooked = new LongAdder();
+    private final LongAdder busyNanos = new LongAdder();
+    private final LongAdder blockedSubmits = new LongAdder();
+    private final LongAdder blockedNanos = new LongAdder();
+
+    KitchenStationQueue(KitchenStation station, int capacity) {
+        this.station = station;
+        this.capacity = capacity;
+        this.tickets = new ArrayDeque<>(capacity);
+    }
+
+    KitchenStation getStation() {
+        return station;
+    }
+
+    void setBatching(int maxBatchSize, long batchWindowNanos) {
+        lock.lock();
+        try {
+            this.maxBatchSize = maxBatchSize;
+            this.batchWindowNanos = batchWindowNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void put(KitchenTicket ticket) throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            if (tickets.size() == capacity) {
+                long start = System.nanoTime();
+                blockedSubmits.increment();
+                while (tickets.size() == capacity) {
+                    notFull.await();
+                }
+                blockedNanos.add(System.nanoTime() - start);
+            }
+            tickets.addLast(ticket);
+            maxDepth = Math.max(maxDepth, tickets.size());
+            notEmpty.signal();
+            arrived.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits up to the timeout for a ticket and returns it together with the
+     * tickets of the same dish batched with it; returns null if none arrived.
+     */
+    List<KitchenTicket> pollBatch(long timeout, TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (tickets.isEmpty()) {
+                if (nanos <= 0) {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            KitchenTicket first = tickets.pollFirst();
+            notFull.signal(); // now, not after the batch window: a blocked put() may bring the next portion
+            List<KitchenTicket> batch = new ArrayList<>();
+            batch.add(first);
+            int portions = first.quantity;
+            if (maxBatchSize > 1) {
+                portions = takeSameDish(first.dish.getId(), batch, portions);
+                long window = batchWindowNanos;
+                while (portions < maxBatchSize && window > 0) {
+                    window = arrived.awaitNanos(window);
+                    portions = takeSameDish(first.dish.getId(), batch, portions);
+                }
+                if (!tickets.isEmpty()) {
+                    notEmpty.signal(); // we may have swallowed a wake-up meant for an idle worker
+                }
+            }
+            return batch;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Moves waiting tickets of the dish into the batch while they fit; returns the portions now in it.
+    // Wakes blocked producers right away for the freed slots.
+    private int takeSameDish(int dishId, List<KitchenTicket> batch, int portions) {
+        int before = batch.size();
+        Iterator<KitchenTicket> it = tickets.iterator();
+        while (it.hasNext() && portions < maxBatchSize) {
+            KitchenTicket ticket = it.next();
+            if (ticket.dish.getId() == dishId && portions + ticket.quantity <= maxBatchSize) {
+                it.remove();
+                batch.add(ticket);
+                portions += ticket.quantity;
+            }
+        }
+        if (batch.size() > before) {
+            notFull.signalAll();
+        }
+        return portions;
+    }
+
+    void recordCooked(int tickets, long nanos) {
+        ticketsCompleted.add(tickets);
+        batchesCooked.increment();
+        busyNanos.add(nanos);
+    }
+
+    int depth() {
+        lock.lock();
+        try {
+            return tickets.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    KitchenStationStats stats(int workers, long elapsedNanos) {
+        int depth;
+        int max;
+        lock.lock();
+        try {
+            depth = tickets.size();
+            max = maxDepth;
+        } finally {
+            lock.unlock();
+        }
+        return new KitchenStationStats(station, workers, capacity, depth, max,
+                ticketsCompleted.sum(), batchesCooked.sum(), busyNanos.sum(), blockedSubmits.sum(), blockedNanos.sum(), elapsedNanos);
+    }
+}
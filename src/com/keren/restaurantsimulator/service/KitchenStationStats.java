@@ -0,0 +1,81 @@
+package com.keren.restaurantsimulator.service;
+
+import com.keren.restaurantsimulator.enums.KitchenStation;
+
+/**
+ * Point-in-time numbers for one kitchen station.
+ * A station with utilization close to 1.0 and blocked submits is the
+ * kitchen's bottleneck.
+ */
+public class KitchenStationStats {
+
+    private final KitchenStation station;
+    private final int workers;
+    private final int queueCapacity;
+    private final int queueDepth;
+    private final int maxQueueDepth;
+    private final long ticketsCompleted;
+    private final long batchesCooked;
+    private final long busyNanos;
+    private final long blockedSubmits;
+    private final long blockedNanos;
+    private final long elapsedNanos;
+
+    KitchenStationStats(KitchenStation station, int workers, int queueCapacity, int queueDepth, int maxQueueDepth,
+                        long ticketsCompleted, long batchesCooked, long busyNanos, long blockedSubmits, long blockedNanos,
+                        long elapsedNanos) {
+        this.station = station;
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+        this.queueDepth = queueDepth;
+        this.maxQueueDepth = maxQueueDepth;
+        this.ticketsCompleted = ticketsCompleted;
+        this.batchesCooked = batchesCooked;
+        this.busyNanos = busyNanos;
+        this.blockedSubmits = blockedSubmits;
+        this.blockedNanos = blockedNanos;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public KitchenStation getStation() { return station; }
+    public int getWorkers() { return workers; }
+    public int getQueueCapacity() { return queueCapacity; }
+    public int getQueueDepth() { return queueDepth; }
+    public int getMaxQueueDepth() { return maxQueueDepth; }
+    public long getTicketsCompleted() { return ticketsCompleted; }
+    // Times the station cooked; equal to ticketsCompleted unless batching merged tickets.
+    public long getBatchesCooked() { return batchesCooked; }
+    // Number of put() calls that had to wait because the queue was full.
+    public long getBlockedSubmits() { return blockedSubmits; }
+    public long getBlockedNanos() { return blockedNanos; }
+
+    public double getTicketsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : ticketsCompleted * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    public double getAverageBatchSize() {
+        return batchesCooked == 0 ? 0.0 : (double) ticketsCompleted / batchesCooked;
+    }
+
+    // Share of the workers' time spent cooking (0.0 - 1.0).
+    public double getUtilization() {
+        long available = elapsedNanos * workers;
+        return available == 0 ? 0.0 : Math.min(1.0, (double) busyNanos / available);
+    }
+
+    @Override
+    public String toString() {
+        return "KitchenStationStats{" +
+                "station=" + station +
+                ", workers=" + workers +
+                ", queue=" + queueDepth + "/" + queueCapacity +
+                ", maxQueue=" + maxQueueDepth +
+                ", completed=" + ticketsCompleted +
+                ", avgBatch=" + String.format("%.2f", getAverageBatchSize()) +
+                ", ticketsPerSecond=" + String.format("%.1f", getTicketsPerSecond()) +
+                ", utilization=" + String.format("%.2f", getUtilization()) +
+                ", blockedSubmits=" + blockedSubmits +
+                ", blockedMs=" + String.format("%.1f", blockedNanos / 1_000_000.0) +
+                '}';
+    }
+}
@@ -0,0 +1,62 @@
+package com.keren.restaurantsimulator.service;
+
+import com.keren.restaurantsimulator.model.Dish;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * KitchenTicket is one order line waiting at (or cooked by) a kitchen station.
+ * All tickets of the same order share one Progress, which decides who moves
+ * the order to IN_PREP (first ticket started) and to READY (last ticket done).
+ */
+final class KitchenTicket {
+
+    final Dish dish;
+    final int quantity;
+    final Progress progress;
+
+    KitchenTicket(Dish dish, int quantity, Progress progress) {
+        this.dish = dish;
+        this.quantity = quantity;
+        this.progress = progress;
+    }
+
+    static final class Progress {
+        final int orderId;
+        final long submittedAtNanos;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final AtomicInteger remaining;
+        private volatile boolean abandoned;
+
+        Progress(int orderId, int tickets, long submittedAtNanos) {
+            this.orderId = orderId;
+            this.submittedAtNanos = submittedAtNanos;
+            this.remaining = new AtomicInteger(tickets);
+        }
+
+        // true only for the first ticket of the order that starts cooking
+        boolean markStarted() {
+            return !started.get() && started.compareAndSet(false, true);
+        }
+
+        // true only for the last ticket of the order that finishes
+        boolean markTicketDone() {
+            return remaining.decrementAndGet() == 0;
+        }
+
+        /**
+         * Gives up the tickets that were never queued (the submit was
+         * interrupted); the order then finishes as a failure. True if no
+         * queued ticket is left, so the caller finishes it.
+         */
+        boolean abandon(int unqueued) {
+            abandoned = true; // before the count, so whoever takes it to 0 sees it
+            return remaining.addAndGet(-unqueued) == 0;
+        }
+
+        boolean isAbandoned() {
+            return abandoned;
+        }
+    }
+}
@@ -0,0 +1,373 @@
+package com.keren.restaurantsimulator.service;
+
+import com.keren.restaurantsimulator.enums.OrderStatus;
+import com.keren.restaurantsimulator.model.ArchivedOrder;
+import com.keren.restaurantsimulator.model.Order;
+import com.keren.restaurantsimulator.model.OrderItem;
+import com.keren.restaurantsimulator.util.IntObjectMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * OrderArchive is the cold tier of an OrderService: closed orders squeezed
+ * into parallel primitive arrays instead of Order / OrderItem objects.
+ *
+ * An archived order costs one slot in each per-order column (id, table,
+ * status, close time, total, first line) plus 16 bytes per line (dish,
+ * quantity, unit price). Dish names are kept once in a small dictionary.
+ *
+ * Orders are appended in the order they close, so the oldest entry is always
+ * at the head. Eviction by count or age just moves the head forward; the
+ * freed prefix is reclaimed by shifting the arrays down once it is at least
+ * half of them. Lookups by id go through an open-addressing index from id to
+ * position that is rebuilt on every shift; stale slots are detected by
+ * checking the id at the position they point to.
+ *
+ * Methods are synchronized, so a concurrent OrderService can close orders
+ * from many threads.
+ */
+public class OrderArchive {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int REMOVED = 0; // order ids are positive
+
+    private final int maxOrders;
+    private final long maxAgeMillis;
+    private final LongSupplier clock;
+
+    // Per-order columns, live entries are [head, tail)
+    private int[] orderIds = new int[MIN_CAPACITY];
+    private int[] tableNumbers = new int[MIN_CAPACITY];
+    private byte[] statuses = new byte[MIN_CAPACITY];
+    private long[] closedAtMillis = new long[MIN_CAPACITY];
+    private long[] totalsMinor = new long[MIN_CAPACITY];
+    private int[] firstLine = new int[MIN_CAPACITY];
+    private int head;
+    private int tail;
+    private int size;      // live entries, not counting removed ones
+    private long evicted;
+
+    // Per-line columns, live lines are [lineHead, lineTail)
+    private int[] lineDish = new int[MIN_CAPACITY];   // dictionary slot
+    private int[] lineQuantity = new int[MIN_CAPACITY];
+    private long[] linePriceMinor = new long[MIN_CAPACITY];
+    private int lineHead;
+    private int lineTail;
+
+    // Dish dictionary: one slot per (dish id, name) seen so far
+    private final IntObjectMap<Integer> dictionarySlotByDishId = new IntObjectMap<>();
+    private int[] dictionaryDishIds = new int[MIN_CAPACITY];
+    private String[] dictionaryNames = new String[MIN_CAPACITY];
+    private int dictionarySize;
+
+    // id -> position + 1, 0 = empty slot. Insert-only between rebuilds.
+    private int[] index = new int[MIN_CAPACITY * 4];
+    private int indexUsed;
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    public OrderArchive(OrderRetention retention) {
+        if (retention == null) {
+            throw new IllegalArgumentException("retention cannot be null");
+        }
+        this.maxOrders = retention.getMaxArchivedOrders();
+        this.maxAgeMillis = retention.getMaxAgeMillis();
+        this.clock = retention.getClock();
+    }
+
+    // The limits it was created with (0 = none), e.g. to save them in a snapshot.
+    public int getMaxOrders() {
+        return maxOrders;
+    }
+
+    public long getMaxAgeMillis() {
+        return maxAgeMillis;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // Orders dropped by the count or age limit so far.
+    public synchronized long getNumOfEvicted() {
+        return evicted;
+    }
+
+    public synchronized boolean contains(int orderId) {
+        return positionOf(orderId) >= 0;
+    }
+
+    // Copies an order that closed at closedAtMillis into the archive, then applies the limits.
+    public synchronized void add(Order order, long closedAtMillis) {
+        if (order == null) {
+            throw new IllegalArgumentException("order cannot be null");
+        }
+        if (order.getId() <= 0) {
+            throw new IllegalArgumentException("Only registered orders can be archived");
+        }
+        makeRoom(order.getNumOfLines());
+        int pos = appendOrder(order.getId(), order.getTableNumber(), order.getStatus(), closedAtMillis,
+                order.getTotalPriceMinor());
+        for (OrderItem item : order.getOrderItems()) {
+            appendLine(item.getDish().getId(), item.getDish().getName(), item.getQuantity(), item.getUnitPriceMinor());
+        }
+        addToIndex(order.getId(), pos);
+        applyLimits();
+    }
+
+    /**
+     * Puts back an archived order saved by a snapshot, with its close time.
+     * Used when recovering state; not journaled. Orders must come back oldest first.
+     */
+    public synchronized void restore(ArchivedOrder order) {
+        if (order == null) {
+            throw new IllegalArgumentException("order cannot be null");
+        }
+        if (order.getId() <= 0 || positionOf(order.getId()) >= 0) {
+            throw new IllegalArgumentException("Order " + order.getId() + " cannot be restored");
+        }
+        int lines = order.getNumOfLines();
+        makeRoom(lines);
+        int pos = appendOrder(order.getId(), order.getTableNumber(), order.getStatus(), order.getClosedAtMillis(),
+                order.getTotalPriceMinor());
+        for (int i = 0; i < lines; i++) {
+            appendLine(order.getDishId(i), order.getDishName(i), order.getQuantity(i), order.getUnitPriceMinor(i));
+        }
+        addToIndex(order.getId(), pos);
+        applyLimits();
+    }
+
+    // Copies of every archived order, oldest first (for snapshots).
+    public synchronized List<ArchivedOrder> listOrders() {
+        List<ArchivedOrder> orders = new ArrayList<>(size);
+        for (int pos = head; pos < tail; pos++) {
+            if (orderIds[pos] != REMOVED) {
+                orders.add(get(orderIds[pos]));
+            }
+        }
+        return orders;
+    }
+
+    private int appendOrder(int orderId, int tableNumber, OrderStatus status, long closedAt, long totalMinor) {
+        int pos = tail++;
+        orderIds[pos] = orderId;
+        tableNumbers[pos] = tableNumber;
+        statuses[pos] = (byte) status.ordinal();
+        closedAtMillis[pos] = closedAt;
+        totalsMinor[pos] = totalMinor;
+        firstLine[pos] = lineTail;
+        size++;
+        return pos;
+    }
+
+    private void appendLine(int dishId, String dishName, int quantity, long unitPriceMinor) {
+        int line = lineTail++;
+        lineDish[line] = dictionarySlot(dishId, dishName);
+        lineQuantity[line] = quantity;
+        linePriceMinor[line] = unitPriceMinor;
+    }
+
+    private void applyLimits() {
+        if (maxOrders > 0) {
+            while (size > maxOrders) {
+                evictOldest();
+            }
+        }
+        evictExpired();
+    }
+
+    /**
+     * Drops every entry closed more than maxAgeMillis ago. add() does this
+     * too; call it directly when orders may go stale while none are closing.
+     * @return how many orders were dropped
+     */
+    public synchronized int evictExpired() {
+        if (maxAgeMillis <= 0) {
+            return 0;
+        }
+        long cutoff = clock.getAsLong() - maxAgeMillis;
+        int dropped = 0;
+        while (head < tail && closedAtMillis[head] < cutoff) {
+            if (orderIds[head] != REMOVED) {
+                dropped++;
+            }
+            evictOldest();
+        }
+        return dropped;
+    }
+
+    // Copy of an archived order, or null if it is not (or no longer) here.
+    public synchronized ArchivedOrder get(int orderId) {
+        int pos = positionOf(orderId);
+        if (pos < 0) {
+            return null;
+        }
+        int from = firstLine[pos];
+        int lines = lineEnd(pos) - from;
+        int[] dishIds = new int[lines];
+        String[] names = new String[lines];
+        int[] quantities = Arrays.copyOfRange(lineQuantity, from, from + lines);
+        long[] prices = Arrays.copyOfRange(linePriceMinor, from, from + lines);
+        for (int i = 0; i < lines; i++) {
+            int slot = lineDish[from + i];
+            dishIds[i] = dictionaryDishIds[slot];
+            names[i] = dictionaryNames[slot];
+        }
+        return new ArchivedOrder(orderId, tableNumbers[pos], STATUSES[statuses[pos]], closedAtMillis[pos],
+                totalsMinor[pos], dishIds, names, quantities, prices);
+    }
+
+    /**
+     * Forgets one archived order (OrderService.removeOrder on a closed order).
+     * Its slot stays behind as a hole until the head passes it.
+     */
+    public synchronized boolean remove(int orderId) {
+        int pos = positionOf(orderId);
+        if (pos < 0) {
+            return false;
+        }
+        orderIds[pos] = REMOVED;
+        size--;
+        return true;
+    }
+
+    // ---------------- Storage ----------------
+
+    private int lineEnd(int pos) {
+        return pos + 1 < tail ? firstLine[pos + 1] : lineTail;
+    }
+
+    private void evictOldest() {
+        if (orderIds[head] != REMOVED) {
+            size--;
+            evicted++;
+        }
+        head++;
+        lineHead = head < tail ? firstLine[head] : lineTail;
+    }
+
+    private int dictionarySlot(int dishId, String name) {
+        Integer slot = dictionarySlotByDishId.get(dishId);
+        if (slot != null && name.equals(dictionaryNames[slot])) {
+            return slot;
+        }
+        // New dish, or the dish was renamed: old lines keep the old name
+        if (dictionarySize == dictionaryNames.length) {
+            dictionaryDishIds = Arrays.copyOf(dictionaryDishIds, dictionarySize * 2);
+            dictionaryNames = Arrays.copyOf(dictionaryNames, dictionarySize * 2);
+        }
+        int newSlot = dictionarySize++;
+        dictionaryDishIds[newSlot] = dishId;
+        dictionaryNames[newSlot] = name;
+        dictionarySlotByDishId.put(dishId, newSlot);
+        return newSlot;
+    }
+
+    // Makes sure one more order with `lines` lines fits at the tail.
+    private void makeRoom(int lines) {
+        boolean ordersFull = tail == orderIds.length;
+        boolean linesFull = lineTail + lines > lineDish.length;
+        if (!ordersFull && !linesFull) {
+            return;
+        }
+        // Shift down only when the evicted prefix is at least half, so appends stay amortized O(1)
+        if (head * 2 >= tail || lineHead * 2 >= lineTail) {
+            shiftDown();
+        }
+        if (tail == orderIds.length) {
+            int capacity = orderIds.length * 2;
+            orderIds = Arrays.copyOf(orderIds, capacity);
+            tableNumbers = Arrays.copyOf(tableNumbers, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            closedAtMillis = Arrays.copyOf(closedAtMillis, capacity);
+            totalsMinor = Arrays.copyOf(totalsMinor, capacity);
+            firstLine = Arrays.copyOf(firstLine, capacity);
+        }
+        if (lineTail + lines > lineDish.length) {
+            int capacity = Math.max(lineDish.length * 2, lineTail + lines);
+            lineDish = Arrays.copyOf(lineDish, capacity);
+            lineQuantity = Arrays.copyOf(lineQuantity, capacity);
+            linePriceMinor = Arrays.copyOf(linePriceMinor, capacity);
+        }
+    }
+
+    private void shiftDown() {
+        int count = tail - head;
+        System.arraycopy(orderIds, head, orderIds, 0, count);
+        System.arraycopy(tableNumbers, head, tableNumbers, 0, count);
+        System.arraycopy(statuses, head, statuses, 0, count);
+        System.arraycopy(closedAtMillis, head, closedAtMillis, 0, count);
+        System.arraycopy(totalsMinor, head, totalsMinor, 0, count);
+        System.arraycopy(firstLine, head, firstLine, 0, count);
+        for (int i = 0; i < count; i++) {
+            firstLine[i] -= lineHead;
+        }
+        int lineCount = lineTail - lineHead;
+        System.arraycopy(lineDish, lineHead, lineDish, 0, lineCount);
+        System.arraycopy(lineQuantity, lineHead, lineQuantity, 0, lineCount);
+        System.arraycopy(linePriceMinor, lineHead, linePriceMinor, 0, lineCount);
+        head = 0;
+        tail = count;
+        lineHead = 0;
+        lineTail = lineCount;
+        rebuildIndex();
+    }
+
+    // ---------------- Index ----------------
+
+    private int positionOf(int orderId) {
+        if (orderId <= 0) {
+            return -1;
+        }
+        int mask = index.length - 1;
+        for (int slot = hash(orderId) & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+            int pos = index[slot] - 1;
+            if (pos >= head && pos < tail && orderIds[pos] == orderId) {
+                return pos;
+            }
+        }
+        return -1;
+    }
+
+    private void addToIndex(int orderId, int pos) {
+        if ((indexUsed + 1) * 2 > index.length) {
+            rebuildIndex(); // pos is already in place, so the rebuild picks it up
+            return;
+        }
+        insert(orderId, pos);
+    }
+
+    // Re-inserts the live entries only, dropping slots of evicted / removed orders.
+    private void rebuildIndex() {
+        int length = Integer.highestOneBit(Math.max(MIN_CAPACITY, size) * 4 - 1) << 1;
+        if (length == index.length) {
+            Arrays.fill(index, 0);
+        } else {
+            index = new int[length];
+        }
+        indexUsed = 0;
+        for (int pos = head; pos < tail; pos++) {
+            if (orderIds[pos] != REMOVED) {
+                insert(orderIds[pos], pos);
+            }
+        }
+    }
+
+    private void insert(int orderId, int pos) {
+        int mask = index.length - 1;
+        int slot = hash(orderId) & mask;
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = pos + 1;
+        indexUsed++;
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
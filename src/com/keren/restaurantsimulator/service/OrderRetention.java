@@ -0,0 +1,51 @@
+package com.keren.restaurantsimulator.service;
+
+import java.util.function.LongSupplier;
+
+/**
+ * OrderRetention says how long an OrderService keeps closed orders.
+ *
+ * Once set on a service, an order that reaches PAID or CANCELLED leaves the
+ * live tier and is compacted into the service's OrderArchive. The archive
+ * drops its oldest entries once it holds more than maxArchivedOrders, or once
+ * they were closed more than maxAgeMillis ago (0 = no limit for either).
+ *
+ * The clock stamps the close time; it defaults to the wall clock and can be
+ * swapped for simulated time.
+ *
+ * Setters return this: new OrderRetention().setMaxArchivedOrders(100_000)
+ */
+public class OrderRetention {
+
+    private int maxArchivedOrders = 0; // 0 = no count limit
+    private long maxAgeMillis = 0;     // 0 = no age limit
+    private LongSupplier clock = System::currentTimeMillis;
+
+    public int getMaxArchivedOrders() { return maxArchivedOrders; }
+    public long getMaxAgeMillis() { return maxAgeMillis; }
+    public LongSupplier getClock() { return clock; }
+
+    public OrderRetention setMaxArchivedOrders(int maxArchivedOrders) {
+        if (maxArchivedOrders < 0) {
+            throw new IllegalArgumentException("maxArchivedOrders cannot be negative");
+        }
+        this.maxArchivedOrders = maxArchivedOrders;
+        return this;
+    }
+
+    public OrderRetention setMaxAgeMillis(long maxAgeMillis) {
+        if (maxAgeMillis < 0) {
+            throw new IllegalArgumentException("maxAgeMillis cannot be negative");
+        }
+        this.maxAgeMillis = maxAgeMillis;
+        return this;
+    }
+
+    public OrderRetention setClock(LongSupplier clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("clock cannot be null");
+        }
+        this.clock = clock;
+        return this;
+    }
+}
@@ -1,49 +1,348 @@
 package com.keren.restaurantsimulator.service;
 
+import com.keren.restaurantsimulator.analytics.SalesLedger;
 import com.keren.restaurantsimulator.enums.OrderStatus;
+import com.keren.restaurantsimulator.metrics.Metrics;
+import com.keren.restaurantsimulator.metrics.Operation;
+import com.keren.restaurantsimulator.model.ArchivedOrder;
 import com.keren.restaurantsimulator.model.Order;
+import com.keren.restaurantsimulator.model.OrderStatusListener;
+import com.keren.restaurantsimulator.model.Table;
+import com.keren.restaurantsimulator.persistence.Journal;
+import com.keren.restaurantsimulator.persistence.JournalRecordType;
+import com.keren.restaurantsimulator.util.IntObjectMap;
+import com.keren.restaurantsimulator.util.StatusIndex;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
 
+/**
+ * OrderService registers orders and gives each one an order id.
+ *
+ * Two modes:
+ * - new OrderService()          : single-threaded, keeps insertion order.
+ *   Orders are kept in an IntObjectMap (no boxed ids).
+ * - OrderService.concurrent()   : safe for many waiter / kitchen threads.
+ *   Ids come from an atomic counter, orders live in a ConcurrentHashMap, and
+ *   listOrders()/getAllOrders() return weakly-consistent live views instead
+ *   of copying the whole map (no insertion order in this mode).
+ *
+ * Registered orders report their status changes back to the service, which
+ * keeps them partitioned by OrderStatus. Questions like "all READY orders"
+ * cost time proportional to the answer, not to the whole order history.
+ *
+ * By default closed orders stay in the service until removeOrder() is
+ * called. With setRetention() the service keeps two tiers instead: as soon
+ * as an order is PAID or CANCELLED it is copied into a compact OrderArchive
+ * and dropped from the live tier (and from listOrders / the status index),
+ * and the archive evicts by count or age. Archived orders can still be read
+ * with getArchivedOrder() for reprints and audits.
+ *
+ * With setSalesLedger() every order is also appended to a columnar
+ * SalesLedger the moment it becomes PAID, for end-of-day reports.
+ *
+ * A closing order is stamped once (the retention clock, else the wall clock)
+ * and the archive and the ledger get the same time. The stamp is journaled
+ * as ORDER_CLOSED, so a replayed payment keeps the time it was made at.
+ */
 public class OrderService {
 
-    private int nextOrderId = 1;
-    private final Map<Integer, Order> ordersById = new LinkedHashMap<>();
+    private final boolean concurrent;
+    private final AtomicInteger nextOrderId = new AtomicInteger(1);
+    // Exactly one of these is used, depending on the mode
+    private final IntObjectMap<Order> ordersById;
+    private final ConcurrentHashMap<Integer, Order> concurrentOrdersById;
+    private final StatusIndex<OrderStatus, Order> ordersByStatus;
+    private final OrderStatusListener statusListener = this::onOrderStatusChanged;
+    private Journal journal = Journal.DISABLED;
+    private volatile OrderArchive archive; // null = closed orders stay live
+    private volatile SalesLedger salesLedger; // null = no sales reporting
+    private volatile LongSupplier clock = System::currentTimeMillis; // stamps closing orders
+    // Close time from the journal for the next close of that order (replay only), see restoreCloseTime()
+    private volatile int replayedCloseOrderId;
+    private long replayedCloseMillis;
+
+    public OrderService() {
+        this(false);
+    }
+
+    private OrderService(boolean concurrent) {
+        this.concurrent = concurrent;
+        this.ordersById = concurrent ? null : new IntObjectMap<>();
+        this.concurrentOrdersById = concurrent ? new ConcurrentHashMap<>() : null;
+        this.ordersByStatus = new StatusIndex<>(OrderStatus.class, Order::getId, concurrent);
+    }
+
+    public static OrderService concurrent() {
+        return new OrderService(true);
+    }
+
+    // Records every state transition made through this service (off by default).
+    public void setJournal(Journal journal) {
+        if (journal == null) {
+            throw new IllegalArgumentException("journal cannot be null");
+        }
+        this.journal = journal;
+    }
+
+    /**
+     * Turns on the archive tier. Orders that are already closed stay live;
+     * every order closed from now on moves to the archive.
+     */
+    public void setRetention(OrderRetention retention) {
+        if (retention == null) {
+            throw new IllegalArgumentException("retention cannot be null");
+        }
+        if (archive != null) {
+            throw new IllegalStateException("Retention is already set");
+        }
+        this.archive = new OrderArchive(retention);
+        this.clock = retention.getClock();
+    }
+
+    // The archive tier, or null if retention was never set.
+    public OrderArchive getArchive() {
+        return archive;
+    }
+
+    // A closed order from the archive, or null if it is not archived (or was evicted).
+    public ArchivedOrder getArchivedOrder(int orderId) {
+        OrderArchive archive = this.archive;
+        return archive == null ? null : archive.get(orderId);
+    }
+
+    // Every order paid from now on is recorded in this ledger.
+    public void setSalesLedger(SalesLedger salesLedger) {
+        if (salesLedger == null) {
+            throw new IllegalArgumentException("salesLedger cannot be null");
+        }
+        this.salesLedger = salesLedger;
+    }
+
+    // The sales ledger, or null if none was set.
+    public SalesLedger getSalesLedger() {
+        return salesLedger;
+    }
+
+    public boolean isConcurrent() {
+        return concurrent;
+    }
 
     public int addOrder(Order order) {
+        long t0 = Metrics.start();
         if (order == null) {
             throw new IllegalArgumentException("order cannot be null");
         }
+        if (order.isRegistered()) {
+            throw new IllegalArgumentException("Order is already registered with id " + order.getId());
+        }
+        // Replay finds the order at its table; lines added on a loose Order are never journaled
+        if (journal != Journal.DISABLED && order.getTable() == null) {
+            throw new IllegalArgumentException("Only a table's current order can be journaled");
+        }
 
         // מוודאים מצב התחלה עקבי
         order.setStatus(OrderStatus.CREATED);
 
-        int id = nextOrderId++;
-        ordersById.put(id, order);
+        int id = nextOrderId.getAndIncrement();
+        if (journal == Journal.DISABLED) {
+            store(id, order);
+        } else {
+            // replay finds the order as its table's current one, so this is ordered with the table's records
+            synchronized (journalLock(order)) {
+                store(id, order);
+                journal.append(JournalRecordType.REGISTER_ORDER, id, order.getTableNumber(), 0);
+            }
+        }
+        Metrics.record(Operation.ADD_ORDER, t0);
         return id;
     }
 
+    /**
+     * The monitor a journaled change of the order holds while it makes the
+     * change and appends the record: its table's, shared with the table's own
+     * journaled moves, or the order's when it is not at a table. Records of
+     * one table therefore reach the journal in the order the changes happened.
+     */
+    static Object journalLock(Order order) {
+        Table table = order.getTable();
+        return table != null ? table : order;
+    }
+
+    /**
+     * Puts back an order under a known id, keeping its current status.
+     * Used when recovering state from a snapshot or journal; not journaled.
+     */
+    public void restoreOrder(int id, Order order) {
+        if (order == null) {
+            throw new IllegalArgumentException("order cannot be null");
+        }
+        if (id <= 0) {
+            throw new IllegalArgumentException("order id must be positive");
+        }
+        if (order.isRegistered()) {
+            throw new IllegalArgumentException("Order is already registered with id " + order.getId());
+        }
+        if ((concurrent ? concurrentOrdersById.containsKey(id) : ordersById.containsKey(id))) {
+            throw new IllegalArgumentException("Order " + id + " already exists");
+        }
+        store(id, order);
+        nextOrderId.accumulateAndGet(id + 1, Math::max);
+    }
+
+    // Next id addOrder() will hand out.
+    public int getNextOrderId() {
+        return nextOrderId.get();
+    }
+
+    // Used when recovering state; ids already handed out must never be reused.
+    public void setNextOrderId(int nextOrderId) {
+        if (nextOrderId <= 0) {
+            throw new IllegalArgumentException("nextOrderId must be positive");
+        }
+        this.nextOrderId.set(nextOrderId);
+    }
+
+    private void store(int id, Order order) {
+        order.register(id, statusListener);
+        ordersByStatus.add(order, order.getStatus());
+        if (concurrent) {
+            concurrentOrdersById.put(id, order);
+        } else {
+            ordersById.put(id, order);
+        }
+    }
+
     public int getNumOfOrders() {
-        return ordersById.size();
+        return concurrent ? concurrentOrdersById.size() : ordersById.size();
     }
 
     public Order getOrder(int orderId) {
-        Order order = ordersById.get(orderId);
+        long t0 = Metrics.start();
+        Order order = concurrent ? concurrentOrdersById.get(orderId) : ordersById.get(orderId);
         if (order == null) {
+            if (archive != null && archive.contains(orderId)) {
+                throw new IllegalArgumentException("Order " + orderId + " is closed and archived");
+            }
             throw new IllegalArgumentException("Order " + orderId + " not found");
         }
+        Metrics.record(Operation.GET_ORDER, t0);
         return order;
     }
 
     public void removeOrder(int orderId) {
-        Order removed = ordersById.remove(orderId);
-        if (removed == null) {
+        long t0 = Metrics.start();
+        if (journal == Journal.DISABLED) {
+            remove(orderId);
+        } else {
+            // an archived (or unknown) order is off its table, so no table's records to keep up with
+            Order order = concurrent ? concurrentOrdersById.get(orderId) : ordersById.get(orderId);
+            synchronized (order == null ? this : journalLock(order)) {
+                remove(orderId);
+                journal.append(JournalRecordType.REMOVE_ORDER, orderId, 0, 0);
+            }
+        }
+        Metrics.record(Operation.REMOVE_ORDER, t0);
+    }
+
+    private void remove(int orderId) {
+        Order removed = concurrent ? concurrentOrdersById.remove(orderId) : ordersById.remove(orderId);
+        if (removed != null) {
+            removed.unregister();
+            ordersByStatus.remove(removed, removed.getStatus());
+        } else if (archive == null || !archive.remove(orderId)) {
             throw new IllegalArgumentException("Order " + orderId + " not found");
         }
     }
 
+    // All orders currently in a status (read-only view), e.g. every READY order.
+    public Collection<Order> listOrdersByStatus(OrderStatus status) {
+        if (status == null) {
+            throw new IllegalArgumentException("status cannot be null");
+        }
+        return ordersByStatus.items(status);
+    }
+
+    public int countOrders(OrderStatus status) {
+        if (status == null) {
+            throw new IllegalArgumentException("status cannot be null");
+        }
+        return ordersByStatus.count(status);
+    }
+
+    /**
+     * The next time the order closes (PAID or CANCELLED) it is stamped with
+     * closedAtMillis instead of the clock. Used when replaying the journal
+     * (ORDER_CLOSED comes just before the record that closes the order);
+     * not journaled.
+     */
+    public void restoreCloseTime(int orderId, long closedAtMillis) {
+        this.replayedCloseMillis = closedAtMillis;
+        this.replayedCloseOrderId = orderId; // volatile write publishes the time
+    }
+
+    private void onOrderStatusChanged(Order order, OrderStatus oldStatus, OrderStatus newStatus) {
+        SalesLedger salesLedger = this.salesLedger;
+        OrderArchive archive = this.archive;
+        boolean closed = newStatus == OrderStatus.PAID || newStatus == OrderStatus.CANCELLED;
+        long closedAt = closed && (salesLedger != null || archive != null) ? closeTime(order) : 0;
+        if (salesLedger != null && newStatus == OrderStatus.PAID) {
+            salesLedger.record(order, closedAt);
+        }
+        if (archive != null && closed) {
+            moveToArchive(archive, order, oldStatus, closedAt);
+            return;
+        }
+        ordersByStatus.move(order, oldStatus, newStatus);
+    }
+
+    // Stamps a closing order: the journaled time when replaying, else the clock (and journals it).
+    private long closeTime(Order order) {
+        int id = order.getId();
+        long closedAt;
+        if (replayedCloseOrderId == id) {
+            closedAt = replayedCloseMillis;
+            replayedCloseOrderId = 0;
+        } else {
+            closedAt = clock.getAsLong();
+        }
+        journal.append(JournalRecordType.ORDER_CLOSED, id, (int) (closedAt >>> 32), (int) closedAt);
+        return closedAt;
+    }
+
+    // The order object itself stays usable by whoever holds it (e.g. the table until it is cleared).
+    private void moveToArchive(OrderArchive archive, Order order, OrderStatus oldStatus, long closedAt) {
+        int id = order.getId();
+        boolean removed = concurrent ? concurrentOrdersById.remove(id, order) : ordersById.remove(id) != null;
+        if (!removed) {
+            return;
+        }
+        ordersByStatus.remove(order, oldStatus);
+        order.unregister();
+        archive.add(order, closedAt);
+    }
+
+    // Read-only view of all live orders (weakly consistent in concurrent mode).
+    public Collection<Order> listOrders() {
+        return Collections.unmodifiableCollection(concurrent ? concurrentOrdersById.values() : ordersById.values());
+    }
+
+    /**
+     * Single-threaded mode returns a snapshot copy (in insertion order).
+     * Concurrent mode returns a read-only live view, so polling it does not
+     * copy every order on each call.
+     */
     public Map<Integer, Order> getAllOrders() {
-        return Map.copyOf(ordersById);
+        if (concurrent) {
+            return Collections.unmodifiableMap(concurrentOrdersById);
+        }
+        Map<Integer, Order> copy = new LinkedHashMap<>();
+        ordersById.forEach(copy::put);
+        return Collections.unmodifiableMap(copy);
     }
 }
@@ -0,0 +1,41 @@
+package com.keren.restaurantsimulator.service;
+
+import com.keren.restaurantsimulator.model.Money;
+
+import java.util.Arrays;
+
+/**
+ * SettlementResult is what BillingService.payAll() did: how many tables were
+ * settled, for how much, and which tables were skipped (unknown, not waiting
+ * for the bill, or listed twice).
+ */
+public class SettlementResult {
+
+    private final int settled;
+    private final long totalMinor;
+    private final int[] skippedTables;
+
+    public SettlementResult(int settled, long totalMinor, int[] skippedTables) {
+        if (skippedTables == null) {
+            throw new IllegalArgumentException("skippedTables cannot be null");
+        }
+        this.settled = settled;
+        this.totalMinor = totalMinor;
+        this.skippedTables = skippedTables;
+    }
+
+    public int getSettled() { return settled; }
+    public long getTotalMinor() { return totalMinor; }
+    public double getTotal() { return Money.toMajor(totalMinor); }
+    public int[] getSkippedTables() { return skippedTables.clone(); }
+    public int getNumOfSkipped() { return skippedTables.length; }
+
+    @Override
+    public String toString() {
+        return "SettlementResult{" +
+                "settled=" + settled +
+                ", total=" + getTotal() +
+                ", skipped=" + Arrays.toString(skippedTables) +
+                '}';
+    }
+}
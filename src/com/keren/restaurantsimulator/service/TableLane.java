@@ -0,0 +1,79 @@
+package com.keren.restaurantsimulator.service;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * TableLane runs the tasks of one table one at a time, in the order they were
+ * submitted, on a shared executor. Different lanes run independently.
+ *
+ * A lane is either idle or has exactly one drain task on the executor. The
+ * drain runs up to MAX_BATCH tasks and then re-submits itself, so one busy
+ * table cannot keep an executor thread forever. Handing tasks over under the
+ * lane's lock also makes each task see everything the previous one wrote,
+ * whichever thread runs it.
+ */
+final class TableLane implements Runnable {
+
+    private static final int MAX_BATCH = 64;
+
+    private final Executor executor;
+    private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+    private boolean scheduled;
+
+    TableLane(Executor executor) {
+        this.executor = executor;
+    }
+
+    void execute(Runnable task) {
+        synchronized (this) {
+            tasks.add(task);
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+        schedule();
+    }
+
+    @Override
+    public void run() {
+        for (int n = 0; n < MAX_BATCH; n++) {
+            Runnable task;
+            synchronized (this) {
+                task = tasks.poll();
+                if (task == null) {
+                    scheduled = false;
+                    return;
+                }
+            }
+            task.run(); // tasks complete their own futures and never throw
+        }
+        schedule(); // more work left: give other lanes a turn
+    }
+
+    private void schedule() {
+        try {
+            executor.execute(this);
+        } catch (RejectedExecutionException e) {
+            Runnable[] dropped;
+            synchronized (this) {
+                dropped = tasks.toArray(new Runnable[0]);
+                tasks.clear();
+                scheduled = false;
+            }
+            // The executor is shut down: fail the futures of the tasks that will never run
+            for (Runnable task : dropped) {
+                if (task instanceof Rejectable rejectable) {
+                    rejectable.reject(e);
+                }
+            }
+        }
+    }
+
+    // A task that can fail its future without running.
+    interface Rejectable {
+        void reject(Throwable cause);
+    }
+}
@@ -1,12 +1,39 @@
 package com.keren.restaurantsimulator.service;
 
 import com.keren.restaurantsimulator.enums.TableStatus;
+import com.keren.restaurantsimulator.exception.TableNotAvailableException;
+import com.keren.restaurantsimulator.metrics.Metrics;
+import com.keren.restaurantsimulator.metrics.Operation;
+import com.keren.restaurantsimulator.model.Dish;
+import com.keren.restaurantsimulator.model.Menu;
+import com.keren.restaurantsimulator.model.Order;
+import com.keren.restaurantsimulator.model.Reservation;
+import com.keren.restaurantsimulator.model.ReservationBook;
 import com.keren.restaurantsimulator.model.Restaurant;
 import com.keren.restaurantsimulator.model.Table;
+import com.keren.restaurantsimulator.persistence.Journal;
+import com.keren.restaurantsimulator.persistence.JournalRecordType;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Table workflows: seating, opening orders, adding dishes, menu prices.
+ *
+ * When a journal is set, each move and its record are made under the
+ * table's monitor (the one OrderService.journalLock() hands out for its
+ * order), so the records of one table are appended in the order the moves
+ * happened. A price change also waits for dishes being added right then,
+ * so a replayed ADD_DISH gets the price the live one got.
+ */
 public class TableService {
 
     private final Restaurant restaurant;
+    private Journal journal = Journal.DISABLED;
+    private final ReadWriteLock priceLock = new ReentrantReadWriteLock(); // only taken when journaled
 
     public TableService(Restaurant restaurant) {
         if (restaurant == null) {
@@ -15,6 +42,14 @@ public class TableService {
         this.restaurant = restaurant;
     }
 
+    // Records every state transition made through this service (off by default).
+    public void setJournal(Journal journal) {
+        if (journal == null) {
+            throw new IllegalArgumentException("journal cannot be null");
+        }
+        this.journal = journal;
+    }
+
     public void addTable(Table table) {
         restaurant.addTable(table);
     }
@@ -30,4 +65,162 @@ public class TableService {
     public int getNumOfTables() {
         return restaurant.size();
     }
+
+    public void seat(int tableNumber, int numOfCustomers) {
+        long t0 = Metrics.start();
+        seat(restaurant.getTableById(tableNumber), numOfCustomers);
+        Metrics.record(Operation.SEAT, t0);
+    }
+
+    private void seat(Table table, int numOfCustomers) {
+        if (journal == Journal.DISABLED) {
+            table.seat(numOfCustomers);
+            return;
+        }
+        synchronized (table) {
+            table.seat(numOfCustomers);
+            journal.append(JournalRecordType.SEAT, table.getTableNumber(), numOfCustomers, 0);
+        }
+    }
+
+    // Smallest FREE table that fits the party (empty if none fits right now).
+    public Optional<Table> findBestFitTable(int partySize) {
+        return restaurant.findBestFitFreeTable(partySize);
+    }
+
+    // Seats a walk-in party at the best-fit free table and returns it.
+    public Table seatBestFit(int partySize) {
+        long t0 = Metrics.start();
+        Table table = restaurant.findBestFitFreeTable(partySize)
+                .orElseThrow(() -> new TableNotAvailableException("No free table for " + partySize + " customers"));
+        seat(table, partySize);
+        Metrics.record(Operation.SEAT_BEST_FIT, t0);
+        return table;
+    }
+
+    // ---------------- Reservations ----------------
+
+    // Books the smallest table free for the whole stay (see ReservationBook.bookAny).
+    public Reservation reserve(int partySize, String guestName, long startMillis, long endMillis) {
+        Reservation r = requireReservationBook().bookAny(partySize, guestName, startMillis, endMillis);
+        journal.append(JournalRecordType.RESERVE, r.getTableNumber(), r.getPartySize(), r.getId(),
+                reservationPayload(r));
+        return r;
+    }
+
+    public boolean cancelReservation(int reservationId) {
+        boolean cancelled = requireReservationBook().cancel(reservationId);
+        if (cancelled) {
+            journal.append(JournalRecordType.CANCEL_RESERVATION, reservationId, 0, 0);
+        }
+        return cancelled;
+    }
+
+    // Seats a booked party at its table; journaled as a SEAT.
+    public Table checkIn(int reservationId) {
+        long t0 = Metrics.start();
+        ReservationBook book = requireReservationBook();
+        Optional<Reservation> reservation = book.getReservation(reservationId);
+        if (journal == Journal.DISABLED || reservation.isEmpty()) {
+            Table table = book.checkIn(reservationId); // throws for an unknown reservation
+            Metrics.record(Operation.SEAT, t0);
+            return table;
+        }
+        Table table = restaurant.getTableById(reservation.get().getTableNumber());
+        synchronized (table) {
+            book.checkIn(reservationId);
+            journal.append(JournalRecordType.SEAT, table.getTableNumber(), reservation.get().getPartySize(), 0);
+        }
+        Metrics.record(Operation.SEAT, t0);
+        return table;
+    }
+
+    private ReservationBook requireReservationBook() {
+        ReservationBook book = restaurant.getReservationBook();
+        if (book == null) {
+            throw new IllegalStateException("The restaurant does not take reservations");
+        }
+        return book;
+    }
+
+    // long start, long end, UTF-8 guest name
+    private static byte[] reservationPayload(Reservation r) {
+        byte[] name = r.getGuestName().getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(16 + name.length)
+                .putLong(r.getStartMillis()).putLong(r.getEndMillis()).put(name).array();
+    }
+
+    public int getNumOfFreeTables() {
+        return restaurant.getNumOfFreeTables();
+    }
+
+    public Order openOrder(int tableNumber) {
+        long t0 = Metrics.start();
+        Table table = restaurant.getTableById(tableNumber);
+        Order order;
+        if (journal == Journal.DISABLED) {
+            table.openNewOrder();
+            order = table.getOrder();
+        } else {
+            synchronized (table) {
+                table.openNewOrder();
+                order = table.getOrder();
+                journal.append(JournalRecordType.OPEN_ORDER, tableNumber, 0, 0);
+            }
+        }
+        Metrics.record(Operation.OPEN_ORDER, t0);
+        return order;
+    }
+
+    public Order getOrder(int tableNumber) {
+        Table table = restaurant.getTableById(tableNumber);
+        if (!table.hasOrder()) {
+            throw new IllegalStateException("Table " + tableNumber + " has no active order");
+        }
+        return table.getOrder();
+    }
+
+    // Adds a dish from the restaurant menu to the table's current order.
+    public Dish addDish(int tableNumber, int dishId, int quantity) {
+        long t0 = Metrics.start();
+        Dish dish;
+        if (journal == Journal.DISABLED) {
+            dish = restaurant.getMenu().getDishOrThrow(dishId);
+            getOrder(tableNumber).addDish(dish, quantity);
+        } else {
+            // the record names the table, so it must land before the table's next PAY / OPEN_ORDER
+            synchronized (restaurant.getTableById(tableNumber)) {
+                priceLock.readLock().lock();
+                try {
+                    dish = restaurant.getMenu().getDishOrThrow(dishId);
+                    getOrder(tableNumber).addDish(dish, quantity);
+                    journal.append(JournalRecordType.ADD_DISH, tableNumber, dishId, quantity);
+                } finally {
+                    priceLock.readLock().unlock();
+                }
+            }
+        }
+        Metrics.record(Operation.ADD_DISH, t0);
+        return dish;
+    }
+
+    /**
+     * Changes a dish's menu price. Journaled, so dishes added after the
+     * change are replayed at the new price. Lines already ordered keep theirs.
+     * @return the dish as it was before
+     */
+    public Dish changePrice(int dishId, long priceMinor) {
+        Menu menu = restaurant.getMenu();
+        if (journal == Journal.DISABLED) {
+            return menu.replaceDish(menu.getDishOrThrow(dishId).withPriceMinor(priceMinor));
+        }
+        priceLock.writeLock().lock();
+        try {
+            Dish old = menu.replaceDish(menu.getDishOrThrow(dishId).withPriceMinor(priceMinor));
+            journal.append(JournalRecordType.MENU_PRICE, dishId, (int) (priceMinor >>> 32), (int) priceMinor);
+            return old;
+        } finally {
+            priceLock.writeLock().unlock();
+        }
+    }
 }
@@ -0,0 +1,102 @@
+package com.keren.restaurantsimulator.simulation;
+
+import java.util.SplittableRandom;
+import java.util.function.LongToDoubleFunction;
+
+/**
+ * ArrivalProcess decides when the next party walks in.
+ *
+ * Three shapes are provided:
+ * - poisson(rate)                        : steady random arrivals
+ * - bursty(base, peak, period, peakLen)  : quiet periods with regular rush peaks (e.g. lunch)
+ * - replay(bucketSeconds, counts...)     : arrival counts per time bucket taken from a
+ *                                          recorded shift, repeated if the run is longer
+ *
+ * All of them are Poisson processes whose rate may change over time; the
+ * varying ones are sampled by thinning (draw at the peak rate, keep each
+ * candidate with probability rate(t) / peak). Times are nanoseconds since the
+ * start of the run, rates are parties per second.
+ */
+public final class ArrivalProcess {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final String description;
+    private final double maxRatePerSecond;
+    private final LongToDoubleFunction ratePerSecondAt; // null = constant maxRatePerSecond
+
+    private ArrivalProcess(String description, double maxRatePerSecond, LongToDoubleFunction ratePerSecondAt) {
+        if (!(maxRatePerSecond > 0)) {
+            throw new IllegalArgumentException("arrival rate must be positive");
+        }
+        this.description = description;
+        this.maxRatePerSecond = maxRatePerSecond;
+        this.ratePerSecondAt = ratePerSecondAt;
+    }
+
+    public static ArrivalProcess poisson(double partiesPerSecond) {
+        return new ArrivalProcess("poisson(" + partiesPerSecond + "/s)", partiesPerSecond, null);
+    }
+
+    /**
+     * Base rate most of the time, peak rate for the first peakSeconds of
+     * every periodSeconds.
+     */
+    public static ArrivalProcess bursty(double basePerSecond, double peakPerSecond, double periodSeconds, double peakSeconds) {
+        if (basePerSecond < 0 || peakPerSecond < basePerSecond) {
+            throw new IllegalArgumentException("rates must satisfy 0 <= base <= peak");
+        }
+        if (!(periodSeconds > 0) || peakSeconds < 0 || peakSeconds > periodSeconds) {
+            throw new IllegalArgumentException("peakSeconds must be between 0 and periodSeconds");
+        }
+        long periodNanos = (long) (periodSeconds * NANOS_PER_SECOND);
+        long peakNanos = (long) (peakSeconds * NANOS_PER_SECOND);
+        return new ArrivalProcess("bursty(" + basePerSecond + "/s, peak " + peakPerSecond + "/s)", peakPerSecond,
+                t -> t % periodNanos < peakNanos ? peakPerSecond : basePerSecond);
+    }
+
+    /**
+     * Replays a histogram of arrivals: countsPerBucket[i] parties arrive
+     * (at random times) during the i-th bucketSeconds of the run.
+     */
+    public static ArrivalProcess replay(double bucketSeconds, int... countsPerBucket) {
+        if (!(bucketSeconds > 0)) {
+            throw new IllegalArgumentException("bucketSeconds must be positive");
+        }
+        if (countsPerBucket == null || countsPerBucket.length == 0) {
+            throw new IllegalArgumentException("countsPerBucket cannot be empty");
+        }
+        int[] counts = countsPerBucket.clone();
+        int max = 0;
+        for (int count : counts) {
+            if (count < 0) {
+                throw new IllegalArgumentException("counts cannot be negative");
+            }
+            max = Math.max(max, count);
+        }
+        long bucketNanos = (long) (bucketSeconds * NANOS_PER_SECOND);
+        return new ArrivalProcess("replay(" + counts.length + " x " + bucketSeconds + "s)", max / bucketSeconds,
+                t -> counts[(int) ((t / bucketNanos) % counts.length)] / bucketSeconds);
+    }
+
+    // Time of the first arrival after nowNanos.
+    public long nextArrival(long nowNanos, SplittableRandom random) {
+        long t = nowNanos;
+        while (true) {
+            t += exponentialNanos(maxRatePerSecond, random);
+            if (ratePerSecondAt == null
+                    || random.nextDouble() * maxRatePerSecond < ratePerSecondAt.applyAsDouble(t)) {
+                return t;
+            }
+        }
+    }
+
+    private static long exponentialNanos(double ratePerSecond, SplittableRandom random) {
+        return Math.max(1L, (long) (-Math.log(1.0 - random.nextDouble()) / ratePerSecond * NANOS_PER_SECOND));
+    }
+
+    @Override
+    public String toString() {
+        return description;
+    }
+}
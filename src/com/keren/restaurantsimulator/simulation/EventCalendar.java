@@ -0,0 +1,97 @@
+package com.keren.restaurantsimulator.simulation;
+
+import com.keren.restaurantsimulator.enums.StepType;
+
+/**
+ * EventCalendar is the priority queue behind the simulation engine.
+ *
+ * Every event is packed into a single long (time, table index, step), so the
+ * calendar is just a binary min-heap over a long[] and scheduling an event
+ * does not allocate. Events with the same time come out ordered by table
+ * index and then by step.
+ */
+class EventCalendar {
+
+    private static final int STEP_BITS = 4;
+    private static final int TABLE_BITS = 28;
+    private static final long STEP_MASK = (1L << STEP_BITS) - 1;
+    private static final long TABLE_MASK = (1L << TABLE_BITS) - 1;
+    private static final StepType[] STEPS = StepType.values();
+
+    static final int MAX_TABLES = 1 << TABLE_BITS;
+
+    private long[] heap;
+    private int size;
+
+    EventCalendar(int initialCapacity) {
+        this.heap = new long[Math.max(16, initialCapacity)];
+    }
+
+    void schedule(int time, int tableIndex, StepType step) {
+        if (time < 0) {
+            throw new IllegalArgumentException("time cannot be negative");
+        }
+        if (size == heap.length) {
+            heap = java.util.Arrays.copyOf(heap, size * 2);
+        }
+        long event = ((long) time << (TABLE_BITS + STEP_BITS))
+                | ((long) tableIndex << STEP_BITS)
+                | step.ordinal();
+
+        // sift up
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            long p = heap[parent];
+            if (p <= event) break;
+            heap[i] = p;
+            i = parent;
+        }
+        heap[i] = event;
+    }
+
+    // Removes and returns the earliest event (use the static helpers to decode it).
+    long poll() {
+        if (size == 0) {
+            throw new IllegalStateException("calendar is empty");
+        }
+        long first = heap[0];
+        long last = heap[--size];
+
+        // sift down
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && heap[right] < heap[child]) {
+                child = right;
+            }
+            if (last <= heap[child]) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return first;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    static int timeOf(long event) {
+        return (int) (event >>> (TABLE_BITS + STEP_BITS));
+    }
+
+    static int tableIndexOf(long event) {
+        return (int) ((event >>> STEP_BITS) & TABLE_MASK);
+    }
+
+    static StepType stepOf(long event) {
+        return STEPS[(int) (event & STEP_MASK)];
+    }
+}
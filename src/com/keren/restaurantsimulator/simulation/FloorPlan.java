@@ -0,0 +1,108 @@
+package com.keren.restaurantsimulator.simulation;
+
+import com.keren.restaurantsimulator.model.Menu;
+import com.keren.restaurantsimulator.model.Restaurant;
+import com.keren.restaurantsimulator.model.Table;
+
+import java.util.Arrays;
+
+/**
+ * FloorPlan is an immutable list of table capacities (table i + 1 seats capacities[i]).
+ *
+ * It is only a definition: createRestaurant() builds fresh Table objects
+ * (tables hold state), so one plan can be shared by any number of parallel
+ * simulation replicas. What-if variations return a new plan:
+ * plan.removeTables(2, 4).addTables(1, 8) = swap two 4-tops for an 8-top.
+ */
+public final class FloorPlan {
+
+    private final int[] capacities;
+
+    private FloorPlan(int[] capacities) {
+        this.capacities = capacities;
+    }
+
+    public static FloorPlan of(int... capacities) {
+        if (capacities == null || capacities.length == 0) {
+            throw new IllegalArgumentException("a floor plan needs at least one table");
+        }
+        for (int capacity : capacities) {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("capacity must be positive");
+            }
+        }
+        return new FloorPlan(capacities.clone());
+    }
+
+    // Copies the capacities of an existing restaurant (in table order).
+    public static FloorPlan of(Restaurant restaurant) {
+        if (restaurant == null) {
+            throw new IllegalArgumentException("restaurant cannot be null");
+        }
+        return of(restaurant.listTables().stream().mapToInt(Table::getCapacity).toArray());
+    }
+
+    public int size() {
+        return capacities.length;
+    }
+
+    public int getCapacity(int index) {
+        return capacities[index];
+    }
+
+    public int getTotalSeats() {
+        int seats = 0;
+        for (int capacity : capacities) {
+            seats += capacity;
+        }
+        return seats;
+    }
+
+    public FloorPlan addTables(int count, int capacity) {
+        if (count <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("count and capacity must be positive");
+        }
+        int[] more = Arrays.copyOf(capacities, capacities.length + count);
+        Arrays.fill(more, capacities.length, more.length, capacity);
+        return new FloorPlan(more);
+    }
+
+    // Removes the last `count` tables with this capacity.
+    public FloorPlan removeTables(int count, int capacity) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be positive");
+        }
+        int[] kept = new int[capacities.length];
+        int n = 0;
+        int toRemove = count;
+        for (int i = capacities.length - 1; i >= 0; i--) {
+            if (toRemove > 0 && capacities[i] == capacity) {
+                toRemove--;
+            } else {
+                kept[n++] = capacities[i];
+            }
+        }
+        if (toRemove > 0) {
+            throw new IllegalArgumentException("floor plan has fewer than " + count + " tables of " + capacity);
+        }
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = kept[n - 1 - i];
+        }
+        return of(result);
+    }
+
+    // New restaurant with tables numbered 1..size(), sharing the given (read-only) menu.
+    public Restaurant createRestaurant(Menu menu) {
+        Restaurant restaurant = new Restaurant(menu);
+        for (int i = 0; i < capacities.length; i++) {
+            restaurant.addTable(new Table(i + 1, capacities[i]));
+        }
+        return restaurant;
+    }
+
+    @Override
+    public String toString() {
+        return "FloorPlan" + Arrays.toString(capacities);
+    }
+}
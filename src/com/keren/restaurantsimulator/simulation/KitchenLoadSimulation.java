@@ -0,0 +1,89 @@
+package com.keren.restaurantsimulator.simulation;
+
+import com.keren.restaurantsimulator.app.DemoData;
+import com.keren.restaurantsimulator.enums.KitchenStation;
+import com.keren.restaurantsimulator.model.Dish;
+import com.keren.restaurantsimulator.model.Menu;
+import com.keren.restaurantsimulator.model.Order;
+import com.keren.restaurantsimulator.service.KitchenEngine;
+import com.keren.restaurantsimulator.service.KitchenService;
+import com.keren.restaurantsimulator.service.KitchenStationStats;
+import com.keren.restaurantsimulator.service.OrderService;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes random demo orders through a KitchenEngine and prints how the
+ * stations coped: throughput, utilization, queue depth and how often the
+ * waiters were blocked by a full station.
+ *
+ * The same orders (same seed) run twice, first without batching and then
+ * with every station merging up to maxBatch portions of a dish, waiting up
+ * to batchWindowMicros for more, so the two lines show what batching does
+ * to throughput and order latency. maxBatch 1 skips the second run.
+ *
+ * Run: java com.keren.restaurantsimulator.simulation.KitchenLoadSimulation
+ *          [orders] [workersPerStation] [queueCapacity] [microsPerPrepMinute]
+ *          [maxBatch] [batchWindowMicros]
+ */
+public final class KitchenLoadSimulation {
+
+    private KitchenLoadSimulation() {}
+
+    public static void main(String[] args) throws InterruptedException {
+        int orders = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int workers = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int capacity = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        long microsPerPrepMinute = args.length > 3 ? Long.parseLong(args[3]) : 5;
+
+        int maxBatch = args.length > 4 ? Integer.parseInt(args[4]) : 8;
+        long batchWindowMicros = args.length > 5 ? Long.parseLong(args[5]) : 20;
+
+        run("unbatched", orders, workers, capacity, microsPerPrepMinute, 1, 0);
+        if (maxBatch > 1) {
+            run("batched", orders, workers, capacity, microsPerPrepMinute, maxBatch, batchWindowMicros);
+        }
+    }
+
+    private static void run(String label, int orders, int workers, int capacity, long microsPerPrepMinute,
+                            int maxBatch, long batchWindowMicros) throws InterruptedException {
+        Menu menu = DemoData.createDemoMenu();
+        Dish[] dishes = menu.listDishes().toArray(new Dish[0]);
+        OrderService orderService = OrderService.concurrent();
+        KitchenEngine kitchen = new KitchenEngine(new KitchenService(orderService), DemoData.createDemoStations(),
+                KitchenStation.GRILL, capacity, workers, microsPerPrepMinute * 1_000);
+        for (KitchenStation station : KitchenStation.values()) {
+            kitchen.setBatching(station, maxBatch, batchWindowMicros * 1_000);
+        }
+
+        SplittableRandom random = new SplittableRandom(42);
+        kitchen.start();
+        long start = System.nanoTime();
+        for (int i = 0; i < orders; i++) {
+            Order order = new Order();
+            int lines = 1 + random.nextInt(4);
+            for (int n = 0; n < lines; n++) {
+                order.addDish(dishes[random.nextInt(dishes.length)], 1 + random.nextInt(2));
+            }
+            kitchen.submit(orderService.addOrder(order));
+        }
+        if (!kitchen.awaitIdle(5, TimeUnit.MINUTES)) {
+            long outstanding = kitchen.getOutstandingOrders();
+            kitchen.shutdown();
+            throw new IllegalStateException(label + ": kitchen did not finish within 5 minutes, "
+                    + outstanding + " orders still outstanding");
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf("%s (maxBatch=%d, windowUs=%d): orders=%d  elapsedMs=%.1f  ordersPerSecond=%.0f  "
+                        + "avgOrderMs=%.2f  failures=%d%n",
+                label, maxBatch, batchWindowMicros, kitchen.getOrdersCompleted(), elapsed / 1_000_000.0,
+                kitchen.getOrdersCompleted() * 1_000_000_000.0 / elapsed,
+                kitchen.getAverageOrderMillis(), kitchen.getFailures());
+        for (KitchenStationStats stats : kitchen.getStationStats()) {
+            System.out.println("  " + stats);
+        }
+        kitchen.shutdown();
+    }
+}
@@ -0,0 +1,41 @@
+package com.keren.restaurantsimulator.simulation;
+
+/**
+ * MonteCarloResult merges the SimulationResults of all replicas of one
+ * Scenario: mean and 95% confidence interval of the revenue per day, the
+ * average table turn time and the average kitchen wait.
+ */
+public class MonteCarloResult {
+
+    private final String scenarioName;
+    private final RunningStats revenue;
+    private final RunningStats turnMinutes;
+    private final RunningStats kitchenWaitMinutes;
+    private final long elapsedNanos;
+
+    public MonteCarloResult(String scenarioName, RunningStats revenue, RunningStats turnMinutes,
+                            RunningStats kitchenWaitMinutes, long elapsedNanos) {
+        this.scenarioName = scenarioName;
+        this.revenue = revenue;
+        this.turnMinutes = turnMinutes;
+        this.kitchenWaitMinutes = kitchenWaitMinutes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public String getScenarioName() { return scenarioName; }
+    public long getReplicas() { return revenue.getCount(); }
+    public RunningStats getRevenue() { return revenue; }
+    public RunningStats getTurnMinutes() { return turnMinutes; }
+    public RunningStats getKitchenWaitMinutes() { return kitchenWaitMinutes; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    public double getReplicasPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : getReplicas() * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-24s replicas=%d revenue=%s turnMin=%s kitchenWaitMin=%s (%.0f replicas/s)",
+                scenarioName, getReplicas(), revenue, turnMinutes, kitchenWaitMinutes, getReplicasPerSecond());
+    }
+}
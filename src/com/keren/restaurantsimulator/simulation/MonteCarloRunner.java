@@ -0,0 +1,115 @@
+package com.keren.restaurantsimulator.simulation;
+
+import com.keren.restaurantsimulator.model.Menu;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * MonteCarloRunner answers what-if questions by running many independent
+ * SimulationEngine replicas of a Scenario in parallel and merging them into
+ * confidence intervals.
+ *
+ * Replicas are split across a ForkJoinPool (recursively halved down to small
+ * chunks, so idle workers can steal). Every replica builds its own Restaurant
+ * and services from the shared, immutable FloorPlan; the Menu and its dishes
+ * are shared read-only, never copied. The Menu must not be changed while a
+ * run is in progress.
+ *
+ * Replica i of a run uses seed baseSeed + i, so two scenarios run with the
+ * same base seed see the same random parties (common random numbers), which
+ * makes their difference much less noisy than the intervals suggest.
+ */
+public class MonteCarloRunner {
+
+    private static final int REPLICAS_PER_TASK = 4;
+
+    private final Menu menu;
+    private final ForkJoinPool pool;
+
+    public MonteCarloRunner(Menu menu) {
+        this(menu, ForkJoinPool.commonPool());
+    }
+
+    public MonteCarloRunner(Menu menu, ForkJoinPool pool) {
+        if (menu == null) {
+            throw new IllegalArgumentException("menu cannot be null");
+        }
+        if (pool == null) {
+            throw new IllegalArgumentException("pool cannot be null");
+        }
+        if (menu.size() == 0) {
+            throw new IllegalArgumentException("menu cannot be empty");
+        }
+        this.menu = menu;
+        this.pool = pool;
+    }
+
+    public MonteCarloResult run(Scenario scenario, int replicas, long baseSeed) {
+        if (scenario == null) {
+            throw new IllegalArgumentException("scenario cannot be null");
+        }
+        if (replicas <= 0) {
+            throw new IllegalArgumentException("replicas must be positive");
+        }
+        long start = System.nanoTime();
+        Partial total = pool.invoke(new ReplicaTask(scenario, baseSeed, 0, replicas));
+        long elapsed = System.nanoTime() - start;
+        return new MonteCarloResult(scenario.getName(), total.revenue, total.turnMinutes,
+                total.kitchenWaitMinutes, elapsed);
+    }
+
+    // Stats of a range of replicas, merged up the fork-join tree.
+    private static final class Partial {
+        final RunningStats revenue = new RunningStats();
+        final RunningStats turnMinutes = new RunningStats();
+        final RunningStats kitchenWaitMinutes = new RunningStats();
+
+        void add(SimulationResult result) {
+            revenue.add(result.getRevenue());
+            turnMinutes.add(result.getAverageTurnMinutes());
+            kitchenWaitMinutes.add(result.getAverageKitchenWaitMinutes());
+        }
+
+        Partial merge(Partial other) {
+            revenue.merge(other.revenue);
+            turnMinutes.merge(other.turnMinutes);
+            kitchenWaitMinutes.merge(other.kitchenWaitMinutes);
+            return this;
+        }
+    }
+
+    private final class ReplicaTask extends RecursiveTask<Partial> {
+        private static final long serialVersionUID = 1L;
+
+        private final Scenario scenario;
+        private final long baseSeed;
+        private final int from;
+        private final int to;
+
+        ReplicaTask(Scenario scenario, long baseSeed, int from, int to) {
+            this.scenario = scenario;
+            this.baseSeed = baseSeed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (to - from <= REPLICAS_PER_TASK) {
+                Partial partial = new Partial();
+                for (int i = from; i < to; i++) {
+                    SimulationEngine engine = new SimulationEngine(
+                            scenario.getFloorPlan().createRestaurant(menu), scenario.configForReplica(baseSeed + i));
+                    partial.add(engine.run());
+                }
+                return partial;
+            }
+            int mid = (from + to) >>> 1;
+            ReplicaTask left = new ReplicaTask(scenario, baseSeed, from, mid);
+            left.fork();
+            Partial right = new ReplicaTask(scenario, baseSeed, mid, to).compute();
+            return left.join().merge(right);
+        }
+    }
+}
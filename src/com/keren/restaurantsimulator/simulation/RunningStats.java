@@ -0,0 +1,63 @@
+package com.keren.restaurantsimulator.simulation;
+
+/**
+ * RunningStats keeps count, mean and variance of a stream of values
+ * (Welford's method) without storing them. Partial stats computed on
+ * different threads can be merged, so every replica result is added once
+ * and never kept in a list.
+ */
+public final class RunningStats {
+
+    private static final double Z_95 = 1.959964;
+
+    private long count;
+    private double mean;
+    private double sumSquaredDiffs;
+
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        sumSquaredDiffs += delta * (value - mean);
+    }
+
+    public void merge(RunningStats other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            sumSquaredDiffs = other.sumSquaredDiffs;
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        sumSquaredDiffs += other.sumSquaredDiffs + delta * delta * ((double) count * other.count / total);
+        count = total;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    // Sample standard deviation (0 for fewer than 2 values).
+    public double getStandardDeviation() {
+        return count < 2 ? 0.0 : Math.sqrt(sumSquaredDiffs / (count - 1));
+    }
+
+    // Half width of the 95% confidence interval of the mean (normal approximation).
+    public double getConfidenceHalfWidth95() {
+        return count < 2 ? 0.0 : Z_95 * getStandardDeviation() / Math.sqrt(count);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.2f +/- %.2f", mean, getConfidenceHalfWidth95());
+    }
+}
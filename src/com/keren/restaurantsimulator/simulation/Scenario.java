@@ -0,0 +1,36 @@
+package com.keren.restaurantsimulator.simulation;
+
+/**
+ * Scenario is one what-if to evaluate with MonteCarloRunner: a floor plan
+ * plus the simulation settings (prep time factor, cooks, ...). Every replica
+ * runs on a copy of the config with its own seed.
+ */
+public final class Scenario {
+
+    private final String name;
+    private final FloorPlan floorPlan;
+    private final SimulationConfig config;
+
+    public Scenario(String name, FloorPlan floorPlan, SimulationConfig config) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("name cannot be empty");
+        }
+        if (floorPlan == null) {
+            throw new IllegalArgumentException("floorPlan cannot be null");
+        }
+        if (config == null) {
+            throw new IllegalArgumentException("config cannot be null");
+        }
+        this.name = name;
+        this.floorPlan = floorPlan;
+        this.config = config.copy(); // later changes to the caller's config do not leak in
+    }
+
+    public String getName() { return name; }
+    public FloorPlan getFloorPlan() { return floorPlan; }
+
+    // Config for one replica (a fresh copy with the given seed).
+    SimulationConfig configForReplica(long seed) {
+        return config.copy().setSeed(seed);
+    }
+}
@@ -0,0 +1,121 @@
+package com.keren.restaurantsimulator.simulation;
+
+/**
+ * SimulationConfig holds the knobs of a headless simulation run.
+ *
+ * All durations are in simulated minutes. Kitchen prep time is not set here:
+ * it comes from Dish.getPrepTimeMinutes() of the ordered dishes, optionally
+ * scaled by prepTimeFactor.
+ *
+ * Setters return this, so a config can be built in one expression:
+ * new SimulationConfig().setSeed(7).setServiceMinutes(600)
+ */
+public class SimulationConfig {
+
+    private long seed = 42L;
+    private int serviceMinutes = 12 * 60;
+    private int orderingMinutes = 5;
+    private int maxDishesPerOrder = 4;
+    private int eatingMinutes = 35;
+    private int billingMinutes = 5;
+    private int clearingMinutes = 5;
+    private int maxIdleMinutes = 10;
+    private int kitchenCooks = 0; // 0 = unlimited
+    private double prepTimeFactor = 1.0;
+
+    public long getSeed() { return seed; }
+    public int getServiceMinutes() { return serviceMinutes; }
+    public int getOrderingMinutes() { return orderingMinutes; }
+    public int getMaxDishesPerOrder() { return maxDishesPerOrder; }
+    public int getEatingMinutes() { return eatingMinutes; }
+    public int getBillingMinutes() { return billingMinutes; }
+    public int getClearingMinutes() { return clearingMinutes; }
+    public int getMaxIdleMinutes() { return maxIdleMinutes; }
+    public int getKitchenCooks() { return kitchenCooks; }
+    public double getPrepTimeFactor() { return prepTimeFactor; }
+
+    // Independent copy, e.g. one per replica with its own seed.
+    public SimulationConfig copy() {
+        return new SimulationConfig()
+                .setSeed(seed)
+                .setServiceMinutes(serviceMinutes)
+                .setOrderingMinutes(orderingMinutes)
+                .setMaxDishesPerOrder(maxDishesPerOrder)
+                .setEatingMinutes(eatingMinutes)
+                .setBillingMinutes(billingMinutes)
+                .setClearingMinutes(clearingMinutes)
+                .setMaxIdleMinutes(maxIdleMinutes)
+                .setKitchenCooks(kitchenCooks)
+                .setPrepTimeFactor(prepTimeFactor);
+    }
+
+    public SimulationConfig setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    // Length of the service day. No new party is seated after this time.
+    public SimulationConfig setServiceMinutes(int serviceMinutes) {
+        this.serviceMinutes = requirePositive(serviceMinutes, "serviceMinutes");
+        return this;
+    }
+
+    public SimulationConfig setOrderingMinutes(int orderingMinutes) {
+        this.orderingMinutes = requireNotNegative(orderingMinutes, "orderingMinutes");
+        return this;
+    }
+
+    public SimulationConfig setMaxDishesPerOrder(int maxDishesPerOrder) {
+        this.maxDishesPerOrder = requirePositive(maxDishesPerOrder, "maxDishesPerOrder");
+        return this;
+    }
+
+    public SimulationConfig setEatingMinutes(int eatingMinutes) {
+        this.eatingMinutes = requireNotNegative(eatingMinutes, "eatingMinutes");
+        return this;
+    }
+
+    public SimulationConfig setBillingMinutes(int billingMinutes) {
+        this.billingMinutes = requireNotNegative(billingMinutes, "billingMinutes");
+        return this;
+    }
+
+    public SimulationConfig setClearingMinutes(int clearingMinutes) {
+        this.clearingMinutes = requireNotNegative(clearingMinutes, "clearingMinutes");
+        return this;
+    }
+
+    // A freed table waits a random 0..maxIdleMinutes before the next party arrives.
+    public SimulationConfig setMaxIdleMinutes(int maxIdleMinutes) {
+        this.maxIdleMinutes = requireNotNegative(maxIdleMinutes, "maxIdleMinutes");
+        return this;
+    }
+
+    // Number of orders the kitchen can prepare at the same time (0 = unlimited).
+    public SimulationConfig setKitchenCooks(int kitchenCooks) {
+        this.kitchenCooks = requireNotNegative(kitchenCooks, "kitchenCooks");
+        return this;
+    }
+
+    public SimulationConfig setPrepTimeFactor(double prepTimeFactor) {
+        if (!(prepTimeFactor > 0)) {
+            throw new IllegalArgumentException("prepTimeFactor must be positive");
+        }
+        this.prepTimeFactor = prepTimeFactor;
+        return this;
+    }
+
+    private static int requirePositive(int value, String name) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive");
+        }
+        return value;
+    }
+
+    private static int requireNotNegative(int value, String name) {
+        if (value < 0) {
+            throw new IllegalArgumentException(name + " cannot be negative");
+        }
+        return value;
+    }
+}
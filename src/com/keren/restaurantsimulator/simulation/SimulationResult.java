@@ -0,0 +1,65 @@
+package com.keren.restaurantsimulator.simulation;
+
+import com.keren.restaurantsimulator.model.Money;
+
+/**
+ * SimulationResult is the summary of one headless simulation run.
+ */
+public class SimulationResult {
+
+    private final long tableTurns;
+    private final long events;
+    private final long revenueMinor;
+    private final int simulatedMinutes;
+    private final long totalTurnMinutes;
+    private final long totalKitchenWaitMinutes;
+    private final long elapsedNanos;
+
+    public SimulationResult(long tableTurns, long events, long revenueMinor, int simulatedMinutes,
+                            long totalTurnMinutes, long totalKitchenWaitMinutes, long elapsedNanos) {
+        this.tableTurns = tableTurns;
+        this.events = events;
+        this.revenueMinor = revenueMinor;
+        this.simulatedMinutes = simulatedMinutes;
+        this.totalTurnMinutes = totalTurnMinutes;
+        this.totalKitchenWaitMinutes = totalKitchenWaitMinutes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    // Number of parties that went all the way from SEAT_CUSTOMERS to CLEAR_TABLE.
+    public long getTableTurns() { return tableTurns; }
+    public long getEvents() { return events; }
+    public double getRevenue() { return Money.toMajor(revenueMinor); }
+    public long getRevenueMinor() { return revenueMinor; }
+    // Simulated time of the last processed event.
+    public int getSimulatedMinutes() { return simulatedMinutes; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    // Average minutes from seating a party until its table is cleared.
+    public double getAverageTurnMinutes() {
+        return tableTurns == 0 ? 0.0 : (double) totalTurnMinutes / tableTurns;
+    }
+
+    // Average minutes a submitted order waited for a free cook.
+    public double getAverageKitchenWaitMinutes() {
+        return tableTurns == 0 ? 0.0 : (double) totalKitchenWaitMinutes / tableTurns;
+    }
+
+    public double getTurnsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : tableTurns * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "SimulationResult{" +
+                "tableTurns=" + tableTurns +
+                ", events=" + events +
+                ", revenue=" + String.format("%.2f", getRevenue()) +
+                ", simulatedMinutes=" + simulatedMinutes +
+                ", avgTurnMinutes=" + String.format("%.1f", getAverageTurnMinutes()) +
+                ", avgKitchenWaitMinutes=" + String.format("%.1f", getAverageKitchenWaitMinutes()) +
+                ", elapsedMs=" + String.format("%.1f", elapsedNanos / 1_000_000.0) +
+                ", turnsPerSecond=" + String.format("%.0f", getTurnsPerSecond()) +
+                '}';
+    }
+}
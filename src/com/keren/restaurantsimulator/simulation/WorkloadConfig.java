@@ -0,0 +1,118 @@
+package com.keren.restaurantsimulator.simulation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * WorkloadConfig holds the knobs of a WorkloadGenerator run.
+ *
+ * Times are in seconds of workload time. In paced mode workload time is
+ * wall-clock time (the generator waits for every arrival); in open-loop mode
+ * the same timeline is replayed as fast as possible.
+ *
+ * Setters return this, like SimulationConfig:
+ * new WorkloadConfig().setArrivals(ArrivalProcess.poisson(200)).setDurationSeconds(30)
+ */
+public class WorkloadConfig {
+
+    private long seed = 42L;
+    private ArrivalProcess arrivals = ArrivalProcess.poisson(50);
+    private double durationSeconds = 10;
+    private boolean paced = true;
+    // partySizeWeights[k] = relative frequency of a party of k + 1 guests
+    private double[] partySizeWeights = {0.10, 0.40, 0.15, 0.20, 0.05, 0.05, 0.03, 0.02};
+    private final Map<Integer, Double> dishWeights = new LinkedHashMap<>(); // empty = every dish equally likely
+    private int maxDishesPerGuest = 2;
+    private double meanStaySeconds = 0.5;
+
+    public long getSeed() { return seed; }
+    public ArrivalProcess getArrivals() { return arrivals; }
+    public double getDurationSeconds() { return durationSeconds; }
+    public boolean isPaced() { return paced; }
+    public double[] getPartySizeWeights() { return partySizeWeights.clone(); }
+    public Map<Integer, Double> getDishWeights() { return new LinkedHashMap<>(dishWeights); }
+    public int getMaxDishesPerGuest() { return maxDishesPerGuest; }
+    public double getMeanStaySeconds() { return meanStaySeconds; }
+
+    public WorkloadConfig setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public WorkloadConfig setArrivals(ArrivalProcess arrivals) {
+        if (arrivals == null) {
+            throw new IllegalArgumentException("arrivals cannot be null");
+        }
+        this.arrivals = arrivals;
+        return this;
+    }
+
+    // No party arrives after this much workload time; seated parties still finish.
+    public WorkloadConfig setDurationSeconds(double durationSeconds) {
+        this.durationSeconds = requirePositive(durationSeconds, "durationSeconds");
+        return this;
+    }
+
+    // true = follow the arrival timeline in real time (target rate), false = open-loop, as fast as possible.
+    public WorkloadConfig setPaced(boolean paced) {
+        this.paced = paced;
+        return this;
+    }
+
+    /**
+     * Relative frequency of each party size, starting with parties of one.
+     * e.g. setPartySizeWeights(1, 4, 1) = mostly couples, some singles and trios.
+     */
+    public WorkloadConfig setPartySizeWeights(double... weights) {
+        this.partySizeWeights = requireWeights(weights).clone();
+        return this;
+    }
+
+    // Makes a dish more (or less) popular; dishes without a weight are not ordered once any weight is set.
+    public WorkloadConfig setDishWeight(int dishId, double weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight cannot be negative");
+        }
+        dishWeights.put(dishId, weight);
+        return this;
+    }
+
+    // Every guest orders 1..maxDishesPerGuest dishes.
+    public WorkloadConfig setMaxDishesPerGuest(int maxDishesPerGuest) {
+        if (maxDishesPerGuest <= 0) {
+            throw new IllegalArgumentException("maxDishesPerGuest must be positive");
+        }
+        this.maxDishesPerGuest = maxDishesPerGuest;
+        return this;
+    }
+
+    // Parties keep their table for an exponentially distributed time with this mean.
+    public WorkloadConfig setMeanStaySeconds(double meanStaySeconds) {
+        this.meanStaySeconds = requirePositive(meanStaySeconds, "meanStaySeconds");
+        return this;
+    }
+
+    private static double requirePositive(double value, String name) {
+        if (!(value > 0)) {
+            throw new IllegalArgumentException(name + " must be positive");
+        }
+        return value;
+    }
+
+    private static double[] requireWeights(double[] weights) {
+        if (weights == null || weights.length == 0) {
+            throw new IllegalArgumentException("weights cannot be empty");
+        }
+        double sum = 0;
+        for (double w : weights) {
+            if (w < 0) {
+                throw new IllegalArgumentException("weights cannot be negative");
+            }
+            sum += w;
+        }
+        if (!(sum > 0)) {
+            throw new IllegalArgumentException("at least one weight must be positive");
+        }
+        return weights;
+    }
+}
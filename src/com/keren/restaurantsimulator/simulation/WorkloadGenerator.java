@@ -0,0 +1,265 @@
+package com.keren.restaurantsimulator.simulation;
+
+import com.keren.restaurantsimulator.metrics.LatencyHistogram;
+import com.keren.restaurantsimulator.model.Dish;
+import com.keren.restaurantsimulator.model.Restaurant;
+import com.keren.restaurantsimulator.model.Table;
+import com.keren.restaurantsimulator.service.BillingService;
+import com.keren.restaurantsimulator.service.KitchenService;
+import com.keren.restaurantsimulator.service.OrderService;
+import com.keren.restaurantsimulator.service.TableService;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * WorkloadGenerator drives the services with synthetic parties.
+ *
+ * Parties arrive according to an ArrivalProcess, with a size drawn from the
+ * party-size weights. Each party is seated at the best-fit free table (or
+ * rejected if none fits), orders dishes sampled from the Menu (optionally
+ * weighted), and the order goes straight through the kitchen to SERVED.
+ * After an exponentially distributed stay the party asks for the bill, pays,
+ * and its order is removed.
+ *
+ * Kitchen timing is not modeled here (see SimulationEngine / KitchenEngine);
+ * the point is to push many real service calls and measure them.
+ *
+ * In paced mode arrivals and departures happen at their planned wall-clock
+ * times (a target rate). In open-loop mode the same timeline is run back to
+ * back as fast as possible. A generator works on its own Restaurant (all
+ * tables FREE) and is meant to be run once.
+ */
+public class WorkloadGenerator {
+
+    private static final long SPIN_THRESHOLD_NANOS = 100_000;
+
+    private final WorkloadConfig config;
+    private final TableService tableService;
+    private final OrderService orderService;
+    private final KitchenService kitchenService;
+    private final BillingService billingService;
+    private final SplittableRandom random;
+
+    private final double[] partySizeCumulative;
+    private final int[] dishIds;
+    private final double[] dishCumulative;
+
+    // Departures: binary min-heap of (time, table number)
+    private long[] departAt = new long[64];
+    private int[] departTable = new int[64];
+    private int departures;
+
+    private long serviceCalls;
+    private boolean finished;
+
+    public WorkloadGenerator(Restaurant restaurant, WorkloadConfig config) {
+        if (restaurant == null) {
+            throw new IllegalArgumentException("restaurant cannot be null");
+        }
+        if (config == null) {
+            throw new IllegalArgumentException("config cannot be null");
+        }
+        if (restaurant.getMenu().size() == 0) {
+            throw new IllegalArgumentException("menu cannot be empty");
+        }
+        this.config = config;
+        this.tableService = new TableService(restaurant);
+        this.orderService = new OrderService();
+        this.kitchenService = new KitchenService(orderService);
+        this.billingService = new BillingService(restaurant);
+        this.random = new SplittableRandom(config.getSeed());
+
+        this.partySizeCumulative = cumulative(config.getPartySizeWeights());
+
+        Dish[] dishes = restaurant.getMenu().listDishes().toArray(new Dish[0]);
+        Map<Integer, Double> weights = config.getDishWeights();
+        for (int dishId : weights.keySet()) {
+            restaurant.getMenu().getDishOrThrow(dishId);
+        }
+        this.dishIds = new int[dishes.length];
+        double[] dishWeights = new double[dishes.length];
+        for (int i = 0; i < dishes.length; i++) {
+            dishIds[i] = dishes[i].getId();
+            dishWeights[i] = weights.isEmpty() ? 1.0 : weights.getOrDefault(dishes[i].getId(), 0.0);
+        }
+        this.dishCumulative = cumulative(dishWeights);
+        if (!(dishCumulative[dishCumulative.length - 1] > 0)) {
+            throw new IllegalArgumentException("at least one dish weight must be positive");
+        }
+    }
+
+    public WorkloadResult run() {
+        if (finished) {
+            throw new IllegalStateException("workload already ran");
+        }
+        finished = true;
+
+        boolean paced = config.isPaced();
+        long durationNanos = (long) (config.getDurationSeconds() * 1_000_000_000.0);
+        LatencyHistogram arrivalService = new LatencyHistogram();
+        LatencyHistogram departureService = new LatencyHistogram();
+        LatencyHistogram arrivalResponse = new LatencyHistogram();
+        long arrivals = 0;
+        long rejected = 0;
+        long arrivalPhaseNanos = 0;
+
+        long nextArrival = config.getArrivals().nextArrival(0, random);
+        long start = System.nanoTime();
+        while (nextArrival <= durationNanos || departures > 0) {
+            boolean isArrival = nextArrival <= durationNanos && (departures == 0 || nextArrival <= departAt[0]);
+            long due = isArrival ? nextArrival : departAt[0];
+            if (paced) {
+                waitUntil(start + due);
+            }
+
+            long t0 = System.nanoTime();
+            if (isArrival) {
+                arrivals++;
+                if (!arrive(due)) {
+                    rejected++;
+                }
+                long t1 = System.nanoTime();
+                arrivalService.record(t1 - t0);
+                if (paced) {
+                    arrivalResponse.record(t1 - (start + due));
+                }
+                arrivalPhaseNanos = t1 - start;
+                nextArrival = config.getArrivals().nextArrival(nextArrival, random);
+            } else {
+                depart(pollDeparture());
+                departureService.record(System.nanoTime() - t0);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        return new WorkloadResult(paced, arrivals, rejected, serviceCalls, billingService.getRevenueMinor(),
+                durationNanos, arrivalPhaseNanos, elapsed, arrivalService, departureService, arrivalResponse);
+    }
+
+    // Seats, orders and serves one party. Returns false if no table fits.
+    private boolean arrive(long now) {
+        int partySize = 1 + pick(partySizeCumulative, random.nextDouble() * partySizeCumulative[partySizeCumulative.length - 1]);
+        Optional<Table> table = tableService.findBestFitTable(partySize);
+        serviceCalls++;
+        if (table.isEmpty()) {
+            return false;
+        }
+        int tableNumber = table.get().getTableNumber();
+        tableService.seat(tableNumber, partySize);
+        tableService.openOrder(tableNumber);
+        serviceCalls += 2;
+
+        double totalWeight = dishCumulative[dishCumulative.length - 1];
+        for (int guest = 0; guest < partySize; guest++) {
+            int dishes = 1 + random.nextInt(config.getMaxDishesPerGuest());
+            for (int d = 0; d < dishes; d++) {
+                tableService.addDish(tableNumber, dishIds[pick(dishCumulative, random.nextDouble() * totalWeight)], 1);
+                serviceCalls++;
+            }
+        }
+
+        int orderId = orderService.addOrder(tableService.getOrder(tableNumber));
+        kitchenService.submitOrderToKitchen(orderId);
+        kitchenService.startPreparing(orderId);
+        kitchenService.orderIsReady(orderId);
+        billingService.markServed(tableNumber);
+        serviceCalls += 5;
+
+        double staySeconds = -Math.log(1.0 - random.nextDouble()) * config.getMeanStaySeconds();
+        pushDeparture(now + Math.max(1L, (long) (staySeconds * 1_000_000_000.0)), tableNumber);
+        return true;
+    }
+
+    private void depart(int tableNumber) {
+        int orderId = tableService.getOrder(tableNumber).getId();
+        billingService.requestBill(tableNumber);
+        billingService.pay(tableNumber);
+        orderService.removeOrder(orderId);
+        serviceCalls += 3;
+    }
+
+    private static void waitUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            if (remaining > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS / 2);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private static double[] cumulative(double[] weights) {
+        double[] cumulative = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cumulative[i] = sum;
+        }
+        return cumulative;
+    }
+
+    // First index whose cumulative weight is above x (skips zero-weight entries).
+    private static int pick(double[] cumulative, double x) {
+        int lo = 0;
+        int hi = cumulative.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (cumulative[mid] > x) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    private void pushDeparture(long time, int tableNumber) {
+        if (departures == departAt.length) {
+            departAt = Arrays.copyOf(departAt, departures * 2);
+            departTable = Arrays.copyOf(departTable, departures * 2);
+        }
+        int i = departures++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (departAt[parent] <= time) {
+                break;
+            }
+            departAt[i] = departAt[parent];
+            departTable[i] = departTable[parent];
+            i = parent;
+        }
+        departAt[i] = time;
+        departTable[i] = tableNumber;
+    }
+
+    private int pollDeparture() {
+        int tableNumber = departTable[0];
+        int n = --departures;
+        long time = departAt[n];
+        int table = departTable[n];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n) {
+                break;
+            }
+            if (child + 1 < n && departAt[child + 1] < departAt[child]) {
+                child++;
+            }
+            if (time <= departAt[child]) {
+                break;
+            }
+            departAt[i] = departAt[child];
+            departTable[i] = departTable[child];
+            i = child;
+        }
+        departAt[i] = time;
+        departTable[i] = table;
+        return tableNumber;
+    }
+}
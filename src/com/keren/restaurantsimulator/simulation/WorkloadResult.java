@@ -0,0 +1,99 @@
+package com.keren.restaurantsimulator.simulation;
+
+import com.keren.restaurantsimulator.metrics.LatencyHistogram;
+import com.keren.restaurantsimulator.model.Money;
+
+/**
+ * WorkloadResult is the summary of one WorkloadGenerator run.
+ *
+ * Latencies are in nanoseconds:
+ * - arrivalService   : service calls for one seated party (seat, order, kitchen, serve)
+ * - departureService : service calls when a party leaves (bill, pay, remove order)
+ * - arrivalResponse  : paced mode only, from the planned arrival time until the party
+ *                      is served, so it also counts time spent waiting behind earlier work
+ */
+public class WorkloadResult {
+
+    private final boolean paced;
+    private final long arrivals;
+    private final long rejected;
+    private final long serviceCalls;
+    private final long revenueMinor;
+    private final long workloadNanos;
+    private final long arrivalPhaseNanos;
+    private final long elapsedNanos;
+    private final LatencyHistogram arrivalService;
+    private final LatencyHistogram departureService;
+    private final LatencyHistogram arrivalResponse;
+
+    public WorkloadResult(boolean paced, long arrivals, long rejected, long serviceCalls, long revenueMinor,
+                          long workloadNanos, long arrivalPhaseNanos, long elapsedNanos, LatencyHistogram arrivalService,
+                          LatencyHistogram departureService, LatencyHistogram arrivalResponse) {
+        this.paced = paced;
+        this.arrivals = arrivals;
+        this.rejected = rejected;
+        this.serviceCalls = serviceCalls;
+        this.revenueMinor = revenueMinor;
+        this.workloadNanos = workloadNanos;
+        this.arrivalPhaseNanos = arrivalPhaseNanos;
+        this.elapsedNanos = elapsedNanos;
+        this.arrivalService = arrivalService;
+        this.departureService = departureService;
+        this.arrivalResponse = arrivalResponse;
+    }
+
+    public boolean isPaced() { return paced; }
+    public long getArrivals() { return arrivals; }
+    public long getSeated() { return arrivals - rejected; }
+    // Parties that found no free table big enough and left.
+    public long getRejected() { return rejected; }
+    public long getServiceCalls() { return serviceCalls; }
+    public double getRevenue() { return Money.toMajor(revenueMinor); }
+    public long getRevenueMinor() { return revenueMinor; }
+    public long getElapsedNanos() { return elapsedNanos; }
+    public LatencyHistogram getArrivalService() { return arrivalService; }
+    public LatencyHistogram getDepartureService() { return departureService; }
+    public LatencyHistogram getArrivalResponse() { return arrivalResponse; }
+
+    // Arrival rate asked for by the arrival process.
+    public double getTargetPartiesPerSecond() {
+        return workloadNanos == 0 ? 0.0 : arrivals * 1_000_000_000.0 / workloadNanos;
+    }
+
+    // Arrival rate actually handled until the last arrival (equals the target in paced mode if the services keep up).
+    public double getAchievedPartiesPerSecond() {
+        return arrivalPhaseNanos == 0 ? 0.0 : arrivals * 1_000_000_000.0 / arrivalPhaseNanos;
+    }
+
+    public double getServiceCallsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : serviceCalls * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    public double getRejectedPercent() {
+        return arrivals == 0 ? 0.0 : rejected * 100.0 / arrivals;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(paced ? "Paced" : "Open-loop").append(" workload: ")
+                .append(arrivals).append(" parties, ")
+                .append(rejected).append(String.format(" rejected (%.1f%%), ", getRejectedPercent()))
+                .append(String.format("revenue %.2f%n", getRevenue()));
+        sb.append(String.format("  target %.0f parties/s, achieved %.0f parties/s, %.0f service calls/s, elapsed %.1f ms%n",
+                getTargetPartiesPerSecond(), getAchievedPartiesPerSecond(), getServiceCallsPerSecond(),
+                elapsedNanos / 1_000_000.0));
+        appendLatency(sb, "arrival service", arrivalService);
+        appendLatency(sb, "departure service", departureService);
+        if (paced) {
+            appendLatency(sb, "arrival response", arrivalResponse);
+        }
+        return sb.toString();
+    }
+
+    private static void appendLatency(StringBuilder sb, String name, LatencyHistogram h) {
+        sb.append(String.format("  %-18s p50 %8.1f us  p99 %8.1f us  p99.9 %8.1f us  max %8.1f us%n", name,
+                h.getPercentileNanos(50) / 1_000.0, h.getPercentileNanos(99) / 1_000.0,
+                h.getPercentileNanos(99.9) / 1_000.0, h.getMaxNanos() / 1_000.0));
+    }
+}
@@ -0,0 +1,111 @@
+package com.keren.restaurantsimulator.util;
+
+import java.util.Arrays;
+
+/**
+ * IntIntMap maps int keys to int values with no boxing and no node objects.
+ *
+ * It is meant for dictionaries (dish id -> code, table number -> code) that
+ * only grow: there is no remove. Any int is a valid key, negative ones too.
+ *
+ * Keys and values live in two parallel arrays in insertion order, and an
+ * open-addressing index (linear probing) points from a key to its entry.
+ *
+ * Not thread-safe.
+ */
+public class IntIntMap {
+
+    private static final int MIN_CAPACITY = 8;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+
+    // slot -> entry position + 1, 0 means empty; at most half full
+    private int[] index;
+
+    public IntIntMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public IntIntMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize cannot be negative");
+        }
+        int capacity = Math.max(MIN_CAPACITY, expectedSize);
+        this.keys = new int[capacity];
+        this.values = new int[capacity];
+        this.index = new int[Integer.highestOneBit(capacity * 4 - 1)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return entryOf(key) >= 0;
+    }
+
+    // The value for key, or defaultValue if the key is not in the map.
+    public int getOrDefault(int key, int defaultValue) {
+        int entry = entryOf(key);
+        return entry < 0 ? defaultValue : values[entry];
+    }
+
+    // Adds or replaces the value for a key.
+    public void put(int key, int value) {
+        int entry = entryOf(key);
+        if (entry >= 0) {
+            values[entry] = value;
+            return;
+        }
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            values = Arrays.copyOf(values, size * 2);
+        }
+        keys[size] = key;
+        values[size] = value;
+        size++;
+        if (size * 2 > index.length) {
+            rebuildIndex(); // grows the index, the new entry is already in place
+        } else {
+            insert(key, size - 1);
+        }
+    }
+
+    private int entryOf(int key) {
+        int mask = index.length - 1;
+        for (int slot = hash(key) & mask; index[slot] != 0; slot = (slot + 1) & mask) {
+            int entry = index[slot] - 1;
+            if (keys[entry] == key) {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    private void rebuildIndex() {
+        index = new int[index.length * 2];
+        for (int i = 0; i < size; i++) {
+            insert(keys[i], i);
+        }
+    }
+
+    private void insert(int key, int entry) {
+        int mask = index.length - 1;
+        int slot = hash(key) & mask;
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = entry + 1;
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,372 @@
+package com.keren.restaurantsimulator.util;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * IntObjectMap is an insertion-ordered map from int keys to objects.
+ *
+ * It replaces Map<Integer, V> + LinkedHashMap where ids are ints: keys are
+ * never boxed and there is no node object per entry.
+ *
+ * Entries live in two parallel arrays (keys / values) in insertion order.
+ * An index points from a key to its entry:
+ * - dense mode: an int[] indexed by the key itself. Used while keys are
+ *   small non-negative numbers (e.g. ids 1..n), lookup is one array read.
+ * - hashed mode: an open-addressing hash table. The map switches to it
+ *   (for good) once a key does not fit the dense range.
+ *
+ * Removing leaves a hole in the entry arrays; holes are squeezed out as soon
+ * as they outnumber the live entries, so iterating stays O(size) even when
+ * most entries come and go. Like LinkedHashMap, re-putting an existing key
+ * keeps its position. Null values are not allowed.
+ *
+ * Not thread-safe.
+ */
+public class IntObjectMap<V> {
+
+    public interface EntryConsumer<V> {
+        void accept(int key, V value);
+    }
+
+    private static final int MIN_CAPACITY = 4;
+    private static final int MIN_DENSE_LENGTH = 64;
+    // A key k may use the dense index while k < DENSE_FACTOR * (size + 1)
+    private static final int DENSE_FACTOR = 4;
+
+    // Entries in insertion order; values[i] == null marks a removed entry
+    private int[] keys;
+    private Object[] values;
+    private int end;
+    private int size;
+    private int modCount;
+    private Collection<V> valuesView;
+
+    // Index: slots hold (entry position + 1), 0 means empty
+    private boolean dense = true;
+    private int[] index;
+    private int mask; // hashed mode only
+
+    public IntObjectMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public IntObjectMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("expectedSize cannot be negative");
+        }
+        int capacity = Math.max(MIN_CAPACITY, expectedSize);
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+        this.index = new int[Math.min(MIN_DENSE_LENGTH, capacity + 1)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(int key) {
+        return entryOf(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int entry = entryOf(key);
+        return entry < 0 ? null : (V) values[entry];
+    }
+
+    /**
+     * Adds or replaces the value for a key.
+     * @return the previous value, or null if the key was not in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value cannot be null");
+        }
+        int entry = entryOf(key);
+        if (entry >= 0) {
+            V old = (V) values[entry];
+            values[entry] = value;
+            return old;
+        }
+
+        if (end == keys.length) {
+            makeRoomForEntry();
+        }
+        entry = end++;
+        keys[entry] = key;
+        values[entry] = value;
+        size++;
+        modCount++;
+        addToIndex(key, entry);
+        return null;
+    }
+
+    /**
+     * Removes a key.
+     * @return the removed value, or null if the key was not in the map
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int entry = dense ? removeDense(key) : removeHashed(key);
+        if (entry < 0) {
+            return null;
+        }
+        V old = (V) values[entry];
+        values[entry] = null;
+        size--;
+        modCount++;
+        while (end > 0 && values[end - 1] == null) {
+            end--;
+        }
+        // At least size removes since the last compaction paid for this one: amortized O(1).
+        if (end - size > Math.max(size, MIN_CAPACITY)) {
+            compact();
+        }
+        return old;
+    }
+
+    // Independent copy with the same entries in the same order: array copies, no re-hashing.
+    public IntObjectMap<V> copy() {
+        IntObjectMap<V> copy = new IntObjectMap<>(0);
+        copy.keys = keys.clone();
+        copy.values = values.clone();
+        copy.end = end;
+        copy.size = size;
+        copy.dense = dense;
+        copy.index = index.clone();
+        copy.mask = mask;
+        return copy;
+    }
+
+    public void clear() {
+        Arrays.fill(values, 0, end, null);
+        Arrays.fill(index, 0);
+        end = 0;
+        size = 0;
+        modCount++;
+    }
+
+    // Visits entries in insertion order.
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> action) {
+        int expected = modCount;
+        for (int i = 0; i < end; i++) {
+            Object value = values[i];
+            if (value != null) {
+                action.accept(keys[i], (V) value);
+                if (modCount != expected) {
+                    throw new ConcurrentModificationException();
+                }
+            }
+        }
+    }
+
+    /**
+     * Live read-only view of the values, in insertion order.
+     * Iterating while the map is modified throws ConcurrentModificationException.
+     */
+    public Collection<V> values() {
+        if (valuesView == null) {
+            valuesView = new AbstractCollection<>() {
+                @Override
+                public Iterator<V> iterator() {
+                    return new ValueIterator();
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        return valuesView;
+    }
+
+    // ---------------- Index ----------------
+
+    private int entryOf(int key) {
+        if (dense) {
+            return (key >= 0 && key < index.length) ? index[key] - 1 : -1;
+        }
+        int slot = hash(key) & mask;
+        while (true) {
+            int entry = index[slot] - 1;
+            if (entry < 0) {
+                return -1;
+            }
+            if (keys[entry] == key) {
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void addToIndex(int key, int entry) {
+        if (dense) {
+            if (key >= 0 && key < index.length) {
+                index[key] = entry + 1;
+                return;
+            }
+            long limit = (long) DENSE_FACTOR * (size + 1);
+            if (key >= 0 && key < Math.max(MIN_DENSE_LENGTH, limit)) {
+                index = Arrays.copyOf(index, (int) Math.max(key + 1L, Math.min(2L * index.length, limit)));
+                index[key] = entry + 1;
+                return;
+            }
+            dense = false; // key out of dense range: switch to hashing for good
+            rebuildIndex();
+            return;
+        }
+        if (size * 2 > index.length) {
+            rebuildIndex(); // grows the table, entry is already in place
+            return;
+        }
+        insertHashed(key, entry);
+    }
+
+    private void insertHashed(int key, int entry) {
+        int slot = hash(key) & mask;
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = entry + 1;
+    }
+
+    private int removeDense(int key) {
+        if (key < 0 || key >= index.length || index[key] == 0) {
+            return -1;
+        }
+        int entry = index[key] - 1;
+        index[key] = 0;
+        return entry;
+    }
+
+    // Linear probing with backward-shift deletion (no tombstones).
+    private int removeHashed(int key) {
+        int slot = hash(key) & mask;
+        while (true) {
+            int entry = index[slot] - 1;
+            if (entry < 0) {
+                return -1;
+            }
+            if (keys[entry] == key) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int removed = index[slot] - 1;
+        index[slot] = 0;
+
+        int hole = slot;
+        for (int next = (hole + 1) & mask; index[next] != 0; next = (next + 1) & mask) {
+            int ideal = hash(keys[index[next] - 1]) & mask;
+            boolean canMove = (next > hole)
+                    ? (ideal <= hole || ideal > next)
+                    : (ideal <= hole && ideal > next);
+            if (canMove) {
+                index[hole] = index[next];
+                index[next] = 0;
+                hole = next;
+            }
+        }
+        return removed;
+    }
+
+    // Rebuilds the index from the live entries (after compaction or a mode switch).
+    private void rebuildIndex() {
+        if (dense) {
+            Arrays.fill(index, 0);
+            for (int i = 0; i < end; i++) {
+                if (values[i] != null) {
+                    index[keys[i]] = i + 1;
+                }
+            }
+            return;
+        }
+        int length = Integer.highestOneBit(Math.max(MIN_CAPACITY, size) * 4 - 1);
+        if (mask == length - 1) { // already hashed with this size: reuse the table
+            Arrays.fill(index, 0);
+        } else {
+            index = new int[length];
+        }
+        mask = length - 1;
+        for (int i = 0; i < end; i++) {
+            if (values[i] != null) {
+                insertHashed(keys[i], i);
+            }
+        }
+    }
+
+    // Called when the entry arrays are full: squeeze out holes, or grow.
+    // Compacting only when at least half are holes keeps puts amortized O(1).
+    private void makeRoomForEntry() {
+        if (size <= end / 2) {
+            compact();
+        } else {
+            int capacity = keys.length * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    // Moves the live entries to the front, keeping their order.
+    private void compact() {
+        int to = 0;
+        for (int from = 0; from < end; from++) {
+            if (values[from] != null) {
+                keys[to] = keys[from];
+                values[to] = values[from];
+                to++;
+            }
+        }
+        Arrays.fill(values, to, end, null);
+        end = to;
+        rebuildIndex();
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private class ValueIterator implements Iterator<V> {
+        private final int expectedModCount = modCount;
+        private int next = skipRemoved(0);
+
+        private int skipRemoved(int from) {
+            while (from < end && values[from] == null) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < end;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= end) {
+                throw new NoSuchElementException();
+            }
+            V value = (V) values[next];
+            next = skipRemoved(next + 1);
+            return value;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.keren.restaurantsimulator.util;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * StatusIndex partitions items by their current status (an enum).
+ *
+ * The owner calls add/move/remove on every status change, so asking for
+ * "all items in status X" costs time proportional to the answer, not to the
+ * total number of items. Counts are O(1).
+ *
+ * Items are keyed by an int id (order id, table number), so each partition is
+ * an IntObjectMap: no boxing and no hashing of the items themselves, and the
+ * views keep insertion order. In concurrent mode the partitions are
+ * ConcurrentHashMaps and the views are weakly consistent.
+ */
+public class StatusIndex<S extends Enum<S>, T> {
+
+    private final ToIntFunction<T> keyOf;
+    private final IntObjectMap<T>[] partitions;
+    private final ConcurrentHashMap<Integer, T>[] concurrentPartitions;
+    private final Collection<T>[] views;
+
+    @SuppressWarnings("unchecked")
+    public StatusIndex(Class<S> statusType, ToIntFunction<T> keyOf, boolean concurrent) {
+        if (statusType == null || keyOf == null) {
+            throw new IllegalArgumentException("statusType and keyOf cannot be null");
+        }
+        int statuses = statusType.getEnumConstants().length;
+        this.keyOf = keyOf;
+        this.partitions = concurrent ? null : (IntObjectMap<T>[]) new IntObjectMap<?>[statuses];
+        this.concurrentPartitions = concurrent
+                ? (ConcurrentHashMap<Integer, T>[]) new ConcurrentHashMap<?, ?>[statuses]
+                : null;
+        this.views = (Collection<T>[]) new Collection<?>[statuses];
+        for (int i = 0; i < statuses; i++) {
+            if (concurrent) {
+                concurrentPartitions[i] = new ConcurrentHashMap<>();
+                views[i] = Collections.unmodifiableCollection(concurrentPartitions[i].values());
+            } else {
+                partitions[i] = new IntObjectMap<>();
+                views[i] = Collections.unmodifiableCollection(partitions[i].values());
+            }
+        }
+    }
+
+    public void add(T item, S status) {
+        int key = keyOf.applyAsInt(item);
+        if (partitions != null) {
+            partitions[status.ordinal()].put(key, item);
+        } else {
+            concurrentPartitions[status.ordinal()].put(key, item);
+        }
+    }
+
+    public void remove(T item, S status) {
+        int key = keyOf.applyAsInt(item);
+        if (partitions != null) {
+            partitions[status.ordinal()].remove(key);
+        } else {
+            concurrentPartitions[status.ordinal()].remove(key);
+        }
+    }
+
+    public void move(T item, S oldStatus, S newStatus) {
+        if (oldStatus == newStatus) {
+            return;
+        }
+        remove(item, oldStatus);
+        add(item, newStatus);
+    }
+
+    public int count(S status) {
+        return partitions != null
+                ? partitions[status.ordinal()].size()
+                : concurrentPartitions[status.ordinal()].size();
+    }
+
+    // Live read-only view of the items currently in a status.
+    public Collection<T> items(S status) {
+        return views[status.ordinal()];
+    }
+}
@@ -0,0 +1,62 @@
+package com.keren.restaurantsimulator;
+
+import com.keren.restaurantsimulator.analytics.SalesLedgerTest;
+import com.keren.restaurantsimulator.app.CommandParserTest;
+import com.keren.restaurantsimulator.model.GapIndexTest;
+import com.keren.restaurantsimulator.model.TableStateTest;
+import com.keren.restaurantsimulator.persistence.JournalRoundTripTest;
+import com.keren.restaurantsimulator.persistence.RestaurantSnapshotTest;
+import com.keren.restaurantsimulator.service.AsyncRestaurantServiceTest;
+import com.keren.restaurantsimulator.service.BillingServiceTest;
+import com.keren.restaurantsimulator.service.KitchenEngineTest;
+import com.keren.restaurantsimulator.service.KitchenEtaEstimatorTest;
+import com.keren.restaurantsimulator.service.OrderArchiveTest;
+import com.keren.restaurantsimulator.util.IntObjectMapTest;
+
+/**
+ * Runs every test class and exits with status 1 if any of them fails.
+ *
+ * Run (from the project root):
+ *   javac -encoding UTF-8 -d out $(find src test -name '*.java')
+ *   java -cp out com.keren.restaurantsimulator.AllTests
+ */
+public final class AllTests {
+
+    interface TestClass {
+        void run() throws Exception;
+    }
+
+    private AllTests() {}
+
+    public static void main(String[] args) {
+        int failed = 0;
+        failed += run("KitchenEngineTest", KitchenEngineTest::run);
+        failed += run("IntObjectMapTest", IntObjectMapTest::run);
+        failed += run("JournalRoundTripTest", JournalRoundTripTest::run);
+        failed += run("RestaurantSnapshotTest", RestaurantSnapshotTest::run);
+        failed += run("OrderArchiveTest", OrderArchiveTest::run);
+        failed += run("SalesLedgerTest", SalesLedgerTest::run);
+        failed += run("AsyncRestaurantServiceTest", AsyncRestaurantServiceTest::run);
+        failed += run("BillingServiceTest", BillingServiceTest::run);
+        failed += run("KitchenEtaEstimatorTest", KitchenEtaEstimatorTest::run);
+        failed += run("TableStateTest", TableStateTest::run);
+        failed += run("GapIndexTest", GapIndexTest::run);
+        failed += run("CommandParserTest", CommandParserTest::run);
+        System.out.println(failed == 0 ? "All tests passed" : failed + " test class(es) failed");
+        if (failed > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static int run(String name, TestClass test) {
+        try {
+            test.run();
+            System.out.println("ok    " + name);
+            return 0;
+        } catch (Exception | AssertionError e) {
+            System.out.println("FAIL  " + name + ": " + e.getMessage());
+            e.printStackTrace(System.out);
+            return 1;
+        }
+    }
+}
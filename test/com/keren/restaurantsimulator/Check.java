@@ -0,0 +1,43 @@
+package com.keren.restaurantsimulator;
+
+import java.util.Objects;
+
+/**
+ * Tiny assertions for the tests (no JUnit needed), in the style of the app's
+ * quick tests: a failed check throws with the message and both values.
+ */
+public final class Check {
+
+    private Check() {}
+
+    public static void assertTrue(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException("TEST FAILED: " + message);
+        }
+    }
+
+    public static void assertEquals(Object expected, Object actual, String message) {
+        if (!Objects.equals(expected, actual)) {
+            throw new IllegalStateException("TEST FAILED: " + message + " (expected=" + expected + ", actual=" + actual + ")");
+        }
+    }
+
+    public static void assertEquals(long expected, long actual, String message) {
+        if (expected != actual) {
+            throw new IllegalStateException("TEST FAILED: " + message + " (expected=" + expected + ", actual=" + actual + ")");
+        }
+    }
+
+    // Runs the action and checks that it throws the given exception type.
+    public static void assertThrows(Class<? extends Throwable> type, Runnable action, String message) {
+        try {
+            action.run();
+        } catch (Throwable e) {
+            if (type.isInstance(e)) {
+                return;
+            }
+            throw new IllegalStateException("TEST FAILED: " + message + " (threw " + e + ")", e);
+        }
+        throw new IllegalStateException("TEST FAILED: " + message + " (nothing thrown)");
+    }
+}
@@ -0,0 +1,139 @@
+package com.keren.restaurantsimulator.analytics;
+
+import com.keren.restaurantsimulator.enums.OrderStatus;
+import com.keren.restaurantsimulator.model.Dish;
+import com.keren.restaurantsimulator.model.Order;
+import com.keren.restaurantsimulator.service.OrderService;
+
+import java.util.Arrays;
+
+import static com.keren.restaurantsimulator.Check.assertEquals;
+import static com.keren.restaurantsimulator.Check.assertThrows;
+import static com.keren.restaurantsimulator.Check.assertTrue;
+
+/**
+ * SalesLedger group-by reports: per dish, per table and per time bucket on a
+ * few hand-checked orders, sparse and negative keys, recording through
+ * OrderService, and the parallel scan against a plain loop.
+ */
+public final class SalesLedgerTest {
+
+    private static final long HOUR = 3_600_000;
+
+    private SalesLedgerTest() {}
+
+    public static void main(String[] args) {
+        run();
+        System.out.println("SalesLedgerTest passed");
+    }
+
+    public static void run() {
+        groupByOnPaidOrders();
+        sparseAndNegativeKeys();
+        paidOrdersReachTheLedger();
+        parallelScanMatchesLoop();
+        assertThrows(IllegalArgumentException.class,
+                () -> new SalesLedger().recordLine(1, 0, 100, 1, 0, true), "quantity must be positive");
+        assertThrows(IllegalArgumentException.class,
+                () -> new SalesLedger().quantityByTimeBucket(0, 0, 4), "bucket size must be positive");
+    }
+
+    private static void groupByOnPaidOrders() {
+        Dish soup = new Dish(1, "Soup", 12.50, 5);
+        Dish steak = new Dish(3, "Steak", 99.00, 20);
+        SalesLedger ledger = new SalesLedger();
+        assertEquals(-1, ledger.getFirstClosedAtMillis(), "empty ledger");
+        assertEquals(0, ledger.getAverageCheckMinor(), "no checks yet");
+
+        Order first = new Order(2);
+        first.addDish(soup, 2);
+        first.addDish(steak, 1);
+        ledger.record(first, 10 * HOUR);         // 10:00, table 2: 2 x 12.50 + 99.00
+        Order second = new Order(4);
+        second.addDish(soup, 1);
+        ledger.record(second, 11 * HOUR + 5);    // 11:00, table 4: 12.50
+        ledger.record(new Order(4), 11 * HOUR);  // empty: not a check
+
+        assertEquals(3, ledger.getNumOfLines(), "lines");
+        assertEquals(2, ledger.getNumOfChecks(), "checks");
+        assertEquals(3 * 1_250 + 9_900, ledger.getGrossMinor(), "gross");
+        assertEquals((3 * 1_250 + 9_900) / 2, ledger.getAverageCheckMinor(), "average check");
+        assertEquals(10 * HOUR, ledger.getFirstClosedAtMillis(), "first close time");
+
+        assertEquals("1=3750 3=9900", format(ledger.revenueMinorByDish()), "revenue per dish");
+        assertEquals("1=3 3=1", format(ledger.quantityByDish()), "quantity per dish");
+        assertEquals("2=12400 4=1250", format(ledger.revenueMinorByTable()), "revenue per table");
+        assertEquals("[3, 1, 0]", Arrays.toString(ledger.quantityByTimeBucket(10 * HOUR, HOUR, 3)), "dishes per hour");
+        assertEquals("[0, 1250]", Arrays.toString(ledger.revenueMinorByTimeBucket(10 * HOUR + 1, HOUR, 2)),
+                "lines before the first bucket are ignored");
+    }
+
+    // A huge dish id and negative table numbers cost one group each.
+    private static void sparseAndNegativeKeys() {
+        SalesLedger ledger = new SalesLedger();
+        ledger.recordLine(1_000_000_000, 2, 500, -4, 0, true);
+        ledger.recordLine(7, 1, 300, Integer.MIN_VALUE, 0, true);
+        ledger.recordLine(1_000_000_000, 1, 500, -4, 0, false);
+        GroupTotals byTable = ledger.revenueMinorByTable();
+        assertEquals(Integer.MIN_VALUE + "=300 -4=1500", format(byTable), "negative tables, keys ascending");
+        assertEquals(1_500, byTable.get(-4), "lookup by key");
+        assertEquals(0, byTable.get(5), "a key with no lines");
+        assertEquals("7=1 1000000000=3", format(ledger.quantityByDish()), "one group per dish sold");
+    }
+
+    private static void paidOrdersReachTheLedger() {
+        OrderService orders = new OrderService();
+        SalesLedger ledger = new SalesLedger();
+        orders.setSalesLedger(ledger);
+        Order order = new Order(1);
+        order.addDish(new Dish(2, "Tea", 8.00, 2), 3);
+        int orderId = orders.addOrder(order);
+        orders.getOrder(orderId).setStatus(OrderStatus.SERVED);
+        assertEquals(0, ledger.getNumOfLines(), "unpaid orders are not recorded");
+        orders.getOrder(orderId).setStatus(OrderStatus.PAID);
+        assertEquals(1, ledger.getNumOfChecks(), "the paid order is recorded once");
+        assertEquals(2_400, ledger.getGrossMinor(), "with its lines");
+    }
+
+    // Enough lines for the blocks to be summed by a parallel stream.
+    private static void parallelScanMatchesLoop() {
+        SalesLedger ledger = new SalesLedger();
+        int lines = 20 * 16_384 + 123;
+        long[] revenueByDish = new long[50];
+        long[] revenueByTable = new long[30];
+        long[] quantityByBucket = new long[10];
+        for (int i = 0; i < lines; i++) {
+            int dishId = i % 50;
+            int tableNumber = (i * 7) % 30;
+            int quantity = 1 + i % 3;
+            long price = 100 + i % 11;
+            long closedAt = i;
+            ledger.recordLine(dishId, quantity, price, tableNumber, closedAt, i % 4 == 0);
+            revenueByDish[dishId] += price * quantity;
+            revenueByTable[tableNumber] += price * quantity;
+            quantityByBucket[(int) (closedAt / 40_000)] += quantity;
+        }
+        assertEquals(lines, ledger.getNumOfLines(), "lines");
+        assertTrue(Arrays.equals(revenueByDish, dense(ledger.revenueMinorByDish(), 50)), "parallel revenue per dish");
+        assertTrue(Arrays.equals(revenueByTable, dense(ledger.revenueMinorByTable(), 30)), "parallel revenue per table");
+        assertTrue(Arrays.equals(quantityByBucket, ledger.quantityByTimeBucket(0, 40_000, 10)),
+                "parallel dishes per time bucket");
+        assertEquals(Arrays.stream(revenueByDish).sum(), ledger.getGrossMinor(), "gross matches the groups");
+    }
+
+    private static String format(GroupTotals totals) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < totals.size(); i++) {
+            sb.append(i == 0 ? "" : " ").append(totals.keyAt(i)).append('=').append(totals.totalAt(i));
+        }
+        return sb.toString();
+    }
+
+    private static long[] dense(GroupTotals totals, int keys) {
+        long[] array = new long[keys];
+        for (int key = 0; key < keys; key++) {
+            array[key] = totals.get(key);
+        }
+        return array;
+    }
+}
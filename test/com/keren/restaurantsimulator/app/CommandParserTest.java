@@ -0,0 +1,36 @@
+package com.keren.restaurantsimulator.app;
+
+import static com.keren.restaurantsimulator.Check.assertEquals;
+import static com.keren.restaurantsimulator.Check.assertThrows;
+
+/**
+ * CommandParser keeps every token of a long line (a payall with more ids
+ * than its initial token arrays hold) and still reuses them for the next line.
+ */
+public final class CommandParserTest {
+
+    private CommandParserTest() {}
+
+    public static void main(String[] args) {
+        run();
+        System.out.println("CommandParserTest passed");
+    }
+
+    public static void run() {
+        CommandParser parser = new CommandParser();
+        StringBuilder line = new StringBuilder("payall");
+        for (int id = 1; id <= 40; id++) {
+            line.append(' ').append(id);
+        }
+        assertEquals(Command.PAYALL, parser.parse(line.toString()), "command");
+        assertEquals(41, parser.getNumOfTokens(), "every id is a token");
+        for (int i = 1; i <= 40; i++) {
+            assertEquals(i, parser.intArg(i), "id " + i);
+        }
+        assertThrows(IllegalArgumentException.class, () -> parser.intArg(41), "Not enough arguments");
+
+        assertEquals(Command.PAY, parser.parse("pay 7"), "next line");
+        assertEquals(7, parser.intArg(1), "next line's argument");
+        assertThrows(IllegalArgumentException.class, () -> parser.intArg(2), "Not enough arguments");
+    }
+}
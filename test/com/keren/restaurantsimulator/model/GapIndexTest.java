@@ -0,0 +1,95 @@
+package com.keren.restaurantsimulator.model;
+
+import java.util.Optional;
+
+import static com.keren.restaurantsimulator.Check.assertEquals;
+import static com.keren.restaurantsimulator.Check.assertTrue;
+
+/**
+ * GapIndex on its own (covering and non-covering gaps, removal, negative
+ * table numbers) and through ReservationBook.findAvailableTable().
+ */
+public final class GapIndexTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    private GapIndexTest() {}
+
+    public static void main(String[] args) {
+        run();
+        System.out.println("GapIndexTest passed");
+    }
+
+    public static void run() {
+        emptyIndex();
+        findsCoveringGap();
+        removeGap();
+        negativeTableNumbers();
+        bookingsOnNegativeTables();
+    }
+
+    private static void emptyIndex() {
+        GapIndex gaps = new GapIndex(96);
+        assertEquals(GapIndex.NOT_FOUND, gaps.find(0, 1), "nothing in an empty index");
+    }
+
+    private static void findsCoveringGap() {
+        GapIndex gaps = new GapIndex(96);
+        gaps.add(0, 10, 1);   // table 1 free for slots [0, 10)
+        gaps.add(20, 96, 1);  // and [20, 96)
+        gaps.add(5, 30, 2);   // table 2 free for [5, 30)
+
+        assertTable(1, gaps.find(2, 8), "only table 1 covers [2, 8)");
+        assertTable(2, gaps.find(6, 25), "only table 2 covers [6, 25)");
+        assertTable(1, gaps.find(40, 96), "table 1's second gap covers [40, 96)");
+        assertEquals(GapIndex.NOT_FOUND, gaps.find(8, 31), "no gap covers [8, 31)");
+        assertEquals(GapIndex.NOT_FOUND, gaps.find(0, 11), "a gap must reach the end slot");
+    }
+
+    private static void removeGap() {
+        GapIndex gaps = new GapIndex(96);
+        gaps.add(5, 30, 2);
+        gaps.add(5, 20, 3);
+        gaps.remove(5, 30, 2);
+        assertTable(3, gaps.find(6, 15), "table 3 still covers [6, 15)");
+        assertEquals(GapIndex.NOT_FOUND, gaps.find(6, 25), "the removed gap is gone");
+        gaps.remove(5, 30, 2); // already gone: no-op
+        gaps.remove(5, 20, 3);
+        assertEquals(GapIndex.NOT_FOUND, gaps.find(6, 7), "index is empty again");
+    }
+
+    private static void negativeTableNumbers() {
+        GapIndex gaps = new GapIndex(96);
+        gaps.add(0, 5, -1);
+        assertTable(-1, gaps.find(0, 5), "table -1 is a result, not 'not found'");
+        assertEquals(GapIndex.NOT_FOUND, gaps.find(0, 6), "the gap of table -1 still ends at slot 5");
+
+        gaps.add(10, 50, Integer.MIN_VALUE);
+        assertTable(Integer.MIN_VALUE, gaps.find(12, 50), "table MIN_VALUE keeps its gap end");
+        gaps.remove(0, 5, -1);
+        assertEquals(GapIndex.NOT_FOUND, gaps.find(0, 5), "gap of table -1 removed");
+    }
+
+    private static void bookingsOnNegativeTables() {
+        Restaurant restaurant = new Restaurant(new Menu());
+        restaurant.addTable(new Table(-5, 4));
+        restaurant.addTable(new Table(-1, 4));
+        long origin = 1_000_000_000_000L;
+        ReservationBook book = restaurant.openReservationBook(origin, 15, 2);
+
+        int booked = 0;
+        Optional<Table> table;
+        while ((table = book.findAvailableTable(2, origin + HOUR, origin + 2 * HOUR)).isPresent()) {
+            book.book(table.get().getTableNumber(), 2, "guest", origin + HOUR, origin + 2 * HOUR);
+            booked++;
+        }
+        assertEquals(2, booked, "both negative tables can be booked once for the hour");
+        assertTrue(book.findAvailableTable(2, origin + 2 * HOUR, origin + 3 * HOUR).isPresent(),
+                "the next hour is still free");
+    }
+
+    private static void assertTable(int expected, long gap, String message) {
+        assertTrue(gap != GapIndex.NOT_FOUND, message + " (not found)");
+        assertEquals(expected, GapIndex.tableOf(gap), message);
+    }
+}
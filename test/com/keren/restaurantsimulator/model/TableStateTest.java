@@ -0,0 +1,228 @@
+package com.keren.restaurantsimulator.model;
+
+import com.keren.restaurantsimulator.enums.OrderStatus;
+import com.keren.restaurantsimulator.enums.TableEvent;
+import com.keren.restaurantsimulator.enums.TableStatus;
+
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.keren.restaurantsimulator.Check.assertEquals;
+import static com.keren.restaurantsimulator.Check.assertTrue;
+
+/**
+ * TableState: the legal moves of the lookup table, the ones it rejects, the
+ * order generation, Table.tryApply() against a stale generation, a restored
+ * order, and PAY racing CLEAR for the same order.
+ */
+public final class TableStateTest {
+
+    private TableStateTest() {}
+
+    public static void main(String[] args) throws Exception {
+        run();
+        System.out.println("TableStateTest passed");
+    }
+
+    public static void run() throws Exception {
+        encodeDecode();
+        fullLifecycle();
+        rejectedMoves();
+        requestBillOnlyWithAnOrder();
+        clearFromAnyState();
+        generationWrapsToNonNegative();
+        staleGenerationIsRejected();
+        restoredOrderComesInWhole();
+        payRacingClearSettlesTheOrderOnce();
+    }
+
+    private static void encodeDecode() {
+        for (TableStatus table : TableStatus.values()) {
+            assertState(TableState.encode(table, null, 3), table, null, 3);
+            for (OrderStatus order : OrderStatus.values()) {
+                assertState(TableState.encode(table, order, 12_345), table, order, 12_345);
+            }
+        }
+    }
+
+    private static void fullLifecycle() {
+        int word = TableState.encode(TableStatus.FREE, null, 0);
+        word = move(word, TableEvent.SEAT, TableStatus.OCCUPIED, null);
+        word = move(word, TableEvent.OPEN_ORDER, TableStatus.OCCUPIED, OrderStatus.CREATED);
+        assertEquals(1, TableState.generation(word), "OPEN_ORDER starts generation 1");
+        word = move(word, TableEvent.SUBMIT, TableStatus.OCCUPIED, OrderStatus.SUBMITTED);
+        word = move(word, TableEvent.START_PREP, TableStatus.OCCUPIED, OrderStatus.IN_PREP);
+        word = move(word, TableEvent.READY, TableStatus.OCCUPIED, OrderStatus.READY);
+        word = move(word, TableEvent.SERVE, TableStatus.OCCUPIED, OrderStatus.SERVED);
+        word = move(word, TableEvent.REQUEST_BILL, TableStatus.WAITING_FOR_BILL, OrderStatus.SERVED);
+        word = move(word, TableEvent.PAY, TableStatus.FREE, null);
+        assertEquals(1, TableState.generation(word), "PAY keeps the generation");
+
+        word = move(word, TableEvent.SEAT, TableStatus.OCCUPIED, null);
+        word = move(word, TableEvent.OPEN_ORDER, TableStatus.OCCUPIED, OrderStatus.CREATED);
+        assertEquals(2, TableState.generation(word), "next order is generation 2");
+    }
+
+    private static void rejectedMoves() {
+        int free = TableState.encode(TableStatus.FREE, null, 4);
+        int occupied = TableState.encode(TableStatus.OCCUPIED, null, 4);
+        int created = TableState.encode(TableStatus.OCCUPIED, OrderStatus.CREATED, 4);
+        int inPrep = TableState.encode(TableStatus.OCCUPIED, OrderStatus.IN_PREP, 4);
+
+        assertRejected(occupied, TableEvent.SEAT);
+        assertRejected(free, TableEvent.OPEN_ORDER);
+        assertRejected(created, TableEvent.OPEN_ORDER); // one order at a time
+        assertRejected(free, TableEvent.SUBMIT);
+        assertRejected(created, TableEvent.START_PREP); // not submitted yet
+        assertRejected(inPrep, TableEvent.SERVE);       // not ready yet
+        assertRejected(created, TableEvent.PAY);        // bill not requested
+        assertRejected(free, TableEvent.PAY);
+    }
+
+    private static void requestBillOnlyWithAnOrder() {
+        assertRejected(TableState.encode(TableStatus.OCCUPIED, null, 0), TableEvent.REQUEST_BILL);
+        assertRejected(TableState.encode(TableStatus.OCCUPIED, OrderStatus.PAID, 0), TableEvent.REQUEST_BILL);
+        for (OrderStatus order : new OrderStatus[]{OrderStatus.CREATED, OrderStatus.SUBMITTED,
+                OrderStatus.IN_PREP, OrderStatus.READY, OrderStatus.SERVED}) {
+            int word = TableState.encode(TableStatus.OCCUPIED, order, 0);
+            move(word, TableEvent.REQUEST_BILL, TableStatus.WAITING_FOR_BILL, order);
+        }
+        // The kitchen keeps moving the order after the bill was asked for
+        int waiting = TableState.encode(TableStatus.WAITING_FOR_BILL, OrderStatus.IN_PREP, 0);
+        move(waiting, TableEvent.READY, TableStatus.WAITING_FOR_BILL, OrderStatus.READY);
+    }
+
+    private static void clearFromAnyState() {
+        for (TableStatus table : TableStatus.values()) {
+            move(TableState.encode(table, null, 9), TableEvent.CLEAR, TableStatus.FREE, null);
+            for (OrderStatus order : OrderStatus.values()) {
+                int word = move(TableState.encode(table, order, 9), TableEvent.CLEAR, TableStatus.FREE, null);
+                assertEquals(9, TableState.generation(word), "CLEAR keeps the generation");
+            }
+        }
+    }
+
+    private static void generationWrapsToNonNegative() {
+        int last = TableState.encode(TableStatus.OCCUPIED, null, Integer.MAX_VALUE >>> 5);
+        int word = TableState.next(last, TableEvent.OPEN_ORDER);
+        assertTrue(word >= 0, "a wrapped state word is never negative (REJECTED is -1)");
+        assertEquals(0, TableState.generation(word), "generation wraps to 0");
+        assertState(word, TableStatus.OCCUPIED, OrderStatus.CREATED, 0);
+    }
+
+    private static void staleGenerationIsRejected() {
+        Table table = new Table(1, 4);
+        table.seat(2);
+        table.openNewOrder();
+        int first = table.getOrderGeneration();
+        assertTrue(table.tryApply(TableEvent.REQUEST_BILL), "request bill");
+        assertTrue(table.tryApply(TableEvent.PAY, first), "pay the current order");
+        table.seat(2);
+        table.openNewOrder();
+        assertTrue(!table.tryApply(TableEvent.SUBMIT, first), "an event for the previous order is rejected");
+        assertEquals(OrderStatus.CREATED, table.getOrder().getStatus(), "the new order did not move");
+    }
+
+    private static void restoredOrderComesInWhole() {
+        Table table = new Table(1, 4);
+        table.seat(2);
+        int before = table.getOrderGeneration();
+        Order order = new Order(1);
+        order.setStatus(OrderStatus.IN_PREP);
+        table.setOrder(order);
+        assertTrue(table.getOrder() == order, "the restored order is the table's order");
+        assertEquals(before + 1, table.getOrderGeneration(), "it comes in under a new generation");
+        assertEquals(OrderStatus.IN_PREP, order.getStatus(), "read from the table's word");
+        assertTrue(order.tryAdvance(TableEvent.READY), "and moves through it");
+
+        Order replacement = new Order(1);
+        table.setOrder(replacement);
+        assertEquals(OrderStatus.READY, order.getStatus(), "the replaced order keeps its last status");
+        assertTrue(order.tryAdvance(TableEvent.SERVE), "the replaced order moves on its own status");
+        assertEquals(OrderStatus.SERVED, order.getStatus(), "served off the table");
+        assertEquals(OrderStatus.CREATED, replacement.getStatus(), "the new order did not move");
+        table.setOrder(null);
+        assertEquals(null, table.getOrder(), "no order");
+        assertEquals(OrderStatus.CREATED, replacement.getStatus(), "a removed order keeps its status");
+    }
+
+    // Whichever of PAY and CLEAR takes the order decides its final status, and no reader waits for it.
+    private static void payRacingClearSettlesTheOrderOnce() throws InterruptedException, BrokenBarrierException {
+        Table table = new Table(1, 4);
+        Order[] order = new Order[1];
+        AtomicBoolean paid = new AtomicBoolean();
+        AtomicBoolean sawNull = new AtomicBoolean();
+        CyclicBarrier start = new CyclicBarrier(4);
+        CyclicBarrier done = new CyclicBarrier(4);
+        int rounds = 2_000;
+        Runnable payer = racer(start, done, rounds, () -> paid.set(table.tryApply(TableEvent.PAY)));
+        Runnable clearer = racer(start, done, rounds, () -> table.tryApply(TableEvent.CLEAR));
+        Runnable reader = racer(start, done, rounds, () -> {
+            for (int i = 0; i < 50; i++) {
+                if (order[0].getStatus() == null) {
+                    sawNull.set(true);
+                }
+            }
+        });
+        Thread[] threads = {new Thread(payer), new Thread(clearer), new Thread(reader)};
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (int round = 0; round < rounds; round++) {
+            table.seat(2);
+            table.openNewOrder();
+            order[0] = table.getOrder();
+            order[0].tryAdvance(TableEvent.SUBMIT);
+            table.tryApply(TableEvent.REQUEST_BILL);
+            start.await();
+            done.await();
+            OrderStatus last = order[0].getStatus();
+            assertEquals(paid.get() ? OrderStatus.PAID : OrderStatus.SUBMITTED, last,
+                    "round " + round + ": the final status matches the move that took the order");
+            assertEquals(TableStatus.FREE, table.getStatus(), "round " + round + ": the table is free");
+            assertEquals(null, table.getOrder(), "round " + round + ": no current order");
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(!sawNull.get(), "a reader never saw an order without a status");
+    }
+
+    private static Runnable racer(CyclicBarrier start, CyclicBarrier done, int rounds, Runnable step) {
+        return () -> {
+            try {
+                for (int round = 0; round < rounds; round++) {
+                    start.await();
+                    step.run();
+                    done.await();
+                }
+            } catch (InterruptedException | BrokenBarrierException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    // ---------------- Helpers ----------------
+
+    private static int move(int word, TableEvent event, TableStatus table, OrderStatus order) {
+        int next = TableState.next(word, event);
+        assertTrue(next != TableState.REJECTED, event + " from " + TableState.toString(word) + " should be legal");
+        assertTrue(TableState.isLegal(word, event), "isLegal agrees with next() for " + event);
+        assertEquals(table, TableState.tableStatus(next), event + " table status");
+        assertEquals(order, TableState.orderStatus(next), event + " order status");
+        return next;
+    }
+
+    private static void assertRejected(int word, TableEvent event) {
+        assertEquals(TableState.REJECTED, TableState.next(word, event),
+                event + " from " + TableState.toString(word) + " should be rejected");
+        assertTrue(!TableState.isLegal(word, event), "isLegal agrees with next() for " + event);
+    }
+
+    private static void assertState(int word, TableStatus table, OrderStatus order, int generation) {
+        assertEquals(table, TableState.tableStatus(word), "table status of " + TableState.toString(word));
+        assertEquals(order, TableState.orderStatus(word), "order status of " + TableState.toString(word));
+        assertEquals(generation, TableState.generation(word), "generation of " + TableState.toString(word));
+    }
+}
@@ -0,0 +1,285 @@
+package com.keren.restaurantsimulator.persistence;
+
+import com.keren.restaurantsimulator.analytics.GroupTotals;
+import com.keren.restaurantsimulator.analytics.SalesLedger;
+import com.keren.restaurantsimulator.app.DemoData;
+import com.keren.restaurantsimulator.enums.OrderStatus;
+import com.keren.restaurantsimulator.model.Order;
+import com.keren.restaurantsimulator.model.ArchivedOrder;
+import com.keren.restaurantsimulator.model.Restaurant;
+import com.keren.restaurantsimulator.model.Table;
+import com.keren.restaurantsimulator.service.BillingService;
+import com.keren.restaurantsimulator.service.KitchenService;
+import com.keren.restaurantsimulator.service.OrderRetention;
+import com.keren.restaurantsimulator.service.OrderService;
+import com.keren.restaurantsimulator.service.TableService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static com.keren.restaurantsimulator.Check.assertEquals;
+import static com.keren.restaurantsimulator.Check.assertThrows;
+import static com.keren.restaurantsimulator.Check.assertTrue;
+
+/**
+ * JournalManager recovery: the same state after replaying the journal, after
+ * a checkpoint (snapshot + empty journal), and after a journal written by
+ * waiters, a kitchen and a price change racing on several threads. A record
+ * that no longer applies stops the recovery instead of being dropped, and an
+ * order with no table is refused while journaling.
+ */
+public final class JournalRoundTripTest {
+
+    private Restaurant restaurant;
+    private TableService tables;
+    private OrderService orders;
+    private KitchenService kitchen;
+    private BillingService billing;
+
+    private JournalRoundTripTest() {}
+
+    public static void main(String[] args) throws Exception {
+        run();
+        System.out.println("JournalRoundTripTest passed");
+    }
+
+    public static void run() throws Exception {
+        Path dir = Files.createTempDirectory("journal-test");
+        Path racedDir = Files.createTempDirectory("journal-race-test");
+        try {
+            new JournalRoundTripTest().replayCheckpointAndRefuse(dir);
+            new JournalRoundTripTest().racingThreadsReplayInOrder(racedDir);
+        } finally {
+            delete(dir);
+            delete(racedDir);
+        }
+    }
+
+    private static void delete(Path dir) throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private void replayCheckpointAndRefuse(Path dir) throws IOException {
+        JournalManager journal = open(dir);
+        assertTrue(!journal.getRecoveryResult().isSnapshotLoaded(), "a new directory has no snapshot");
+        for (int t = 1; t <= 3; t++) {
+            tables.seat(t, 2);
+            orders.addOrder(tables.openOrder(t));
+            tables.addDish(t, 1, 2);
+            tables.addDish(t, 2, 1);
+        }
+        kitchen.removeDishFromOrder(restaurant.getTableById(2).getOrder().getId(), 2);
+        assertThrows(IllegalArgumentException.class, () -> orders.addOrder(new Order()),
+                "an order with no table could only be replayed empty, so it is not journaled");
+        payTable(1);
+        tables.changePrice(3, 5_000);
+        tables.addDish(3, 3, 1);
+        billing.closeDay();
+        payTable(3);
+        journal.close();
+        String expected = describe();
+        assertEquals(2, orders.getArchive().size(), "two orders were paid");
+
+        journal = open(dir);
+        assertEquals(expected, describe(), "state after replaying the journal");
+        assertTrue(journal.getRecoveryResult().getRecordsReplayed() > 0, "records were replayed");
+
+        journal.checkpoint();
+        journal.close();
+        journal = open(dir);
+        assertTrue(journal.getRecoveryResult().isSnapshotLoaded(), "checkpoint wrote a snapshot");
+        assertEquals(expected, describe(), "state after loading the checkpoint");
+
+        // A record for a dish the menu does not have, then a good one
+        journal.getJournal().append(JournalRecordType.ADD_DISH, 2, 99, 1);
+        tables.addDish(2, 3, 1);
+        journal.close();
+        IllegalStateException refused = null;
+        try {
+            open(dir).close();
+        } catch (IllegalStateException e) {
+            refused = e;
+        }
+        assertTrue(refused != null, "a refused record stops the recovery");
+        assertTrue(refused.getMessage().contains("ADD_DISH(2, 99, 1)"), "and names the record: " + refused.getMessage());
+    }
+
+    /**
+     * Waiters run their tables' whole lifecycles while a kitchen thread cooks
+     * the submitted orders, another thread keeps changing a price and a
+     * manager closes the day now and then. Every record must land in the
+     * order its move happened, or the replay refuses one (e.g. a SERVED ahead
+     * of its order's READY), bills differently or puts a payment in another day.
+     */
+    private void racingThreadsReplayInOrder(Path dir) throws Exception {
+        int numOfTables = 5;
+        int rounds = 200;
+        JournalManager journal = openConcurrent(dir);
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> waiters = new ArrayList<>();
+        for (int t = 1; t <= numOfTables; t++) {
+            int tableNumber = t;
+            waiters.add(new Thread(() -> {
+                try {
+                    for (int round = 0; round < rounds; round++) {
+                        serveOneTurn(tableNumber, 1 + round % 3);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }, "waiter-" + t));
+        }
+        Thread cook = new Thread(() -> {
+            while (!done.get()) {
+                for (Order order : new ArrayList<>(orders.listOrdersByStatus(OrderStatus.SUBMITTED))) {
+                    try {
+                        kitchen.startPreparing(order.getId());
+                        kitchen.orderIsReady(order.getId());
+                    } catch (RuntimeException e) {
+                        // another pass picked it up, or it was archived meanwhile
+                    }
+                }
+                Thread.yield();
+            }
+        }, "cook");
+        Thread pricing = new Thread(() -> {
+            for (int i = 0; !done.get(); i++) {
+                tables.changePrice(1, 4_800 + (i % 5) * 100);
+                Thread.yield();
+            }
+        }, "pricing");
+        Thread manager = new Thread(() -> {
+            while (!done.get()) {
+                billing.closeDay();
+                Thread.yield();
+            }
+        }, "manager");
+        cook.start();
+        pricing.start();
+        manager.start();
+        for (Thread waiter : waiters) {
+            waiter.start();
+        }
+        for (Thread waiter : waiters) {
+            waiter.join();
+        }
+        done.set(true);
+        cook.join();
+        pricing.join();
+        manager.join();
+        assertEquals(null, failure.get(), "every turn went through");
+        journal.close();
+        String expected = summarize();
+
+        journal = openConcurrent(dir);
+        assertEquals(expected, summarize(), "state after replaying the raced journal");
+        assertTrue(journal.getRecoveryResult().getRecordsReplayed() > numOfTables * rounds, "records were replayed");
+        journal.close();
+    }
+
+    private void serveOneTurn(int tableNumber, int dishId) {
+        tables.seat(tableNumber, 2);
+        Order order = tables.openOrder(tableNumber);
+        int orderId = orders.addOrder(order);
+        tables.addDish(tableNumber, dishId, 1);
+        kitchen.submitOrderToKitchen(orderId);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (order.getStatus() != OrderStatus.READY) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("order " + orderId + " never got READY");
+            }
+            Thread.yield();
+        }
+        billing.markServed(tableNumber);
+        billing.requestBill(tableNumber);
+        billing.pay(tableNumber);
+    }
+
+    // Totals that do not depend on how the tables' turns interleaved.
+    private String summarize() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("dish 1 price ").append(restaurant.getMenu().getDishOrThrow(1).getPriceMinor()).append('\n');
+        for (Table table : restaurant.listTables()) {
+            sb.append("table ").append(table.getTableNumber()).append(' ').append(table.getStatus()).append('\n');
+        }
+        sb.append("live orders ").append(orders.getNumOfOrders()).append(", next ").append(orders.getNextOrderId())
+                .append(", archived ").append(orders.getArchive().size()).append('\n');
+        SalesLedger ledger = orders.getSalesLedger();
+        sb.append("ledger checks ").append(ledger.getNumOfChecks()).append(", gross ").append(ledger.getGrossMinor())
+                .append(", revenue ").append(billing.getRevenueMinor()).append('\n');
+        sb.append("days closed ").append(billing.getDaysClosed()).append(", day gross ").append(billing.getDayGrossMinor())
+                .append(", day checks ").append(billing.getDayChecks());
+        return sb.toString();
+    }
+
+    private JournalManager open(Path dir) throws IOException {
+        restaurant = DemoData.createDemoRestaurant();
+        tables = new TableService(restaurant);
+        orders = new OrderService();
+        orders.setRetention(new OrderRetention());
+        orders.setSalesLedger(new SalesLedger());
+        kitchen = new KitchenService(orders);
+        billing = new BillingService(restaurant);
+        return JournalManager.open(dir, restaurant, tables, orders, kitchen, billing, 0, false);
+    }
+
+    private JournalManager openConcurrent(Path dir) throws IOException {
+        restaurant = DemoData.createDemoRestaurant();
+        tables = new TableService(restaurant);
+        orders = OrderService.concurrent();
+        orders.setRetention(new OrderRetention());
+        orders.setSalesLedger(new SalesLedger());
+        kitchen = new KitchenService(orders);
+        billing = new BillingService(restaurant);
+        return JournalManager.open(dir, restaurant, tables, orders, kitchen, billing, 0, false);
+    }
+
+    private void payTable(int tableNumber) {
+        int orderId = restaurant.getTableById(tableNumber).getOrder().getId();
+        kitchen.submitOrderToKitchen(orderId);
+        kitchen.startPreparing(orderId);
+        kitchen.orderIsReady(orderId);
+        billing.markServed(tableNumber);
+        billing.requestBill(tableNumber);
+        billing.pay(tableNumber);
+    }
+
+    // Tables, live and archived orders, ledger and billing totals as one comparable string.
+    private String describe() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("dish 3 price ").append(restaurant.getMenu().getDishOrThrow(3).getPriceMinor()).append('\n');
+        for (Table table : restaurant.listTables()) {
+            sb.append("table ").append(table.getTableNumber()).append(' ').append(table.getStatus()).append(' ')
+                    .append(table.getBillMinor()).append('\n');
+        }
+        sb.append("live orders ").append(orders.getNumOfOrders()).append(", next ").append(orders.getNextOrderId()).append('\n');
+        for (ArchivedOrder order : orders.getArchive().listOrders()) {
+            sb.append("archived ").append(order.getId()).append(" @").append(order.getTableNumber()).append(' ')
+                    .append(order.getClosedAtMillis()).append(' ').append(order.getTotalPriceMinor()).append('\n');
+        }
+        SalesLedger ledger = orders.getSalesLedger();
+        sb.append("ledger lines ").append(ledger.getNumOfLines()).append(", checks ").append(ledger.getNumOfChecks())
+                .append(", gross ").append(ledger.getGrossMinor()).append(", first close ")
+                .append(ledger.getFirstClosedAtMillis()).append('\n');
+        GroupTotals byDish = ledger.quantityByDish();
+        for (int i = 0; i < byDish.size(); i++) {
+            sb.append("dish ").append(byDish.keyAt(i)).append(" x").append(byDish.totalAt(i)).append('\n');
+        }
+        sb.append("revenue ").append(billing.getRevenueMinor()).append(", day ").append(billing.getDayGrossMinor())
+                .append('/').append(billing.getDayChecks()).append(", days closed ").append(billing.getDaysClosed());
+        return sb.toString();
+    }
+}
@@ -0,0 +1,143 @@
+package com.keren.restaurantsimulator.persistence;
+
+import com.keren.restaurantsimulator.model.ArchivedOrder;
+import com.keren.restaurantsimulator.model.Dish;
+import com.keren.restaurantsimulator.model.Menu;
+import com.keren.restaurantsimulator.model.Order;
+import com.keren.restaurantsimulator.model.Restaurant;
+import com.keren.restaurantsimulator.model.Table;
+import com.keren.restaurantsimulator.service.BillingService;
+import com.keren.restaurantsimulator.service.KitchenService;
+import com.keren.restaurantsimulator.service.OrderRetention;
+import com.keren.restaurantsimulator.service.OrderService;
+import com.keren.restaurantsimulator.service.TableService;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.keren.restaurantsimulator.Check.assertEquals;
+import static com.keren.restaurantsimulator.Check.assertTrue;
+
+/**
+ * RestaurantSnapshot save/load round trips: negative table numbers and dish
+ * ids, lines with their own price, prices a double cannot hold exactly,
+ * archived orders of a dish that left the menu, and a service without an
+ * archive.
+ */
+public final class RestaurantSnapshotTest {
+
+    private RestaurantSnapshotTest() {}
+
+    public static void main(String[] args) throws IOException {
+        run();
+        System.out.println("RestaurantSnapshotTest passed");
+    }
+
+    public static void run() throws IOException {
+        Path file = Files.createTempFile("restaurant-snapshot", ".bin");
+        try {
+            roundTrip(file);
+            withoutArchive(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void roundTrip(Path file) throws IOException {
+        Restaurant restaurant = new Restaurant(new Menu());
+        restaurant.getMenu().addDish(new Dish(-7, "Soup", 12.50, 5));
+        restaurant.getMenu().addDish(new Dish(Integer.MAX_VALUE, "Steak", 99.00, 20));
+        restaurant.getMenu().addDish(new Dish(Integer.MIN_VALUE, "Water", 1.00, 1));
+        long caviarMinor = (1L << 53) + 1;                  // not exact as a double
+        restaurant.getMenu().addDish(Dish.ofPriceMinor(4, "Caviar", caviarMinor, 3));
+        restaurant.addTable(new Table(-3, 4));
+        restaurant.addTable(new Table(Integer.MIN_VALUE, 2));
+        restaurant.addTable(new Table(12, 6));
+
+        OrderService orders = new OrderService();
+        orders.setRetention(new OrderRetention().setMaxArchivedOrders(50));
+        TableService tables = new TableService(restaurant);
+        KitchenService kitchen = new KitchenService(orders);
+        BillingService billing = new BillingService(restaurant);
+
+        for (int tableNumber : new int[]{-3, Integer.MIN_VALUE}) {
+            tables.seat(tableNumber, 2);
+            Order order = tables.openOrder(tableNumber);
+            tables.addDish(tableNumber, -7, 2);
+            tables.addDish(tableNumber, Integer.MIN_VALUE, 1);
+            int orderId = orders.addOrder(order);
+            kitchen.submitOrderToKitchen(orderId);
+            kitchen.startPreparing(orderId);
+            kitchen.orderIsReady(orderId);
+            billing.markServed(tableNumber);
+            billing.requestBill(tableNumber);
+            billing.pay(tableNumber);
+        }
+        restaurant.getMenu().removeDish(Integer.MIN_VALUE); // archived lines still name it
+        tables.seat(12, 3);
+        Order open = tables.openOrder(12);
+        tables.addDish(12, -7, 1);
+        tables.changePrice(-7, 1_500);                      // 15.00; the line keeps 12.50
+        tables.addDish(12, Integer.MAX_VALUE, 2);
+        orders.addOrder(open);
+
+        String before = describe(restaurant, orders);
+        RestaurantSnapshot.save(file, restaurant, orders);
+        RestaurantSnapshot loaded = RestaurantSnapshot.load(file);
+        assertEquals(before, describe(loaded.getRestaurant(), loaded.getOrderService()), "state after save + load");
+
+        OrderService loadedOrders = loaded.getOrderService();
+        assertEquals(2, loadedOrders.getArchive().size(), "archived orders");
+        ArchivedOrder first = loadedOrders.getArchive().listOrders().get(0);
+        assertEquals(-3, first.getTableNumber(), "oldest archived order first");
+        assertEquals("Water", first.getDishName(1), "name of a dish no longer on the menu");
+        Table table = loaded.getRestaurant().getTableById(12);
+        assertEquals(1_250 + 2 * 9_900, table.getBillMinor(), "open order keeps its line prices");
+        assertEquals(caviarMinor, loaded.getRestaurant().getMenu().getDishOrThrow(4).getPriceMinor(),
+                "dish prices are loaded in minor units");
+    }
+
+    private static void withoutArchive(Path file) throws IOException {
+        Restaurant restaurant = new Restaurant(new Menu());
+        restaurant.getMenu().addDish(new Dish(1, "Tea", 8.00, 2));
+        restaurant.addTable(new Table(1, 2));
+        RestaurantSnapshot.save(file, restaurant, new OrderService());
+        RestaurantSnapshot loaded = RestaurantSnapshot.load(file);
+        assertTrue(loaded.getOrderService().getArchive() == null, "no archive is created on load");
+        assertEquals(1, loaded.getRestaurant().size(), "tables");
+    }
+
+    // Everything the snapshot keeps, as one comparable string.
+    private static String describe(Restaurant restaurant, OrderService orders) {
+        StringBuilder sb = new StringBuilder();
+        for (Dish dish : restaurant.getMenu().listDishes()) {
+            sb.append("dish ").append(dish.getId()).append(' ').append(dish.getName()).append(' ')
+                    .append(dish.getPriceMinor()).append(' ').append(dish.getPrepTimeMinutes()).append('\n');
+        }
+        for (Table table : restaurant.listTables()) {
+            sb.append("table ").append(table.getTableNumber()).append(' ').append(table.getCapacity()).append(' ')
+                    .append(table.getStatus()).append(' ').append(table.getBillMinor()).append('\n');
+        }
+        sb.append("next order ").append(orders.getNextOrderId()).append('\n');
+        for (Order order : orders.listOrders()) {
+            sb.append("order ").append(order.getId()).append(" @").append(order.getTableNumber()).append(' ')
+                    .append(order.getStatus()).append(' ').append(order.getTotalPriceMinor()).append('\n');
+        }
+        if (orders.getArchive() != null) {
+            sb.append("archive ").append(orders.getArchive().getMaxOrders()).append(' ')
+                    .append(orders.getArchive().getMaxAgeMillis()).append('\n');
+            for (ArchivedOrder order : orders.getArchive().listOrders()) {
+                sb.append("archived ").append(order.getId()).append(" @").append(order.getTableNumber()).append(' ')
+                        .append(order.getStatus()).append(' ').append(order.getClosedAtMillis()).append(' ')
+                        .append(order.getTotalPriceMinor());
+                for (int i = 0; i < order.getNumOfLines(); i++) {
+                    sb.append(" [").append(order.getDishId(i)).append(' ').append(order.getDishName(i)).append(" x")
+                            .append(order.getQuantity(i)).append(" @").append(order.getUnitPriceMinor(i)).append(']');
+                }
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+}
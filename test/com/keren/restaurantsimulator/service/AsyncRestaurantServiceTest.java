@@ -0,0 +1,183 @@
+package com.keren.restaurantsimulator.service;
+
+import com.keren.restaurantsimulator.app.DemoData;
+import com.keren.restaurantsimulator.enums.TableStatus;
+import com.keren.restaurantsimulator.model.Restaurant;
+import com.keren.restaurantsimulator.model.Table;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.keren.restaurantsimulator.Check.assertEquals;
+import static com.keren.restaurantsimulator.Check.assertTrue;
+
+/**
+ * AsyncRestaurantService keeps each table's steps in call order even when
+ * the executor runs its tasks in random order on several threads, a failed
+ * step does not stop the ones queued behind it, and walk-ins seated at once
+ * each get their own table.
+ */
+public final class AsyncRestaurantServiceTest {
+
+    private AsyncRestaurantServiceTest() {}
+
+    public static void main(String[] args) throws Exception {
+        run();
+        System.out.println("AsyncRestaurantServiceTest passed");
+    }
+
+    public static void run() throws Exception {
+        ShufflingExecutor executor = new ShufflingExecutor(3);
+        try {
+            fullLifecyclesWithoutWaiting(executor);
+            failedStepDoesNotBlockTheLane(executor);
+            walkInsGetTheirOwnTables(executor);
+        } finally {
+            executor.stop();
+        }
+    }
+
+    // Every table's whole lifecycle is fired at once; only the pay futures are awaited.
+    private static void fullLifecyclesWithoutWaiting(Executor executor) throws Exception {
+        int numOfTables = 40;
+        Restaurant restaurant = DemoData.createDemoRestaurant(numOfTables);
+        AsyncRestaurantService async = new AsyncRestaurantService(restaurant, executor);
+        List<CompletableFuture<Double>> payments = new ArrayList<>();
+        long expectedMinor = 0;
+        for (int round = 0; round < 3; round++) {
+            for (int t = 1; t <= numOfTables; t++) {
+                async.seat(t, 2);
+                async.openOrder(t);
+                async.addDish(t, 1, 1);
+                async.addDish(t, 6, t % 4 + 1);
+                async.submit(t);
+                async.startPreparing(t);
+                async.orderIsReady(t);
+                async.markServed(t);
+                async.requestBill(t);
+                payments.add(async.pay(t));
+                expectedMinor += 4_800 + 1_200L * (t % 4 + 1);
+            }
+        }
+        long paidMinor = 0;
+        for (CompletableFuture<Double> payment : payments) {
+            paidMinor += Math.round(await(payment) * 100);
+        }
+        assertEquals(expectedMinor, paidMinor, "every payment went through");
+        assertEquals(expectedMinor, async.getBillingService().getRevenueMinor(), "revenue");
+        assertEquals(expectedMinor, async.getBillingService().getDayGrossMinor(), "day gross");
+        assertEquals(3L * numOfTables, async.getBillingService().getDayChecks(), "day checks");
+        assertEquals(numOfTables, restaurant.countTables(TableStatus.FREE), "every table is free again");
+        assertEquals(3 * numOfTables, async.getOrderService().getNumOfOrders(), "one order per turn");
+    }
+
+    private static void failedStepDoesNotBlockTheLane(Executor executor) throws Exception {
+        Restaurant restaurant = DemoData.createDemoRestaurant();
+        AsyncRestaurantService async = new AsyncRestaurantService(restaurant, executor);
+        CompletableFuture<Void> tooMany = async.seat(1, 9);     // table 1 seats 2
+        CompletableFuture<Void> seated = async.seat(1, 2);
+        CompletableFuture<?> opened = async.openOrder(1);
+        CompletableFuture<?> openedTwice = async.openOrder(1);
+        CompletableFuture<?> added = async.addDish(1, 1, 1);
+
+        assertTrue(failed(tooMany), "a party too big for the table fails");
+        await(seated);
+        await(opened);
+        assertTrue(failed(openedTwice), "a second open order fails");
+        await(added);
+        Table table = restaurant.getTableById(1);
+        assertEquals(TableStatus.OCCUPIED, table.getStatus(), "the steps after the failures ran");
+        assertEquals(4_800, table.getBillMinor(), "the dish went to the first order");
+    }
+
+    private static void walkInsGetTheirOwnTables(Executor executor) throws Exception {
+        int numOfTables = 30;
+        Restaurant restaurant = DemoData.createDemoRestaurant(numOfTables);
+        AsyncRestaurantService async = new AsyncRestaurantService(restaurant, executor);
+        List<CompletableFuture<Table>> walkIns = new ArrayList<>();
+        for (int i = 0; i < numOfTables; i++) {
+            walkIns.add(async.seatBestFit(2));
+        }
+        Set<Integer> seated = new HashSet<>();
+        for (CompletableFuture<Table> walkIn : walkIns) {
+            seated.add(await(walkIn).getTableNumber());
+        }
+        assertEquals(numOfTables, seated.size(), "every walk-in got a table of its own");
+        assertEquals(0, restaurant.countTables(TableStatus.FREE), "the floor is full");
+        assertTrue(failed(async.seatBestFit(2)), "nobody else fits");
+    }
+
+    private static <T> T await(CompletableFuture<T> future) throws Exception {
+        return future.get(30, TimeUnit.SECONDS);
+    }
+
+    private static boolean failed(CompletableFuture<?> future) throws InterruptedException, TimeoutException {
+        try {
+            future.get(30, TimeUnit.SECONDS);
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        }
+    }
+
+    // Runs queued tasks in random order on its own threads.
+    private static final class ShufflingExecutor implements Executor {
+        private final List<Runnable> queue = new ArrayList<>();
+        private final List<Thread> threads = new ArrayList<>();
+        private final SplittableRandom random = new SplittableRandom(7);
+        private boolean stopped;
+
+        ShufflingExecutor(int numOfThreads) {
+            for (int i = 0; i < numOfThreads; i++) {
+                Thread thread = new Thread(this::work, "shuffling-" + i);
+                thread.setDaemon(true);
+                threads.add(thread);
+                thread.start();
+            }
+        }
+
+        @Override
+        public synchronized void execute(Runnable task) {
+            queue.add(task);
+            notifyAll();
+        }
+
+        private void work() {
+            while (true) {
+                Runnable task;
+                synchronized (this) {
+                    while (queue.isEmpty() && !stopped) {
+                        try {
+                            wait();
+                        } catch (InterruptedException e) {
+                            return;
+                        }
+                    }
+                    if (stopped) {
+                        return;
+                    }
+                    task = queue.remove(random.nextInt(queue.size()));
+                }
+                task.run();
+            }
+        }
+
+        void stop() throws InterruptedException {
+            synchronized (this) {
+                stopped = true;
+                notifyAll();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.keren.restaurantsimulator.service;
+
+import com.keren.restaurantsimulator.app.DemoData;
+import com.keren.restaurantsimulator.enums.OrderStatus;
+import com.keren.restaurantsimulator.enums.TableStatus;
+import com.keren.restaurantsimulator.model.Order;
+import com.keren.restaurantsimulator.model.Restaurant;
+import com.keren.restaurantsimulator.model.Table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.keren.restaurantsimulator.Check.assertEquals;
+import static com.keren.restaurantsimulator.Check.assertThrows;
+import static com.keren.restaurantsimulator.Check.assertTrue;
+
+/**
+ * BillingService batch settlement (payAll / payAllWaiting) and the business
+ * day totals that closeDay() reports and resets, also with several payers
+ * and a day close racing each other.
+ */
+public final class BillingServiceTest {
+
+    private final Restaurant restaurant = DemoData.createDemoRestaurant();
+    private final TableService tables = new TableService(restaurant);
+    private final BillingService billing = new BillingService(restaurant);
+
+    private BillingServiceTest() {}
+
+    public static void main(String[] args) throws Exception {
+        run();
+        System.out.println("BillingServiceTest passed");
+    }
+
+    public static void run() throws Exception {
+        new BillingServiceTest().payAllSkipsWhatItCannotPay();
+        new BillingServiceTest().payAllWaitingSettlesTheFloor();
+        new BillingServiceTest().closeDayReportsAndResets();
+        payAllWaitingReportsTablesPaidMeanwhile();
+        racingPayersAndCloseDayCountEveryCheckOnce();
+    }
+
+    private void payAllSkipsWhatItCannotPay() {
+        Order first = waitForBill(1, 1, 2);      // 2 x 48.00
+        Order second = waitForBill(2, 4, 1);     // 59.00
+        waitForBill(3, 6, 3);                    // 3 x 12.00
+        tables.seat(4, 2);                       // occupied, no bill requested
+
+        SettlementResult result = billing.payAll(1, 2, 4, 99, 2, 3);
+        assertEquals(3, result.getSettled(), "tables 1, 2 and 3 are paid");
+        assertEquals(9_600 + 5_900 + 3_600, result.getTotalMinor(), "batch total");
+        assertEquals("[4, 99, 2]", Arrays.toString(result.getSkippedTables()),
+                "not waiting, unknown and listed twice are skipped in order");
+        assertEquals(OrderStatus.PAID, first.getStatus(), "orders are paid");
+        assertEquals(OrderStatus.PAID, second.getStatus(), "orders are paid");
+        for (int t = 1; t <= 3; t++) {
+            assertEquals(TableStatus.FREE, restaurant.getTableById(t).getStatus(), "table " + t + " is freed");
+        }
+        assertEquals(TableStatus.OCCUPIED, restaurant.getTableById(4).getStatus(), "skipped table is untouched");
+        assertEquals(19_100, billing.getRevenueMinor(), "revenue");
+        assertEquals(3, billing.getDayChecks(), "day checks");
+        assertThrows(IllegalArgumentException.class, () -> billing.payAll((int[]) null), "null ids");
+    }
+
+    private void payAllWaitingSettlesTheFloor() {
+        waitForBill(2, 3, 1);                    // 34.00
+        waitForBill(5, 2, 2);                    // 2 x 54.00
+        tables.seat(1, 2);
+
+        SettlementResult result = billing.payAllWaiting();
+        assertEquals(2, result.getSettled(), "both waiting tables are paid");
+        assertEquals(3_400 + 10_800, result.getTotalMinor(), "total");
+        assertEquals(0, restaurant.countTables(TableStatus.WAITING_FOR_BILL), "nobody is left waiting");
+        assertEquals(TableStatus.OCCUPIED, restaurant.getTableById(1).getStatus(), "occupied table is untouched");
+        assertEquals(0, billing.payAllWaiting().getSettled(), "a second pass has nothing to do");
+    }
+
+    private void closeDayReportsAndResets() {
+        waitForBill(1, 1, 1);
+        billing.pay(1);                          // 48.00
+        waitForBill(2, 6, 1);
+        billing.pay(2);                          // 12.00
+
+        DayClose day = billing.closeDay();
+        assertEquals(1, day.getDay(), "first day");
+        assertEquals(6_000, day.getGrossMinor(), "day gross");
+        assertEquals(2, day.getChecks(), "day checks");
+        assertEquals(3_000, day.getAverageCheckMinor(), "average check");
+        assertEquals(0, billing.getDayGrossMinor(), "the next day starts from zero");
+        assertEquals(0, billing.getDayChecks(), "the next day starts with no checks");
+
+        waitForBill(3, 4, 1);
+        billing.payAll(3);                       // 59.00
+        DayClose next = billing.closeDay();
+        assertEquals(2, next.getDay(), "second day");
+        assertEquals(5_900, next.getGrossMinor(), "only the second day's payment");
+        assertEquals(6_000 + 5_900, billing.getRevenueMinor(), "lifetime revenue is not reset");
+        assertEquals(0, billing.closeDay().getAverageCheckMinor(), "an empty day averages to zero");
+    }
+
+    // Another payer settles table 2 right after payAllWaiting() lists the floor.
+    private static void payAllWaitingReportsTablesPaidMeanwhile() {
+        BillingService[] other = new BillingService[1];
+        Restaurant restaurant = new Restaurant(DemoData.createDemoMenu()) {
+            @Override
+            public Collection<Table> listTablesByStatus(TableStatus status) {
+                Collection<Table> listed = super.listTablesByStatus(status);
+                Table[] copy = listed.toArray(new Table[0]);
+                other[0].pay(2);
+                return Arrays.asList(copy);
+            }
+        };
+        for (int t = 1; t <= 3; t++) {
+            restaurant.addTable(new Table(t, 4));
+        }
+        TableService tables = new TableService(restaurant);
+        BillingService billing = new BillingService(restaurant);
+        other[0] = new BillingService(restaurant);
+        for (int t = 1; t <= 3; t++) {
+            tables.seat(t, 2);
+            tables.openOrder(t);
+            tables.addDish(t, 6, 1);
+            billing.requestBill(t);
+        }
+
+        SettlementResult result = billing.payAllWaiting();
+        assertEquals(2, result.getSettled(), "tables 1 and 3 are paid");
+        assertEquals("[2]", Arrays.toString(result.getSkippedTables()), "the table paid meanwhile is reported");
+        assertEquals(1_200, other[0].getRevenueMinor(), "by the other payer");
+    }
+
+    /**
+     * Three threads run payAllWaiting() over the same floor while a fourth
+     * closes the day. Every table is settled once, a table a payer lost is
+     * reported as skipped, and each check lands whole in exactly one day.
+     */
+    private static void racingPayersAndCloseDayCountEveryCheckOnce() throws Exception {
+        int numOfTables = 30;
+        for (int round = 0; round < 50; round++) {
+            Restaurant restaurant = DemoData.createDemoRestaurant(numOfTables);
+            TableService tables = new TableService(restaurant);
+            BillingService billing = new BillingService(restaurant);
+            for (int t = 1; t <= numOfTables; t++) {
+                tables.seat(t, 2);
+                tables.openOrder(t);
+                tables.addDish(t, 6, 1);                 // 12.00
+                billing.requestBill(t);
+            }
+
+            CyclicBarrier start = new CyclicBarrier(4);
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            SettlementResult[] results = new SettlementResult[3];
+            long[] closed = new long[2];                 // gross, checks of the days closed while paying
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < results.length; i++) {
+                int payer = i;
+                threads.add(new Thread(() -> {
+                    try {
+                        start.await();
+                        results[payer] = billing.payAllWaiting();
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }, "payer-" + i));
+            }
+            threads.add(new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < 5; i++) {
+                        DayClose day = billing.closeDay();
+                        assertEquals(day.getChecks() * 1_200, day.getGrossMinor(), "a day's gross matches its checks");
+                        closed[0] += day.getGrossMinor();
+                        closed[1] += day.getChecks();
+                        Thread.yield();
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }, "closer"));
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(null, failure.get(), "no thread failed");
+
+            int settled = 0;
+            int mostListed = 0;
+            for (SettlementResult result : results) {
+                settled += result.getSettled();
+                mostListed = Math.max(mostListed, result.getSettled() + result.getNumOfSkipped());
+                assertTrue(result.getSettled() + result.getNumOfSkipped() <= numOfTables, "each table is listed once");
+                for (int tableId : result.getSkippedTables()) {
+                    assertEquals(TableStatus.FREE, restaurant.getTableById(tableId).getStatus(),
+                            "table " + tableId + " was skipped because another payer settled it");
+                }
+            }
+            assertEquals(numOfTables, settled, "each table was paid once");
+            // Nothing is paid before the first payer lists the floor, so it accounts for every table
+            assertEquals(numOfTables, mostListed, "the first payer reports what it lost to the others");
+            assertEquals(numOfTables * 1_200L, billing.getRevenueMinor(), "revenue");
+            DayClose last = billing.closeDay();
+            assertEquals(billing.getRevenueMinor(), closed[0] + last.getGrossMinor(), "the days add up to the revenue");
+            assertEquals((long) numOfTables, closed[1] + last.getChecks(), "every check is in exactly one day");
+        }
+    }
+
+    private Order waitForBill(int tableNumber, int dishId, int quantity) {
+        tables.seat(tableNumber, 2);
+        Order order = tables.openOrder(tableNumber);
+        tables.addDish(tableNumber, dishId, quantity);
+        billing.requestBill(tableNumber);
+        return order;
+    }
+}
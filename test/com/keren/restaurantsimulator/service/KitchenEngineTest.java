@@ -0,0 +1,158 @@
+package com.keren.restaurantsimulator.service;
+
+import com.keren.restaurantsimulator.enums.KitchenStation;
+import com.keren.restaurantsimulator.enums.OrderStatus;
+import com.keren.restaurantsimulator.model.Dish;
+import com.keren.restaurantsimulator.model.Order;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.keren.restaurantsimulator.Check.assertEquals;
+import static com.keren.restaurantsimulator.Check.assertThrows;
+import static com.keren.restaurantsimulator.Check.assertTrue;
+
+/**
+ * KitchenEngine: a full station blocks the submitting waiter until a cook
+ * frees a slot, and every submitted order still ends up READY; a waiter
+ * interrupted while blocked leaves a failed order, not a hung awaitIdle().
+ */
+public final class KitchenEngineTest {
+
+    private KitchenEngineTest() {}
+
+    public static void main(String[] args) throws Exception {
+        run();
+        System.out.println("KitchenEngineTest passed");
+    }
+
+    public static void run() throws Exception {
+        fullStationBlocksTheWaiter();
+        interruptedSubmitIsAFailure();
+        rejectsBadSetup();
+    }
+
+    private static void fullStationBlocksTheWaiter() throws Exception {
+        Dish steak = new Dish(1, "Steak", 80.0, 5);
+        OrderService orderService = OrderService.concurrent();
+        // GRILL holds one waiting ticket and has one cook taking 100 ms per ticket
+        KitchenEngine kitchen = new KitchenEngine(new KitchenService(orderService), Map.of(1, KitchenStation.GRILL),
+                KitchenStation.GRILL, 1, 1, TimeUnit.MILLISECONDS.toNanos(20));
+        List<Integer> orderIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Order order = new Order();
+            order.addDish(steak, 1);
+            orderIds.add(orderService.addOrder(order));
+        }
+
+        kitchen.start();
+        AtomicReference<Throwable> waiterError = new AtomicReference<>();
+        Thread waiter = new Thread(() -> {
+            try {
+                for (int orderId : orderIds) {
+                    kitchen.submit(orderId);
+                }
+            } catch (Throwable e) {
+                waiterError.set(e);
+            }
+        }, "waiter");
+        waiter.start();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (grill(kitchen).getBlockedSubmits() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(grill(kitchen).getBlockedSubmits() >= 1, "third submit blocks on the full GRILL queue");
+        assertTrue(waiter.isAlive(), "waiter is still blocked while the cook works");
+
+        waiter.join(TimeUnit.SECONDS.toMillis(10));
+        assertTrue(!waiter.isAlive(), "waiter is released once the cook frees a slot");
+        assertEquals(null, waiterError.get(), "submits did not fail");
+        assertTrue(kitchen.awaitIdle(10, TimeUnit.SECONDS), "kitchen drains");
+        kitchen.shutdown();
+
+        assertEquals(3, kitchen.getOrdersCompleted(), "all orders completed");
+        assertEquals(0, kitchen.getOutstandingOrders(), "nothing outstanding");
+        assertEquals(0, kitchen.getFailures(), "no failures");
+        for (int orderId : orderIds) {
+            assertEquals(OrderStatus.READY, orderService.getOrder(orderId).getStatus(), "order " + orderId + " is ready");
+        }
+        assertEquals(3, grill(kitchen).getTicketsCompleted(), "GRILL cooked every ticket");
+        assertTrue(grill(kitchen).getMaxQueueDepth() <= 1, "GRILL queue never exceeded its capacity");
+    }
+
+    private static void interruptedSubmitIsAFailure() throws Exception {
+        Dish steak = new Dish(1, "Steak", 80.0, 5);
+        Dish burger = new Dish(2, "Burger", 50.0, 5);
+        OrderService orderService = OrderService.concurrent();
+        KitchenEngine kitchen = new KitchenEngine(new KitchenService(orderService), Map.of(),
+                KitchenStation.GRILL, 1, 1, TimeUnit.MILLISECONDS.toNanos(20));
+        Order first = new Order();
+        first.addDish(steak, 1);
+        Order second = new Order();
+        second.addDish(steak, 1);
+        second.addDish(burger, 2);                 // blocks behind its steak
+        Order third = new Order();
+        third.addDish(burger, 1);
+        third.addDish(steak, 1);
+        int[] orderIds = {orderService.addOrder(first), orderService.addOrder(second), orderService.addOrder(third)};
+
+        kitchen.start();
+        AtomicReference<Throwable> waiterError = new AtomicReference<>();
+        Thread waiter = new Thread(() -> {
+            try {
+                for (int orderId : orderIds) {
+                    kitchen.submit(orderId);
+                }
+            } catch (Throwable e) {
+                waiterError.set(e);
+            }
+        }, "waiter");
+        waiter.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (grill(kitchen).getBlockedSubmits() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        waiter.interrupt();
+        waiter.join(TimeUnit.SECONDS.toMillis(10));
+        assertTrue(waiterError.get() instanceof InterruptedException, "the blocked submit was interrupted");
+
+        assertTrue(kitchen.awaitIdle(10, TimeUnit.SECONDS), "the partly queued order does not hold up awaitIdle");
+        kitchen.shutdown();
+        assertEquals(0, kitchen.getOutstandingOrders(), "nothing outstanding");
+        assertEquals(1, kitchen.getFailures(), "the interrupted order is a failure");
+        assertEquals(1, kitchen.getOrdersCompleted(), "the first order was cooked");
+        assertEquals(OrderStatus.READY, first.getStatus(), "first order is ready");
+        assertTrue(second.getStatus() != OrderStatus.READY, "the second order is not READY with a line missing");
+        assertEquals(OrderStatus.CREATED, third.getStatus(), "the third order was never submitted");
+    }
+
+    private static void rejectsBadSetup() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new KitchenEngine(new KitchenService(new OrderService()), Map.of(), KitchenStation.GRILL, 1, 1, 0),
+                "a non-concurrent OrderService is rejected");
+        assertThrows(IllegalArgumentException.class,
+                () -> new KitchenEngine(new KitchenService(OrderService.concurrent()), Map.of(), KitchenStation.GRILL, 0, 1, 0),
+                "queue capacity must be positive");
+        KitchenEngine stopped = new KitchenEngine(new KitchenService(OrderService.concurrent()), Map.of(), KitchenStation.GRILL, 1, 1, 0);
+        assertThrows(IllegalStateException.class, () -> {
+            try {
+                stopped.submit(1);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }, "submit needs a started kitchen");
+    }
+
+    private static KitchenStationStats grill(KitchenEngine kitchen) {
+        for (KitchenStationStats stats : kitchen.getStationStats()) {
+            if (stats.getStation() == KitchenStation.GRILL) {
+                return stats;
+            }
+        }
+        throw new IllegalStateException("no GRILL stats");
+    }
+}
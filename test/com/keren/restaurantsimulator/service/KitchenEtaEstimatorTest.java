@@ -0,0 +1,169 @@
+package com.keren.restaurantsimulator.service;
+
+import com.keren.restaurantsimulator.model.Dish;
+import com.keren.restaurantsimulator.model.Order;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.keren.restaurantsimulator.Check.assertEquals;
+import static com.keren.restaurantsimulator.Check.assertThrows;
+
+/**
+ * KitchenEtaEstimator on a hand-driven clock: queue wait from the load ahead,
+ * cooks sharing the queue, calibration from finished orders, a clock that
+ * starts at 0, events arriving out of order, and the events KitchenService
+ * feeds it.
+ */
+public final class KitchenEtaEstimatorTest {
+
+    private static final long NANOS_PER_MINUTE = 100;
+    private static final Dish ROAST = new Dish(1, "Roast", 90.00, 10);
+    private static final Dish SOUP = new Dish(2, "Soup", 12.50, 5);
+    private static final Dish SALAD = new Dish(3, "Salad", 30.00, 3);
+
+    private final AtomicLong now = new AtomicLong(1_000);
+
+    private KitchenEtaEstimatorTest() {}
+
+    public static void main(String[] args) {
+        run();
+        System.out.println("KitchenEtaEstimatorTest passed");
+    }
+
+    public static void run() {
+        new KitchenEtaEstimatorTest().queueAheadAndStart();
+        new KitchenEtaEstimatorTest().cooksShareTheQueue();
+        new KitchenEtaEstimatorTest().calibratesFromFinishedOrders();
+        new KitchenEtaEstimatorTest().forgottenOrderNoLongerHoldsUpTheQueue();
+        new KitchenEtaEstimatorTest().startAtClockZero();
+        new KitchenEtaEstimatorTest().eventsOutOfOrder();
+        new KitchenEtaEstimatorTest().fedByKitchenService();
+        assertThrows(IllegalArgumentException.class, () -> new KitchenEtaEstimator(0), "cooks must be positive");
+    }
+
+    private void queueAheadAndStart() {
+        KitchenEtaEstimator eta = estimator(1);
+        eta.onSubmitted(1, order(ROAST));            // load 10, span 10
+        eta.onSubmitted(2, order(SOUP, SALAD));      // load 8, span 5
+        assertEquals(1_000 + 10 * NANOS_PER_MINUTE, eta.getEtaNanos(1), "first order: its own span");
+        assertEquals(1_000 + (10 + 5) * NANOS_PER_MINUTE, eta.getEtaNanos(2), "second order waits for the first");
+        assertEquals(15 * NANOS_PER_MINUTE, eta.getRemainingNanos(2), "remaining time");
+        assertEquals(-1, eta.getEtaNanos(3), "unknown order");
+
+        now.set(1_200);
+        eta.onStarted(1);
+        assertEquals(1_200 + 10 * NANOS_PER_MINUTE, eta.getEtaNanos(1), "started order: start + span");
+        assertEquals(1_200 + 5 * NANOS_PER_MINUTE, eta.getEtaNanos(2), "nothing is queued ahead any more");
+
+        now.set(5_000);
+        assertEquals(5_000, eta.getEtaNanos(1), "a late order is due now, never in the past");
+        assertEquals(2, eta.getNumOfOpenOrders(), "both orders are open");
+    }
+
+    private void cooksShareTheQueue() {
+        KitchenEtaEstimator eta = estimator(2);
+        eta.onSubmitted(1, order(ROAST));
+        eta.onSubmitted(2, order(ROAST));
+        eta.onSubmitted(3, order(SOUP));
+        assertEquals(1_000 + (20 / 2 + 5) * NANOS_PER_MINUTE, eta.getEtaNanos(3), "two cooks halve the wait");
+    }
+
+    private void calibratesFromFinishedOrders() {
+        KitchenEtaEstimator eta = estimator(1);
+        assertEquals(NANOS_PER_MINUTE, eta.getNanosPerPrepMinute(), "configured rate before any data");
+        eta.onSubmitted(1, order(ROAST));
+        eta.onStarted(1);
+        now.addAndGet(10 * 4 * NANOS_PER_MINUTE);    // took four times the nominal prep time
+        eta.onReady(1);
+        // (4000 actual + 100 x 30 prior minutes) / (10 + 30 minutes)
+        assertEquals((4_000 + NANOS_PER_MINUTE * 30) / 40, eta.getNanosPerPrepMinute(), "window pulls the rate up");
+        assertEquals(0, eta.getNumOfOpenOrders(), "ready orders are dropped");
+
+        for (int id = 2; id <= 5; id++) {            // window of 4: the first order falls out
+            eta.onSubmitted(id, order(SOUP));
+            eta.onStarted(id);
+            now.addAndGet(5 * NANOS_PER_MINUTE);
+            eta.onReady(id);
+        }
+        assertEquals(NANOS_PER_MINUTE, eta.getNanosPerPrepMinute(), "on-time orders bring it back");
+    }
+
+    private void forgottenOrderNoLongerHoldsUpTheQueue() {
+        KitchenEtaEstimator eta = estimator(1);
+        eta.onSubmitted(1, order(ROAST));
+        eta.onSubmitted(2, order(SOUP));
+        eta.forget(1);
+        assertEquals(1_000 + 5 * NANOS_PER_MINUTE, eta.getEtaNanos(2), "the cancelled order's load is gone");
+        assertEquals(-1, eta.getEtaNanos(1), "forgotten order has no ETA");
+    }
+
+    // A start at time 0 is a start, not "not started yet".
+    private void startAtClockZero() {
+        now.set(0);
+        KitchenEtaEstimator eta = estimator(1);
+        eta.onSubmitted(1, order(ROAST));
+        eta.onSubmitted(2, order(SOUP));
+        eta.onStarted(1);
+        assertEquals(5 * NANOS_PER_MINUTE, eta.getRemainingNanos(2), "the roast started, nothing waits ahead");
+        now.set(300);
+        eta.onStarted(1);                            // reported twice: still started at 0
+        assertEquals(10 * NANOS_PER_MINUTE, eta.getEtaNanos(1), "started at 0 + span");
+        now.set(10 * NANOS_PER_MINUTE);
+        eta.onReady(1);
+        assertEquals(NANOS_PER_MINUTE, eta.getNanosPerPrepMinute(), "an on-time order started at 0 calibrates");
+        assertEquals(1, eta.getNumOfOpenOrders(), "the soup is still open");
+    }
+
+    // A cook's start or ready can be reported before the waiter's submit.
+    private void eventsOutOfOrder() {
+        KitchenEtaEstimator eta = estimator(1);
+        eta.onStarted(1);                            // at 1_000, before its submit
+        assertEquals(-1, eta.getEtaNanos(1), "no ETA before the submit arrives");
+        assertEquals(0, eta.getNumOfOpenOrders(), "not open before the submit arrives");
+        eta.onSubmitted(1, order(ROAST));
+        eta.onSubmitted(2, order(SOUP));
+        assertEquals(1_000 + 10 * NANOS_PER_MINUTE, eta.getEtaNanos(1), "the early start counts");
+        assertEquals(1_000 + 5 * NANOS_PER_MINUTE, eta.getEtaNanos(2), "the started roast is not ahead of the soup");
+
+        now.addAndGet(20 * NANOS_PER_MINUTE);
+        eta.onReady(2);                              // ready reported before its start
+        assertEquals(2, eta.getNumOfOpenOrders(), "waits for the start");
+        eta.onStarted(2);
+        assertEquals(1, eta.getNumOfOpenOrders(), "settled once all three are in");
+
+        eta.onStarted(3);
+        eta.onReady(3);
+        eta.onSubmitted(3, order(SALAD));            // submit reported last
+        assertEquals(1, eta.getNumOfOpenOrders(), "settled by its late submit");
+        assertEquals(-1, eta.getEtaNanos(3), "and gone");
+    }
+
+    private void fedByKitchenService() {
+        OrderService orders = new OrderService();
+        KitchenService kitchen = new KitchenService(orders);
+        KitchenEtaEstimator eta = estimator(1);
+        kitchen.setEtaEstimator(eta);
+        int first = orders.addOrder(order(ROAST));
+        int second = orders.addOrder(order(SOUP));
+        kitchen.submitOrderToKitchen(first);
+        kitchen.submitOrderToKitchen(second);
+        assertEquals(1_000 + 15 * NANOS_PER_MINUTE, eta.getEtaNanos(second), "submit feeds the queue");
+        kitchen.startPreparing(first);
+        now.addAndGet(10 * NANOS_PER_MINUTE);
+        kitchen.orderIsReady(first);
+        assertEquals(-1, eta.getEtaNanos(first), "ready order leaves the estimator");
+        assertEquals(1, eta.getNumOfOpenOrders(), "the second order is still open");
+    }
+
+    private KitchenEtaEstimator estimator(int cooks) {
+        return new KitchenEtaEstimator(cooks, NANOS_PER_MINUTE, 4, now::get);
+    }
+
+    private static Order order(Dish... dishes) {
+        Order order = new Order();
+        for (Dish dish : dishes) {
+            order.addDish(dish, 1);
+        }
+        return order;
+    }
+}
@@ -0,0 +1,113 @@
+package com.keren.restaurantsimulator.service;
+
+import com.keren.restaurantsimulator.enums.OrderStatus;
+import com.keren.restaurantsimulator.model.ArchivedOrder;
+import com.keren.restaurantsimulator.model.Dish;
+import com.keren.restaurantsimulator.model.Order;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.keren.restaurantsimulator.Check.assertEquals;
+import static com.keren.restaurantsimulator.Check.assertThrows;
+import static com.keren.restaurantsimulator.Check.assertTrue;
+
+/**
+ * OrderService with retention: closed orders move to the archive, which keeps
+ * their lines and evicts the oldest ones by count and by age.
+ */
+public final class OrderArchiveTest {
+
+    private static final Dish SOUP = new Dish(1, "Soup", 12.50, 5);
+    private static final Dish TEA = new Dish(2, "Tea", 8.00, 2);
+
+    private OrderArchiveTest() {}
+
+    public static void main(String[] args) {
+        run();
+        System.out.println("OrderArchiveTest passed");
+    }
+
+    public static void run() {
+        closedOrdersMoveToTheArchive();
+        evictsByCount();
+        evictsByAge();
+    }
+
+    private static void closedOrdersMoveToTheArchive() {
+        OrderService orders = new OrderService();
+        orders.setRetention(new OrderRetention().setClock(() -> 42));
+        int paid = orders.addOrder(order(7, 2));
+        int open = orders.addOrder(order(8, 1));
+        int cancelled = orders.addOrder(order(9, 1));
+        orders.getOrder(paid).setStatus(OrderStatus.PAID);
+        orders.getOrder(cancelled).setStatus(OrderStatus.CANCELLED);
+
+        assertEquals(1, orders.getNumOfOrders(), "only the open order stays live");
+        assertEquals(2, orders.getArchive().size(), "closed orders are archived");
+        assertEquals(0, orders.countOrders(OrderStatus.PAID), "archived orders leave the status index");
+        assertThrows(IllegalArgumentException.class, () -> orders.getOrder(paid), "archived orders are not live");
+        assertEquals(OrderStatus.CREATED, orders.getOrder(open).getStatus(), "open order is untouched");
+
+        ArchivedOrder archived = orders.getArchivedOrder(paid);
+        assertEquals(7, archived.getTableNumber(), "table");
+        assertEquals(OrderStatus.PAID, archived.getStatus(), "status");
+        assertEquals(42, archived.getClosedAtMillis(), "close time from the retention clock");
+        assertEquals(2 * 1_250 + 800, archived.getTotalPriceMinor(), "total");
+        assertEquals(2, archived.getNumOfLines(), "lines");
+        assertEquals("Soup", archived.getDishName(0), "first line dish");
+        assertEquals(2, archived.getQuantity(0), "first line quantity");
+        assertEquals(1_250, archived.getUnitPriceMinor(0), "first line price");
+        assertEquals(OrderStatus.CANCELLED, orders.getArchivedOrder(cancelled).getStatus(), "cancelled too");
+
+        orders.removeOrder(paid);
+        assertEquals(null, orders.getArchivedOrder(paid), "removeOrder forgets an archived order");
+        assertEquals(1, orders.getArchive().size(), "archive size after remove");
+    }
+
+    private static void evictsByCount() {
+        OrderService orders = new OrderService();
+        orders.setRetention(new OrderRetention().setMaxArchivedOrders(3));
+        int[] ids = new int[5];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = orders.addOrder(order(i + 1, 1));
+            orders.getOrder(ids[i]).setStatus(OrderStatus.PAID);
+        }
+        assertEquals(3, orders.getArchive().size(), "archive holds maxArchivedOrders");
+        assertEquals(2, orders.getArchive().getNumOfEvicted(), "two evicted");
+        assertEquals(null, orders.getArchivedOrder(ids[0]), "oldest order evicted");
+        assertEquals(null, orders.getArchivedOrder(ids[1]), "second oldest order evicted");
+        for (int i = 2; i < ids.length; i++) {
+            assertEquals(i + 1, orders.getArchivedOrder(ids[i]).getTableNumber(), "newest orders kept");
+        }
+    }
+
+    private static void evictsByAge() {
+        AtomicLong now = new AtomicLong();
+        OrderService orders = new OrderService();
+        orders.setRetention(new OrderRetention().setMaxAgeMillis(1_000).setClock(now::get));
+        int first = orders.addOrder(order(1, 1));
+        orders.getOrder(first).setStatus(OrderStatus.PAID);
+        now.set(600);
+        int second = orders.addOrder(order(2, 1));
+        orders.getOrder(second).setStatus(OrderStatus.PAID);
+
+        now.set(1_500);
+        assertEquals(1, orders.getArchive().evictExpired(), "the order closed at 0 is too old");
+        assertEquals(null, orders.getArchivedOrder(first), "expired order is gone");
+        assertTrue(orders.getArchivedOrder(second) != null, "the order closed at 600 is kept");
+
+        now.set(2_000);
+        int third = orders.addOrder(order(3, 1));
+        orders.getOrder(third).setStatus(OrderStatus.PAID);
+        assertEquals(null, orders.getArchivedOrder(second), "add() evicts expired orders too");
+        assertEquals(1, orders.getArchive().size(), "only the newest order is left");
+        assertEquals(2, orders.getArchive().getNumOfEvicted(), "evicted by age");
+    }
+
+    private static Order order(int tableNumber, int soups) {
+        Order order = new Order(tableNumber);
+        order.addDish(SOUP, soups);
+        order.addDish(TEA, 1);
+        return order;
+    }
+}
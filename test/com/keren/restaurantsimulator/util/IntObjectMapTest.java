@@ -0,0 +1,164 @@
+package com.keren.restaurantsimulator.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static com.keren.restaurantsimulator.Check.assertEquals;
+import static com.keren.restaurantsimulator.Check.assertThrows;
+import static com.keren.restaurantsimulator.Check.assertTrue;
+
+/**
+ * IntObjectMap in dense mode (small ids), hashed mode (spread and negative
+ * keys), the switch between them, and deletes against a LinkedHashMap.
+ */
+public final class IntObjectMapTest {
+
+    private IntObjectMapTest() {}
+
+    public static void main(String[] args) {
+        run();
+        System.out.println("IntObjectMapTest passed");
+    }
+
+    public static void run() {
+        denseKeys();
+        hashedKeys();
+        switchToHashedKeepsEntries();
+        insertionOrder();
+        removeMatchesLinkedHashMap(200);          // stays dense
+        removeMatchesLinkedHashMap(1 << 30);      // hashed, long probe chains to shift back
+        compactsUnderChurn();
+        valuesViewFailsFast();
+        copyIsIndependent();
+        assertThrows(IllegalArgumentException.class, () -> new IntObjectMap<String>().put(1, null),
+                "null values are rejected");
+    }
+
+    private static void denseKeys() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        for (int id = 1; id <= 1_000; id++) {
+            map.put(id, "v" + id);
+        }
+        assertEquals(1_000, map.size(), "size after 1000 puts");
+        assertEquals("v1", map.get(1), "first id");
+        assertEquals("v1000", map.get(1_000), "last id");
+        assertEquals(null, map.get(0), "missing id below the range");
+        assertEquals(null, map.get(1_001), "missing id above the range");
+        assertEquals("v7", map.put(7, "seven"), "put returns the previous value");
+        assertEquals("seven", map.get(7), "re-put replaces the value");
+        assertEquals(1_000, map.size(), "re-put does not add an entry");
+    }
+
+    private static void hashedKeys() {
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        int[] keys = {Integer.MIN_VALUE, -1, 0, 1, 1 << 20, Integer.MAX_VALUE, -123_456_789};
+        for (int key : keys) {
+            map.put(key, key);
+        }
+        for (int key : keys) {
+            assertEquals(Integer.valueOf(key), map.get(key), "hashed lookup of " + key);
+        }
+        assertEquals(keys.length, map.size(), "size with spread keys");
+        assertEquals(null, map.get(2), "missing key in hashed mode");
+        assertEquals(Integer.valueOf(-1), map.remove(-1), "remove a negative key");
+        assertTrue(!map.containsKey(-1), "removed key is gone");
+    }
+
+    private static void switchToHashedKeepsEntries() {
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        for (int id = 1; id <= 100; id++) {
+            map.put(id, id);
+        }
+        map.put(-5, -5); // cannot be a dense slot: switches the index to hashing
+        map.put(1_000_000_000, 0);
+        for (int id = 1; id <= 100; id++) {
+            assertEquals(Integer.valueOf(id), map.get(id), "dense entry " + id + " after the switch");
+        }
+        assertEquals(Integer.valueOf(-5), map.get(-5), "the key that caused the switch");
+        assertEquals(102, map.size(), "size after the switch");
+    }
+
+    private static void insertionOrder() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        map.put(30, "a");
+        map.put(-2, "b");
+        map.put(7, "c");
+        map.put(30, "a2"); // keeps its position, like LinkedHashMap
+        map.remove(-2);
+        map.put(-2, "d");  // removed then re-added: goes to the end
+        assertEquals(List.of("a2", "c", "d"), new ArrayList<>(map.values()), "values in insertion order");
+        List<Integer> keys = new ArrayList<>();
+        map.forEach((key, value) -> keys.add(key));
+        assertEquals(List.of(30, 7, -2), keys, "forEach in insertion order");
+    }
+
+    // Random puts and removes, checked against LinkedHashMap after every step.
+    private static void removeMatchesLinkedHashMap(int keyRange) {
+        SplittableRandom random = new SplittableRandom(keyRange);
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        Map<Integer, Integer> expected = new LinkedHashMap<>();
+        int[] keys = new int[500];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextInt(-keyRange / 2, keyRange / 2 + 1);
+        }
+        for (int step = 0; step < 50_000; step++) {
+            int key = keys[random.nextInt(keys.length)];
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key), "remove(" + key + ") at step " + step);
+            } else {
+                assertEquals(expected.put(key, step), map.put(key, step), "put(" + key + ") at step " + step);
+            }
+            assertEquals(expected.size(), map.size(), "size at step " + step);
+        }
+        for (int key : keys) {
+            assertEquals(expected.get(key), map.get(key), "final get(" + key + ")");
+        }
+        assertEquals(new ArrayList<>(expected.values()), new ArrayList<>(map.values()), "final order");
+    }
+
+    // A long-lived first entry and a stream of short-lived ones: holes must not pile up.
+    private static void compactsUnderChurn() {
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        map.put(0, 0);
+        for (int id = 1; id <= 100_000; id++) {
+            map.put(id, id);
+            if (id > 10) {
+                map.remove(id - 10);
+            }
+        }
+        assertEquals(11, map.size(), "live entries");
+        List<Integer> values = new ArrayList<>(map.values());
+        assertEquals(Integer.valueOf(0), values.get(0), "long-lived entry stays first");
+        assertEquals(Integer.valueOf(100_000), values.get(values.size() - 1), "newest entry is last");
+    }
+
+    private static void valuesViewFailsFast() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        map.put(1, "a");
+        map.put(2, "b");
+        Collection<String> values = map.values();
+        Iterator<String> it = values.iterator();
+        it.next();
+        map.put(3, "c");
+        assertThrows(ConcurrentModificationException.class, it::next, "iterating after a put");
+        assertEquals(3, values.size(), "the view is live");
+    }
+
+    private static void copyIsIndependent() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        map.put(1, "a");
+        map.put(-9, "b");
+        IntObjectMap<String> copy = map.copy();
+        map.remove(1);
+        copy.put(2, "c");
+        assertEquals("a", copy.get(1), "copy keeps a key removed from the original");
+        assertEquals(null, map.get(2), "original does not see the copy's put");
+        assertEquals(List.of("a", "b", "c"), new ArrayList<>(copy.values()), "copy order");
+    }
+}